@@ -0,0 +1,491 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the codecs of the data sets marked with org.theta4j.ptp.data.PtpDataset.
+ * <p>
+ * The codec of a data set is the package-private class named the data set followed by "Codec".
+ * It decodes the runs of the fixed-width integer fields by absolute gets at the offsets computed here,
+ * in place when the reader is on a buffer, and encodes the fields, compares and prints them in straight-line code,
+ * without builders or reflection.
+ * <p>
+ * The annotations are read by their names, so that this processor does not depend on lib.
+ */
+@SupportedAnnotationTypes({PtpDatasetProcessor.DATASET_ANNOTATION, PtpDatasetProcessor.FIELD_ANNOTATION})
+public final class PtpDatasetProcessor extends AbstractProcessor {
+    static final String DATASET_ANNOTATION = "org.theta4j.ptp.data.PtpDataset";
+    static final String FIELD_ANNOTATION = "org.theta4j.ptp.data.PtpField";
+
+    private static final String TYPE_PACKAGE = "org.theta4j.ptp.type.";
+
+    // AbstractProcessor
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            if (!annotation.getQualifiedName().contentEquals(DATASET_ANNOTATION)) {
+                // PtpField is read from the fields of the data sets.
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element instanceof TypeElement) {
+                    process((TypeElement) element);
+                }
+            }
+        }
+        return true;
+    }
+
+    // Private Method
+
+    private void process(TypeElement dataset) {
+        List<Field> fields = new ArrayList<>();
+        for (VariableElement element : ElementFilter.fieldsIn(dataset.getEnclosedElements())) {
+            String dataType = dataTypeOf(element);
+            if (dataType == null) {
+                continue;
+            }
+
+            Kind kind = Kind.of(dataType);
+            if (kind == null) {
+                error(element, "The data type " + dataType + " can not be a field of a data set.");
+                return;
+            }
+
+            Field field = new Field(element, dataType, kind);
+            if (field.isCode() && kind != Kind.FIXED && kind != Kind.FIXED_128) {
+                error(element, "Only an integer field can be a Code.");
+                return;
+            }
+            if (!hasGetter(dataset, field)) {
+                error(element, "The field " + field.name + " must have the getter " + field.getter() + "().");
+                return;
+            }
+            fields.add(field);
+        }
+
+        if (fields.isEmpty()) {
+            error(dataset, "The data set has no field annotated with PtpField.");
+            return;
+        }
+        if (!hasConstructor(dataset, fields)) {
+            error(dataset, "The data set must have the constructor which takes the fields in the declaration order.");
+            return;
+        }
+
+        String packageName = ((PackageElement) dataset.getEnclosingElement()).getQualifiedName().toString();
+        String codecName = dataset.getSimpleName() + "Codec";
+        try {
+            Writer writer = processingEnv.getFiler()
+                    .createSourceFile(packageName + "." + codecName, dataset)
+                    .openWriter();
+            try (PrintWriter out = new PrintWriter(writer)) {
+                new CodecWriter(out, packageName, dataset.getSimpleName().toString(), codecName, fields).write();
+            }
+        } catch (IOException e) {
+            error(dataset, "Failed to write " + codecName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the name of the data type in PtpField of the field, or null if the field is not annotated.
+     */
+    private static String dataTypeOf(VariableElement element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!type.getQualifiedName().contentEquals(FIELD_ANNOTATION)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    return ((VariableElement) entry.getValue().getValue()).getSimpleName().toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasGetter(TypeElement dataset, Field field) {
+        for (ExecutableElement method : ElementFilter.methodsIn(dataset.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(field.getter())
+                    && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasConstructor(TypeElement dataset, List<Field> fields) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(dataset.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (constructor.getModifiers().contains(Modifier.PRIVATE) || parameters.size() != fields.size()) {
+                continue;
+            }
+
+            boolean matches = true;
+            for (int i = 0; i < fields.size(); i++) {
+                if (!processingEnv.getTypeUtils().isSameType(parameters.get(i).asType(), fields.get(i).type)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    // Inner Types
+
+    /**
+     * The way to encode and decode a data type.
+     */
+    private enum Kind {
+        /**
+         * INT8 to UINT64, which are decoded from the bulk read bytes.
+         */
+        FIXED,
+
+        /**
+         * INT128 and UINT128, which are fixed-width but read one by one.
+         */
+        FIXED_128,
+
+        ARRAY,
+
+        STRING;
+
+        static Kind of(String dataType) {
+            switch (dataType) {
+                case "INT8":
+                case "UINT8":
+                case "INT16":
+                case "UINT16":
+                case "INT32":
+                case "UINT32":
+                case "INT64":
+                case "UINT64":
+                    return FIXED;
+                case "INT128":
+                case "UINT128":
+                    return FIXED_128;
+                case "STR":
+                    return STRING;
+                default:
+                    return dataType.startsWith("A") ? ARRAY : null;
+            }
+        }
+    }
+
+    private static final class Field {
+        final String name;
+        final TypeMirror type;
+        final String dataType;
+        final Kind kind;
+
+        Field(VariableElement element, String dataType, Kind kind) {
+            this.name = element.getSimpleName().toString();
+            this.type = element.asType();
+            this.dataType = dataType;
+            this.kind = kind;
+        }
+
+        String getter() {
+            return "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+
+        /**
+         * Returns the class of the integer, or of the elements of the array.
+         */
+        String integerType() {
+            return TYPE_PACKAGE + (kind == Kind.ARRAY ? dataType.substring(1) : dataType);
+        }
+
+        /**
+         * Returns the Java type of the data type, such as List of UINT16 for AUINT16.
+         */
+        String javaType() {
+            switch (kind) {
+                case ARRAY:
+                    return "java.util.List<" + integerType() + ">";
+                case STRING:
+                    return "java.lang.String";
+                default:
+                    return integerType();
+            }
+        }
+
+        /**
+         * Returns true if the field is a Code of the data type, rather than the Java type of the data type itself.
+         */
+        boolean isCode() {
+            return !type.toString().equals(javaType());
+        }
+
+        int sizeInBytes() {
+            switch (dataType) {
+                case "INT8":
+                case "UINT8":
+                    return 1;
+                case "INT16":
+                case "UINT16":
+                    return 2;
+                case "INT32":
+                case "UINT32":
+                    return 4;
+                case "INT64":
+                case "UINT64":
+                    return 8;
+                default:
+                    return 16;
+            }
+        }
+    }
+
+    private static final class CodecWriter {
+        private final PrintWriter out;
+        private final String packageName;
+        private final String datasetName;
+        private final String codecName;
+        private final List<Field> fields;
+
+        CodecWriter(PrintWriter out, String packageName, String datasetName, String codecName, List<Field> fields) {
+            this.out = out;
+            this.packageName = packageName;
+            this.datasetName = datasetName;
+            this.codecName = codecName;
+            this.fields = fields;
+        }
+
+        void write() {
+            out.println("// Generated by " + PtpDatasetProcessor.class.getName() + " from " + datasetName + ". Do not edit.");
+            out.println();
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("final class " + codecName + " {");
+            out.println("    // Size of the fixed-width fields.");
+            out.println("    static final int FIXED_SIZE_IN_BYTES = " + fixedSizeInBytes() + ";");
+            out.println();
+            out.println("    private " + codecName + "() {");
+            out.println("    }");
+            writeRead();
+            writeSizeInBytes();
+            writeWriteTo();
+            writeEquals();
+            writeHashCode();
+            writeToString();
+            out.println("}");
+        }
+
+        private int fixedSizeInBytes() {
+            int size = 0;
+            for (Field field : fields) {
+                if (field.kind == Kind.FIXED || field.kind == Kind.FIXED_128) {
+                    size += field.sizeInBytes();
+                }
+            }
+            return size;
+        }
+
+        private void writeRead() {
+            out.println();
+            out.println("    static " + datasetName + " read(org.theta4j.ptp.io.PtpReader reader) throws java.io.IOException {");
+
+            int run = 0;
+            for (int i = 0; i < fields.size(); ) {
+                int end = i;
+                int runSize = 0;
+                while (end < fields.size() && fields.get(end).kind == Kind.FIXED) {
+                    runSize += fields.get(end).sizeInBytes();
+                    end++;
+                }
+
+                if (end - i < 2) {
+                    Field field = fields.get(i);
+                    out.println("        " + field.type + " " + field.name + " = " + decode(field, "reader.read" + readMethod(field) + "()") + ";");
+                    i++;
+                    continue;
+                }
+
+                // The run of the fixed-width fields is decoded at the precomputed offsets by absolute gets,
+                // in place if the reader is on a buffer, or from the bytes of a bulk read otherwise.
+                String runReader = "runReader" + run;
+                String index = "runIndex" + run;
+                String bytes = "run" + run;
+                run++;
+                out.println("        org.theta4j.ptp.io.PtpByteBufferReader " + runReader + ";");
+                out.println("        int " + index + ";");
+                out.println("        if (reader instanceof org.theta4j.ptp.io.PtpByteBufferReader) {");
+                out.println("            " + runReader + " = (org.theta4j.ptp.io.PtpByteBufferReader) reader;");
+                out.println("            " + index + " = " + runReader + ".skip(" + runSize + ");");
+                out.println("        } else {");
+                out.println("            byte[] " + bytes + " = new byte[" + runSize + "];");
+                out.println("            reader.readFully(" + bytes + ");");
+                out.println("            " + runReader + " = new org.theta4j.ptp.io.PtpByteBufferReader(java.nio.ByteBuffer.wrap(" + bytes + "));");
+                out.println("            " + index + " = 0;");
+                out.println("        }");
+                int offset = 0;
+                for (; i < end; i++) {
+                    Field field = fields.get(i);
+                    out.println("        " + field.type + " " + field.name + " = "
+                            + decode(field, runReader + ".get" + field.dataType + "(" + index + " + " + offset + ")") + ";");
+                    offset += field.sizeInBytes();
+                }
+            }
+
+            out.println();
+            out.print("        return new " + datasetName + "(");
+            for (int i = 0; i < fields.size(); i++) {
+                out.print((i == 0 ? "" : ", ") + fields.get(i).name);
+            }
+            out.println(");");
+            out.println("    }");
+        }
+
+        private static String readMethod(Field field) {
+            switch (field.dataType) {
+                case "AUINT16":
+                    return "UINT16Array";
+                case "AUINT32":
+                    return "UINT32Array";
+                case "STR":
+                    return "String";
+                default:
+                    return field.dataType;
+            }
+        }
+
+        private static String decode(Field field, String integer) {
+            return field.isCode() ? field.type + ".valueOf(" + integer + ")" : integer;
+        }
+
+        private void writeSizeInBytes() {
+            out.println();
+            out.println("    static int sizeInBytes(" + datasetName + " self) {");
+            out.print("        return FIXED_SIZE_IN_BYTES");
+            for (Field field : fields) {
+                if (field.kind == Kind.STRING) {
+                    out.println();
+                    out.print("                + org.theta4j.ptp.type.PtpStringCodec.sizeOfSTR(self." + field.getter() + "())");
+                } else if (field.kind == Kind.ARRAY) {
+                    out.println();
+                    out.print("                + org.theta4j.ptp.type.UINT32.SIZE_IN_BYTES + self." + field.getter()
+                            + "().size() * " + field.integerType() + ".SIZE_IN_BYTES");
+                }
+            }
+            out.println(";");
+            out.println("    }");
+        }
+
+        private void writeWriteTo() {
+            out.println();
+            out.println("    static void writeTo(" + datasetName + " self, java.nio.ByteBuffer buffer) {");
+            for (Field field : fields) {
+                String value = "self." + field.getter() + "()";
+                switch (field.kind) {
+                    case STRING:
+                        out.println("        org.theta4j.ptp.type.PtpStringCodec.writeSTR(" + value + ", buffer);");
+                        break;
+                    case ARRAY:
+                        out.println("        org.theta4j.ptp.type.UINT32.valueOf(" + value + ".size()).writeTo(buffer);");
+                        out.println("        for (" + field.integerType() + " element : " + value + ") {");
+                        out.println("            element.writeTo(buffer);");
+                        out.println("        }");
+                        break;
+                    default:
+                        out.println("        " + value + (field.isCode() ? ".value()" : "") + ".writeTo(buffer);");
+                        break;
+                }
+            }
+            out.println("    }");
+        }
+
+        private void writeEquals() {
+            out.println();
+            out.println("    static boolean equals(" + datasetName + " self, Object o) {");
+            out.println("        if (self == o) {");
+            out.println("            return true;");
+            out.println("        }");
+            out.println();
+            out.println("        if (o == null || self.getClass() != o.getClass()) {");
+            out.println("            return false;");
+            out.println("        }");
+            out.println();
+            out.println("        " + datasetName + " rhs = (" + datasetName + ") o;");
+            out.println();
+            for (int i = 0; i < fields.size(); i++) {
+                String getter = fields.get(i).getter() + "()";
+                out.println((i == 0 ? "        return " : "                && ")
+                        + "self." + getter + ".equals(rhs." + getter + ")"
+                        + (i == fields.size() - 1 ? ";" : ""));
+            }
+            out.println("    }");
+        }
+
+        private void writeHashCode() {
+            out.println();
+            out.println("    static int hashCode(" + datasetName + " self) {");
+            out.println("        int result = 17;");
+            for (Field field : fields) {
+                out.println("        result = 31 * result + self." + field.getter() + "().hashCode();");
+            }
+            out.println("        return result;");
+            out.println("    }");
+        }
+
+        private void writeToString() {
+            out.println();
+            out.println("    static String toString(" + datasetName + " self) {");
+            out.println("        return new StringBuilder()");
+            out.println("                .append(self.getClass().getName())");
+            out.println("                .append('@')");
+            out.println("                .append(Integer.toHexString(System.identityHashCode(self)))");
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                out.println("                .append(\"" + (i == 0 ? "[" : ",") + field.name + "=\").append(self." + field.getter() + "())");
+            }
+            out.println("                .append(']')");
+            out.println("                .toString();");
+            out.println("    }");
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.codegen;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.theta4j.ptp.data.ObjectInfo;
+import org.theta4j.ptp.data.PtpField;
+import org.theta4j.ptp.io.PtpByteBufferReader;
+import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
+import org.theta4j.ptp.type.UINT16;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT64;
+import org.theta4j.ptp.type.UINT8;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.assertThat;
+
+public class PtpDatasetProcessorTest {
+    // The fixed-width fields are in the runs of (a, b, protectionStatus) and (c, d), and flag is read alone.
+    private static final String[] SAMPLE_FIELDS = {
+            "@PtpField(DataType.UINT16) private final UINT16 a;",
+            "@PtpField(DataType.UINT32) private final UINT32 b;",
+            "@PtpField(DataType.UINT16) private final ProtectionStatus protectionStatus;",
+            "@PtpField(DataType.STR) private final String name;",
+            "@PtpField(DataType.UINT8) private final UINT8 flag;",
+            "@PtpField(DataType.AUINT16) private final List<UINT16> list;",
+            "@PtpField(DataType.UINT64) private final UINT64 c;",
+            "@PtpField(DataType.UINT16) private final UINT16 d;",
+            "public Sample(UINT16 a, UINT32 b, ProtectionStatus protectionStatus, String name, UINT8 flag, List<UINT16> list, UINT64 c, UINT16 d) {",
+            "    this.a = a; this.b = b; this.protectionStatus = protectionStatus; this.name = name;",
+            "    this.flag = flag; this.list = list; this.c = c; this.d = d;",
+            "}",
+            "public UINT16 getA() { return a; }",
+            "public UINT32 getB() { return b; }",
+            "public ProtectionStatus getProtectionStatus() { return protectionStatus; }",
+            "public String getName() { return name; }",
+            "public UINT8 getFlag() { return flag; }",
+            "public List<UINT16> getList() { return list; }",
+            "public UINT64 getC() { return c; }",
+            "public UINT16 getD() { return d; }"
+    };
+
+    private static final byte[] SAMPLE_BYTES = new byte[]{
+            0x01, 0x02, // a
+            0x03, 0x04, 0x05, 0x06, // b
+            0x01, 0x00, // protectionStatus
+            0x02, 0x41, 0x00, 0x00, 0x00, // name
+            0x07, // flag
+            0x01, 0x00, 0x00, 0x00, 0x08, 0x09, // list
+            0x0A, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, // c
+            0x0C, 0x0B // d
+    };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    private File classes;
+    private File generated;
+
+    @Before
+    public void setUp() throws IOException {
+        classes = temporaryFolder.newFolder("classes");
+        generated = temporaryFolder.newFolder("generated");
+    }
+
+    // Offsets
+
+    @Test
+    public void offsets() throws Exception {
+        // act
+        assertThat(compile(SAMPLE_FIELDS), is(true));
+
+        // verify
+        String codec = new String(Files.readAllBytes(new File(generated, "sample/SampleCodec.java").toPath()), StandardCharsets.UTF_8);
+        assertThat(codec, containsString("FIXED_SIZE_IN_BYTES = 19;"));
+        assertThat(codec, containsString("runIndex0 = runReader0.skip(8);"));
+        assertThat(codec, containsString("a = runReader0.getUINT16(runIndex0 + 0);"));
+        assertThat(codec, containsString("b = runReader0.getUINT32(runIndex0 + 2);"));
+        assertThat(codec, containsString("protectionStatus = org.theta4j.ptp.data.ObjectInfo.ProtectionStatus.valueOf(runReader0.getUINT16(runIndex0 + 6));"));
+        assertThat(codec, containsString("flag = reader.readUINT8();"));
+        assertThat(codec, containsString("runIndex1 = runReader1.skip(10);"));
+        assertThat(codec, containsString("c = runReader1.getUINT64(runIndex1 + 0);"));
+        assertThat(codec, containsString("d = runReader1.getUINT16(runIndex1 + 8);"));
+    }
+
+    // Round Trip
+
+    @Test
+    public void writeTo() throws Exception {
+        // given
+        assertThat(compile(SAMPLE_FIELDS), is(true));
+        Codec codec = new Codec(classLoader());
+        Object sample = codec.newSample();
+
+        // act
+        ByteBuffer actual = ByteBuffer.allocate(codec.sizeInBytes(sample));
+        codec.writeTo(sample, actual);
+
+        // verify
+        assertThat(actual.array(), is(SAMPLE_BYTES));
+    }
+
+    @Test
+    public void readFromBuffer() throws Exception {
+        // given
+        assertThat(compile(SAMPLE_FIELDS), is(true));
+        Codec codec = new Codec(classLoader());
+        ByteBuffer given = ByteBuffer.allocate(SAMPLE_BYTES.length + 2);
+        given.put((byte) 0xFF).put(SAMPLE_BYTES).put((byte) 0xFF);
+        given.position(1);
+        PtpByteBufferReader reader = new PtpByteBufferReader(given);
+
+        // act
+        Object actual = codec.read(reader);
+
+        // verify
+        assertThat(codec.equals(actual, codec.newSample()), is(true));
+        assertThat(reader.position(), is(SAMPLE_BYTES.length + 1));
+    }
+
+    @Test
+    public void readFromStream() throws Exception {
+        // given
+        assertThat(compile(SAMPLE_FIELDS), is(true));
+        Codec codec = new Codec(classLoader());
+        PtpInputStream given = new PtpInputStream(new ByteArrayInputStream(SAMPLE_BYTES));
+
+        // act
+        Object actual = codec.read(given);
+
+        // verify
+        assertThat(codec.equals(actual, codec.newSample()), is(true));
+        assertThat(given.read(), is(-1));
+    }
+
+    // Diagnostics
+
+    @Test
+    public void missingGetter() throws Exception {
+        // act
+        boolean actual = compile(
+                "@PtpField(DataType.UINT16) private final UINT16 a;",
+                "public Sample(UINT16 a) { this.a = a; }"
+        );
+
+        // verify
+        assertThat(actual, is(false));
+        assertThat(errors(), is(Collections.singletonList("The field a must have the getter getA().")));
+    }
+
+    @Test
+    public void missingConstructor() throws Exception {
+        // act
+        boolean actual = compile(
+                "@PtpField(DataType.UINT16) private final UINT16 a;",
+                "@PtpField(DataType.UINT32) private final UINT32 b;",
+                "public Sample(UINT32 b, UINT16 a) { this.a = a; this.b = b; }",
+                "public UINT16 getA() { return a; }",
+                "public UINT32 getB() { return b; }"
+        );
+
+        // verify
+        assertThat(actual, is(false));
+        assertThat(errors(), is(Collections.singletonList(
+                "The data set must have the constructor which takes the fields in the declaration order.")));
+    }
+
+    @Test
+    public void codeOfNonIntegerField() throws Exception {
+        // act
+        boolean actual = compile(
+                "@PtpField(DataType.STR) private final ProtectionStatus name;",
+                "public Sample(ProtectionStatus name) { this.name = name; }",
+                "public ProtectionStatus getName() { return name; }"
+        );
+
+        // verify
+        assertThat(actual, is(false));
+        assertThat(errors(), is(Collections.singletonList("Only an integer field can be a Code.")));
+    }
+
+    // Private Method
+
+    /**
+     * Compiles the data set Sample of the members, and returns true if succeeded.
+     */
+    private boolean compile(String... members) throws IOException, URISyntaxException {
+        StringBuilder source = new StringBuilder()
+                .append("package sample;\n")
+                .append("import org.theta4j.ptp.data.ObjectInfo.ProtectionStatus;\n")
+                .append("import org.theta4j.ptp.data.PtpDataset;\n")
+                .append("import org.theta4j.ptp.data.PtpField;\n")
+                .append("import org.theta4j.ptp.type.*;\n")
+                .append("import java.util.List;\n")
+                .append("@PtpDataset\n")
+                .append("public final class Sample {\n");
+        for (String member : members) {
+            source.append("    ").append(member).append('\n');
+        }
+        source.append("}\n");
+
+        File sourceFile = new File(temporaryFolder.newFolder("sample"), "Sample.java");
+        Files.write(sourceFile.toPath(), source.toString().getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.US, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList(
+                    "-classpath", classPath(PtpDatasetProcessor.class, PtpField.class),
+                    "-processor", PtpDatasetProcessor.class.getName(),
+                    "-d", classes.getPath(),
+                    "-s", generated.getPath());
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sourceFile);
+            return compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+        }
+    }
+
+    private ClassLoader classLoader() throws IOException {
+        return new URLClassLoader(new URL[]{classes.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    private static String classPath(Class<?>... classes) throws URISyntaxException {
+        StringBuilder classPath = new StringBuilder();
+        for (Class<?> clazz : classes) {
+            if (classPath.length() != 0) {
+                classPath.append(File.pathSeparatorChar);
+            }
+            classPath.append(new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath());
+        }
+        return classPath.toString();
+    }
+
+    private List<String> errors() {
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(Locale.US));
+            }
+        }
+        return errors;
+    }
+
+    // Inner Types
+
+    /**
+     * The generated SampleCodec, which is package-private.
+     */
+    private static final class Codec {
+        private final Class<?> sampleClass;
+        private final Class<?> codecClass;
+
+        Codec(ClassLoader classLoader) throws ClassNotFoundException {
+            this.sampleClass = classLoader.loadClass("sample.Sample");
+            this.codecClass = classLoader.loadClass("sample.SampleCodec");
+        }
+
+        /**
+         * Returns the Sample encoded to SAMPLE_BYTES.
+         */
+        Object newSample() throws ReflectiveOperationException {
+            Constructor<?> constructor = sampleClass.getConstructors()[0];
+            return constructor.newInstance(
+                    UINT16.valueOf(0x0201),
+                    UINT32.valueOf(0x06050403),
+                    ObjectInfo.ProtectionStatus.READ_ONLY,
+                    "A",
+                    UINT8.valueOf(0x07),
+                    Collections.singletonList(UINT16.valueOf(0x0908)),
+                    new UINT64(0x0A),
+                    UINT16.valueOf(0x0B0C));
+        }
+
+        Object read(PtpReader reader) throws ReflectiveOperationException {
+            return method("read", PtpReader.class).invoke(null, reader);
+        }
+
+        int sizeInBytes(Object sample) throws ReflectiveOperationException {
+            return (int) method("sizeInBytes", sampleClass).invoke(null, sample);
+        }
+
+        void writeTo(Object sample, ByteBuffer buffer) throws ReflectiveOperationException {
+            method("writeTo", sampleClass, ByteBuffer.class).invoke(null, sample, buffer);
+        }
+
+        boolean equals(Object sample, Object o) throws ReflectiveOperationException {
+            return (boolean) method("equals", sampleClass, Object.class).invoke(null, sample, o);
+        }
+
+        private Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+            Method method = codecClass.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        }
+    }
+}
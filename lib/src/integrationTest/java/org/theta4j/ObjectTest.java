@@ -13,9 +13,13 @@ import org.theta4j.util.Closer;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -65,6 +69,28 @@ public class ObjectTest extends BaseThetaTest {
         }
     }
 
+    @Test
+    public void getObjectToFile() throws IOException {
+        final Path tempFile = Files.createTempFile("theta4j", ".jpg");
+        try {
+            theta.getObject(objectHandle, tempFile);
+            assertThat(Files.size(tempFile), is(theta.getObjectInfo(objectHandle).getObjectCompressedSize().longValue()));
+        } finally {
+            Files.delete(tempFile);
+        }
+    }
+
+    @Test
+    public void getObjectMapped() throws IOException {
+        final Path tempFile = Files.createTempFile("theta4j", ".jpg");
+        try {
+            MappedByteBuffer buffer = theta.getObjectMapped(objectHandle, tempFile);
+            assertThat((long) buffer.remaining(), is(theta.getObjectInfo(objectHandle).getObjectCompressedSize().longValue()));
+        } finally {
+            Files.delete(tempFile);
+        }
+    }
+
     @Test
     public void getThumb() throws IOException {
         final Closer closer = new Closer();
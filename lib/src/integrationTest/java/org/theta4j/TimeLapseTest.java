@@ -7,17 +7,22 @@ package org.theta4j;
 import org.junit.After;
 import org.junit.Test;
 import org.theta4j.data.StillCaptureMode;
+import org.theta4j.ptp.data.ObjectInfo;
 import org.theta4j.ptp.type.UINT32;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 public class TimeLapseTest extends BaseThetaTest {
     private static final int NUM_OF_CAPTURE = 2;
@@ -87,4 +92,40 @@ public class TimeLapseTest extends BaseThetaTest {
 
         assertThat(objectHandles.size(), is(NUM_OF_CAPTURE));
     }
+
+    @Test
+    public void ingestWithTimelapseIngester() throws IOException, InterruptedException {
+        theta.setTimelapseInterval(INTERVAL);
+        theta.setTimelapseNumber(0);
+
+        theta.setStillCaptureMode(StillCaptureMode.TIME_LAPSE);
+
+        Path directory = Files.createTempDirectory("timelapse");
+        TimelapseIngester ingester = new TimelapseIngester.Builder(directory)
+                .interval(INTERVAL, TimeUnit.MILLISECONDS)
+                .listener(new IngestListener() {
+                    @Override
+                    public void onObjectIngested(ObjectInfo objectInfo, Path file) {
+                    }
+
+                    @Override
+                    public void onIngestFailed(UINT32 objectHandle, Throwable cause) {
+                        objectHandles.add(objectHandle);
+                    }
+                })
+                .deleteAfterDownload(true)
+                .start(theta);
+
+        theta.initiateOpenCapture();
+
+        Thread.sleep(INTERVAL * NUM_OF_CAPTURE + POSTPONEMENT);
+
+        theta.terminateOpenCapture();
+        ingester.close();
+
+        assertThat(ingester.getMetrics().getIngestCount(), is((long) NUM_OF_CAPTURE));
+        assertThat(ingester.getMetrics().getLateCount(), is(0L));
+        assertTrue(Files.exists(directory.resolve("frame_000000.JPG")));
+        assertTrue(Files.exists(directory.resolve("frame_000001.JPG")));
+    }
 }
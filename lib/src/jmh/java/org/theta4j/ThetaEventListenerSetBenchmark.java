@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.theta4j.ptp.code.EventCode;
+import org.theta4j.ptp.data.Event;
+import org.theta4j.ptp.type.UINT32;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for dispatching events to the registered listeners.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThetaEventListenerSetBenchmark {
+    private static final UINT32 SESSION_ID = new UINT32(1);
+    private static final UINT32 TRANSACTION_ID = new UINT32(2);
+
+    @Param({"1", "8"})
+    private int listeners;
+
+    private final ThetaEventListenerSet listenerSet = new ThetaEventListenerSet();
+
+    private Event objectAdded;
+    private Event captureStatusChanged;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        for (int i = 0; i < listeners; i++) {
+            listenerSet.add(new ThetaEventAdapter() {
+                @Override
+                public void onObjectAdded(UINT32 objectHandle) {
+                    blackhole.consume(objectHandle);
+                }
+
+                @Override
+                public void onCaptureStatusChanged() {
+                    blackhole.consume(this);
+                }
+            });
+        }
+
+        objectAdded = new Event(EventCode.OBJECT_ADDED.value(), SESSION_ID, TRANSACTION_ID, new UINT32(3));
+        captureStatusChanged = new Event(EventCode.DEVICE_PROP_CHANGED.value(), SESSION_ID, TRANSACTION_ID,
+                new UINT32(DevicePropCode.CAPTURE_STATUS.value().longValue()));
+    }
+
+    @Benchmark
+    public void raiseObjectAdded() {
+        listenerSet.raise(objectAdded);
+    }
+
+    @Benchmark
+    public void raiseDevicePropChanged() {
+        listenerSet.raise(captureStatusChanged);
+    }
+}
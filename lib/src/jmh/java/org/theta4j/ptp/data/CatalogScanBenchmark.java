@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.data;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.theta4j.ptp.data.ObjectInfo.ProtectionStatus;
+import org.theta4j.ptp.type.UINT16;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT32Array;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sustained scan of the catalog, which decodes the object handles and the ObjectInfo of every object.
+ * <p>
+ * Run by the jmh task, whose GC profiler reports the allocation rate, GC count and GC time.
+ * scanWithFinalizableCloser registers a finalizable object per ObjectInfo as the dataset readers used to,
+ * which survives an extra GC cycle through the finalizer queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogScanBenchmark {
+    @Param({"1000"})
+    private int numObjects;
+
+    private byte[] objectHandlesBytes;
+    private byte[][] objectInfoBytes;
+
+    @Setup
+    public void setUp() {
+        ByteBuffer handles = ByteBuffer.allocate(UINT32.SIZE_IN_BYTES * (numObjects + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        handles.putInt(numObjects);
+
+        objectInfoBytes = new byte[numObjects][];
+        for (int i = 0; i < numObjects; i++) {
+            handles.putInt(0x00010001 + i);
+
+            String filename = String.format(Locale.US, "R%07d.JPG", i + 1);
+            ObjectInfo objectInfo = new ObjectInfo(
+                    new UINT32(0x00010001), new UINT16(0x3801), ProtectionStatus.NO_PROTECTION, new UINT32(4 * 1024 * 1024),
+                    new UINT16(0x3808), new UINT32(8192), new UINT32(160), new UINT32(120),
+                    new UINT32(5376), new UINT32(2688), new UINT32(24),
+                    new UINT32(0), new UINT16(0), new UINT32(0), new UINT32(0),
+                    filename, "20150101T120000", "20150101T120000", "");
+            objectInfoBytes[i] = objectInfo.bytes();
+        }
+
+        objectHandlesBytes = handles.array();
+    }
+
+    @Benchmark
+    public void scanFromStream(Blackhole blackhole) throws IOException {
+        blackhole.consume(UINT32Array.read(new ByteArrayInputStream(objectHandlesBytes)));
+        for (byte[] bytes : objectInfoBytes) {
+            blackhole.consume(ObjectInfo.read(new ByteArrayInputStream(bytes)));
+        }
+    }
+
+    @Benchmark
+    public void scanFromByteBuffer(Blackhole blackhole) throws IOException {
+        blackhole.consume(UINT32Array.read(ByteBuffer.wrap(objectHandlesBytes)));
+        for (byte[] bytes : objectInfoBytes) {
+            blackhole.consume(ObjectInfo.read(ByteBuffer.wrap(bytes)));
+        }
+    }
+
+    @Benchmark
+    public void scanWithFinalizableCloser(Blackhole blackhole) throws IOException {
+        blackhole.consume(UINT32Array.read(new ByteArrayInputStream(objectHandlesBytes)));
+        for (byte[] bytes : objectInfoBytes) {
+            FinalizableCloser closer = new FinalizableCloser();
+            try {
+                blackhole.consume(ObjectInfo.read(closer.push(new ByteArrayInputStream(bytes))));
+            } finally {
+                closer.close();
+            }
+        }
+    }
+
+    /**
+     * The shape of the former util.Closer, which closed the streams from finalize() if it was not closed.
+     */
+    private static final class FinalizableCloser implements Closeable {
+        private Closeable closeable;
+        private boolean isClosed;
+
+        <T extends Closeable> T push(T closeable) {
+            this.closeable = closeable;
+            return closeable;
+        }
+
+        @Override
+        public void close() throws IOException {
+            isClosed = true;
+            if (closeable != null) {
+                closeable.close();
+            }
+        }
+
+        @Override
+        protected void finalize() throws Throwable {
+            if (!isClosed) {
+                close();
+            }
+
+            super.finalize();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.data;
+
+import org.openjdk.jmh.annotations.*;
+import org.theta4j.ptp.data.ObjectInfo.ProtectionStatus;
+import org.theta4j.ptp.type.UINT16;
+import org.theta4j.ptp.type.UINT32;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for decoding the datasets received in the data phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatasetBenchmark {
+    private byte[] objectInfoBytes;
+    private byte[] deviceInfoBytes;
+
+    @Setup
+    public void setUp() {
+        ObjectInfo objectInfo = new ObjectInfo(
+                new UINT32(0x00010001), new UINT16(0x3801), ProtectionStatus.NO_PROTECTION, new UINT32(4 * 1024 * 1024),
+                new UINT16(0x3808), new UINT32(8192), new UINT32(160), new UINT32(120),
+                new UINT32(5376), new UINT32(2688), new UINT32(24),
+                new UINT32(0), new UINT16(0), new UINT32(0), new UINT32(0),
+                "R0010001.JPG", "20150101T120000", "20150101T120000", "");
+        objectInfoBytes = objectInfo.bytes();
+
+        DeviceInfo deviceInfo = new DeviceInfo(
+                new UINT16(100), new UINT32(6), new UINT16(110), "RICOH THETA",
+                new UINT16(0),
+                codes(0x1001, 40), codes(0x4001, 10), codes(0x5001, 30),
+                codes(0x3801, 2), codes(0x3801, 4),
+                "RICOH", "RICOH THETA S", "01.11", "00001234");
+        deviceInfoBytes = deviceInfo.bytes();
+    }
+
+    private static List<UINT16> codes(int first, int count) {
+        List<UINT16> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(new UINT16(first + i));
+        }
+        return codes;
+    }
+
+    // ObjectInfo
+
+    @Benchmark
+    public ObjectInfo readObjectInfoFromStream() throws IOException {
+        return ObjectInfo.read(new ByteArrayInputStream(objectInfoBytes));
+    }
+
+    @Benchmark
+    public ObjectInfo readObjectInfoFromByteBuffer() throws IOException {
+        return ObjectInfo.read(ByteBuffer.wrap(objectInfoBytes));
+    }
+
+    // DeviceInfo
+
+    @Benchmark
+    public DeviceInfo readDeviceInfoFromStream() throws IOException {
+        return DeviceInfo.read(new ByteArrayInputStream(deviceInfoBytes));
+    }
+
+    @Benchmark
+    public DeviceInfo readDeviceInfoFromByteBuffer() throws IOException {
+        return DeviceInfo.read(ByteBuffer.wrap(deviceInfoBytes));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for decoding object handle arrays as returned by GetObjectHandles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AUINT32Benchmark {
+    @Param({"10000", "100000"})
+    private int handles;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        ByteBuffer buffer = ByteBuffer.allocate(UINT32.SIZE_IN_BYTES * (handles + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(handles);
+        for (int i = 0; i < handles; i++) {
+            buffer.putInt(i + 1);
+        }
+        bytes = buffer.array();
+    }
+
+    @Benchmark
+    public List<UINT32> readAUINT32() throws IOException {
+        return AUINT32.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public UINT32Array readUINT32ArrayFromStream() throws IOException {
+        return UINT32Array.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public UINT32Array readUINT32ArrayFromByteBuffer() throws IOException {
+        return UINT32Array.read(ByteBuffer.wrap(bytes));
+    }
+}
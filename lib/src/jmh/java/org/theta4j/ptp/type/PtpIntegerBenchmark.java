@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for construction and decoding of PTP integers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PtpIntegerBenchmark {
+    private final byte[] uint16Bytes = new byte[]{0x01, 0x02};
+    private final byte[] uint32Bytes = new byte[]{0x01, 0x02, 0x03, 0x04};
+    private final byte[] uint64Bytes = new byte[]{0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+    private final BigInteger bigInteger = BigInteger.valueOf(0x04030201L);
+
+    private long value = 0x04030201L;
+
+    // Construction
+
+    @Benchmark
+    public UINT32 constructFromLong() {
+        return new UINT32(value);
+    }
+
+    @Benchmark
+    public UINT32 constructFromBigInteger() {
+        return new UINT32(bigInteger);
+    }
+
+    @Benchmark
+    public UINT32 constructFromBytes() {
+        return new UINT32(uint32Bytes);
+    }
+
+    @Benchmark
+    public UINT16 valueOfCached() {
+        return UINT16.valueOf(value & 0xFF);
+    }
+
+    // Read
+
+    @Benchmark
+    public UINT16 readUINT16() throws IOException {
+        return UINT16.read(new ByteArrayInputStream(uint16Bytes));
+    }
+
+    @Benchmark
+    public UINT32 readUINT32() throws IOException {
+        return UINT32.read(new ByteArrayInputStream(uint32Bytes));
+    }
+
+    @Benchmark
+    public UINT64 readUINT64() throws IOException {
+        return UINT64.read(new ByteArrayInputStream(uint64Bytes));
+    }
+
+    // Encode
+
+    @Benchmark
+    public byte[] bytesUINT32() {
+        return UINT32.MAX_VALUE.bytes();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.openjdk.jmh.annotations.*;
+import org.theta4j.ptp.code.DevicePropCode;
+import org.theta4j.ptp.code.OperationCode;
+import org.theta4j.ptp.code.ResponseCode;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT64;
+import org.theta4j.ptp.type.UINT8;
+import org.theta4j.ptpip.io.PtpIpInputStream;
+import org.theta4j.ptpip.io.PtpIpOutputStream;
+import org.theta4j.ptpip.packet.*;
+import org.theta4j.ptpip.transport.Connection;
+import org.theta4j.ptpip.transport.PipeTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of small operations against a responder on the loopback interface or an in-memory pipe,
+ * with and without coalesced writes and TCP_NODELAY.
+ * <p>
+ * The pipe transport runs the whole stack without kernel networking, and ignores TCP_NODELAY.
+ * <p>
+ * SetDevicePropValue sends the OperationRequest and the data phase back to back,
+ * so without coalescing and TCP_NODELAY the data phase waits for the delayed ACK of the request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundTripLatencyBenchmark {
+    private static final UINT8 BATTERY_LEVEL = new UINT8(100);
+
+    @Param({"TCP", "PIPE"})
+    private String transport;
+
+    @Param({"true", "false"})
+    private boolean coalesceWrites;
+
+    @Param({"true", "false"})
+    private boolean tcpNoDelay;
+
+    private Responder responder;
+    private PtpIpInitiator initiator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ConnectionOptions options = new ConnectionOptions.Builder()
+                .coalesceWrites(coalesceWrites)
+                .tcpNoDelay(tcpNoDelay)
+                .build();
+
+        if ("PIPE".equals(transport)) {
+            PipeTransport pipeTransport = new PipeTransport();
+            responder = new Responder(null, pipeTransport);
+            initiator = new PtpIpInitiator(UUID.randomUUID(), pipeTransport, options);
+        } else {
+            responder = new Responder(new ServerSocket(0, 2, InetAddress.getLoopbackAddress()), null);
+            initiator = new PtpIpInitiator(UUID.randomUUID(), "127.0.0.1", responder.getPort(), options);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        initiator.close();
+        responder.close();
+    }
+
+    @Benchmark
+    public UINT8 getDevicePropValue() throws IOException {
+        return initiator.getDevicePropValueAsUINT8(DevicePropCode.BATTERY_LEVEL);
+    }
+
+    @Benchmark
+    public void setDevicePropValue() throws IOException {
+        initiator.setDevicePropValue(DevicePropCode.BATTERY_LEVEL, BATTERY_LEVEL);
+    }
+
+    /**
+     * Answers GetDevicePropValue by a one byte value, and any other operation by OK after its data phase if any.
+     */
+    private static final class Responder {
+        private final ServerSocket serverSocket;
+        private final PipeTransport pipeTransport;
+        private final Thread thread;
+
+        private Connection commandDataConnection;
+        private Connection eventConnection;
+
+        Responder(ServerSocket serverSocket, PipeTransport pipeTransport) {
+            this.serverSocket = serverSocket;
+            this.pipeTransport = pipeTransport;
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        serve();
+                    } catch (IOException e) {
+                        // The benchmark is over.
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        void close() throws IOException, InterruptedException {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+            synchronized (this) {
+                if (commandDataConnection != null) {
+                    commandDataConnection.close();
+                }
+                if (eventConnection != null) {
+                    eventConnection.close();
+                }
+            }
+            thread.join();
+        }
+
+        private void serve() throws IOException {
+            Connection command = accept();
+            synchronized (this) {
+                commandDataConnection = command;
+            }
+            PtpIpInputStream ci = new PtpIpInputStream(command.getInputStream());
+            PtpIpOutputStream co = new PtpIpOutputStream(command.getOutputStream());
+            ci.readInitCommandRequestPacket();
+            co.write(new InitCommandAckPacket(new UINT32(1), UUID.randomUUID(), "responder", ProtocolVersions.REV_1_0));
+
+            Connection event = accept();
+            synchronized (this) {
+                eventConnection = event;
+            }
+            new PtpIpInputStream(event.getInputStream()).readInitEventRequestPacket();
+            new PtpIpOutputStream(event.getOutputStream()).write(new InitEventAckPacket());
+
+            byte[] value = new byte[]{0x64};
+            for (; ; ) {
+                OperationRequestPacket request = ci.readOperationRequestPacket();
+                UINT32 transactionID = request.getTransactionID();
+
+                if (request.getOperationCode().equals(OperationCode.GET_DEVICE_PROP_VALUE.value())) {
+                    co.append(new StartDataPacket(transactionID, new UINT64(value.length)));
+                    co.append(new EndDataPacket(transactionID, value));
+                } else if (request.getOperationCode().equals(OperationCode.SET_DEVICE_PROP_VALUE.value())) {
+                    ci.readStartData();
+                    ci.skipDataPayload();
+                }
+                co.write(new OperationResponsePacket(ResponseCode.OK.value(), transactionID));
+            }
+        }
+
+        private Connection accept() throws IOException {
+            if (pipeTransport != null) {
+                return pipeTransport.accept();
+            }
+            return new SocketConnection(serverSocket.accept());
+        }
+    }
+
+    /**
+     * The streams of an accepted socket. The responder never uses the connection as a channel.
+     */
+    private static final class SocketConnection implements Connection {
+        private final Socket socket;
+
+        SocketConnection(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return socket.getInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return socket.getOutputStream();
+        }
+
+        @Override
+        public void setReadTimeout(int timeout) throws IOException {
+            socket.setSoTimeout(timeout);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !socket.isClosed();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.io;
+
+import org.openjdk.jmh.annotations.*;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT64;
+import org.theta4j.ptpip.packet.DataPacket;
+import org.theta4j.ptpip.packet.EndDataPacket;
+import org.theta4j.ptpip.packet.StartDataPacket;
+import org.theta4j.util.DirectBufferPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives a 16 MiB data phase over a loopback TCP connection, comparing the stream transport with the channel transport.
+ * <p>
+ * One operation is one MiB, so the throughput mode reports MB/s directly.
+ * The CPU time of the receiving thread per MiB is printed at the end of each iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoopbackTransportBenchmark {
+    private static final int MIB = 1024 * 1024;
+    private static final int PAYLOAD_SIZE_IN_MIB = 16;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final UINT32 TRANSACTION_ID = new UINT32(1);
+
+    @Param({"STREAM", "CHANNEL"})
+    private String ioMode;
+
+    private ServerSocket serverSocket;
+    private Thread serverThread;
+
+    private Socket socket;
+    private OutputStream requestStream;
+    private PtpIpInputStream pis;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private long cpuTimeAtStart;
+    private long mibAtStart;
+    private long mibReceived;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final byte[] dataPhase = dataPhase();
+
+        serverSocket = new ServerSocket(0);
+        serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (Socket peer = serverSocket.accept()) {
+                    InputStream is = peer.getInputStream();
+                    OutputStream os = peer.getOutputStream();
+                    // Send a whole data phase for each request byte.
+                    while (is.read() != -1) {
+                        os.write(dataPhase);
+                        os.flush();
+                    }
+                } catch (IOException e) {
+                    // The benchmark is over.
+                }
+            }
+        });
+        serverThread.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", serverSocket.getLocalPort());
+        if ("CHANNEL".equals(ioMode)) {
+            SocketChannel channel = SocketChannel.open(address);
+            socket = channel.socket();
+            pis = new PtpIpInputStream(channel, new DirectBufferPool(CHUNK_SIZE, 1));
+        } else {
+            socket = new Socket(address.getAddress(), address.getPort());
+            pis = new PtpIpInputStream(socket.getInputStream());
+        }
+        socket.setTcpNoDelay(true);
+        requestStream = socket.getOutputStream();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        pis.close();
+        socket.close();
+        serverSocket.close();
+        serverThread.join();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        cpuTimeAtStart = threadMXBean.getCurrentThreadCpuTime();
+        mibAtStart = mibReceived;
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        long cpuTime = threadMXBean.getCurrentThreadCpuTime() - cpuTimeAtStart;
+        long mib = mibReceived - mibAtStart;
+        if (0 < mib) {
+            System.out.printf("%n%s: %.1f us CPU per MiB%n", ioMode, cpuTime / 1000.0 / mib);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_SIZE_IN_MIB)
+    public long readDataToChannel() throws IOException {
+        CountingChannel dst = new CountingChannel();
+        requestStream.write(0);
+        pis.readData(dst);
+        mibReceived += PAYLOAD_SIZE_IN_MIB;
+        return dst.count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_SIZE_IN_MIB)
+    public long readDataToOutputStream() throws IOException {
+        CountingOutputStream dst = new CountingOutputStream();
+        requestStream.write(0);
+        pis.readData(dst);
+        mibReceived += PAYLOAD_SIZE_IN_MIB;
+        return dst.count;
+    }
+
+    private static byte[] dataPhase() throws IOException {
+        int payloadSize = PAYLOAD_SIZE_IN_MIB * MIB;
+        byte[] payload = new byte[payloadSize];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(payloadSize + payloadSize / CHUNK_SIZE * 16 + 64);
+        baos.write(new StartDataPacket(TRANSACTION_ID, new UINT64(payloadSize)).bytes());
+        int offset = 0;
+        while (payloadSize - offset > CHUNK_SIZE) {
+            baos.write(new DataPacket(TRANSACTION_ID, Arrays.copyOfRange(payload, offset, offset + CHUNK_SIZE)).bytes());
+            offset += CHUNK_SIZE;
+        }
+        baos.write(new EndDataPacket(TRANSACTION_ID, Arrays.copyOfRange(payload, offset, payloadSize)).bytes());
+        return baos.toByteArray();
+    }
+
+    /**
+     * Discards the written bytes so that only the cost of the transport is measured.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * Discards the written bytes without copying them out of the buffer.
+     */
+    private static final class CountingChannel implements WritableByteChannel {
+        private long count;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            count += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.io;
+
+import org.openjdk.jmh.annotations.*;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT64;
+import org.theta4j.ptpip.packet.DataPacket;
+import org.theta4j.ptpip.packet.EndDataPacket;
+import org.theta4j.ptpip.packet.StartDataPacket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for receiving a data phase (StartData -&gt; [Data] -&gt; EndData) of several megabytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PtpIpInputStreamBenchmark {
+    private static final UINT32 TRANSACTION_ID = new UINT32(1);
+
+    @Param({"1048576", "8388608"})
+    private int payloadSize;
+
+    @Param({"65536"})
+    private int chunkSize;
+
+    private byte[] dataPhase;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] payload = new byte[payloadSize];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(payloadSize + payloadSize / chunkSize * 16 + 64);
+        baos.write(new StartDataPacket(TRANSACTION_ID, new UINT64(payloadSize)).bytes());
+        int offset = 0;
+        while (payloadSize - offset > chunkSize) {
+            baos.write(new DataPacket(TRANSACTION_ID, Arrays.copyOfRange(payload, offset, offset + chunkSize)).bytes());
+            offset += chunkSize;
+        }
+        baos.write(new EndDataPacket(TRANSACTION_ID, Arrays.copyOfRange(payload, offset, payloadSize)).bytes());
+        dataPhase = baos.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] readData() throws IOException {
+        return new PtpIpInputStream(new ByteArrayInputStream(dataPhase)).readData();
+    }
+
+    @Benchmark
+    public long readDataToOutputStream() throws IOException {
+        CountingOutputStream dst = new CountingOutputStream();
+        new PtpIpInputStream(new ByteArrayInputStream(dataPhase)).readData(dst);
+        return dst.count;
+    }
+
+    /**
+     * Discards the written bytes so that only the cost of the codec is measured.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.packet;
+
+import org.openjdk.jmh.annotations.*;
+import org.theta4j.ptp.type.UINT16;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT64;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for encoding each type of PTP-IP packet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PtpIpPacketBenchmark {
+    private static final UINT32 TRANSACTION_ID = new UINT32(1);
+
+    @Param({
+            "INIT_COMMAND_REQUEST", "INIT_COMMAND_ACK", "INIT_EVENT_REQUEST", "INIT_EVENT_ACK", "INIT_FAIL",
+            "OPERATION_REQUEST", "OPERATION_RESPONSE", "EVENT",
+            "START_DATA", "DATA", "END_DATA", "CANCEL", "PROBE_REQUEST", "PROBE_RESPONSE"})
+    private PtpIpPacket.Type type;
+
+    private PtpIpPacket packet;
+
+    @Setup
+    public void setUp() {
+        packet = newPacket(type);
+    }
+
+    private static PtpIpPacket newPacket(PtpIpPacket.Type type) {
+        UUID guid = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        byte[] payload = new byte[1024];
+
+        switch (type) {
+            case INIT_COMMAND_REQUEST:
+                return new InitCommandRequestPacket(guid, "theta4j", new UINT32(0x00010000));
+            case INIT_COMMAND_ACK:
+                return new InitCommandAckPacket(new UINT32(1), guid, "THETA", new UINT32(0x00010000));
+            case INIT_EVENT_REQUEST:
+                return new InitEventRequestPacket(new UINT32(1));
+            case INIT_EVENT_ACK:
+                return new InitEventAckPacket();
+            case INIT_FAIL:
+                return new InitFailPacket(new UINT32(1));
+            case OPERATION_REQUEST:
+                return new OperationRequestPacket(new UINT32(1), new UINT16(0x1001), TRANSACTION_ID,
+                        new UINT32(1), new UINT32(2), new UINT32(3), new UINT32(4), new UINT32(5));
+            case OPERATION_RESPONSE:
+                return new OperationResponsePacket(new UINT16(0x2001), TRANSACTION_ID,
+                        new UINT32(1), new UINT32(2), new UINT32(3), new UINT32(4), new UINT32(5));
+            case EVENT:
+                return new EventPacket(new UINT16(0x4002), TRANSACTION_ID, new UINT32(1), new UINT32(2), new UINT32(3));
+            case START_DATA:
+                return new StartDataPacket(TRANSACTION_ID, new UINT64(payload.length));
+            case DATA:
+                return new DataPacket(TRANSACTION_ID, payload);
+            case END_DATA:
+                return new EndDataPacket(TRANSACTION_ID, payload);
+            case CANCEL:
+                return new CancelPacket(TRANSACTION_ID);
+            case PROBE_REQUEST:
+                return new ProbeRequestPacket();
+            case PROBE_RESPONSE:
+                return new ProbeResponsePacket();
+            default:
+                throw new AssertionError(type);
+        }
+    }
+
+    @Benchmark
+    public byte[] bytes() {
+        return packet.bytes();
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.theta4j.ptp.PtpException;
+import org.theta4j.ptp.code.ResponseCode;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.util.Validators;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures images back to back and ingests them into a directory, while the next image is being processed.
+ * <p>
+ * A capture thread initiates the next capture as soon as THETA completes the previous one,
+ * and queues the captured object. An ingest thread downloads the queued objects meanwhile,
+ * verifies the size of each file, and deletes the object from THETA if requested.
+ * Captures preempt downloads, since they are queued on Theta with the higher priority.
+ * <p>
+ * The queue of captured objects is bounded, so the capture thread waits when the downloads fall behind,
+ * instead of keeping more objects in memory and on THETA.
+ * A failed capture stops capturing, and the queued objects are still ingested.
+ * This class is thread-safe.
+ */
+public final class CapturePipeline implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CapturePipeline.class);
+
+    /**
+     * The interval in milliseconds to retry InitiateCapture while THETA is busy.
+     */
+    private static final long BUSY_RETRY_INTERVAL = 100;
+
+    private final Theta theta;
+    private final long captureTimeout;
+    private final int shotCount;
+    private final IngestMetrics metrics = new IngestMetrics();
+    private final ObjectIngester ingester;
+    private final Thread captureThread;
+    private final Thread ingestThread;
+
+    private volatile boolean isStopped = false;
+    private volatile IOException captureFailure;
+
+    // Constructor
+
+    private CapturePipeline(Builder builder, Theta theta) {
+        this.theta = theta;
+        this.captureTimeout = builder.captureTimeout;
+        this.shotCount = builder.shotCount;
+        this.ingester = new ObjectIngester(theta, builder.directory, builder.maxPendingObjects, builder.listener, metrics);
+        ingester.setDeleteAfterDownload(builder.deleteAfterDownload);
+
+        captureThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                capture();
+            }
+        }, "theta4j-capture");
+        ingestThread = new Thread(ingester, "theta4j-ingest");
+        captureThread.setDaemon(true);
+        ingestThread.setDaemon(true);
+    }
+
+    // Getter
+
+    public IngestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the number of captured objects waiting to be ingested.
+     */
+    public int getQueueDepth() {
+        return ingester.getQueueDepth();
+    }
+
+    /**
+     * Returns true until capturing stops by close(), the shot count or a failure.
+     */
+    public boolean isCapturing() {
+        return captureThread.isAlive();
+    }
+
+    /**
+     * Returns the failure which stopped capturing, or null.
+     */
+    public IOException getCaptureFailure() {
+        return captureFailure;
+    }
+
+    // Pipeline
+
+    /**
+     * Wait until capturing stops and the captured objects are ingested.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public void await() throws InterruptedException {
+        captureThread.join();
+        ingestThread.join();
+    }
+
+    /**
+     * Stop capturing after the capture in progress, and wait until the captured objects are ingested.
+     */
+    @Override
+    public void close() throws IOException {
+        isStopped = true;
+        try {
+            await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the pipeline.", e);
+        }
+    }
+
+    // Private Method
+
+    private void start() {
+        ingestThread.start();
+        captureThread.start();
+    }
+
+    private void capture() {
+        try {
+            int count = 0;
+            while (!isStopped && (shotCount == Builder.UNLIMITED || count < shotCount)) {
+                long start = System.nanoTime();
+                UINT32 objectHandle;
+                try {
+                    objectHandle = ObjectIngester.await(theta.initiateCaptureAsync(captureTimeout, TimeUnit.NANOSECONDS));
+                } catch (PtpException e) {
+                    if (!ResponseCode.DEVICE_BUSY.value().equals(e.value())) {
+                        throw e;
+                    }
+                    metrics.recordBusy();
+                    Thread.sleep(BUSY_RETRY_INTERVAL);
+                    continue;
+                }
+                metrics.recordStage(IngestMetrics.Stage.CAPTURE, System.nanoTime() - start);
+                count++;
+
+                if (objectHandle == null) {
+                    LOGGER.warn("ObjectAdded did not arrive for the capture " + count);
+                    continue;
+                }
+                ingester.put(objectHandle);
+            }
+        } catch (IOException e) {
+            metrics.recordCaptureFailure();
+            captureFailure = e;
+            LOGGER.error("Stopped capturing", e);
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while capturing");
+        } finally {
+            ingester.finish();
+        }
+    }
+
+    // Inner Types
+
+    /**
+     * Builder of CapturePipeline. This class is not thread-safe.
+     */
+    public static final class Builder {
+        /**
+         * The shot count which means capturing until the pipeline is closed.
+         */
+        public static final int UNLIMITED = 0;
+
+        private final Path directory;
+        private int maxPendingObjects = 4;
+        private boolean deleteAfterDownload = false;
+        private long captureTimeout = TimeUnit.MINUTES.toNanos(1);
+        private int shotCount = UNLIMITED;
+        private IngestListener listener = ObjectIngester.NULL_LISTENER;
+
+        /**
+         * @param directory The directory to write the captured objects, by the file names on THETA.
+         * @throws NullPointerException if directory is null.
+         */
+        public Builder(Path directory) {
+            Validators.notNull("directory", directory);
+
+            this.directory = directory;
+        }
+
+        /**
+         * @param maxPendingObjects The maximum number of captured objects waiting to be ingested. The default is 4.
+         * @throws IllegalArgumentException if maxPendingObjects is not positive.
+         */
+        public Builder maxPendingObjects(int maxPendingObjects) {
+            Validators.rangeEq("maxPendingObjects", maxPendingObjects, 1, Integer.MAX_VALUE);
+
+            this.maxPendingObjects = maxPendingObjects;
+            return this;
+        }
+
+        /**
+         * Delete each object from THETA once its file is verified. The default is false.
+         */
+        public Builder deleteAfterDownload(boolean deleteAfterDownload) {
+            this.deleteAfterDownload = deleteAfterDownload;
+            return this;
+        }
+
+        /**
+         * @param captureTimeout The time to wait for CaptureComplete, or 0 to wait forever. The default is a minute.
+         * @throws IllegalArgumentException if captureTimeout is negative.
+         * @throws NullPointerException     if unit is null.
+         */
+        public Builder captureTimeout(long captureTimeout, TimeUnit unit) {
+            Validators.rangeEq("captureTimeout", captureTimeout, 0L, Long.MAX_VALUE);
+            Validators.notNull("unit", unit);
+
+            this.captureTimeout = unit.toNanos(captureTimeout);
+            return this;
+        }
+
+        /**
+         * @param shotCount The number of images to capture, or UNLIMITED.
+         * @throws IllegalArgumentException if shotCount is negative.
+         */
+        public Builder shotCount(int shotCount) {
+            Validators.rangeEq("shotCount", shotCount, UNLIMITED, Integer.MAX_VALUE);
+
+            this.shotCount = shotCount;
+            return this;
+        }
+
+        /**
+         * @throws NullPointerException if listener is null.
+         */
+        public Builder listener(IngestListener listener) {
+            Validators.notNull("listener", listener);
+
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Start capturing on the session.
+         *
+         * @throws NullPointerException if theta is null.
+         */
+        public CapturePipeline start(Theta theta) {
+            Validators.notNull("theta", theta);
+
+            CapturePipeline pipeline = new CapturePipeline(this, theta);
+            pipeline.start();
+            return pipeline;
+        }
+    }
+}
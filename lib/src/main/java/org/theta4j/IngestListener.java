@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.theta4j.ptp.data.ObjectInfo;
+import org.theta4j.ptp.type.UINT32;
+
+import java.nio.file.Path;
+import java.util.EventListener;
+
+/**
+ * An interface for receiving the results of ingesting objects from THETA.
+ * Methods are invoked on the thread which ingests the objects.
+ *
+ * @see CapturePipeline
+ * @see TimelapseIngester
+ */
+public interface IngestListener extends EventListener {
+    /**
+     * Invoked when an object is written to the file and verified.
+     *
+     * @param objectInfo The ObjectInfo of the object.
+     * @param file       The file of the object.
+     */
+    void onObjectIngested(ObjectInfo objectInfo, Path file);
+
+    /**
+     * Invoked when an object can not be ingested. The object is left on THETA.
+     *
+     * @param objectHandle The ObjectHandle of the object.
+     * @param cause        The cause of the failure.
+     */
+    void onIngestFailed(UINT32 objectHandle, Throwable cause);
+}
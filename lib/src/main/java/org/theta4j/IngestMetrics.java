@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.util.Validators;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the objects captured and ingested from THETA, and the latency of each stage.
+ */
+public final class IngestMetrics {
+    /**
+     * The stages of an object from the capture to the deletion from THETA.
+     */
+    public enum Stage {
+        /**
+         * From InitiateCapture to CaptureComplete.
+         */
+        CAPTURE,
+
+        /**
+         * Waiting in the queue of objects to ingest.
+         */
+        QUEUE,
+
+        /**
+         * Retrieving the ObjectInfo and the data, and verifying the file.
+         */
+        DOWNLOAD,
+
+        /**
+         * Deleting the object from THETA.
+         */
+        DELETE
+    }
+
+    private static final int NUM_STAGES = Stage.values().length;
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLongArray stageCount = new AtomicLongArray(NUM_STAGES);
+    private final AtomicLongArray totalNanos = new AtomicLongArray(NUM_STAGES);
+    private final AtomicLongArray maxNanos = new AtomicLongArray(NUM_STAGES);
+    private final AtomicLong busyCount = new AtomicLong();
+    private final AtomicLong captureFailureCount = new AtomicLong();
+    private final AtomicLong ingestCount = new AtomicLong();
+    private final AtomicLong ingestFailureCount = new AtomicLong();
+    private final AtomicLong ingestedBytes = new AtomicLong();
+    private final AtomicLong dropCount = new AtomicLong();
+    private final AtomicLong lateCount = new AtomicLong();
+
+    // Constructor
+
+    IngestMetrics() {
+    }
+
+    // Getter
+
+    /**
+     * Returns the number of objects which completed the stage.
+     *
+     * @throws NullPointerException if stage is null.
+     */
+    public long getCount(Stage stage) {
+        Validators.notNull("stage", stage);
+
+        return stageCount.get(stage.ordinal());
+    }
+
+    /**
+     * Returns the total time in nanoseconds which the objects spent in the stage.
+     *
+     * @throws NullPointerException if stage is null.
+     */
+    public long getTotalNanos(Stage stage) {
+        Validators.notNull("stage", stage);
+
+        return totalNanos.get(stage.ordinal());
+    }
+
+    /**
+     * Returns the longest time in nanoseconds which an object spent in the stage.
+     *
+     * @throws NullPointerException if stage is null.
+     */
+    public long getMaxNanos(Stage stage) {
+        Validators.notNull("stage", stage);
+
+        return maxNanos.get(stage.ordinal());
+    }
+
+    /**
+     * Returns the number of times InitiateCapture was retried since THETA was busy.
+     */
+    public long getBusyCount() {
+        return busyCount.get();
+    }
+
+    /**
+     * Returns the number of captures failed.
+     */
+    public long getCaptureFailureCount() {
+        return captureFailureCount.get();
+    }
+
+    /**
+     * Returns the number of objects written to files and verified.
+     */
+    public long getIngestCount() {
+        return ingestCount.get();
+    }
+
+    /**
+     * Returns the number of objects which could not be ingested.
+     */
+    public long getIngestFailureCount() {
+        return ingestFailureCount.get();
+    }
+
+    /**
+     * Returns the total size of the ingested objects.
+     */
+    public long getIngestedBytes() {
+        return ingestedBytes.get();
+    }
+
+    /**
+     * Returns the number of objects not queued since the queue was full. They are left on THETA.
+     */
+    public long getDropCount() {
+        return dropCount.get();
+    }
+
+    /**
+     * Returns the number of objects which waited in the queue longer than the expected interval.
+     */
+    public long getLateCount() {
+        return lateCount.get();
+    }
+
+    /**
+     * Returns the number of objects ingested per minute since the start.
+     */
+    public double getObjectsPerMinute() {
+        long elapsed = System.nanoTime() - startNanos;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return ingestCount.get() * (double) TimeUnit.MINUTES.toNanos(1) / elapsed;
+    }
+
+    // Record
+
+    void recordStage(Stage stage, long nanos) {
+        int i = stage.ordinal();
+        stageCount.incrementAndGet(i);
+        totalNanos.addAndGet(i, nanos);
+
+        for (; ; ) {
+            long max = maxNanos.get(i);
+            if (nanos <= max || maxNanos.compareAndSet(i, max, nanos)) {
+                return;
+            }
+        }
+    }
+
+    void recordBusy() {
+        busyCount.incrementAndGet();
+    }
+
+    void recordCaptureFailure() {
+        captureFailureCount.incrementAndGet();
+    }
+
+    void recordIngest(long bytes) {
+        ingestCount.incrementAndGet();
+        ingestedBytes.addAndGet(bytes);
+    }
+
+    void recordIngestFailure() {
+        ingestFailureCount.incrementAndGet();
+    }
+
+    void recordDrop() {
+        dropCount.incrementAndGet();
+    }
+
+    void recordLate() {
+        lateCount.incrementAndGet();
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.theta4j.ptp.data.ObjectInfo;
+import org.theta4j.ptp.type.UINT32;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads objects from THETA into files one by one, and deletes them from THETA if requested.
+ * <p>
+ * Objects wait in a bounded queue, so that producers wait or give up when the downloads fall behind,
+ * instead of queuing without limit. The operations are queued on Theta, so that they give way to captures.
+ * run() ingests the objects until finish() is called and the queue is empty.
+ */
+final class ObjectIngester implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectIngester.class);
+
+    /**
+     * The interval in milliseconds to check whether the ingester is finished while the queue is empty.
+     */
+    private static final long POLL_INTERVAL = 100;
+
+    /**
+     * ObjectCompressedSize of the objects of 4 GiB or larger.
+     */
+    private static final long UNKNOWN_SIZE = 0xFFFFFFFFL;
+
+    /**
+     * The listener which ignores the results.
+     */
+    static final IngestListener NULL_LISTENER = new IngestListener() {
+        @Override
+        public void onObjectIngested(ObjectInfo objectInfo, Path file) {
+        }
+
+        @Override
+        public void onIngestFailed(UINT32 objectHandle, Throwable cause) {
+        }
+    };
+
+    private final Theta theta;
+    private final Path directory;
+    private final IngestListener listener;
+    private final IngestMetrics metrics;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicLong nextIndex = new AtomicLong();
+
+    // Set before run() starts
+    private boolean deleteAfterDownload = false;
+    private String sequencePrefix;
+    private long lagThreshold = 0;
+
+    private volatile boolean isFinished = false;
+
+    // Constructor
+
+    /**
+     * @param capacity The maximum number of objects waiting in the queue.
+     */
+    ObjectIngester(Theta theta, Path directory, int capacity, IngestListener listener, IngestMetrics metrics) {
+        this.theta = theta;
+        this.directory = directory;
+        this.listener = listener;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    // Setting
+
+    /**
+     * Delete each object from THETA once its file is verified.
+     */
+    void setDeleteAfterDownload(boolean deleteAfterDownload) {
+        this.deleteAfterDownload = deleteAfterDownload;
+    }
+
+    /**
+     * Name the files by the prefix and the index in the offered order, such as "frame_000001.JPG",
+     * instead of the file names on THETA.
+     */
+    void setSequence(String prefix, long firstIndex) {
+        this.sequencePrefix = prefix;
+        this.nextIndex.set(firstIndex);
+    }
+
+    /**
+     * Report objects which waited in the queue longer than the threshold in nanoseconds, or 0 not to report.
+     */
+    void setLagThreshold(long lagThreshold) {
+        this.lagThreshold = lagThreshold;
+    }
+
+    // Getter
+
+    /**
+     * Returns the number of objects waiting in the queue.
+     */
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns how long in nanoseconds the oldest object has waited in the queue, or 0 if the queue is empty.
+     */
+    long getLagNanos() {
+        Entry oldest = queue.peek();
+        return oldest == null ? 0 : System.nanoTime() - oldest.queuedNanos;
+    }
+
+    // Queue
+
+    /**
+     * Queue the object, waiting while the queue is full.
+     */
+    void put(UINT32 objectHandle) throws InterruptedException {
+        queue.put(new Entry(objectHandle, nextIndex.getAndIncrement(), System.nanoTime()));
+    }
+
+    /**
+     * Queue the object unless the queue is full. The index of a dropped object is skipped.
+     *
+     * @return false if the queue is full.
+     */
+    boolean offer(UINT32 objectHandle) {
+        return queue.offer(new Entry(objectHandle, nextIndex.getAndIncrement(), System.nanoTime()));
+    }
+
+    /**
+     * Let run() return once the queued objects are ingested.
+     */
+    void finish() {
+        isFinished = true;
+    }
+
+    // Runnable
+
+    @Override
+    public void run() {
+        try {
+            for (; ; ) {
+                Entry entry = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    ingest(entry);
+                } else if (isFinished) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted with " + queue.size() + " objects not ingested");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // File
+
+    /**
+     * Returns the file in the directory for the object of the file name on THETA, and the index in the offered order.
+     * The file name is reduced to its last element, since it is given by the camera.
+     *
+     * @throws IOException if the file name is not valid, or does not name a file in the directory.
+     */
+    Path file(String name, long index) throws IOException {
+        Path fileName;
+        try {
+            fileName = Paths.get(name).getFileName();
+            if (fileName != null && sequencePrefix != null) {
+                fileName = Paths.get(sequenceName(fileName.toString(), index));
+            }
+        } catch (InvalidPathException e) {
+            throw new IOException("Invalid file name: " + name, e);
+        }
+
+        // Such as "..", "." and "".
+        Path absoluteDirectory = directory.toAbsolutePath().normalize();
+        if (fileName == null || !absoluteDirectory.equals(absoluteDirectory.resolve(fileName).normalize().getParent())) {
+            throw new IOException("The file name " + name + " does not name a file in " + directory);
+        }
+        return directory.resolve(fileName);
+    }
+
+    // Private Method
+
+    private void ingest(Entry entry) throws InterruptedException {
+        long start = System.nanoTime();
+        long waited = start - entry.queuedNanos;
+        metrics.recordStage(IngestMetrics.Stage.QUEUE, waited);
+        if (0 < lagThreshold && lagThreshold < waited) {
+            metrics.recordLate();
+            LOGGER.warn("Falling behind: the object " + entry.objectHandle + " waited "
+                    + TimeUnit.NANOSECONDS.toMillis(waited) + " ms, and " + queue.size() + " objects are waiting");
+        }
+
+        ObjectInfo objectInfo;
+        Path file;
+        long size;
+        try {
+            objectInfo = await(theta.getObjectInfoAsync(entry.objectHandle));
+            file = file(objectInfo.getFileName(), entry.index);
+            await(theta.getObjectAsync(entry.objectHandle, file));
+            size = verify(objectInfo, file);
+            long downloaded = System.nanoTime();
+            metrics.recordStage(IngestMetrics.Stage.DOWNLOAD, downloaded - start);
+
+            if (deleteAfterDownload) {
+                await(theta.deleteObjectAsync(entry.objectHandle));
+                metrics.recordStage(IngestMetrics.Stage.DELETE, System.nanoTime() - downloaded);
+            }
+        } catch (IOException | RuntimeException e) {
+            // A broken object must not stop the ingest thread, or the producers wait forever on the full queue.
+            metrics.recordIngestFailure();
+            LOGGER.error("Failed to ingest the object " + entry.objectHandle, e);
+            try {
+                listener.onIngestFailed(entry.objectHandle, e);
+            } catch (RuntimeException re) {
+                LOGGER.error("Unexpected exception in listener", re);
+            }
+            return;
+        }
+
+        metrics.recordIngest(size);
+        try {
+            listener.onObjectIngested(objectInfo, file);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unexpected exception in listener", e);
+        }
+    }
+
+    private String sequenceName(String name, long index) {
+        int dot = name.lastIndexOf('.');
+        String extension = dot < 0 ? "" : name.substring(dot);
+        return String.format("%s%06d%s", sequencePrefix, index, extension);
+    }
+
+    /**
+     * Returns the size of the file if it matches ObjectCompressedSize.
+     */
+    private static long verify(ObjectInfo objectInfo, Path file) throws IOException {
+        long expected = objectInfo.getObjectCompressedSize().longValue();
+        long actual = Files.size(file);
+        if (actual == expected || (expected == UNKNOWN_SIZE && UNKNOWN_SIZE <= actual)) {
+            return actual;
+        }
+        throw new IOException("Downloaded " + actual + " bytes of " + expected + " bytes into " + file);
+    }
+
+    /**
+     * Wait for the result of the operation, and throws its failure as IOException.
+     */
+    static <V> V await(Future<V> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new IOException("The operation is cancelled.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Inner Types
+
+    private static final class Entry {
+        final UINT32 objectHandle;
+        final long index;
+        final long queuedNanos;
+
+        Entry(UINT32 objectHandle, long index, long queuedNanos) {
+            this.objectHandle = objectHandle;
+            this.index = index;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+}
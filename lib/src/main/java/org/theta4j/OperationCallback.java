@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+/**
+ * The callback of an asynchronous operation of Theta.
+ * <p>
+ * Callbacks run on the thread which completes the operation, or on the thread which adds the callback
+ * if the operation is already completed. They must not block.
+ *
+ * @param <V> The type of the result.
+ * @see OperationFuture#addCallback(OperationCallback)
+ */
+public interface OperationCallback<V> {
+    /**
+     * Called when the operation completes successfully.
+     *
+     * @param result The result of the operation, which is null for operations without result.
+     */
+    void onSuccess(V result);
+
+    /**
+     * Called when the operation fails or is cancelled.
+     *
+     * @param cause The exception thrown by the operation, or a CancellationException.
+     */
+    void onFailure(Throwable cause);
+}
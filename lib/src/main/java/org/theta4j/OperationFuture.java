@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.theta4j.util.Validators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The pending result of an operation queued on Theta.
+ * <p>
+ * Callbacks can be added to compose operations without blocking a thread on get().
+ * A cancelled operation is skipped when its turn comes. An operation which is already running is not interrupted.
+ *
+ * @param <V> The type of the result.
+ */
+public final class OperationFuture<V> extends FutureTask<V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OperationFuture.class);
+
+    // Guarded by the lock of this object. Null after the callbacks are run.
+    private List<OperationCallback<? super V>> callbacks = new ArrayList<>();
+
+    // Constructor
+
+    OperationFuture(Callable<V> operation) {
+        super(operation);
+    }
+
+    /**
+     * Create the future which is completed by succeed or fail, such as by an event of the camera.
+     */
+    OperationFuture() {
+        super(new Callable<V>() {
+            @Override
+            public V call() {
+                throw new IllegalStateException("The future is completed without running.");
+            }
+        });
+    }
+
+    // Callback
+
+    /**
+     * Add the callback which is called once the operation completes.
+     * The callback is called immediately if the operation is already completed.
+     *
+     * @throws NullPointerException if callback is null.
+     */
+    public void addCallback(OperationCallback<? super V> callback) {
+        Validators.notNull("callback", callback);
+
+        synchronized (this) {
+            if (callbacks != null) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+
+        notify(callback);
+    }
+
+    /**
+     * Cancel the operation if it is not started yet. A running operation is never interrupted.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return super.cancel(false);
+    }
+
+    @Override
+    protected void done() {
+        List<OperationCallback<? super V>> completed;
+        synchronized (this) {
+            completed = callbacks;
+            callbacks = null;
+        }
+
+        for (OperationCallback<? super V> callback : completed) {
+            notify(callback);
+        }
+    }
+
+    /**
+     * Complete the future by the result without running the operation.
+     */
+    void succeed(V result) {
+        set(result);
+    }
+
+    /**
+     * Complete the future by the exception without running the operation.
+     */
+    void fail(Throwable cause) {
+        setException(cause);
+    }
+
+    private void notify(OperationCallback<? super V> callback) {
+        V result;
+        try {
+            result = get();
+        } catch (CancellationException e) {
+            notifyFailure(callback, e);
+            return;
+        } catch (ExecutionException e) {
+            notifyFailure(callback, e.getCause());
+            return;
+        } catch (InterruptedException e) {
+            // Never happens since the future is done.
+            throw new AssertionError(e);
+        }
+
+        try {
+            callback.onSuccess(result);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unexpected exception in callback", e);
+        }
+    }
+
+    private static void notifyFailure(OperationCallback<?> callback, Throwable cause) {
+        try {
+            callback.onFailure(cause);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unexpected exception in callback", e);
+        }
+    }
+}
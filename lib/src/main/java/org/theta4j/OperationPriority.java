@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+/**
+ * The priority classes of the operations queued on Theta, from the highest.
+ * <p>
+ * A queued operation runs before any operation of lower priority.
+ * A bulk transfer in progress is preempted when an operation of higher priority is queued.
+ */
+public enum OperationPriority {
+    /**
+     * Capturing and short operations which a user waits for, such as the battery level.
+     */
+    CONTROL,
+
+    /**
+     * Device information, object handles and object information.
+     */
+    METADATA,
+
+    /**
+     * Thumbnails and resized images.
+     */
+    THUMBNAIL,
+
+    /**
+     * Transfers of whole objects.
+     */
+    BULK
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.theta4j.util.Validators;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the operations of a session one by one, by priority.
+ * <p>
+ * An operation runs before any operation of lower priority. Operations of the same priority are taken
+ * from their callers in turn, and the operations of the same caller run in the submitted order.
+ * <p>
+ * The operations run on the given executor, which may be shared by many sessions.
+ * The queue occupies at most one thread of the executor at a time, and gives the thread back after each operation,
+ * so that the queues sharing a pool take turns.
+ * Without an executor, the queue starts its own daemon thread on the first submission.
+ * This class is thread-safe.
+ */
+final class OperationQueue {
+    private final Executor executor;
+    private final OperationQueueMetrics metrics = new OperationQueueMetrics();
+
+    // Guarded by the lock of this object
+
+    /**
+     * The operations of each caller for each priority. The caller to take next is the first key.
+     */
+    private final List<Map<Object, Queue<Entry>>> levels = new ArrayList<>();
+    private ExecutorService ownExecutor;
+    private boolean isScheduled = false;
+    private boolean isClosed = false;
+
+    private final Runnable runNext = new Runnable() {
+        @Override
+        public void run() {
+            runNext();
+        }
+    };
+
+    // Constructor
+
+    /**
+     * @param executor The executor to run operations, or null to run them on a thread of the queue.
+     */
+    OperationQueue(Executor executor) {
+        this.executor = executor;
+
+        for (int i = 0; i < OperationPriority.values().length; i++) {
+            levels.add(new LinkedHashMap<Object, Queue<Entry>>());
+        }
+    }
+
+    // Getter
+
+    OperationQueueMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the number of operations waiting to run.
+     */
+    synchronized int pendingCount() {
+        int count = 0;
+        for (Map<Object, Queue<Entry>> level : levels) {
+            for (Queue<Entry> entries : level.values()) {
+                count += entries.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if an operation of higher priority than the given one is waiting.
+     * Operations cancelled while waiting are not counted, and are removed from the queue.
+     */
+    boolean hasWaitingAbove(OperationPriority priority) {
+        for (OperationPriority higher : OperationPriority.values()) {
+            if (higher == priority) {
+                return false;
+            }
+            // The depth is checked first, so that the lock is not taken while nothing is waiting.
+            if (0 < metrics.getDepth(higher) && hasWaiting(higher)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Queue
+
+    /**
+     * Queue the operation. The returned future fails with IOException if the queue is closed.
+     *
+     * @param caller The key to share the turns of the priority with other callers, or null for the calling thread.
+     * @throws NullPointerException if priority or operation is null.
+     */
+    <V> OperationFuture<V> submit(OperationPriority priority, Object caller, Callable<V> operation) {
+        Validators.notNull("priority", priority);
+        Validators.notNull("operation", operation);
+
+        OperationFuture<V> future = new OperationFuture<>(operation);
+        Object key = caller == null ? Thread.currentThread() : caller;
+        synchronized (this) {
+            if (!isClosed) {
+                Map<Object, Queue<Entry>> level = levels.get(priority.ordinal());
+                Queue<Entry> entries = level.get(key);
+                if (entries == null) {
+                    entries = new ArrayDeque<>();
+                    level.put(key, entries);
+                }
+                entries.add(new Entry(future, priority, System.nanoTime()));
+                metrics.recordSubmit(priority);
+
+                if (!isScheduled) {
+                    isScheduled = true;
+                    schedule();
+                }
+                return future;
+            }
+        }
+
+        future.fail(new IOException("The session is closed."));
+        return future;
+    }
+
+    /**
+     * Preempt the running operation of the priority, which has paused its work.
+     * The operations waiting with higher priority run on the calling thread until none of them is waiting.
+     * Only the running operation of this queue may call this method.
+     *
+     * @return The number of operations which ran.
+     */
+    int preempt(OperationPriority priority) {
+        metrics.recordPreempt();
+
+        int count = 0;
+        for (; ; ) {
+            Entry entry;
+            synchronized (this) {
+                entry = poll(priority);
+            }
+            if (entry == null) {
+                return count;
+            }
+
+            run(entry);
+            count++;
+        }
+    }
+
+    /**
+     * Cancel the operations waiting to run, and reject further operations.
+     * The running operation, if any, is left to complete or fail by itself.
+     */
+    void close() {
+        List<Entry> cancelled;
+        ExecutorService executorToShutdown;
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            cancelled = drain();
+            executorToShutdown = ownExecutor;
+        }
+
+        for (Entry entry : cancelled) {
+            entry.future.cancel(false);
+        }
+
+        if (executorToShutdown != null) {
+            executorToShutdown.shutdown();
+        }
+    }
+
+    // Private Method
+
+    /**
+     * Run the next operation on the executor. Must be called with the lock.
+     */
+    private void schedule() {
+        try {
+            executor().execute(runNext);
+        } catch (RejectedExecutionException e) {
+            isScheduled = false;
+            for (Entry entry : drain()) {
+                entry.future.fail(e);
+            }
+        }
+    }
+
+    private void runNext() {
+        Entry entry;
+        synchronized (this) {
+            entry = poll(null);
+            if (entry == null) {
+                isScheduled = false;
+                return;
+            }
+        }
+
+        run(entry);
+
+        synchronized (this) {
+            if (pendingCount() == 0) {
+                isScheduled = false;
+            } else {
+                schedule();
+            }
+        }
+    }
+
+    private void run(Entry entry) {
+        metrics.recordStart(entry.priority, System.nanoTime() - entry.submitNanos);
+
+        // A cancelled future does nothing.
+        entry.future.run();
+    }
+
+    /**
+     * Take the next operation of higher priority than the given one, or of any priority if it is null.
+     * Must be called with the lock.
+     */
+    private Entry poll(OperationPriority above) {
+        for (OperationPriority priority : OperationPriority.values()) {
+            if (priority == above) {
+                return null;
+            }
+
+            Map<Object, Queue<Entry>> level = levels.get(priority.ordinal());
+            Iterator<Map.Entry<Object, Queue<Entry>>> i = level.entrySet().iterator();
+            if (!i.hasNext()) {
+                continue;
+            }
+
+            Map.Entry<Object, Queue<Entry>> first = i.next();
+            Entry entry = first.getValue().poll();
+            i.remove();
+            if (!first.getValue().isEmpty()) {
+                // The caller takes the last turn.
+                level.put(first.getKey(), first.getValue());
+            }
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if an operation of the priority is waiting, and removes the cancelled operations on the way.
+     */
+    private synchronized boolean hasWaiting(OperationPriority priority) {
+        Iterator<Queue<Entry>> i = levels.get(priority.ordinal()).values().iterator();
+        while (i.hasNext()) {
+            Queue<Entry> entries = i.next();
+            while (!entries.isEmpty()) {
+                if (!entries.peek().future.isCancelled()) {
+                    return true;
+                }
+                metrics.recordDiscard(entries.poll().priority);
+            }
+            i.remove();
+        }
+        return false;
+    }
+
+    /**
+     * Remove all operations waiting to run. Must be called with the lock.
+     */
+    private List<Entry> drain() {
+        List<Entry> drained = new ArrayList<>();
+        for (Map<Object, Queue<Entry>> level : levels) {
+            for (Queue<Entry> entries : level.values()) {
+                drained.addAll(entries);
+            }
+            level.clear();
+        }
+
+        for (Entry entry : drained) {
+            metrics.recordDiscard(entry.priority);
+        }
+        return drained;
+    }
+
+    private Executor executor() {
+        if (executor != null) {
+            return executor;
+        }
+
+        if (ownExecutor == null) {
+            ownExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "theta4j-operation");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return ownExecutor;
+    }
+
+    // Inner Types
+
+    private static final class Entry {
+        final OperationFuture<?> future;
+        final OperationPriority priority;
+        final long submitNanos;
+
+        Entry(OperationFuture<?> future, OperationPriority priority, long submitNanos) {
+            this.future = future;
+            this.priority = priority;
+            this.submitNanos = submitNanos;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.util.Validators;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the queue depth and the wait time of the operations queued on Theta, for each priority.
+ */
+public final class OperationQueueMetrics {
+    private static final int NUM_PRIORITIES = OperationPriority.values().length;
+
+    private final AtomicLongArray depth = new AtomicLongArray(NUM_PRIORITIES);
+    private final AtomicLongArray startCount = new AtomicLongArray(NUM_PRIORITIES);
+    private final AtomicLongArray totalWaitNanos = new AtomicLongArray(NUM_PRIORITIES);
+    private final AtomicLongArray maxWaitNanos = new AtomicLongArray(NUM_PRIORITIES);
+    private final AtomicLong preemptCount = new AtomicLong();
+
+    // Constructor
+
+    OperationQueueMetrics() {
+    }
+
+    // Getter
+
+    /**
+     * Returns the number of operations of the priority waiting to run.
+     *
+     * @throws NullPointerException if priority is null.
+     */
+    public long getDepth(OperationPriority priority) {
+        Validators.notNull("priority", priority);
+
+        return depth.get(priority.ordinal());
+    }
+
+    /**
+     * Returns the number of operations waiting to run.
+     */
+    public long getDepth() {
+        long total = 0;
+        for (int i = 0; i < NUM_PRIORITIES; i++) {
+            total += depth.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of operations of the priority which have started.
+     *
+     * @throws NullPointerException if priority is null.
+     */
+    public long getStartCount(OperationPriority priority) {
+        Validators.notNull("priority", priority);
+
+        return startCount.get(priority.ordinal());
+    }
+
+    /**
+     * Returns the total time in nanoseconds which the started operations of the priority waited in the queue.
+     *
+     * @throws NullPointerException if priority is null.
+     */
+    public long getTotalWaitNanos(OperationPriority priority) {
+        Validators.notNull("priority", priority);
+
+        return totalWaitNanos.get(priority.ordinal());
+    }
+
+    /**
+     * Returns the longest time in nanoseconds which a started operation of the priority waited in the queue.
+     *
+     * @throws NullPointerException if priority is null.
+     */
+    public long getMaxWaitNanos(OperationPriority priority) {
+        Validators.notNull("priority", priority);
+
+        return maxWaitNanos.get(priority.ordinal());
+    }
+
+    /**
+     * Returns the number of times a bulk transfer was cancelled to run operations of higher priority.
+     */
+    public long getPreemptCount() {
+        return preemptCount.get();
+    }
+
+    // Record
+
+    void recordSubmit(OperationPriority priority) {
+        depth.incrementAndGet(priority.ordinal());
+    }
+
+    void recordStart(OperationPriority priority, long waitNanos) {
+        int i = priority.ordinal();
+        depth.decrementAndGet(i);
+        startCount.incrementAndGet(i);
+        totalWaitNanos.addAndGet(i, waitNanos);
+
+        for (; ; ) {
+            long max = maxWaitNanos.get(i);
+            if (waitNanos <= max || maxWaitNanos.compareAndSet(i, max, waitNanos)) {
+                return;
+            }
+        }
+    }
+
+    void recordDiscard(OperationPriority priority) {
+        depth.decrementAndGet(priority.ordinal());
+    }
+
+    void recordPreempt() {
+        preemptCount.incrementAndGet();
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.theta4j.ptp.PtpException;
+import org.theta4j.ptp.code.EventCode;
+import org.theta4j.ptp.code.ResponseCode;
+import org.theta4j.ptp.data.Event;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.util.Validators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Captures initiated and waiting for CaptureComplete, by the TransactionID of InitiateCapture.
+ * <p>
+ * A capture is opened before InitiateCapture is sent, and is given its TransactionID once it is known.
+ * ObjectAdded does not refer to a transaction, so the object is given to the oldest capture without an object.
+ * CaptureComplete and StoreFull which arrive before the TransactionID is given are kept until then.
+ * This class is thread-safe.
+ */
+final class PendingCaptureTable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PendingCaptureTable.class);
+
+    /**
+     * The number of completion events kept for captures whose TransactionID is not given yet.
+     */
+    private static final int MAX_EARLY_EVENTS = 16;
+
+    // Guarded by the lock of this object
+
+    private final Map<UINT32, Capture> capturesByTransactionID = new HashMap<>();
+
+    /**
+     * The open captures in the opened order.
+     */
+    private final List<Capture> openCaptures = new LinkedList<>();
+
+    private final Map<UINT32, Event> earlyEvents = new LinkedHashMap<UINT32, Event>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UINT32, Event> eldest) {
+            return MAX_EARLY_EVENTS < size();
+        }
+    };
+
+    private ScheduledThreadPoolExecutor deadlineTimer;
+    private boolean isClosed = false;
+
+    // Getter
+
+    /**
+     * Returns the number of captures not completed yet.
+     */
+    synchronized int pendingCount() {
+        return openCaptures.size();
+    }
+
+    // Capture
+
+    /**
+     * Open a capture before sending InitiateCapture.
+     * The captures must be opened in the order of InitiateCapture, since ObjectAdded is matched in the opened order.
+     *
+     * @param timeout The time to wait for CaptureComplete, or 0 to wait forever.
+     * @throws IOException if the table is closed.
+     */
+    synchronized Capture open(long timeout, TimeUnit unit) throws IOException {
+        Validators.notNull("unit", unit);
+        Validators.rangeEq("timeout", timeout, 0L, Long.MAX_VALUE);
+
+        if (isClosed) {
+            throw new IOException("The session is closed.");
+        }
+
+        final Capture capture = new Capture();
+        openCaptures.add(capture);
+
+        if (0 < timeout) {
+            capture.deadline = deadlineTimer().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    expire(capture);
+                }
+            }, timeout, unit);
+        }
+        return capture;
+    }
+
+    /**
+     * Give the TransactionID of InitiateCapture to the capture.
+     */
+    void assign(Capture capture, UINT32 transactionID) {
+        Validators.notNull("capture", capture);
+        Validators.notNull("transactionID", transactionID);
+
+        Event early;
+        synchronized (this) {
+            if (capture.future.isDone()) {
+                return;
+            }
+            capture.transactionID = transactionID;
+            capturesByTransactionID.put(transactionID, capture);
+            early = earlyEvents.remove(transactionID);
+        }
+
+        if (early != null) {
+            onEvent(early);
+        }
+    }
+
+    /**
+     * Fail the capture since InitiateCapture failed.
+     */
+    void abandon(Capture capture, Throwable cause) {
+        Validators.notNull("capture", capture);
+        Validators.notNull("cause", cause);
+
+        synchronized (this) {
+            remove(capture);
+        }
+        capture.future.fail(cause);
+    }
+
+    /**
+     * Fail the open captures, and reject further captures.
+     */
+    void close() {
+        List<Capture> closed;
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+
+            closed = new ArrayList<>(openCaptures);
+            openCaptures.clear();
+            capturesByTransactionID.clear();
+            earlyEvents.clear();
+
+            if (deadlineTimer != null) {
+                deadlineTimer.shutdownNow();
+            }
+        }
+
+        for (Capture capture : closed) {
+            capture.future.fail(new IOException("The session is closed."));
+        }
+    }
+
+    // Event
+
+    /**
+     * Update the captures by the event of the camera.
+     *
+     * @throws NullPointerException if event is null.
+     */
+    void onEvent(Event event) {
+        Validators.notNull("event", event);
+
+        Capture completed;
+        Throwable cause = null;
+        synchronized (this) {
+            if (event.getEventCode().equals(EventCode.OBJECT_ADDED.value())) {
+                for (Capture capture : openCaptures) {
+                    if (capture.objectHandle == null) {
+                        capture.objectHandle = event.getP1();
+                        return;
+                    }
+                }
+                return;
+            }
+
+            UINT32 transactionID;
+            if (event.getEventCode().equals(EventCode.CAPTURE_COMPLETE.value())) {
+                transactionID = event.getP1();
+            } else if (event.getEventCode().equals(EventCode.STORE_FULL.value())) {
+                transactionID = event.getTransactionID();
+                cause = new PtpException(ResponseCode.STORE_FULL.value());
+            } else {
+                return;
+            }
+
+            completed = capturesByTransactionID.get(transactionID);
+            if (completed == null) {
+                if (hasUnassignedCapture()) {
+                    earlyEvents.put(transactionID, event);
+                }
+                return;
+            }
+            remove(completed);
+        }
+
+        if (cause != null) {
+            completed.future.fail(cause);
+        } else {
+            completed.future.succeed(completed.objectHandle);
+        }
+    }
+
+    // Private Method
+
+    private void expire(Capture capture) {
+        synchronized (this) {
+            if (!remove(capture)) {
+                return;
+            }
+        }
+
+        LOGGER.warn("CaptureComplete did not arrive for the transaction " + capture.transactionID);
+        capture.future.fail(new TimeoutException("CaptureComplete did not arrive in time."));
+    }
+
+    /**
+     * Remove the capture from the table. Must be called with the lock.
+     *
+     * @return false if the capture is already removed.
+     */
+    private boolean remove(Capture capture) {
+        if (capture.deadline != null) {
+            capture.deadline.cancel(false);
+        }
+
+        if (capture.transactionID != null) {
+            capturesByTransactionID.remove(capture.transactionID);
+        }
+        return openCaptures.remove(capture);
+    }
+
+    /**
+     * Must be called with the lock.
+     */
+    private boolean hasUnassignedCapture() {
+        for (Capture capture : openCaptures) {
+            if (capture.transactionID == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Must be called with the lock.
+     */
+    private ScheduledThreadPoolExecutor deadlineTimer() {
+        if (deadlineTimer == null) {
+            deadlineTimer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "theta4j-capture-deadline");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            deadlineTimer.setRemoveOnCancelPolicy(true);
+        }
+        return deadlineTimer;
+    }
+
+    // Inner Types
+
+    /**
+     * A capture waiting for CaptureComplete.
+     */
+    static final class Capture {
+        final OperationFuture<UINT32> future = new OperationFuture<>();
+
+        // Guarded by the lock of the table
+        UINT32 transactionID;
+        UINT32 objectHandle;
+        ScheduledFuture<?> deadline;
+
+        private Capture() {
+        }
+    }
+}
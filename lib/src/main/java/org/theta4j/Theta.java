@@ -7,32 +7,52 @@ package org.theta4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.theta4j.data.*;
+import org.theta4j.ptp.CancelCondition;
+import org.theta4j.ptp.DataBufferAllocator;
+import org.theta4j.ptp.DataHandler;
+import org.theta4j.ptp.DataPhaseCancelledException;
 import org.theta4j.ptp.PtpEventListener;
 import org.theta4j.ptp.PtpException;
 import org.theta4j.ptp.PtpInitiator;
-import org.theta4j.ptp.code.EventCode;
+import org.theta4j.ptp.code.Code;
 import org.theta4j.ptp.code.OperationCode;
 import org.theta4j.ptp.code.ResponseCode;
 import org.theta4j.ptp.data.DeviceInfo;
 import org.theta4j.ptp.data.Event;
 import org.theta4j.ptp.data.ObjectInfo;
 import org.theta4j.ptp.data.Response;
+import org.theta4j.ptp.io.PtpByteBufferReader;
+import org.theta4j.ptp.io.PtpInputStream;
 import org.theta4j.ptp.type.*;
+import org.theta4j.ptpip.ConnectionOptions;
 import org.theta4j.ptpip.PtpIpInitiator;
+import org.theta4j.ptpip.transport.TcpTransport;
+import org.theta4j.ptpip.transport.Transport;
 import org.theta4j.util.Validators;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class provides the interface for RICOH THETA on PTP-IP.
@@ -40,14 +60,31 @@ import java.util.concurrent.atomic.AtomicReference;
 public final class Theta implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(Theta.class);
 
-    private static final UINT32 SESSION_ID = new UINT32(1);
+    private static final UINT32 SESSION_ID = UINT32.valueOf(1);
     private static final String IP_ADDRESS = "192.168.1.1";
     private static final int TCP_PORT = 15740;
 
     private static final String DATE_TIME_FORMAT = "yyyyMMdd'T'HHmmss";
 
+    private static final int STRING_DEDUP_TABLE_SIZE = 256;
+
+    private static final UINT32 MAX_PARTIAL_OBJECT_LENGTH = UINT32.valueOf(0xFFFFFFFFL);
+
+    private static final CancelCondition NEVER_CANCEL = new CancelCondition() {
+        @Override
+        public boolean isCancelRequested() {
+            return false;
+        }
+    };
+
     private final PtpInitiator ptpInitiator;
     private final ThetaEventListenerSet listenerSet = new ThetaEventListenerSet();
+    private final OperationQueue operationQueue;
+    private final PendingCaptureTable captureTable = new PendingCaptureTable();
+
+    // Shared by object info reads, so repeated dates and keywords of a catalog scan share one String.
+    // Guarded by the lock of this object.
+    private final PtpStringCodec stringCodec = new PtpStringCodec(STRING_DEDUP_TABLE_SIZE);
 
     /**
      * Connect to THETA.
@@ -56,11 +93,62 @@ public final class Theta implements Closeable {
      * @throws PtpException if the PTP response is not OK.
      */
     public Theta() throws IOException {
-        ptpInitiator = new PtpIpInitiator(UUID.randomUUID(), IP_ADDRESS, TCP_PORT);
+        this(ConnectionOptions.DEFAULT);
+    }
+
+    /**
+     * Connect to THETA with the options of the connections.
+     *
+     * @throws NullPointerException if options is null.
+     * @throws IOException          if an I/O error occurs while connecting THETA.
+     * @throws PtpException         if the PTP response is not OK.
+     */
+    public Theta(ConnectionOptions options) throws IOException {
+        this(new TcpTransport(IP_ADDRESS, TCP_PORT), options);
+    }
+
+    /**
+     * Connect to THETA through the transport, such as a responder in the same process.
+     *
+     * @throws NullPointerException if an argument is null.
+     * @throws IOException          if an I/O error occurs while connecting THETA.
+     * @throws PtpException         if the PTP response is not OK.
+     */
+    public Theta(Transport transport, ConnectionOptions options) throws IOException {
+        this(transport, options, new OperationQueue(null));
+    }
+
+    /**
+     * Connect to THETA through the transport, and run the asynchronous operations on the executor.
+     * <p>
+     * The executor may be shared by many sessions. Each session runs one operation at a time on it.
+     *
+     * @throws NullPointerException if an argument is null.
+     * @throws IOException          if an I/O error occurs while connecting THETA.
+     * @throws PtpException         if the PTP response is not OK.
+     */
+    public Theta(Transport transport, ConnectionOptions options, Executor executor) throws IOException {
+        this(transport, options, newOperationQueue(executor));
+    }
+
+    private static OperationQueue newOperationQueue(Executor executor) {
+        Validators.notNull("executor", executor);
+
+        return new OperationQueue(executor);
+    }
+
+    private Theta(Transport transport, ConnectionOptions options, OperationQueue operationQueue) throws IOException {
+        Validators.notNull("transport", transport);
+        Validators.notNull("options", options);
+
+        this.operationQueue = operationQueue;
+
+        ptpInitiator = new PtpIpInitiator(UUID.randomUUID(), transport, options);
 
         ptpInitiator.addListener(new PtpEventListener() {
             @Override
             public void onEvent(Event event) {
+                captureTable.onEvent(event);
                 listenerSet.raise(event);
             }
         });
@@ -87,7 +175,7 @@ public final class Theta implements Closeable {
      * @throws PtpException if the PTP response is not OK.
      */
     public synchronized long getNumObjects() throws IOException {
-        UINT32 storageID = new UINT32(0xFFFFFFFFL);
+        UINT32 storageID = UINT32.valueOf(0xFFFFFFFFL);
 
         ptpInitiator.sendOperation(OperationCode.GET_NUM_OBJECTS, storageID);
         Response response = ptpInitiator.checkAndReadResponse();
@@ -97,15 +185,32 @@ public final class Theta implements Closeable {
 
     /**
      * Returns a list of the object handles.
+     * <p>
+     * The returned list is unmodifiable, and is backed by a primitive array.
      *
      * @throws IOException  if an I/O error occurs while getting the list of object handles.
      * @throws PtpException if the PTP response is not OK.
      */
     public synchronized List<UINT32> getObjectHandles() throws IOException {
-        UINT32 storageID = new UINT32(0xFFFFFFFFL);
+        return getObjectHandleArray();
+    }
+
+    /**
+     * Returns the object handles as a primitive backed array.
+     *
+     * @throws IOException  if an I/O error occurs while getting the list of object handles.
+     * @throws PtpException if the PTP response is not OK.
+     */
+    public synchronized UINT32Array getObjectHandleArray() throws IOException {
+        UINT32 storageID = UINT32.valueOf(0xFFFFFFFFL);
 
         ptpInitiator.sendOperation(OperationCode.GET_OBJECT_HANDLES, storageID);
-        List<UINT32> objectHandles = AUINT32.read(ptpInitiator.receiveData());
+        UINT32Array objectHandles = ptpInitiator.receiveData(new DataHandler<UINT32Array>() {
+            @Override
+            public UINT32Array handle(ByteBuffer data) throws IOException {
+                return UINT32Array.read(data);
+            }
+        });
         ptpInitiator.checkAndReadResponse();
 
         return objectHandles;
@@ -123,7 +228,12 @@ public final class Theta implements Closeable {
         Validators.notNull("objectHandle", objectHandle);
 
         ptpInitiator.sendOperation(OperationCode.GET_OBJECT_INFO, objectHandle);
-        ObjectInfo objectInfo = ObjectInfo.read(ptpInitiator.receiveData());
+        ObjectInfo objectInfo = ptpInitiator.receiveData(new DataHandler<ObjectInfo>() {
+            @Override
+            public ObjectInfo handle(ByteBuffer data) throws IOException {
+                return ObjectInfo.read(new PtpByteBufferReader(data, stringCodec));
+            }
+        });
         ptpInitiator.checkAndReadResponse();
 
         return objectInfo;
@@ -147,6 +257,86 @@ public final class Theta implements Closeable {
         ptpInitiator.checkAndReadResponse();
     }
 
+    /**
+     * Retrieves the object's data and writes to the file.
+     * <p>
+     * The data is received into a new file in the same directory, which replaces the file once the transfer succeeds.
+     * The file is left as it is if the transfer fails.
+     *
+     * @param objectHandle The ObjectHandle of the object to acquire the data.
+     * @param dst          The path of the file to write the object's data.
+     * @throws IOException          if an I/O error occurs while receiving data or writing the file.
+     * @throws PtpException         if the PTP response is not OK.
+     * @throws NullPointerException if an argument is null.
+     */
+    public synchronized void getObject(UINT32 objectHandle, Path dst) throws IOException {
+        Validators.notNull("objectHandle", objectHandle);
+        Validators.notNull("dst", dst);
+
+        Path partialFile = partialFileOf(dst);
+        try {
+            FileChannel fileChannel = FileChannel.open(partialFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            try {
+                ptpInitiator.sendOperation(OperationCode.GET_OBJECT, objectHandle);
+                ptpInitiator.receiveData(fileChannel);
+                ptpInitiator.checkAndReadResponse();
+            } finally {
+                fileChannel.close();
+            }
+            replace(partialFile, dst);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partialFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the object's data into a file mapped on memory.
+     * <p>
+     * A new file in the same directory is mapped for exactly the size of the object announced by the camera,
+     * and replaces the file once the transfer succeeds. The file is left as it is if the transfer fails.
+     * The data is received directly into the mapped buffer, which stays valid after this method returns.
+     *
+     * @param objectHandle The ObjectHandle of the object to acquire the data.
+     * @param file         The path of the file to map.
+     * @return The buffer mapped on the file, whose position is 0 and limit is the size of the object.
+     * @throws IOException          if an I/O error occurs while receiving data or mapping the file,
+     *                              or the received data length does not match the announced length.
+     * @throws PtpException         if the PTP response is not OK.
+     * @throws NullPointerException if an argument is null.
+     */
+    public synchronized MappedByteBuffer getObjectMapped(UINT32 objectHandle, Path file) throws IOException {
+        Validators.notNull("objectHandle", objectHandle);
+        Validators.notNull("file", file);
+
+        Path partialFile = partialFileOf(file);
+        try {
+            ByteBuffer buffer;
+            final FileChannel fileChannel = FileChannel.open(partialFile,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                ptpInitiator.sendOperation(OperationCode.GET_OBJECT, objectHandle);
+                buffer = ptpInitiator.receiveDataAsBuffer(new DataBufferAllocator() {
+                    @Override
+                    public ByteBuffer allocate(long totalDataLength) throws IOException {
+                        if (totalDataLength < 0 || Integer.MAX_VALUE < totalDataLength) {
+                            throw new IOException("The object is too large to map: " + totalDataLength);
+                        }
+                        return fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, totalDataLength);
+                    }
+                });
+                ptpInitiator.checkAndReadResponse();
+            } finally {
+                fileChannel.close();
+            }
+            replace(partialFile, file);
+            return (MappedByteBuffer) buffer;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partialFile);
+            throw e;
+        }
+    }
+
     /**
      * Retrieves the object's thumbnail data and writes to the dst.
      *
@@ -181,53 +371,103 @@ public final class Theta implements Closeable {
     }
 
     /**
-     * Captures an image synchronously.
+     * Sends the object information and the object's data read from the file.
+     * <p>
+     * The file is streamed in bounded-size packets, so that it is never held in memory.
+     * The camera decides the storage and the parent object of the new object.
      *
-     * @return The object handle of captured image.
-     * @throws IOException          if an I/O error occurs while capturing an image.
-     * @throws PtpException         if the PTP response is not OK.
-     * @throws InterruptedException The invoker thread is interrupted while capturing an image.
+     * @param objectInfo The information of the object. Its ObjectCompressedSize must be the size of the file.
+     * @param file       The path of the file to send.
+     * @return The ObjectHandle of the new object.
+     * @throws IOException              if an I/O error occurs while reading the file or sending the object.
+     * @throws PtpException             if the PTP response is not OK.
+     * @throws IllegalArgumentException if ObjectCompressedSize of objectInfo is not the size of the file.
+     * @throws NullPointerException     if an argument is null.
      */
-    public synchronized UINT32 initiateCapture() throws IOException, InterruptedException {
-        final CountDownLatch latch = new CountDownLatch(1);
-        final AtomicBoolean storeFull = new AtomicBoolean(false);
-        final AtomicReference<UINT32> transactionIDRef = new AtomicReference<>();
-        final AtomicReference<UINT32> objectHandleRef = new AtomicReference<>();
+    public synchronized UINT32 sendObject(ObjectInfo objectInfo, Path file) throws IOException {
+        Validators.notNull("objectInfo", objectInfo);
+        Validators.notNull("file", file);
 
-        PtpEventListener listener = new PtpEventListener() {
-            @Override
-            public void onEvent(Event event) {
-                if (event.getEventCode().equals(EventCode.OBJECT_ADDED.value())) {
-                    objectHandleRef.set(event.getP1());
-                } else if (event.getEventCode().equals(EventCode.STORE_FULL.value())) {
-                    if (transactionIDRef.get().equals(event.getTransactionID())) {
-                        storeFull.set(true);
-                        latch.countDown();
-                    }
-                } else if (event.getEventCode().equals(EventCode.CAPTURE_COMPLETE.value())) {
-                    if (transactionIDRef.get().equals(event.getP1())) {
-                        latch.countDown();
-                    }
-                }
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = fileChannel.size();
+            if (objectInfo.getObjectCompressedSize().longValue() != size) {
+                throw new IllegalArgumentException(String.format("ObjectCompressedSize is %s but the file size is %d",
+                        objectInfo.getObjectCompressedSize().longValue(), size));
             }
-        };
 
-        try {
-            ptpInitiator.addListener(listener);
+            ptpInitiator.sendOperation(OperationCode.SEND_OBJECT_INFO, UINT32.ZERO, UINT32.ZERO);
+            ptpInitiator.sendData(objectInfo.bytes());
+            Response response = ptpInitiator.checkAndReadResponse();
 
-            transactionIDRef.set(ptpInitiator.sendOperation(OperationCode.INITIATE_CAPTURE));
+            ptpInitiator.sendOperation(OperationCode.SEND_OBJECT);
+            ptpInitiator.sendData(fileChannel, size);
             ptpInitiator.checkAndReadResponse();
 
-            latch.await();
+            // P1: StorageID, P2: Parent ObjectHandle, P3: ObjectHandle
+            return response.getP3();
+        } finally {
+            fileChannel.close();
+        }
+    }
 
-            if (storeFull.get()) {
-                throw new PtpException(ResponseCode.STORE_FULL.value());
+    /**
+     * Captures an image synchronously.
+     * <p>
+     * The session is not locked while the camera processes the image, so other threads can use it meanwhile.
+     *
+     * @return The object handle of captured image.
+     * @throws IOException          if an I/O error occurs while capturing an image.
+     * @throws PtpException         if the PTP response is not OK.
+     * @throws InterruptedException The invoker thread is interrupted while capturing an image.
+     */
+    public UINT32 initiateCapture() throws IOException, InterruptedException {
+        OperationFuture<UINT32> capture = startCapture(0, TimeUnit.MILLISECONDS);
+        try {
+            return capture.get();
+        } catch (InterruptedException e) {
+            capture.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
             }
+            throw new IOException(e.getCause());
+        }
+    }
 
-            return objectHandleRef.get();
-        } finally {
-            ptpInitiator.removeListener(listener);
+    /**
+     * Captures an image, and returns once the camera accepts the capture.
+     * <p>
+     * The session is available for other operations, such as retrieving the objects of earlier captures,
+     * while the camera processes the image.
+     * The returned future completes by the object handle of the captured image when CaptureComplete arrives.
+     * It fails by PtpException of StoreFull if the storage becomes full,
+     * and by TimeoutException if CaptureComplete does not arrive within the timeout.
+     *
+     * @param timeout The time to wait for CaptureComplete, or 0 to wait forever.
+     * @return The future of the object handle of the captured image.
+     * @throws IOException              if an I/O error occurs while initiating the capture.
+     * @throws PtpException             if the PTP response is not OK.
+     * @throws IllegalArgumentException if timeout is negative.
+     * @throws NullPointerException     if unit is null.
+     */
+    public OperationFuture<UINT32> startCapture(long timeout, TimeUnit unit) throws IOException {
+        PendingCaptureTable.Capture capture;
+        synchronized (this) {
+            // Opened with the lock, so that the captures are in the table in the order of InitiateCapture,
+            // which is the order of ObjectAdded.
+            capture = captureTable.open(timeout, unit);
+            try {
+                captureTable.assign(capture, ptpInitiator.sendOperation(OperationCode.INITIATE_CAPTURE));
+                ptpInitiator.checkAndReadResponse();
+            } catch (IOException | RuntimeException e) {
+                captureTable.abandon(capture, e);
+                throw e;
+            }
         }
+
+        return capture.future;
     }
 
     /**
@@ -238,7 +478,7 @@ public final class Theta implements Closeable {
      * @see #initiateOpenCapture()
      */
     public synchronized void terminateOpenCapture() throws IOException {
-        UINT32 transactionID = new UINT32(0xFFFFFFFFL);
+        UINT32 transactionID = UINT32.valueOf(0xFFFFFFFFL);
 
         ptpInitiator.sendOperation(OperationCode.TERMINATE_OPEN_CAPTURE, transactionID);
         ptpInitiator.checkAndReadResponse();
@@ -564,7 +804,7 @@ public final class Theta implements Closeable {
      * @throws PtpException if the PTP response is not OK.
      */
     public synchronized GPSInfo getGPSInfo() throws IOException {
-        String gpsInfoStr = STR.read(ptpInitiator.getDevicePropValue(DevicePropCode.GPS_INFO));
+        String gpsInfoStr = ptpInitiator.getDevicePropValueAsString(DevicePropCode.GPS_INFO);
         try {
             return GPSInfo.parse(gpsInfoStr);
         } catch (ParseException e) {
@@ -699,6 +939,547 @@ public final class Theta implements Closeable {
         return ptpInitiator.getDevicePropValueAsUINT16(DevicePropCode.REMAINING_RECORDING_TIME).intValue();
     }
 
+    /**
+     * Acquires the value of the device property, such as of the property which has no accessor in this class.
+     * The value is decoded by the data type, such as into UINT16 for UINT16, List of UINT16 for AUINT16 and String for STR.
+     *
+     * @throws IOException                   if an I/O error occurs getting the value.
+     * @throws PtpException                  if the PTP response is not OK.
+     * @throws NullPointerException          if an argument is null.
+     * @throws UnsupportedOperationException if dataType can not be decoded.
+     */
+    public synchronized Object getDevicePropValue(Code<UINT16> devicePropCode, DataType dataType) throws IOException {
+        Validators.notNull("devicePropCode", devicePropCode);
+        Validators.notNull("dataType", dataType);
+
+        try (PtpInputStream value = new PtpInputStream(ptpInitiator.getDevicePropValue(devicePropCode))) {
+            return value.readAs(dataType);
+        }
+    }
+
+    /**
+     * Sets the integer value of the device property, such as of the property which has no accessor in this class.
+     *
+     * @throws IOException          if an I/O error occurs setting the value.
+     * @throws PtpException         if the PTP response is not OK.
+     * @throws NullPointerException if an argument is null.
+     */
+    public synchronized void setDevicePropValue(Code<UINT16> devicePropCode, PtpInteger value) throws IOException {
+        Validators.notNull("devicePropCode", devicePropCode);
+        Validators.notNull("value", value);
+
+        ptpInitiator.setDevicePropValue(devicePropCode, value);
+    }
+
+    /**
+     * Sets the string value of the device property, such as of the property which has no accessor in this class.
+     *
+     * @throws IOException          if an I/O error occurs setting the value.
+     * @throws PtpException         if the PTP response is not OK.
+     * @throws NullPointerException if an argument is null.
+     */
+    public synchronized void setDevicePropValue(Code<UINT16> devicePropCode, String value) throws IOException {
+        Validators.notNull("devicePropCode", devicePropCode);
+        Validators.notNull("value", value);
+
+        ptpInitiator.setDevicePropValue(devicePropCode, value);
+    }
+
+    // Asynchronous Operation
+
+    /**
+     * Queue the operation with the METADATA priority, which typically calls methods of this object.
+     *
+     * @return The future of the result of the operation.
+     * @throws NullPointerException if operation is null.
+     * @see #submit(OperationPriority, Object, Callable)
+     */
+    public <V> OperationFuture<V> submit(Callable<V> operation) {
+        return submit(OperationPriority.METADATA, null, operation);
+    }
+
+    /**
+     * Queue the operation with the priority, on behalf of the calling thread.
+     *
+     * @return The future of the result of the operation.
+     * @throws NullPointerException if priority or operation is null.
+     * @see #submit(OperationPriority, Object, Callable)
+     */
+    public <V> OperationFuture<V> submit(OperationPriority priority, Callable<V> operation) {
+        return submit(priority, null, operation);
+    }
+
+    /**
+     * Queue the operation with the priority, which typically calls methods of this object.
+     * <p>
+     * Queued operations of a session run one by one on the executor given to the constructor
+     * or on a thread of the session. An operation runs before any operation of lower priority.
+     * Operations of the same priority are taken from their callers in turn,
+     * and the operations of the same caller run in the submitted order.
+     * Pending operations are cancelled when the session is closed.
+     * <p>
+     * Only the transfers of {@link #getObjectAsync(UINT32, OutputStream)} and {@link #getObjectAsync(UINT32, Path)}
+     * are preempted by operations of higher priority.
+     *
+     * @param caller The key to share the turns of the priority with other callers, or null for the calling thread.
+     * @return The future of the result of the operation.
+     * @throws NullPointerException if priority or operation is null.
+     */
+    public <V> OperationFuture<V> submit(OperationPriority priority, Object caller, Callable<V> operation) {
+        return operationQueue.submit(priority, caller, operation);
+    }
+
+    /**
+     * Returns the queue depth and the wait time of the asynchronous operations.
+     */
+    public OperationQueueMetrics getOperationMetrics() {
+        return operationQueue.getMetrics();
+    }
+
+    /**
+     * Asynchronous version of {@link #getDeviceInfo()}.
+     */
+    public OperationFuture<DeviceInfo> getDeviceInfoAsync() {
+        return submit(OperationPriority.METADATA, new Callable<DeviceInfo>() {
+            @Override
+            public DeviceInfo call() throws IOException {
+                return getDeviceInfo();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getNumObjects()}.
+     */
+    public OperationFuture<Long> getNumObjectsAsync() {
+        return submit(OperationPriority.METADATA, new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                return getNumObjects();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getObjectHandles()}.
+     */
+    public OperationFuture<List<UINT32>> getObjectHandlesAsync() {
+        return submit(OperationPriority.METADATA, new Callable<List<UINT32>>() {
+            @Override
+            public List<UINT32> call() throws IOException {
+                return getObjectHandles();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getObjectInfo(UINT32)}.
+     *
+     * @throws NullPointerException if objectHandle is null.
+     */
+    public OperationFuture<ObjectInfo> getObjectInfoAsync(final UINT32 objectHandle) {
+        Validators.notNull("objectHandle", objectHandle);
+
+        return submit(OperationPriority.METADATA, new Callable<ObjectInfo>() {
+            @Override
+            public ObjectInfo call() throws IOException {
+                return getObjectInfo(objectHandle);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getObject(UINT32, OutputStream)} with the BULK priority.
+     * The dst is written by the thread which runs the operation.
+     * <p>
+     * The transfer is preempted when an operation of higher priority is queued.
+     * It is cancelled between the packets of the data, and resumed by GetPartialObject after the operation.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<Void> getObjectAsync(final UINT32 objectHandle, final OutputStream dst) {
+        Validators.notNull("objectHandle", objectHandle);
+        Validators.notNull("dst", dst);
+
+        return submit(OperationPriority.BULK, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                getObjectPreemptibly(objectHandle, Channels.newChannel(dst));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getObject(UINT32, Path)} with the BULK priority.
+     * <p>
+     * The transfer is preempted when an operation of higher priority is queued.
+     * It is cancelled between the packets of the data, and resumed by GetPartialObject after the operation.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<Void> getObjectAsync(final UINT32 objectHandle, final Path dst) {
+        Validators.notNull("objectHandle", objectHandle);
+        Validators.notNull("dst", dst);
+
+        return submit(OperationPriority.BULK, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                Path partialFile = partialFileOf(dst);
+                try {
+                    FileChannel fileChannel = FileChannel.open(partialFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    try {
+                        getObjectPreemptibly(objectHandle, fileChannel);
+                    } finally {
+                        fileChannel.close();
+                    }
+                    replace(partialFile, dst);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(partialFile);
+                    throw e;
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Retrieves the object's data, giving the session to the queued operations of higher priority between packets.
+     * Must be called by the running operation of the queue, without the lock of this object.
+     */
+    private void getObjectPreemptibly(UINT32 objectHandle, WritableByteChannel dst) throws IOException {
+        long offset = 0;
+        for (; ; ) {
+            synchronized (this) {
+                if (offset == 0) {
+                    ptpInitiator.sendOperation(OperationCode.GET_OBJECT, objectHandle);
+                } else {
+                    // P1: ObjectHandle, P2: Offset in bytes, P3: Maximum number of bytes
+                    ptpInitiator.sendOperation(OperationCode.GET_PARTIAL_OBJECT, objectHandle, new UINT32(offset), MAX_PARTIAL_OBJECT_LENGTH);
+                }
+
+                try {
+                    ptpInitiator.receiveData(dst, newPreemptCondition(offset));
+                    ptpInitiator.checkAndReadResponse();
+                    return;
+                } catch (DataPhaseCancelledException e) {
+                    offset += e.getReceivedLength();
+                    if (!isResumable(e)) {
+                        return;
+                    }
+
+                    LOGGER.debug("Preempted the transfer of " + objectHandle + " at " + offset + " bytes: " + e.getResponseCode());
+                }
+            }
+
+            operationQueue.preempt(OperationPriority.BULK);
+        }
+    }
+
+    /**
+     * Returns true if the rest of the cancelled transfer is to be retrieved by GetPartialObject,
+     * or false if the whole data is received.
+     *
+     * @throws PtpException if the ResponseCode is neither TransactionCancelled nor OK.
+     */
+    private static boolean isResumable(DataPhaseCancelledException e) throws PtpException {
+        UINT16 responseCode = e.getResponseCode();
+        if (responseCode == null || ResponseCode.TRANSACTION_CANCELLED.value().equals(responseCode)) {
+            return true;
+        }
+
+        if (ResponseCode.OK.value().equals(responseCode)) {
+            // The responder had sent the data before the Cancel arrived, and the rest was discarded if any.
+            long totalDataLength = e.getTotalDataLength();
+            return totalDataLength < 0 || e.getReceivedLength() < totalDataLength;
+        }
+
+        throw new PtpException(responseCode);
+    }
+
+    /**
+     * Returns the condition to preempt a transfer from the offset. The offset of GetPartialObject is 32 bits,
+     * so a transfer is not preempted once it can not be resumed.
+     */
+    private CancelCondition newPreemptCondition(long offset) {
+        if (MAX_PARTIAL_OBJECT_LENGTH.longValue() <= offset) {
+            return NEVER_CANCEL;
+        }
+
+        return new CancelCondition() {
+            @Override
+            public boolean isCancelRequested() {
+                return operationQueue.hasWaitingAbove(OperationPriority.BULK);
+            }
+        };
+    }
+
+    /**
+     * Asynchronous version of {@link #getThumb(UINT32, OutputStream)}.
+     * The dst is written by the thread which runs the operation.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<Void> getThumbAsync(final UINT32 objectHandle, final OutputStream dst) {
+        Validators.notNull("objectHandle", objectHandle);
+        Validators.notNull("dst", dst);
+
+        return submit(OperationPriority.THUMBNAIL, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                getThumb(objectHandle, dst);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getResizedImageObject(UINT32, OutputStream)}.
+     * The dst is written by the thread which runs the operation.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<Void> getResizedImageObjectAsync(final UINT32 objectHandle, final OutputStream dst) {
+        Validators.notNull("objectHandle", objectHandle);
+        Validators.notNull("dst", dst);
+
+        return submit(OperationPriority.THUMBNAIL, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                getResizedImageObject(objectHandle, dst);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteObject(UINT32)}.
+     *
+     * @throws NullPointerException if objectHandle is null.
+     */
+    public OperationFuture<Void> deleteObjectAsync(final UINT32 objectHandle) {
+        Validators.notNull("objectHandle", objectHandle);
+
+        return submit(OperationPriority.CONTROL, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                deleteObject(objectHandle);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #sendObject(ObjectInfo, Path)}.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<UINT32> sendObjectAsync(final ObjectInfo objectInfo, final Path file) {
+        Validators.notNull("objectInfo", objectInfo);
+        Validators.notNull("file", file);
+
+        return submit(OperationPriority.BULK, new Callable<UINT32>() {
+            @Override
+            public UINT32 call() throws IOException {
+                return sendObject(objectInfo, file);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #initiateCapture()}.
+     * The queued operations run while the camera processes the image.
+     */
+    public OperationFuture<UINT32> initiateCaptureAsync() {
+        return initiateCaptureAsync(0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Asynchronous version of {@link #startCapture(long, TimeUnit)}.
+     * The returned future completes when CaptureComplete arrives, and the queued operations run meanwhile.
+     * Cancelling the returned future cancels InitiateCapture if it is not sent yet.
+     *
+     * @param timeout The time to wait for CaptureComplete, or 0 to wait forever.
+     * @throws IllegalArgumentException if timeout is negative.
+     * @throws NullPointerException     if unit is null.
+     */
+    public OperationFuture<UINT32> initiateCaptureAsync(final long timeout, final TimeUnit unit) {
+        Validators.notNull("unit", unit);
+        Validators.rangeEq("timeout", timeout, 0L, Long.MAX_VALUE);
+
+        final OperationFuture<UINT32> result = new OperationFuture<>();
+        final OperationFuture<OperationFuture<UINT32>> started = submit(OperationPriority.CONTROL, new Callable<OperationFuture<UINT32>>() {
+            @Override
+            public OperationFuture<UINT32> call() throws IOException {
+                return startCapture(timeout, unit);
+            }
+        });
+        started.addCallback(new OperationCallback<OperationFuture<UINT32>>() {
+            @Override
+            public void onSuccess(OperationFuture<UINT32> capture) {
+                capture.addCallback(new OperationCallback<UINT32>() {
+                    @Override
+                    public void onSuccess(UINT32 objectHandle) {
+                        result.succeed(objectHandle);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable cause) {
+                        result.fail(cause);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                result.fail(cause);
+            }
+        });
+        result.addCallback(new OperationCallback<UINT32>() {
+            @Override
+            public void onSuccess(UINT32 objectHandle) {
+                // The capture is completed.
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                if (result.isCancelled()) {
+                    started.cancel(false);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Asynchronous version of {@link #initiateOpenCapture()}.
+     */
+    public OperationFuture<UINT32> initiateOpenCaptureAsync() {
+        return submit(OperationPriority.CONTROL, new Callable<UINT32>() {
+            @Override
+            public UINT32 call() throws IOException {
+                return initiateOpenCapture();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #terminateOpenCapture()}.
+     */
+    public OperationFuture<Void> terminateOpenCaptureAsync() {
+        return submit(OperationPriority.CONTROL, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                terminateOpenCapture();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getBatteryLevel()}.
+     */
+    public OperationFuture<BatteryLevel> getBatteryLevelAsync() {
+        return submit(OperationPriority.CONTROL, new Callable<BatteryLevel>() {
+            @Override
+            public BatteryLevel call() throws IOException {
+                return getBatteryLevel();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getCaptureStatus()}.
+     */
+    public OperationFuture<CaptureStatus> getCaptureStatusAsync() {
+        return submit(OperationPriority.CONTROL, new Callable<CaptureStatus>() {
+            @Override
+            public CaptureStatus call() throws IOException {
+                return getCaptureStatus();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #getDevicePropValue(Code, DataType)}.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<Object> getDevicePropValueAsync(final Code<UINT16> devicePropCode, final DataType dataType) {
+        Validators.notNull("devicePropCode", devicePropCode);
+        Validators.notNull("dataType", dataType);
+
+        return submit(OperationPriority.CONTROL, new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                return getDevicePropValue(devicePropCode, dataType);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #setDevicePropValue(Code, PtpInteger)}.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<Void> setDevicePropValueAsync(final Code<UINT16> devicePropCode, final PtpInteger value) {
+        Validators.notNull("devicePropCode", devicePropCode);
+        Validators.notNull("value", value);
+
+        return submit(OperationPriority.CONTROL, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                setDevicePropValue(devicePropCode, value);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #setDevicePropValue(Code, String)}.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public OperationFuture<Void> setDevicePropValueAsync(final Code<UINT16> devicePropCode, final String value) {
+        Validators.notNull("devicePropCode", devicePropCode);
+        Validators.notNull("value", value);
+
+        return submit(OperationPriority.CONTROL, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                setDevicePropValue(devicePropCode, value);
+                return null;
+            }
+        });
+    }
+
+    // Partial File
+
+    /**
+     * Returns the path of the file next to dst, which receives the data of dst until the transfer succeeds.
+     *
+     * @throws IOException if dst does not name a file.
+     */
+    private static Path partialFileOf(Path dst) throws IOException {
+        Path fileName = dst.getFileName();
+        if (fileName == null) {
+            throw new IOException("Not a file: " + dst);
+        }
+
+        return dst.resolveSibling("." + fileName + "." + UUID.randomUUID() + ".part");
+    }
+
+    /**
+     * Replace dst by the partial file, atomically if the file system supports.
+     */
+    private static void replace(Path partialFile, Path dst) throws IOException {
+        try {
+            Files.move(partialFile, dst, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partialFile, dst, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     // Listener
 
     /**
@@ -731,6 +1512,8 @@ public final class Theta implements Closeable {
     @Override
     public void close() throws IOException {
         listenerSet.clear();
+        operationQueue.close();
+        captureTable.close();
 
         synchronized (this) {
             try {
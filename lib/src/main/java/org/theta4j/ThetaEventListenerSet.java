@@ -173,7 +173,7 @@ final class ThetaEventListenerSet extends AbstractSet<ThetaEventListener> implem
         if (eventCode.equals(EventCode.OBJECT_ADDED.value())) {
             onObjectAdded(p1);
         } else if (eventCode.equals(EventCode.DEVICE_PROP_CHANGED.value())) {
-            onDevicePropChanged(new UINT16(p1.intValue()));
+            onDevicePropChanged(UINT16.valueOf(p1.intValue()));
         } else if (eventCode.equals(EventCode.STORE_FULL.value())) {
             onStoreFull();
         } else if (eventCode.equals(EventCode.CAPTURE_COMPLETE.value())) {
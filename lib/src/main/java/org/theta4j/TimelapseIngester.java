@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.util.Validators;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingests the frames of a time-lapse or an interval shooting into a directory, as they are announced by ObjectAdded.
+ * <p>
+ * Start the ingester before {@link Theta#initiateOpenCapture()}, and close it after the shooting.
+ * Announced frames wait in a bounded queue, and are downloaded one by one on the session between shots.
+ * The files are named by a prefix and the sequence index of the frame, such as "frame_000000.JPG".
+ * <p>
+ * A frame announced while the queue is full is dropped and left on THETA, and its index is skipped.
+ * A frame which waited longer than the interval is reported as late, since the ingester is falling behind.
+ * This class is thread-safe.
+ */
+public final class TimelapseIngester implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimelapseIngester.class);
+
+    private final Theta theta;
+    private final IngestMetrics metrics = new IngestMetrics();
+    private final ObjectIngester ingester;
+    private final Thread ingestThread;
+
+    private final ThetaEventListener eventListener = new ThetaEventAdapter() {
+        @Override
+        public void onObjectAdded(UINT32 objectHandle) {
+            if (!ingester.offer(objectHandle)) {
+                metrics.recordDrop();
+                LOGGER.warn("Dropped the frame " + objectHandle + " since " + ingester.getQueueDepth() + " frames are waiting");
+            }
+        }
+    };
+
+    // Constructor
+
+    private TimelapseIngester(Builder builder, Theta theta) {
+        this.theta = theta;
+        this.ingester = new ObjectIngester(theta, builder.directory, builder.maxPendingFrames, builder.listener, metrics);
+        ingester.setDeleteAfterDownload(builder.deleteAfterDownload);
+        ingester.setSequence(builder.fileNamePrefix, builder.firstIndex);
+        ingester.setLagThreshold(builder.interval);
+
+        ingestThread = new Thread(ingester, "theta4j-timelapse-ingest");
+        ingestThread.setDaemon(true);
+    }
+
+    // Getter
+
+    public IngestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the number of frames waiting to be ingested.
+     */
+    public int getQueueDepth() {
+        return ingester.getQueueDepth();
+    }
+
+    /**
+     * Returns how long in nanoseconds the oldest waiting frame has waited, or 0 if no frame is waiting.
+     */
+    public long getLagNanos() {
+        return ingester.getLagNanos();
+    }
+
+    // Closeable
+
+    /**
+     * Stop receiving frames, and wait until the waiting frames are ingested.
+     */
+    @Override
+    public void close() throws IOException {
+        theta.removeListener(eventListener);
+        ingester.finish();
+        try {
+            ingestThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the ingester.", e);
+        }
+    }
+
+    // Private Method
+
+    private void start() {
+        ingestThread.start();
+        theta.addListener(eventListener);
+    }
+
+    // Inner Types
+
+    /**
+     * Builder of TimelapseIngester. This class is not thread-safe.
+     */
+    public static final class Builder {
+        private final Path directory;
+        private int maxPendingFrames = 16;
+        private boolean deleteAfterDownload = false;
+        private String fileNamePrefix = "frame_";
+        private long firstIndex = 0;
+        private long interval = 0;
+        private IngestListener listener = ObjectIngester.NULL_LISTENER;
+
+        /**
+         * @param directory The directory to write the frames.
+         * @throws NullPointerException if directory is null.
+         */
+        public Builder(Path directory) {
+            Validators.notNull("directory", directory);
+
+            this.directory = directory;
+        }
+
+        /**
+         * @param maxPendingFrames The maximum number of frames waiting to be ingested. The default is 16.
+         * @throws IllegalArgumentException if maxPendingFrames is not positive.
+         */
+        public Builder maxPendingFrames(int maxPendingFrames) {
+            Validators.rangeEq("maxPendingFrames", maxPendingFrames, 1, Integer.MAX_VALUE);
+
+            this.maxPendingFrames = maxPendingFrames;
+            return this;
+        }
+
+        /**
+         * Delete each frame from THETA once its file is verified, to free the storage. The default is false.
+         */
+        public Builder deleteAfterDownload(boolean deleteAfterDownload) {
+            this.deleteAfterDownload = deleteAfterDownload;
+            return this;
+        }
+
+        /**
+         * @param fileNamePrefix The prefix of the file names. The default is "frame_".
+         * @throws NullPointerException if fileNamePrefix is null.
+         */
+        public Builder fileNamePrefix(String fileNamePrefix) {
+            Validators.notNull("fileNamePrefix", fileNamePrefix);
+
+            this.fileNamePrefix = fileNamePrefix;
+            return this;
+        }
+
+        /**
+         * @param firstIndex The sequence index of the first frame. The default is 0.
+         * @throws IllegalArgumentException if firstIndex is negative.
+         */
+        public Builder firstIndex(long firstIndex) {
+            Validators.rangeEq("firstIndex", firstIndex, 0L, Long.MAX_VALUE);
+
+            this.firstIndex = firstIndex;
+            return this;
+        }
+
+        /**
+         * Report frames which waited longer than the interval of the shooting.
+         * The default is 0, which does not report.
+         *
+         * @throws IllegalArgumentException if interval is negative.
+         * @throws NullPointerException     if unit is null.
+         */
+        public Builder interval(long interval, TimeUnit unit) {
+            Validators.rangeEq("interval", interval, 0L, Long.MAX_VALUE);
+            Validators.notNull("unit", unit);
+
+            this.interval = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * @throws NullPointerException if listener is null.
+         */
+        public Builder listener(IngestListener listener) {
+            Validators.notNull("listener", listener);
+
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Start receiving the frames announced on the session.
+         *
+         * @throws NullPointerException if theta is null.
+         */
+        public TimelapseIngester start(Theta theta) {
+            Validators.notNull("theta", theta);
+
+            TimelapseIngester ingester = new TimelapseIngester(this, theta);
+            ingester.start();
+            return ingester;
+        }
+    }
+}
@@ -48,7 +48,7 @@ public enum BatteryLevel {
     // Constructor
 
     BatteryLevel(int value) {
-        this.value = new UINT8(value);
+        this.value = UINT8.valueOf(value);
     }
 
     // Getter
@@ -40,7 +40,7 @@ public enum CaptureStatus {
     // Constructor
 
     CaptureStatus(int value) {
-        this.value = new UINT8(value);
+        this.value = UINT8.valueOf(value);
     }
 
     // Getter
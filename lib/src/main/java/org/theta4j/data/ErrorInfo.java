@@ -118,7 +118,7 @@ public enum ErrorInfo {
     // Constructor
 
     ErrorInfo(long value, Level level) {
-        this.value = new UINT32(value);
+        this.value = UINT32.valueOf(value);
         this.level = level;
     }
 
@@ -84,7 +84,7 @@ public enum ExposureBiasCompensation {
     // Constructor
 
     ExposureBiasCompensation(int value) {
-        this.value = new INT16(value);
+        this.value = INT16.valueOf(value);
     }
 
     // Getter
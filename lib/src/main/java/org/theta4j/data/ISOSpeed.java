@@ -84,7 +84,7 @@ public enum ISOSpeed {
     // Constructor
 
     ISOSpeed(int value) {
-        this.value = new UINT16(value);
+        this.value = UINT16.valueOf(value);
     }
 
     // Getter
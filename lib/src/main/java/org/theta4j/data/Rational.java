@@ -6,15 +6,14 @@ package org.theta4j.data;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.util.ArrayUtils;
-import org.theta4j.util.Closer;
 import org.theta4j.util.Validators;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.EOFException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 /**
  * Exif 2.3 standard RATIONAL
@@ -57,19 +56,14 @@ public class Rational implements Serializable {
         Validators.notNull("bytes", bytes);
         Validators.length("bytes", bytes, SIZE_IN_BYTES);
 
-        final Closer closer = new Closer();
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(bytes));
         try {
-            final ByteArrayInputStream bais = closer.push(new ByteArrayInputStream(bytes));
-            final PtpInputStream pis = closer.push(new PtpInputStream(bais));
-
-            UINT32 molecule = pis.readUINT32();
-            UINT32 denominator = pis.readUINT32();
+            UINT32 molecule = reader.readUINT32();
+            UINT32 denominator = reader.readUINT32();
 
             return new Rational(molecule.longValue(), denominator.longValue());
-        } catch (IOException e) {
+        } catch (EOFException e) {
             throw new AssertionError(e);
-        } finally {
-            closer.close();
         }
     }
 
@@ -52,7 +52,7 @@ public enum StillCaptureMode {
     // Constructor
 
     StillCaptureMode(int value) {
-        this.value = new UINT16(value);
+        this.value = UINT16.valueOf(value);
     }
 
     // Getter
@@ -72,7 +72,7 @@ public enum WhiteBalance {
     // Constructor
 
     WhiteBalance(int value) {
-        this.value = new UINT16(value);
+        this.value = UINT16.valueOf(value);
     }
 
     // Getter
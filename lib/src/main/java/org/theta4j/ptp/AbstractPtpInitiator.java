@@ -9,6 +9,8 @@ import org.theta4j.ptp.code.OperationCode;
 import org.theta4j.ptp.code.ResponseCode;
 import org.theta4j.ptp.data.DeviceInfo;
 import org.theta4j.ptp.data.Response;
+import org.theta4j.ptp.io.PtpByteBufferReader;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.*;
 import org.theta4j.util.Validators;
 
@@ -16,11 +18,93 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * An abstract class for implementing PTP initiator. This class exists as convenience for implementing PTP initiator.
  */
 public abstract class AbstractPtpInitiator implements PtpInitiator {
+    // Device Property Readers
+
+    private static final DataHandler<INT8> INT8_READER = new DevicePropValueReader<INT8>() {
+        @Override
+        INT8 read(PtpReader reader) throws IOException {
+            return reader.readINT8();
+        }
+    };
+
+    private static final DataHandler<UINT8> UINT8_READER = new DevicePropValueReader<UINT8>() {
+        @Override
+        UINT8 read(PtpReader reader) throws IOException {
+            return reader.readUINT8();
+        }
+    };
+
+    private static final DataHandler<INT16> INT16_READER = new DevicePropValueReader<INT16>() {
+        @Override
+        INT16 read(PtpReader reader) throws IOException {
+            return reader.readINT16();
+        }
+    };
+
+    private static final DataHandler<UINT16> UINT16_READER = new DevicePropValueReader<UINT16>() {
+        @Override
+        UINT16 read(PtpReader reader) throws IOException {
+            return reader.readUINT16();
+        }
+    };
+
+    private static final DataHandler<INT32> INT32_READER = new DevicePropValueReader<INT32>() {
+        @Override
+        INT32 read(PtpReader reader) throws IOException {
+            return reader.readINT32();
+        }
+    };
+
+    private static final DataHandler<UINT32> UINT32_READER = new DevicePropValueReader<UINT32>() {
+        @Override
+        UINT32 read(PtpReader reader) throws IOException {
+            return reader.readUINT32();
+        }
+    };
+
+    private static final DataHandler<INT64> INT64_READER = new DevicePropValueReader<INT64>() {
+        @Override
+        INT64 read(PtpReader reader) throws IOException {
+            return reader.readINT64();
+        }
+    };
+
+    private static final DataHandler<UINT64> UINT64_READER = new DevicePropValueReader<UINT64>() {
+        @Override
+        UINT64 read(PtpReader reader) throws IOException {
+            return reader.readUINT64();
+        }
+    };
+
+    private static final DataHandler<INT128> INT128_READER = new DevicePropValueReader<INT128>() {
+        @Override
+        INT128 read(PtpReader reader) throws IOException {
+            return reader.readINT128();
+        }
+    };
+
+    private static final DataHandler<UINT128> UINT128_READER = new DevicePropValueReader<UINT128>() {
+        @Override
+        UINT128 read(PtpReader reader) throws IOException {
+            return reader.readUINT128();
+        }
+    };
+
+    private static final DataHandler<String> STRING_READER = new DevicePropValueReader<String>() {
+        @Override
+        String read(PtpReader reader) throws IOException {
+            return reader.readString();
+        }
+    };
+
     // Session ID
 
     private UINT32 sessionID = UINT32.ZERO;
@@ -79,7 +163,12 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
     @Override
     public DeviceInfo getDeviceInfo() throws IOException {
         sendOperation(OperationCode.GET_DEVICE_INFO);
-        DeviceInfo deviceInfo = DeviceInfo.read(receiveData());
+        DeviceInfo deviceInfo = receiveData(new DataHandler<DeviceInfo>() {
+            @Override
+            public DeviceInfo handle(ByteBuffer data) throws IOException {
+                return DeviceInfo.read(data);
+            }
+        });
         checkAndReadResponse();
 
         return deviceInfo;
@@ -120,13 +209,32 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public InputStream getDevicePropValue(Code<UINT16> devicePropCode) throws IOException {
+        ByteBuffer buffer = getDevicePropValueAsBuffer(devicePropCode);
+        return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    private ByteBuffer getDevicePropValueAsBuffer(Code<UINT16> devicePropCode) throws IOException {
+        return getDevicePropValue(devicePropCode, new DataHandler<ByteBuffer>() {
+            @Override
+            public ByteBuffer handle(ByteBuffer data) {
+                ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+                copy.put(data).flip();
+                return copy;
+            }
+        });
+    }
+
+    /**
+     * Decode the device property value by the handler while the received buffer is valid.
+     */
+    private <T> T getDevicePropValue(Code<UINT16> devicePropCode, DataHandler<T> handler) throws IOException {
         Validators.notNull("devicePropCode", devicePropCode);
 
-        sendOperation(OperationCode.GET_DEVICE_PROP_VALUE, new UINT32(devicePropCode.value().intValue()));
-        InputStream is = receiveData();
+        sendOperation(OperationCode.GET_DEVICE_PROP_VALUE, UINT32.valueOf(devicePropCode.value().longValue()));
+        T value = receiveData(handler);
         checkAndReadResponse();
 
-        return is;
+        return value;
     }
 
     /**
@@ -134,7 +242,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public INT8 getDevicePropValueAsINT8(Code<UINT16> devicePropCode) throws IOException {
-        return INT8.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, INT8_READER);
     }
 
     /**
@@ -142,7 +250,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public UINT8 getDevicePropValueAsUINT8(Code<UINT16> devicePropCode) throws IOException {
-        return UINT8.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, UINT8_READER);
     }
 
     /**
@@ -150,7 +258,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public INT16 getDevicePropValueAsINT16(Code<UINT16> devicePropCode) throws IOException {
-        return INT16.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, INT16_READER);
     }
 
     /**
@@ -158,7 +266,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public UINT16 getDevicePropValueAsUINT16(Code<UINT16> devicePropCode) throws IOException {
-        return UINT16.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, UINT16_READER);
     }
 
     /**
@@ -166,7 +274,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public INT32 getDevicePropValueAsINT32(Code<UINT16> devicePropCode) throws IOException {
-        return INT32.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, INT32_READER);
     }
 
     /**
@@ -174,7 +282,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public UINT32 getDevicePropValueAsUINT32(Code<UINT16> devicePropCode) throws IOException {
-        return UINT32.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, UINT32_READER);
     }
 
     /**
@@ -182,7 +290,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public INT64 getDevicePropValueAsINT64(Code<UINT16> devicePropCode) throws IOException {
-        return INT64.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, INT64_READER);
     }
 
     /**
@@ -190,7 +298,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public UINT64 getDevicePropValueAsUINT64(Code<UINT16> devicePropCode) throws IOException {
-        return UINT64.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, UINT64_READER);
     }
 
     /**
@@ -198,7 +306,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public INT128 getDevicePropValueAsINT128(Code<UINT16> devicePropCode) throws IOException {
-        return INT128.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, INT128_READER);
     }
 
     /**
@@ -206,7 +314,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public UINT128 getDevicePropValueAsUINT128(Code<UINT16> devicePropCode) throws IOException {
-        return UINT128.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, UINT128_READER);
     }
 
     /**
@@ -214,7 +322,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
      */
     @Override
     public String getDevicePropValueAsString(Code<UINT16> devicePropCode) throws IOException {
-        return STR.read(getDevicePropValue(devicePropCode));
+        return getDevicePropValue(devicePropCode, STRING_READER);
     }
 
     /**
@@ -225,7 +333,7 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
         Validators.notNull("devicePropCode", devicePropCode);
         Validators.notNull("value", value);
 
-        sendOperation(OperationCode.SET_DEVICE_PROP_VALUE, new UINT32(devicePropCode.value().intValue()));
+        sendOperation(OperationCode.SET_DEVICE_PROP_VALUE, UINT32.valueOf(devicePropCode.value().longValue()));
         sendData(value);
         checkAndReadResponse();
     }
@@ -265,14 +373,90 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
 
     // Data
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sendData(InputStream src, long length) throws IOException {
+        Validators.notNull("src", src);
+
+        sendData(Channels.newChannel(src), length);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public InputStream receiveData() throws IOException {
+        ByteBuffer buffer = receiveDataAsBuffer();
+        return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ByteBuffer receiveDataAsBuffer() throws IOException {
+        return receiveDataAsBuffer(DataBufferAllocator.HEAP);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void receiveData(WritableByteChannel dst) throws IOException {
+        Validators.notNull("dst", dst);
+
+        receiveData(Channels.newOutputStream(dst));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation never cancels the data phase.
+     */
+    @Override
+    public void receiveData(WritableByteChannel dst, CancelCondition condition) throws IOException {
+        Validators.notNull("condition", condition);
+
+        receiveData(dst);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation receives the whole data before allocating the buffer for its length.
+     */
+    @Override
+    public ByteBuffer receiveDataAsBuffer(DataBufferAllocator allocator) throws IOException {
+        Validators.notNull("allocator", allocator);
+
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         receiveData(baos);
-        return new ByteArrayInputStream(baos.toByteArray());
+
+        ByteBuffer buffer = allocator.allocate(baos.size());
+        Validators.notNull("buffer", buffer);
+        if (buffer.remaining() < baos.size()) {
+            throw new IOException("Received data exceeds the buffer: " + baos.size());
+        }
+
+        int start = buffer.position();
+        buffer.put(baos.toByteArray());
+        buffer.limit(buffer.position());
+        buffer.position(start);
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation decodes a heap buffer from receiveDataAsBuffer().
+     */
+    @Override
+    public <T> T receiveData(DataHandler<T> handler) throws IOException {
+        Validators.notNull("handler", handler);
+
+        return handler.handle(receiveDataAsBuffer());
     }
 
     // Listener
@@ -298,4 +482,18 @@ public abstract class AbstractPtpInitiator implements PtpInitiator {
 
         return listenerSet.remove(listener);
     }
+
+    // Inner Types
+
+    /**
+     * Decodes a device property value through PtpReader.
+     */
+    private abstract static class DevicePropValueReader<T> implements DataHandler<T> {
+        @Override
+        public final T handle(ByteBuffer data) throws IOException {
+            return read(new PtpByteBufferReader(data));
+        }
+
+        abstract T read(PtpReader reader) throws IOException;
+    }
 }
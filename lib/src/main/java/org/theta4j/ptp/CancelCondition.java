@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp;
+
+/**
+ * An interface for deciding whether to cancel a data phase in progress.
+ * <p>
+ * The condition is checked between the packets of the data phase, so it must return quickly.
+ */
+public interface CancelCondition {
+    /**
+     * Returns true to cancel the data phase before receiving more data.
+     */
+    boolean isCancelRequested();
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An interface for allocating the buffer to receive a data phase into,
+ * once the total length of the data is announced by the PTP-Responder.
+ */
+public interface DataBufferAllocator {
+    /**
+     * Allocates a heap buffer of exactly the total data length, whose array is not shared.
+     */
+    DataBufferAllocator HEAP = new DataBufferAllocator() {
+        /**
+         * Some VMs reserve header words in an array.
+         */
+        private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+        @Override
+        public ByteBuffer allocate(long totalDataLength) throws IOException {
+            if (totalDataLength < 0 || MAX_ARRAY_SIZE < totalDataLength) {
+                throw new IOException("The data is too large to receive on memory: " + totalDataLength);
+            }
+
+            return ByteBuffer.allocate((int) totalDataLength);
+        }
+    };
+
+    /**
+     * Allocate the buffer to receive the data.
+     *
+     * @param totalDataLength The total length of the data announced by the PTP-Responder.
+     *                        Negative if it is larger than Long.MAX_VALUE, including the unknown length.
+     * @return The buffer whose remaining space receives the data.
+     * @throws IOException if the buffer can not be allocated for the length.
+     */
+    ByteBuffer allocate(long totalDataLength) throws IOException;
+}
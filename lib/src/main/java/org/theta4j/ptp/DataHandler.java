@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An interface for decoding a data phase from a buffer which is valid only during the call.
+ *
+ * @param <T> The type of the decoded value.
+ */
+public interface DataHandler<T> {
+    /**
+     * Decode the received data.
+     * The buffer may be reused after the call returns, so the result must not keep views of it.
+     *
+     * @param data The buffer whose content between position and limit is the received data.
+     * @return The decoded value.
+     * @throws IOException if the data can not be decoded.
+     */
+    T handle(ByteBuffer data) throws IOException;
+}
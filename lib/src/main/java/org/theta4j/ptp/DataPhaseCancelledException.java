@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp;
+
+import org.theta4j.ptp.type.UINT16;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the initiator cancels a data phase in progress because its CancelCondition requested.
+ * <p>
+ * The data received before the cancel is kept in the destination,
+ * so that the rest can be requested later by an operation such as GetPartialObject.
+ * Once thrown by PtpInitiator, the response of the operation is read and its ResponseCode is kept.
+ */
+public class DataPhaseCancelledException extends IOException {
+    private final long receivedLength;
+    private final long totalDataLength;
+    private final UINT16 responseCode;
+
+    // Constructor
+
+    /**
+     * Create the exception before the response of the operation is read.
+     *
+     * @param receivedLength  The number of bytes written to the destination before the cancel.
+     * @param totalDataLength The total data length announced by StartData, or negative if unknown.
+     */
+    public DataPhaseCancelledException(long receivedLength, long totalDataLength) {
+        this(receivedLength, totalDataLength, null);
+    }
+
+    /**
+     * @param receivedLength  The number of bytes written to the destination before the cancel.
+     * @param totalDataLength The total data length announced by StartData, or negative if unknown.
+     * @param responseCode    The ResponseCode of the cancelled operation, or null if the response is not read.
+     */
+    public DataPhaseCancelledException(long receivedLength, long totalDataLength, UINT16 responseCode) {
+        super("The data phase is cancelled after " + receivedLength + " bytes");
+        this.receivedLength = receivedLength;
+        this.totalDataLength = totalDataLength;
+        this.responseCode = responseCode;
+    }
+
+    // Getter
+
+    /**
+     * Returns the number of bytes written to the destination before the cancel.
+     */
+    public long getReceivedLength() {
+        return receivedLength;
+    }
+
+    /**
+     * Returns the total data length announced by StartData, or negative if unknown.
+     */
+    public long getTotalDataLength() {
+        return totalDataLength;
+    }
+
+    /**
+     * Returns the ResponseCode of the cancelled operation, which is TransactionCancelled or OK,
+     * or null if the response is not read.
+     */
+    public UINT16 getResponseCode() {
+        return responseCode;
+    }
+}
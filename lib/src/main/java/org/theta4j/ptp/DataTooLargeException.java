@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp;
+
+import org.theta4j.ptp.type.UINT16;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the PTP-Responder announces more data than the initiator accepts.
+ * <p>
+ * The data phase is cancelled, and the response of the operation is read so that the next operation is not affected.
+ */
+public class DataTooLargeException extends IOException {
+    private final long totalDataLength;
+    private final long maxDataLength;
+    private final UINT16 responseCode;
+
+    // Constructor
+
+    /**
+     * @param totalDataLength The announced total data length, or negative if it is unknown or larger than Long.MAX_VALUE.
+     * @param maxDataLength   The maximum data length which the initiator accepts.
+     * @param responseCode    The ResponseCode of the cancelled operation.
+     */
+    public DataTooLargeException(long totalDataLength, long maxDataLength, UINT16 responseCode) {
+        super(String.format("The total data length %s exceeds the limit %d",
+                totalDataLength < 0 ? "(unknown)" : Long.toString(totalDataLength), maxDataLength));
+        this.totalDataLength = totalDataLength;
+        this.maxDataLength = maxDataLength;
+        this.responseCode = responseCode;
+    }
+
+    // Getter
+
+    /**
+     * Returns the announced total data length, or negative if it is unknown or larger than Long.MAX_VALUE.
+     */
+    public long getTotalDataLength() {
+        return totalDataLength;
+    }
+
+    /**
+     * Returns the maximum data length which the initiator accepts.
+     */
+    public long getMaxDataLength() {
+        return maxDataLength;
+    }
+
+    /**
+     * Returns the ResponseCode of the cancelled operation, which is TransactionCancelled or OK.
+     */
+    public UINT16 getResponseCode() {
+        return responseCode;
+    }
+}
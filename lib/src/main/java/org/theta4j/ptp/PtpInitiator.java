@@ -13,6 +13,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * An interface of PTP initiator defined in PTP standard.
@@ -294,7 +297,8 @@ public interface PtpInitiator extends Closeable {
      * Receive the response for previous operation from the PTP-Responder
      *
      * @return The response for previous operation from the PTP-Responder
-     * @throws IOException           if an I/O error occurs while receiving the response.
+     * @throws IOException           if an I/O error occurs while receiving the response,
+     *                               or the TransactionID of the response is not the one of previous operation.
      * @throws IllegalStateException if the transaction sequence is not on the Response Phase.
      */
     Response receiveResponse() throws IOException;
@@ -319,6 +323,28 @@ public interface PtpInitiator extends Closeable {
      */
     void sendData(byte[] data) throws IOException;
 
+    /**
+     * Send the PTP-Responder data read from the channel, without holding the whole data in memory.
+     *
+     * @param src    The channel to read the data from its current position.
+     * @param length The total data length.
+     * @throws IOException          if an I/O error occurs while sending data,
+     *                              or src reaches end of stream before length bytes are read.
+     * @throws NullPointerException if src is null.
+     */
+    void sendData(ReadableByteChannel src, long length) throws IOException;
+
+    /**
+     * Send the PTP-Responder data read from the stream, without holding the whole data in memory.
+     *
+     * @param src    The stream to read the data.
+     * @param length The total data length.
+     * @throws IOException          if an I/O error occurs while sending data,
+     *                              or src reaches end of stream before length bytes are read.
+     * @throws NullPointerException if src is null.
+     */
+    void sendData(InputStream src, long length) throws IOException;
+
     /**
      * Receive data from the PTP-Responder.
      *
@@ -336,6 +362,68 @@ public interface PtpInitiator extends Closeable {
      */
     void receiveData(OutputStream dst) throws IOException;
 
+    /**
+     * Receive data from the PTP-Responder.
+     * <p>
+     * If dst is a FileChannel, the data is written at the current position of the channel.
+     *
+     * @param dst The destination which to write data from the PTP-Responder.
+     * @throws IOException          if an I/O error occurs while receiving data.
+     * @throws NullPointerException if dst is null.
+     */
+    void receiveData(WritableByteChannel dst) throws IOException;
+
+    /**
+     * Receive data from the PTP-Responder, and cancel the data phase once the condition requests.
+     * <p>
+     * When cancelled, the rest of the data phase and the response of the operation are read,
+     * and DataPhaseCancelledException is thrown with the ResponseCode.
+     * Implementations which can not cancel a data phase receive the whole data.
+     *
+     * @param dst       The destination which to write data from the PTP-Responder.
+     * @param condition Checked between the packets of the data phase.
+     * @throws DataPhaseCancelledException if the data phase is cancelled by the condition.
+     * @throws IOException                 if an I/O error occurs while receiving data.
+     * @throws NullPointerException        if an argument is null.
+     */
+    void receiveData(WritableByteChannel dst, CancelCondition condition) throws IOException;
+
+    /**
+     * Receive data from the PTP-Responder into a heap buffer of exactly the data length.
+     *
+     * @return The buffer whose content between position and limit is the received data.
+     * @throws IOException if an I/O error occurs while receiving data,
+     *                     or the received data length does not match the announced length.
+     */
+    ByteBuffer receiveDataAsBuffer() throws IOException;
+
+    /**
+     * Receive data from the PTP-Responder into the buffer from the allocator.
+     * <p>
+     * If the allocator fails, the data and the response of the operation are discarded before its exception is thrown,
+     * so that the next operation is not affected.
+     *
+     * @param allocator Allocates the buffer for the total data length announced by the PTP-Responder.
+     * @return The buffer from the allocator, whose content between position and limit is the received data.
+     * @throws IOException          if an I/O error occurs while receiving data,
+     *                              or the received data length does not match the announced length.
+     * @throws NullPointerException if allocator is null.
+     */
+    ByteBuffer receiveDataAsBuffer(DataBufferAllocator allocator) throws IOException;
+
+    /**
+     * Receive data from the PTP-Responder, and decode it by the handler.
+     * <p>
+     * The buffer passed to the handler is valid only during the call, so implementations may lend a pooled buffer.
+     *
+     * @param handler Decodes the received data.
+     * @return The value returned by the handler.
+     * @throws IOException          if an I/O error occurs while receiving data,
+     *                              or the handler fails to decode the data.
+     * @throws NullPointerException if handler is null.
+     */
+    <T> T receiveData(DataHandler<T> handler) throws IOException;
+
     // Listener
 
     /**
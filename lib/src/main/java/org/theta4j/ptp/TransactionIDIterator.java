@@ -10,8 +10,11 @@ import java.util.Iterator;
 
 /**
  * Iterator of Transaction ID defined in PTP
+ * <p>
+ * This class is thread-safe, so that operations queued from several threads never share a Transaction ID.
  */
 public final class TransactionIDIterator implements Iterator<UINT32> {
+    // Guarded by the lock of this object
     private long current = 0;
 
     /**
@@ -27,13 +30,13 @@ public final class TransactionIDIterator implements Iterator<UINT32> {
      * 0, 1, 2, ..., 0xFFFFFFFE, 1, 2, ...
      */
     @Override
-    public UINT32 next() {
+    public synchronized UINT32 next() {
         if (0xFFFF_FFFFL <= current) {
             // Initial value is 0, but cyclic initial value is 1.
             current = 1;
         }
 
-        return new UINT32(current++);
+        return UINT32.valueOf(current++);
     }
 
     /**
@@ -30,7 +30,7 @@ public enum EventCode implements Code<UINT16> {
     // Constructor
 
     EventCode(int value) {
-        this.value = new UINT16(value);
+        this.value = UINT16.valueOf(value);
     }
 
     // Code
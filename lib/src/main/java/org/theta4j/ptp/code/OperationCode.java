@@ -44,7 +44,7 @@ public enum OperationCode implements Code<UINT16> {
     // Constructor
 
     OperationCode(int value) {
-        this.value = new UINT16(value);
+        this.value = UINT16.valueOf(value);
     }
 
     // Code
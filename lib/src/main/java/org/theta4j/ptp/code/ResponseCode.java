@@ -48,7 +48,7 @@ public enum ResponseCode implements Code<UINT16> {
     // Constructor
 
     ResponseCode(int value) {
-        this.value = new UINT16(value);
+        this.value = UINT16.valueOf(value);
     }
 
     // Code
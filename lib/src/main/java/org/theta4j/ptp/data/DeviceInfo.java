@@ -4,36 +4,51 @@
 
 package org.theta4j.ptp.data;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
+import org.theta4j.ptp.type.DataType;
 import org.theta4j.ptp.type.UINT16;
 import org.theta4j.ptp.type.UINT32;
-import org.theta4j.util.Closer;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
  * The device information defined in PTP standard.
  */
+@PtpDataset
 public final class DeviceInfo {
+    @PtpField(DataType.UINT16)
     private final UINT16 standardVersion;
+    @PtpField(DataType.UINT32)
     private final UINT32 vendorExtensionID;
+    @PtpField(DataType.UINT16)
     private final UINT16 vendorExtensionVersion;
+    @PtpField(DataType.STR)
     private final String vendorExtensionDesc;
+    @PtpField(DataType.UINT16)
     private final UINT16 functionalMode;
+    @PtpField(DataType.AUINT16)
     private final List<UINT16> operationsSupported;
+    @PtpField(DataType.AUINT16)
     private final List<UINT16> eventsSupported;
+    @PtpField(DataType.AUINT16)
     private final List<UINT16> devicePropertiesSupported;
+    @PtpField(DataType.AUINT16)
     private final List<UINT16> captureFormats;
+    @PtpField(DataType.AUINT16)
     private final List<UINT16> imageFormats;
+    @PtpField(DataType.STR)
     private final String manufacturer;
+    @PtpField(DataType.STR)
     private final String model;
+    @PtpField(DataType.STR)
     private final String deviceVersion;
+    @PtpField(DataType.STR)
     private final String serialNumber;
 
     // Constructor
@@ -103,12 +118,11 @@ public final class DeviceInfo {
      * @throws IOException if an I/O error occurs while reading the stream.
      */
     public static DeviceInfo read(InputStream is) throws IOException {
-        final Closer closer = new Closer();
+        PtpInputStream pis = new PtpInputStream(is);
         try {
-            final PtpInputStream pis = closer.push(new PtpInputStream(is));
             return read(pis);
         } finally {
-            closer.close();
+            pis.close();
         }
     }
 
@@ -121,26 +135,31 @@ public final class DeviceInfo {
     public static DeviceInfo read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
-        UINT16 standardVersion = pis.readUINT16();
-        UINT32 vendorExtensionID = pis.readUINT32();
-        UINT16 vendorExtensionVersion = pis.readUINT16();
-        String vendorExtensionDesc = pis.readString();
-        UINT16 functionalMode = pis.readUINT16();
-        List<UINT16> operationsSupported = pis.readAUINT16();
-        List<UINT16> eventsSupported = pis.readAUINT16();
-        List<UINT16> devicePropertiesSupported = pis.readAUINT16();
-        List<UINT16> captureFormats = pis.readAUINT16();
-        List<UINT16> imageFormats = pis.readAUINT16();
-        String manufacturer = pis.readString();
-        String model = pis.readString();
-        String deviceVersion = pis.readString();
-        String serialNumber = pis.readString();
-
-        return new DeviceInfo(standardVersion,
-                vendorExtensionID, vendorExtensionVersion, vendorExtensionDesc,
-                functionalMode, operationsSupported, eventsSupported, devicePropertiesSupported,
-                captureFormats, imageFormats,
-                manufacturer, model, deviceVersion, serialNumber);
+        return read((PtpReader) pis);
+    }
+
+    /**
+     * Constructs new device information object from ByteBuffer.
+     *
+     * @throws IOException          if the buffer does not have enough remaining bytes.
+     * @throws NullPointerException if an argument is null.
+     */
+    public static DeviceInfo read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    /**
+     * Constructs new device information object from PtpReader.
+     *
+     * @throws IOException          if an I/O error occurs while reading.
+     * @throws NullPointerException if an argument is null.
+     */
+    public static DeviceInfo read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
+        return DeviceInfoCodec.read(reader);
     }
 
     // Getter
@@ -243,6 +262,36 @@ public final class DeviceInfo {
         return serialNumber;
     }
 
+    // Encoder
+
+    /**
+     * Returns the number of bytes of the encoded device information data set.
+     */
+    public int sizeInBytes() {
+        return DeviceInfoCodec.sizeInBytes(this);
+    }
+
+    /**
+     * Write the device information data set to the buffer, as little endian regardless of the byte order of the buffer.
+     *
+     * @throws NullPointerException             if buffer is null.
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        DeviceInfoCodec.writeTo(this, buffer);
+    }
+
+    /**
+     * Returns the encoded device information data set.
+     */
+    public byte[] bytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(sizeInBytes());
+        writeTo(buffer);
+        return buffer.array();
+    }
+
     // Basic Method
 
     /**
@@ -250,22 +299,7 @@ public final class DeviceInfo {
      */
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(standardVersion)
-                .append(vendorExtensionID)
-                .append(vendorExtensionVersion)
-                .append(vendorExtensionDesc)
-                .append(functionalMode)
-                .append(operationsSupported)
-                .append(eventsSupported)
-                .append(devicePropertiesSupported)
-                .append(captureFormats)
-                .append(imageFormats)
-                .append(manufacturer)
-                .append(model)
-                .append(deviceVersion)
-                .append(serialNumber)
-                .toHashCode();
+        return DeviceInfoCodec.hashCode(this);
     }
 
     /**
@@ -273,32 +307,7 @@ public final class DeviceInfo {
      */
     @Override
     public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-
-        DeviceInfo rhs = (DeviceInfo) o;
-
-        return new EqualsBuilder()
-                .append(standardVersion, rhs.standardVersion)
-                .append(vendorExtensionID, rhs.vendorExtensionID)
-                .append(vendorExtensionVersion, rhs.vendorExtensionVersion)
-                .append(vendorExtensionDesc, rhs.vendorExtensionDesc)
-                .append(functionalMode, rhs.functionalMode)
-                .append(operationsSupported, rhs.operationsSupported)
-                .append(eventsSupported, rhs.eventsSupported)
-                .append(devicePropertiesSupported, rhs.devicePropertiesSupported)
-                .append(captureFormats, rhs.captureFormats)
-                .append(imageFormats, rhs.imageFormats)
-                .append(manufacturer, rhs.manufacturer)
-                .append(model, rhs.model)
-                .append(deviceVersion, rhs.deviceVersion)
-                .append(serialNumber, rhs.serialNumber)
-                .isEquals();
+        return DeviceInfoCodec.equals(this, o);
     }
 
     /**
@@ -306,6 +315,6 @@ public final class DeviceInfo {
      */
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return DeviceInfoCodec.toString(this);
     }
 }
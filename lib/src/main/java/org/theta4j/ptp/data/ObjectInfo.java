@@ -4,43 +4,63 @@
 
 package org.theta4j.ptp.data;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.theta4j.ptp.code.Code;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
+import org.theta4j.ptp.type.DataType;
 import org.theta4j.ptp.type.UINT16;
 import org.theta4j.ptp.type.UINT32;
-import org.theta4j.util.Closer;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * The object information data set defined in PTP standard.
  */
+@PtpDataset
 public class ObjectInfo {
+    @PtpField(DataType.UINT32)
     private final UINT32 storageID;
+    @PtpField(DataType.UINT16)
     private final UINT16 objectFormat;
+    @PtpField(DataType.UINT16)
     private final ProtectionStatus protectionStatus;
+    @PtpField(DataType.UINT32)
     private final UINT32 objectCompressedSize;
+    @PtpField(DataType.UINT16)
     private final UINT16 thumbFormat;
+    @PtpField(DataType.UINT32)
     private final UINT32 thumbCompressedSize;
+    @PtpField(DataType.UINT32)
     private final UINT32 thumbPixWidth;
+    @PtpField(DataType.UINT32)
     private final UINT32 thumbPixHeight;
+    @PtpField(DataType.UINT32)
     private final UINT32 imagePixWidth;
+    @PtpField(DataType.UINT32)
     private final UINT32 imagePixHeight;
+    @PtpField(DataType.UINT32)
     private final UINT32 imageBitDepth;
+    @PtpField(DataType.UINT32)
     private final UINT32 parentObject;
+    @PtpField(DataType.UINT16)
     private final UINT16 associationType;
+    @PtpField(DataType.UINT32)
     private final UINT32 associationDesc;
+    @PtpField(DataType.UINT32)
     private final UINT32 sequenceNumber;
+    @PtpField(DataType.STR)
     private final String fileName;
+    @PtpField(DataType.STR)
     private final String captureDate;
+    @PtpField(DataType.STR)
     private final String modificationDate;
+    @PtpField(DataType.STR)
     private final String keywords;
 
     // Constructor
@@ -127,12 +147,11 @@ public class ObjectInfo {
     public static ObjectInfo read(InputStream is) throws IOException {
         Validators.notNull("is", is);
 
-        final Closer closer = new Closer();
+        PtpInputStream pis = new PtpInputStream(is);
         try {
-            final PtpInputStream pis = closer.push(new PtpInputStream(is));
             return read(pis);
         } finally {
-            closer.close();
+            pis.close();
         }
     }
 
@@ -145,32 +164,31 @@ public class ObjectInfo {
     public static ObjectInfo read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
-        UINT32 storageID = pis.readUINT32();
-        UINT16 objectFormat = pis.readUINT16();
-        ProtectionStatus protectionStatus = ProtectionStatus.valueOf(pis.readUINT16());
-        UINT32 objectCompressedSize = pis.readUINT32();
-        UINT16 thumbFormat = pis.readUINT16();
-        UINT32 thumbCompressedSize = pis.readUINT32();
-        UINT32 thumbPixWidth = pis.readUINT32();
-        UINT32 thumbPixHeight = pis.readUINT32();
-        UINT32 imagePixWidth = pis.readUINT32();
-        UINT32 imagePixHeight = pis.readUINT32();
-        UINT32 imageBitDepth = pis.readUINT32();
-        UINT32 parentObject = pis.readUINT32();
-        UINT16 associationType = pis.readUINT16();
-        UINT32 associationDesc = pis.readUINT32();
-        UINT32 sequenceNumber = pis.readUINT32();
-        String fileName = pis.readString();
-        String captureDate = pis.readString();
-        String modificationDate = pis.readString();
-        String keywords = pis.readString();
-
-        return new ObjectInfo(storageID, objectFormat, protectionStatus, objectCompressedSize,
-                thumbFormat, thumbCompressedSize, thumbPixWidth, thumbPixHeight,
-                imagePixWidth, imagePixHeight, imageBitDepth,
-                parentObject, associationType, associationDesc, sequenceNumber,
-                fileName, captureDate, modificationDate, keywords
-        );
+        return read((PtpReader) pis);
+    }
+
+    /**
+     * Constructs new object information object from ByteBuffer.
+     *
+     * @throws IOException          if the buffer does not have enough remaining bytes.
+     * @throws NullPointerException if an argument is null.
+     */
+    public static ObjectInfo read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    /**
+     * Constructs new object information object from PtpReader.
+     *
+     * @throws IOException          if an I/O error occurs while reading.
+     * @throws NullPointerException if an argument is null.
+     */
+    public static ObjectInfo read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
+        return ObjectInfoCodec.read(reader);
     }
 
     // Getter
@@ -308,6 +326,36 @@ public class ObjectInfo {
         return keywords;
     }
 
+    // Encoder
+
+    /**
+     * Returns the number of bytes of the encoded object information data set.
+     */
+    public int sizeInBytes() {
+        return ObjectInfoCodec.sizeInBytes(this);
+    }
+
+    /**
+     * Write the object information data set to the buffer, as little endian regardless of the byte order of the buffer.
+     *
+     * @throws NullPointerException             if buffer is null.
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        ObjectInfoCodec.writeTo(this, buffer);
+    }
+
+    /**
+     * Returns the encoded object information data set.
+     */
+    public byte[] bytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(sizeInBytes());
+        writeTo(buffer);
+        return buffer.array();
+    }
+
     // Basic Method
 
     /**
@@ -315,37 +363,7 @@ public class ObjectInfo {
      */
     @Override
     public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-
-        ObjectInfo rhs = (ObjectInfo) o;
-
-        return new EqualsBuilder()
-                .append(storageID, rhs.storageID)
-                .append(objectFormat, rhs.objectFormat)
-                .append(protectionStatus, rhs.protectionStatus)
-                .append(objectCompressedSize, rhs.objectCompressedSize)
-                .append(thumbFormat, rhs.thumbFormat)
-                .append(thumbCompressedSize, rhs.thumbCompressedSize)
-                .append(thumbPixWidth, rhs.thumbPixWidth)
-                .append(thumbPixHeight, rhs.thumbPixHeight)
-                .append(imagePixWidth, rhs.imagePixWidth)
-                .append(imagePixHeight, rhs.imagePixHeight)
-                .append(imageBitDepth, rhs.imageBitDepth)
-                .append(parentObject, rhs.parentObject)
-                .append(associationType, rhs.associationType)
-                .append(associationDesc, rhs.associationDesc)
-                .append(sequenceNumber, rhs.sequenceNumber)
-                .append(fileName, rhs.fileName)
-                .append(captureDate, rhs.captureDate)
-                .append(modificationDate, rhs.modificationDate)
-                .append(keywords, rhs.keywords)
-                .isEquals();
+        return ObjectInfoCodec.equals(this, o);
     }
 
     /**
@@ -353,27 +371,7 @@ public class ObjectInfo {
      */
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(storageID)
-                .append(objectFormat)
-                .append(protectionStatus)
-                .append(objectCompressedSize)
-                .append(thumbFormat)
-                .append(thumbCompressedSize)
-                .append(thumbPixWidth)
-                .append(thumbPixHeight)
-                .append(imagePixWidth)
-                .append(imagePixHeight)
-                .append(imageBitDepth)
-                .append(parentObject)
-                .append(associationType)
-                .append(associationDesc)
-                .append(sequenceNumber)
-                .append(fileName)
-                .append(captureDate)
-                .append(modificationDate)
-                .append(keywords)
-                .toHashCode();
+        return ObjectInfoCodec.hashCode(this);
     }
 
     /**
@@ -381,7 +379,7 @@ public class ObjectInfo {
      */
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return ObjectInfoCodec.toString(this);
     }
 
     // Related Classes
@@ -410,7 +408,7 @@ public class ObjectInfo {
         // Constructor
 
         ProtectionStatus(int value) {
-            this.value = new UINT16(value);
+            this.value = UINT16.valueOf(value);
         }
 
         // Code
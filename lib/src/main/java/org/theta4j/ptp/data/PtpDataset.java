@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.data;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a data set whose codec is generated from its fields annotated with PtpField.
+ * <p>
+ * The codec is generated as the package-private class named the data set followed by "Codec".
+ * The fields are encoded in the declaration order, and decoded into the constructor
+ * which takes the fields in the same order. Each field must have the getter named "get" followed by the field name.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface PtpDataset {
+}
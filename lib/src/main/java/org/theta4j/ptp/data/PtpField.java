@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.data;
+
+import org.theta4j.ptp.type.DataType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the data type of a field of a data set marked with PtpDataset.
+ * <p>
+ * The field is the Java type of the data type, such as UINT16 for UINT16, List of UINT16 for AUINT16 and String for STR.
+ * An integer field may also be a Code of the integer type, which has the static valueOf method taking the integer.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface PtpField {
+    DataType value();
+}
@@ -4,30 +4,39 @@
 
 package org.theta4j.ptp.data;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
+import org.theta4j.ptp.type.DataType;
 import org.theta4j.ptp.type.UINT16;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.ptp.type.UINT64;
-import org.theta4j.util.Closer;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * The storage information data set defined in PTP standard.
  */
+@PtpDataset
 public class StorageInfo {
+    @PtpField(DataType.UINT16)
     private final UINT16 storageType;
+    @PtpField(DataType.UINT16)
     private final UINT16 fileSystemType;
+    @PtpField(DataType.UINT16)
     private final UINT16 accessCapability;
+    @PtpField(DataType.UINT64)
     private final UINT64 maxCapacity;
+    @PtpField(DataType.UINT64)
     private final UINT64 freeSpaceInBytes;
+    @PtpField(DataType.UINT32)
     private final UINT32 freeSpaceInImages;
+    @PtpField(DataType.STR)
     private final String storageDescription;
+    @PtpField(DataType.STR)
     private final String volumeLabel;
 
     // Constructor
@@ -75,12 +84,11 @@ public class StorageInfo {
      * @throws NullPointerException if an argument is null.
      */
     public static StorageInfo read(InputStream is) throws IOException {
-        final Closer closer = new Closer();
+        PtpInputStream pis = new PtpInputStream(is);
         try {
-            final PtpInputStream pis = closer.push(new PtpInputStream(is));
             return read(pis);
         } finally {
-            closer.close();
+            pis.close();
         }
     }
 
@@ -93,19 +101,31 @@ public class StorageInfo {
     public static StorageInfo read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
-        UINT16 storageType = pis.readUINT16();
-        UINT16 fileSystemType = pis.readUINT16();
-        UINT16 accessCapability = pis.readUINT16();
-        UINT64 maxCapacity = pis.readUINT64();
-        UINT64 freeSpaceInBytes = pis.readUINT64();
-        UINT32 freeSpaceInImages = pis.readUINT32();
-        String storageDescription = pis.readString();
-        String volumeLabel = pis.readString();
+        return read((PtpReader) pis);
+    }
 
-        return new StorageInfo(storageType, fileSystemType,
-                accessCapability, maxCapacity, freeSpaceInBytes, freeSpaceInImages,
-                storageDescription, volumeLabel
-        );
+    /**
+     * Construct StorageInfo from ByteBuffer.
+     *
+     * @throws IOException          if the buffer does not have enough remaining bytes.
+     * @throws NullPointerException if an argument is null.
+     */
+    public static StorageInfo read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    /**
+     * Construct StorageInfo from PtpReader.
+     *
+     * @throws IOException          if an I/O error occurs while reading.
+     * @throws NullPointerException if an argument is null.
+     */
+    public static StorageInfo read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
+        return StorageInfoCodec.read(reader);
     }
 
     // Getter
@@ -166,6 +186,36 @@ public class StorageInfo {
         return volumeLabel;
     }
 
+    // Encoder
+
+    /**
+     * Returns the number of bytes of the encoded storage information data set.
+     */
+    public int sizeInBytes() {
+        return StorageInfoCodec.sizeInBytes(this);
+    }
+
+    /**
+     * Write the storage information data set to the buffer, as little endian regardless of the byte order of the buffer.
+     *
+     * @throws NullPointerException             if buffer is null.
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        StorageInfoCodec.writeTo(this, buffer);
+    }
+
+    /**
+     * Returns the encoded storage information data set.
+     */
+    public byte[] bytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(sizeInBytes());
+        writeTo(buffer);
+        return buffer.array();
+    }
+
     // Basic Method
 
     /**
@@ -173,26 +223,7 @@ public class StorageInfo {
      */
     @Override
     public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-
-        StorageInfo rhs = (StorageInfo) o;
-
-        return new EqualsBuilder()
-                .append(storageType, rhs.storageType)
-                .append(fileSystemType, rhs.fileSystemType)
-                .append(accessCapability, rhs.accessCapability)
-                .append(maxCapacity, rhs.maxCapacity)
-                .append(freeSpaceInBytes, rhs.freeSpaceInBytes)
-                .append(freeSpaceInImages, rhs.freeSpaceInImages)
-                .append(storageDescription, rhs.storageDescription)
-                .append(volumeLabel, rhs.volumeLabel)
-                .isEquals();
+        return StorageInfoCodec.equals(this, o);
     }
 
     /**
@@ -200,16 +231,7 @@ public class StorageInfo {
      */
     @Override
     public int hashCode() {
-        return new HashCodeBuilder()
-                .append(storageType)
-                .append(fileSystemType)
-                .append(accessCapability)
-                .append(maxCapacity)
-                .append(freeSpaceInBytes)
-                .append(freeSpaceInImages)
-                .append(storageDescription)
-                .append(volumeLabel)
-                .toHashCode();
+        return StorageInfoCodec.hashCode(this);
     }
 
     /**
@@ -217,6 +239,6 @@ public class StorageInfo {
      */
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this);
+        return StorageInfoCodec.toString(this);
     }
 }
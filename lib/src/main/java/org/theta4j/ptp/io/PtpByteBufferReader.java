@@ -0,0 +1,606 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.io;
+
+import org.theta4j.ptp.type.*;
+import org.theta4j.util.Validators;
+
+import java.io.EOFException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reader of the generic data type of PTP from a little endian ByteBuffer.
+ * <p>
+ * Relative read methods advance the position of the buffer,
+ * and throw EOFException instead of BufferUnderflowException.
+ * Absolute get methods do not change the position.
+ * Integers are decoded without intermediate byte arrays.
+ */
+public final class PtpByteBufferReader implements PtpReader {
+    private static final BigInteger TWO_TO_THE_64 = BigInteger.ONE.shiftLeft(Long.SIZE);
+
+    private final ByteBuffer buffer;
+    private PtpStringCodec stringCodec;
+
+    // Constructor
+
+    /**
+     * Wrap ByteBuffer by PtpByteBufferReader.
+     * <p>
+     * The byte order of the buffer is changed to little endian.
+     *
+     * @param buffer The heap or direct buffer to read.
+     * @throws NullPointerException if buffer is null.
+     */
+    public PtpByteBufferReader(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Wrap ByteBuffer by PtpByteBufferReader which decodes strings by the given codec.
+     *
+     * @param buffer      The heap or direct buffer to read.
+     * @param stringCodec The codec to decode PTP String.
+     * @throws NullPointerException if an argument is null.
+     */
+    public PtpByteBufferReader(ByteBuffer buffer, PtpStringCodec stringCodec) {
+        this(buffer);
+
+        Validators.notNull("stringCodec", stringCodec);
+
+        this.stringCodec = stringCodec;
+    }
+
+    // Getter
+
+    /**
+     * Returns the underlying buffer.
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the position of the underlying buffer.
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Returns the number of remaining bytes of the underlying buffer.
+     */
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    // PTP Generic Type (Integer)
+
+    /**
+     * Read INT8 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public INT8 readINT8() throws EOFException {
+        require(INT8.SIZE_IN_BYTES);
+        return INT8.valueOf(buffer.get());
+    }
+
+    /**
+     * Read UINT8 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public UINT8 readUINT8() throws EOFException {
+        require(UINT8.SIZE_IN_BYTES);
+        return UINT8.valueOf(buffer.get() & 0xFF);
+    }
+
+    /**
+     * Read INT16 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public INT16 readINT16() throws EOFException {
+        require(INT16.SIZE_IN_BYTES);
+        return INT16.valueOf(buffer.getShort());
+    }
+
+    /**
+     * Read UINT16 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public UINT16 readUINT16() throws EOFException {
+        require(UINT16.SIZE_IN_BYTES);
+        return UINT16.valueOf(buffer.getShort() & 0xFFFF);
+    }
+
+    /**
+     * Read INT32 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public INT32 readINT32() throws EOFException {
+        require(INT32.SIZE_IN_BYTES);
+        return new INT32(buffer.getInt());
+    }
+
+    /**
+     * Read UINT32 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public UINT32 readUINT32() throws EOFException {
+        require(UINT32.SIZE_IN_BYTES);
+        return UINT32.valueOf(buffer.getInt() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Read INT64 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public INT64 readINT64() throws EOFException {
+        require(INT64.SIZE_IN_BYTES);
+        return new INT64(buffer.getLong());
+    }
+
+    /**
+     * Read UINT64 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public UINT64 readUINT64() throws EOFException {
+        require(UINT64.SIZE_IN_BYTES);
+        return toUINT64(buffer.getLong());
+    }
+
+    /**
+     * Read INT128 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public INT128 readINT128() throws EOFException {
+        byte[] bytes = new byte[INT128.SIZE_IN_BYTES];
+        readFully(bytes);
+        return new INT128(bytes);
+    }
+
+    /**
+     * Read UINT128 value from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public UINT128 readUINT128() throws EOFException {
+        byte[] bytes = new byte[UINT128.SIZE_IN_BYTES];
+        readFully(bytes);
+        return new UINT128(bytes);
+    }
+
+    // PTP Generic Type (Integer, Absolute)
+
+    /**
+     * Returns INT8 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public INT8 getINT8(int index) {
+        return INT8.valueOf(buffer.get(index));
+    }
+
+    /**
+     * Returns UINT8 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public UINT8 getUINT8(int index) {
+        return UINT8.valueOf(buffer.get(index) & 0xFF);
+    }
+
+    /**
+     * Returns INT16 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public INT16 getINT16(int index) {
+        return INT16.valueOf(buffer.getShort(index));
+    }
+
+    /**
+     * Returns UINT16 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public UINT16 getUINT16(int index) {
+        return UINT16.valueOf(buffer.getShort(index) & 0xFFFF);
+    }
+
+    /**
+     * Returns INT32 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public INT32 getINT32(int index) {
+        return new INT32(buffer.getInt(index));
+    }
+
+    /**
+     * Returns UINT32 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public UINT32 getUINT32(int index) {
+        return UINT32.valueOf(buffer.getInt(index) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns INT64 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public INT64 getINT64(int index) {
+        return new INT64(buffer.getLong(index));
+    }
+
+    /**
+     * Returns UINT64 value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public UINT64 getUINT64(int index) {
+        return toUINT64(buffer.getLong(index));
+    }
+
+    // PTP Generic Type (Array)
+
+    /**
+     * Read list of INT8 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<INT8> readAINT8() throws EOFException {
+        int length = readArrayLength(INT8.SIZE_IN_BYTES);
+        List<INT8> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readINT8());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of UINT8 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<UINT8> readAUINT8() throws EOFException {
+        int length = readArrayLength(UINT8.SIZE_IN_BYTES);
+        List<UINT8> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readUINT8());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of INT16 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<INT16> readAINT16() throws EOFException {
+        int length = readArrayLength(INT16.SIZE_IN_BYTES);
+        List<INT16> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readINT16());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of UINT16 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<UINT16> readAUINT16() throws EOFException {
+        int length = readArrayLength(UINT16.SIZE_IN_BYTES);
+        List<UINT16> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readUINT16());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of INT32 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<INT32> readAINT32() throws EOFException {
+        int length = readArrayLength(INT32.SIZE_IN_BYTES);
+        List<INT32> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readINT32());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of UINT32 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<UINT32> readAUINT32() throws EOFException {
+        int length = readArrayLength(UINT32.SIZE_IN_BYTES);
+        List<UINT32> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readUINT32());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of INT64 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<INT64> readAINT64() throws EOFException {
+        int length = readArrayLength(INT64.SIZE_IN_BYTES);
+        List<INT64> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readINT64());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of UINT64 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<UINT64> readAUINT64() throws EOFException {
+        int length = readArrayLength(UINT64.SIZE_IN_BYTES);
+        List<UINT64> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readUINT64());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of INT128 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<INT128> readAINT128() throws EOFException {
+        int length = readArrayLength(INT128.SIZE_IN_BYTES);
+        List<INT128> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readINT128());
+        }
+        return list;
+    }
+
+    /**
+     * Read list of UINT128 from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public List<UINT128> readAUINT128() throws EOFException {
+        int length = readArrayLength(UINT128.SIZE_IN_BYTES);
+        List<UINT128> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(readUINT128());
+        }
+        return list;
+    }
+
+    // PTP Generic Type (Primitive Array)
+
+    /**
+     * Read AUINT16 from the buffer as a primitive backed array.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public UINT16Array readUINT16Array() throws EOFException {
+        return UINT16Array.read(buffer);
+    }
+
+    /**
+     * Read AUINT32 from the buffer as a primitive backed array.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public UINT32Array readUINT32Array() throws EOFException {
+        return UINT32Array.read(buffer);
+    }
+
+    // PTP Generic Type (String)
+
+    /**
+     * Read PTP String from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public String readString() throws EOFException {
+        if (stringCodec == null) {
+            stringCodec = new PtpStringCodec();
+        }
+        return stringCodec.readSTR(buffer);
+    }
+
+    // read *
+
+    /**
+     * Read data as DataType of specified code.
+     *
+     * @param dataType The type of data to read.
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public Object readAs(DataType dataType) throws EOFException {
+        Validators.notNull("dataType", dataType);
+
+        switch (dataType) {
+            case INT8:
+                return readINT8();
+            case UINT8:
+                return readUINT8();
+            case INT16:
+                return readINT16();
+            case UINT16:
+                return readUINT16();
+            case INT32:
+                return readINT32();
+            case UINT32:
+                return readUINT32();
+            case INT64:
+                return readINT64();
+            case UINT64:
+                return readUINT64();
+            case INT128:
+                return readINT128();
+            case UINT128:
+                return readUINT128();
+            case AINT8:
+                return readAINT8();
+            case AUINT8:
+                return readAUINT8();
+            case AINT16:
+                return readAINT16();
+            case AUINT16:
+                return readAUINT16();
+            case AINT32:
+                return readAINT32();
+            case AUINT32:
+                return readAUINT32();
+            case AINT64:
+                return readAINT64();
+            case AUINT64:
+                return readAUINT64();
+            case AINT128:
+                return readAINT128();
+            case AUINT128:
+                return readAUINT128();
+            case STR:
+                return readString();
+            default:
+                throw new UnsupportedOperationException(dataType + " is not supported.");
+        }
+    }
+
+    /**
+     * Read exactly b.length bytes from the buffer.
+     *
+     * @throws EOFException if the buffer does not have enough remaining bytes.
+     */
+    @Override
+    public void readFully(byte[] b) throws EOFException {
+        Validators.notNull("b", b);
+
+        require(b.length);
+        buffer.get(b);
+    }
+
+    /**
+     * Returns a view of the next length bytes of the buffer and advances the position, without copying.
+     * The view shares the content of the buffer, so it is valid only while the buffer is not reused.
+     * The view is read-only if and only if the buffer is read-only.
+     *
+     * @throws IllegalArgumentException if length is negative.
+     * @throws EOFException             if the buffer does not have enough remaining bytes.
+     */
+    public ByteBuffer readSlice(int length) throws EOFException {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+
+        require(length);
+
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+
+        return slice;
+    }
+
+    /**
+     * Advances the position by length bytes, and returns the index of the first skipped byte.
+     * The skipped bytes can be decoded by the absolute get methods from the returned index.
+     *
+     * @throws IllegalArgumentException if length is negative.
+     * @throws EOFException             if the buffer does not have enough remaining bytes.
+     */
+    public int skip(int length) throws EOFException {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+
+        require(length);
+
+        int index = buffer.position();
+        buffer.position(index + length);
+
+        return index;
+    }
+
+    // Private Method
+
+    private void require(int numBytes) throws EOFException {
+        if (buffer.remaining() < numBytes) {
+            String message = String.format(Locale.US, "Required %d bytes, but remaining is %d bytes.", numBytes, buffer.remaining());
+            throw new EOFException(message);
+        }
+    }
+
+    private int readArrayLength(int elementSizeInBytes) throws EOFException {
+        long length = readUINT32().longValue();
+
+        // Check before allocating the list, since the length comes from the peer.
+        if (buffer.remaining() / elementSizeInBytes < length) {
+            String message = String.format(Locale.US, "Array of %d elements exceeds remaining %d bytes.", length, buffer.remaining());
+            throw new EOFException(message);
+        }
+
+        return (int) length;
+    }
+
+    private static UINT64 toUINT64(long value) {
+        if (0 <= value) {
+            return new UINT64(value);
+        }
+        // Larger than Long.MAX_VALUE
+        return new UINT64(BigInteger.valueOf(value).add(TWO_TO_THE_64));
+    }
+}
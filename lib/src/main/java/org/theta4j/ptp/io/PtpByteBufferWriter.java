@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.io;
+
+import org.theta4j.ptp.type.PtpInteger;
+import org.theta4j.ptp.type.PtpStringCodec;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.util.Validators;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Writer of the generic data type of PTP to a little endian ByteBuffer.
+ * <p>
+ * Relative write methods advance the position of the buffer,
+ * and absolute put methods do not change the position.
+ * Both throw BufferOverflowException if the buffer does not have enough space.
+ */
+public final class PtpByteBufferWriter {
+    private final ByteBuffer buffer;
+
+    // Constructor
+
+    /**
+     * Wrap ByteBuffer by PtpByteBufferWriter.
+     * <p>
+     * The byte order of the buffer is changed to little endian.
+     *
+     * @param buffer The heap or direct buffer to write.
+     * @throws NullPointerException if buffer is null.
+     */
+    public PtpByteBufferWriter(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Getter
+
+    /**
+     * Returns the underlying buffer.
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the position of the underlying buffer.
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    // PTP Generic Type
+
+    /**
+     * Write PTP Integer value to the buffer.
+     *
+     * @param integer the integer to write to buffer.
+     * @throws NullPointerException if integer is null.
+     */
+    public void write(PtpInteger integer) {
+        Validators.notNull("integer", integer);
+
+        integer.writeTo(buffer);
+    }
+
+    /**
+     * Write PTP Integer value at the given index of the buffer.
+     *
+     * @param index   the index to write the integer.
+     * @param integer the integer to write to buffer.
+     * @throws NullPointerException      if integer is null.
+     * @throws IndexOutOfBoundsException if index is out of the limit of the buffer.
+     */
+    public void put(int index, PtpInteger integer) {
+        Validators.notNull("integer", integer);
+
+        int position = buffer.position();
+        buffer.position(index);
+        try {
+            integer.writeTo(buffer);
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    /**
+     * Write List of PTP Integer to the buffer as PTP array, which is the number of elements followed by elements.
+     *
+     * @param aint the list to write to buffer.
+     * @throws NullPointerException if aint is null.
+     */
+    public void writeArray(List<? extends PtpInteger> aint) {
+        Validators.notNull("aint", aint);
+
+        UINT32.valueOf(aint.size()).writeTo(buffer);
+        for (PtpInteger integer : aint) {
+            integer.writeTo(buffer);
+        }
+    }
+
+    /**
+     * Write String to the buffer as PTP String.
+     *
+     * @param str the string to write to buffer.
+     * @throws NullPointerException     if str is null.
+     * @throws IllegalArgumentException if str is too long for PTP String.
+     */
+    public void write(String str) {
+        PtpStringCodec.writeSTR(str, buffer);
+    }
+
+    /**
+     * Returns the number of bytes of the PTP String representation of str.
+     *
+     * @throws NullPointerException if str is null.
+     */
+    public static int sizeOf(String str) {
+        return PtpStringCodec.sizeOfSTR(str);
+    }
+
+    /**
+     * Write bytes to the buffer.
+     *
+     * @throws NullPointerException if b is null.
+     */
+    public void write(byte[] b) {
+        Validators.notNull("b", b);
+
+        buffer.put(b);
+    }
+}
@@ -5,9 +5,12 @@
 package org.theta4j.ptp.io;
 
 import org.theta4j.ptp.type.*;
+import org.theta4j.util.ChannelInputStream;
+import org.theta4j.util.IOUtils;
 import org.theta4j.util.Validators;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -15,13 +18,16 @@ import java.util.List;
 /**
  * InputStream of the generic data type of PTP.
  */
-public final class PtpInputStream extends InputStream {
+public final class PtpInputStream extends InputStream implements PtpReader {
     private final InputStream in;
+    private PtpStringCodec stringCodec;
 
     // Constructor
 
     /**
      * Wrap InputStream by PtpInputStream.
+     * <p>
+     * The stream is buffered unless it is already an in-memory or buffered stream.
      *
      * @param in The underlying input stream.
      * @throws NullPointerException if in is null.
@@ -29,7 +35,29 @@ public final class PtpInputStream extends InputStream {
     public PtpInputStream(InputStream in) {
         Validators.notNull("in", in);
 
-        this.in = new BufferedInputStream(in);
+        if (in instanceof ByteArrayInputStream || in instanceof BufferedInputStream || in instanceof PtpInputStream
+                || in instanceof ChannelInputStream) {
+            this.in = in;
+        } else {
+            this.in = new BufferedInputStream(in);
+        }
+    }
+
+    /**
+     * Wrap InputStream by PtpInputStream which decodes strings by the given codec.
+     * <p>
+     * Sharing a deduplicating codec across streams lets repeated strings share one instance.
+     *
+     * @param in          The underlying input stream.
+     * @param stringCodec The codec to decode PTP String.
+     * @throws NullPointerException if an argument is null.
+     */
+    public PtpInputStream(InputStream in, PtpStringCodec stringCodec) {
+        this(in);
+
+        Validators.notNull("stringCodec", stringCodec);
+
+        this.stringCodec = stringCodec;
     }
 
     // PTP Generic Type (Integer)
@@ -39,6 +67,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public INT8 readINT8() throws IOException {
         return INT8.read(in);
     }
@@ -48,6 +77,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public UINT8 readUINT8() throws IOException {
         return UINT8.read(in);
     }
@@ -57,6 +87,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public INT16 readINT16() throws IOException {
         return INT16.read(in);
     }
@@ -66,6 +97,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public UINT16 readUINT16() throws IOException {
         return UINT16.read(in);
     }
@@ -75,6 +107,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public INT32 readINT32() throws IOException {
         return INT32.read(in);
     }
@@ -84,6 +117,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public UINT32 readUINT32() throws IOException {
         return UINT32.read(in);
     }
@@ -93,6 +127,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public INT64 readINT64() throws IOException {
         return INT64.read(in);
     }
@@ -102,6 +137,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public UINT64 readUINT64() throws IOException {
         return UINT64.read(in);
     }
@@ -111,6 +147,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public INT128 readINT128() throws IOException {
         return INT128.read(in);
     }
@@ -120,6 +157,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public UINT128 readUINT128() throws IOException {
         return UINT128.read(in);
     }
@@ -131,6 +169,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<INT8> readAINT8() throws IOException {
         return AINT8.read(in);
     }
@@ -140,6 +179,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<UINT8> readAUINT8() throws IOException {
         return AUINT8.read(in);
     }
@@ -149,6 +189,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<INT16> readAINT16() throws IOException {
         return AINT16.read(in);
     }
@@ -158,6 +199,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<UINT16> readAUINT16() throws IOException {
         return AUINT16.read(in);
     }
@@ -167,6 +209,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<INT32> readAINT32() throws IOException {
         return AINT32.read(in);
     }
@@ -176,6 +219,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<UINT32> readAUINT32() throws IOException {
         return AUINT32.read(in);
     }
@@ -185,6 +229,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<INT64> readAINT64() throws IOException {
         return AINT64.read(in);
     }
@@ -194,6 +239,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<UINT64> readAUINT64() throws IOException {
         return AUINT64.read(in);
     }
@@ -203,6 +249,7 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<INT128> readAINT128() throws IOException {
         return AINT128.read(in);
     }
@@ -212,10 +259,33 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public List<UINT128> readAUINT128() throws IOException {
         return AUINT128.read(in);
     }
 
+    // PTP Generic Type (Primitive Array)
+
+    /**
+     * Read AUINT16 from the stream as a primitive backed array.
+     *
+     * @throws IOException if an I/O error occurs while reading the stream.
+     */
+    @Override
+    public UINT16Array readUINT16Array() throws IOException {
+        return UINT16Array.read(in);
+    }
+
+    /**
+     * Read AUINT32 from the stream as a primitive backed array.
+     *
+     * @throws IOException if an I/O error occurs while reading the stream.
+     */
+    @Override
+    public UINT32Array readUINT32Array() throws IOException {
+        return UINT32Array.read(in);
+    }
+
     // // PTP Generic Type (String)
 
     /**
@@ -223,8 +293,12 @@ public final class PtpInputStream extends InputStream {
      *
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public String readString() throws IOException {
-        return STR.read(in);
+        if (stringCodec == null) {
+            stringCodec = new PtpStringCodec();
+        }
+        return stringCodec.readSTR(in);
     }
 
     // read *
@@ -235,6 +309,7 @@ public final class PtpInputStream extends InputStream {
      * @param dataType The type of data to read.
      * @throws IOException if an I/O error occurs while reading the stream.
      */
+    @Override
     public Object readAs(DataType dataType) throws IOException {
         Validators.notNull("dataType", dataType);
 
@@ -286,6 +361,17 @@ public final class PtpInputStream extends InputStream {
         }
     }
 
+    /**
+     * Read exactly b.length bytes from the stream.
+     *
+     * @throws java.io.EOFException if the stream ends before b is filled.
+     * @throws IOException          if an I/O error occurs while reading the stream.
+     */
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        IOUtils.readFully(in, b);
+    }
+
     // InputStream
 
     /**
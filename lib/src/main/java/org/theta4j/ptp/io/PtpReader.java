@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.io;
+
+import org.theta4j.ptp.type.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reader of the generic data type of PTP.
+ * <p>
+ * Datasets and packets are decoded against this interface,
+ * so the same code reads from a stream and from a buffer.
+ */
+public interface PtpReader {
+    // PTP Generic Type (Integer)
+
+    INT8 readINT8() throws IOException;
+
+    UINT8 readUINT8() throws IOException;
+
+    INT16 readINT16() throws IOException;
+
+    UINT16 readUINT16() throws IOException;
+
+    INT32 readINT32() throws IOException;
+
+    UINT32 readUINT32() throws IOException;
+
+    INT64 readINT64() throws IOException;
+
+    UINT64 readUINT64() throws IOException;
+
+    INT128 readINT128() throws IOException;
+
+    UINT128 readUINT128() throws IOException;
+
+    // PTP Generic Type (Array)
+
+    List<INT8> readAINT8() throws IOException;
+
+    List<UINT8> readAUINT8() throws IOException;
+
+    List<INT16> readAINT16() throws IOException;
+
+    List<UINT16> readAUINT16() throws IOException;
+
+    List<INT32> readAINT32() throws IOException;
+
+    List<UINT32> readAUINT32() throws IOException;
+
+    List<INT64> readAINT64() throws IOException;
+
+    List<UINT64> readAUINT64() throws IOException;
+
+    List<INT128> readAINT128() throws IOException;
+
+    List<UINT128> readAUINT128() throws IOException;
+
+    // PTP Generic Type (Primitive Array)
+
+    UINT16Array readUINT16Array() throws IOException;
+
+    UINT32Array readUINT32Array() throws IOException;
+
+    // PTP Generic Type (String)
+
+    String readString() throws IOException;
+
+    // read *
+
+    Object readAs(DataType dataType) throws IOException;
+
+    /**
+     * Read exactly b.length bytes.
+     *
+     * @throws java.io.EOFException if the data ends before b is filled.
+     */
+    void readFully(byte[] b) throws IOException;
+}
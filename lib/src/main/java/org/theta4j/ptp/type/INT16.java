@@ -4,7 +4,6 @@
 
 package org.theta4j.ptp.type;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -15,12 +14,23 @@ import java.math.BigInteger;
 public class INT16 extends PtpInteger {
     // Utility Field
 
+    /**
+     * Size of type in bytes.
+     */
     public static final int SIZE_IN_BYTES = 2;
 
-    public static final INT16 MIN_VALUE = new INT16(BigIntegerUtils.minOfSigned(SIZE_IN_BYTES));
-    public static final INT16 MAX_VALUE = new INT16(BigIntegerUtils.maxOfSigned(SIZE_IN_BYTES));
+    // Cache for valueOf method
 
-    public static final INT16 ZERO = new INT16((short) 0);
+    /**
+     * Instances are created on demand. The value field is final,
+     * so an instance which is read racily from this array is always fully initialized.
+     */
+    private static final INT16[] CACHE = new INT16[0x10000];
+
+    public static final INT16 MIN_VALUE = valueOf(Short.MIN_VALUE);
+    public static final INT16 MAX_VALUE = valueOf(Short.MAX_VALUE);
+
+    public static final INT16 ZERO = valueOf(0);
 
     // Constructor
 
@@ -38,14 +48,29 @@ public class INT16 extends PtpInteger {
 
     // Static Factory Method
 
-    public static INT16 read(InputStream is) throws IOException {
-        byte[] bytes = new byte[SIZE_IN_BYTES];
+    /**
+     * Returns a cached INT16 instance representing the specified value.
+     *
+     * @throws IllegalArgumentException if the value is out of range.
+     */
+    public static INT16 valueOf(long value) {
+        if (value < Short.MIN_VALUE || Short.MAX_VALUE < value) {
+            throw new IllegalArgumentException("Out of range of INT16: " + value);
+        }
 
-        if (is.read(bytes) != SIZE_IN_BYTES) {
-            throw new EOFException();
+        int index = (int) (value - Short.MIN_VALUE);
+
+        INT16 cached = CACHE[index];
+        if (cached == null) {
+            cached = new INT16(value);
+            CACHE[index] = cached;
         }
 
-        return new INT16(bytes);
+        return cached;
+    }
+
+    public static INT16 read(InputStream is) throws IOException {
+        return valueOf((short) readLittleEndian(is, SIZE_IN_BYTES));
     }
 
     // LittleEndianInteger
@@ -4,7 +4,6 @@
 
 package org.theta4j.ptp.type;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -15,12 +14,25 @@ import java.math.BigInteger;
 public final class INT8 extends PtpInteger {
     // Utility Field
 
+    /**
+     * Size of type in bytes.
+     */
     public static final int SIZE_IN_BYTES = 1;
 
-    public static final INT8 MIN_VALUE = new INT8(BigIntegerUtils.minOfSigned(SIZE_IN_BYTES));
-    public static final INT8 MAX_VALUE = new INT8(BigIntegerUtils.maxOfSigned(SIZE_IN_BYTES));
+    // Cache for valueOf method
 
-    public static final INT8 ZERO = new INT8((byte) 0);
+    private static final INT8[] CACHE = new INT8[0x100];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new INT8(i + Byte.MIN_VALUE);
+        }
+    }
+
+    public static final INT8 MIN_VALUE = valueOf(Byte.MIN_VALUE);
+    public static final INT8 MAX_VALUE = valueOf(Byte.MAX_VALUE);
+
+    public static final INT8 ZERO = valueOf(0);
 
     // Constructor
 
@@ -36,17 +48,23 @@ public final class INT8 extends PtpInteger {
         super(bytes);
     }
 
-
     // Static Factory Method
 
-    public static INT8 read(InputStream is) throws IOException {
-        byte[] bytes = new byte[SIZE_IN_BYTES];
-
-        if (is.read(bytes) != SIZE_IN_BYTES) {
-            throw new EOFException();
+    /**
+     * Returns a cached INT8 instance representing the specified value.
+     *
+     * @throws IllegalArgumentException if the value is out of range.
+     */
+    public static INT8 valueOf(long value) {
+        if (value < Byte.MIN_VALUE || Byte.MAX_VALUE < value) {
+            throw new IllegalArgumentException("Out of range of INT8: " + value);
         }
 
-        return new INT8(bytes);
+        return CACHE[(int) (value - Byte.MIN_VALUE)];
+    }
+
+    public static INT8 read(InputStream is) throws IOException {
+        return valueOf((byte) readLittleEndian(is, SIZE_IN_BYTES));
     }
 
     // LittleEndianInteger
@@ -4,101 +4,241 @@
 
 package org.theta4j.ptp.type;
 
+import org.apache.commons.lang3.StringUtils;
 import org.theta4j.util.Validators;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * A base class PTP integer classes.
+ * <p>
+ * Integers up to 64 bits are held as a primitive long.
+ * The BigInteger representation is materialized lazily for them,
+ * and is held eagerly only for 128 bits integers.
  */
 public abstract class PtpInteger extends Number implements Comparable<PtpInteger> {
-    private final byte[] bytes;
-    private final BigInteger bigInteger;
+    private static final int LONG_SIZE_IN_BYTES = 8;
+
+    /**
+     * The value for integers up to 64 bits, or the low 64 bits of 128 bits integers.
+     * UINT64 values larger than Long.MAX_VALUE are held as two's complement.
+     */
+    private final long value;
+
+    /**
+     * Always non-null for 128 bits integers, lazily initialized for the others.
+     */
+    private BigInteger bigInteger;
 
     // Constructor
 
     PtpInteger(long value) {
-        this(BigInteger.valueOf(value));
+        if (isWide()) {
+            this.value = value;
+            this.bigInteger = BigInteger.valueOf(value);
+            checkRange(this.bigInteger);
+            return;
+        }
+
+        if (value < minAsLong() || maxAsLong() < value) {
+            throw new IllegalArgumentException();
+        }
+
+        this.value = value;
     }
 
     PtpInteger(BigInteger value) {
         Validators.notNull("value", value);
 
-        if (value.compareTo(min()) < 0 || 0 < value.compareTo(max())) {
-            throw new IllegalArgumentException();
-        }
+        checkRange(value);
 
-        this.bytes = BigIntegerUtils.toLittleEndian(value, sizeInBytes());
-        this.bigInteger = value;
+        this.value = value.longValue();
+        this.bigInteger = isWide() ? value : null;
     }
 
     PtpInteger(byte[] bytes) {
         Validators.notNull("bytes", bytes);
         Validators.length("bytes", bytes, sizeInBytes());
 
-        this.bytes = bytes.clone();
-        if (isSigned()) {
-            this.bigInteger = BigIntegerUtils.asSignedLittleEndian(this.bytes);
-        } else {
-            this.bigInteger = BigIntegerUtils.asUnsignedLittleEndian(this.bytes);
+        if (isWide()) {
+            if (isSigned()) {
+                this.bigInteger = BigIntegerUtils.asSignedLittleEndian(bytes);
+            } else {
+                this.bigInteger = BigIntegerUtils.asUnsignedLittleEndian(bytes);
+            }
+            this.value = bigInteger.longValue();
+            return;
         }
+
+        long decoded = 0;
+        for (int i = bytes.length - 1; 0 <= i; i--) {
+            decoded = (decoded << 8) | (bytes[i] & 0xFF);
+        }
+
+        if (isSigned() && bytes.length < LONG_SIZE_IN_BYTES) {
+            // Sign Extension
+            int shift = (LONG_SIZE_IN_BYTES - bytes.length) * 8;
+            decoded = (decoded << shift) >> shift;
+        }
+
+        this.value = decoded;
     }
 
     // Getter
 
     public byte[] bytes() {
-        return bytes.clone();
+        if (isWide()) {
+            return BigIntegerUtils.toLittleEndian(bigInteger, sizeInBytes());
+        }
+
+        byte[] bytes = new byte[sizeInBytes()];
+        long v = value;
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) v;
+            v >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Write the value as little endian at the current position of the buffer without allocating a byte array,
+     * regardless of the byte order of the buffer.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough remaining bytes.
+     */
+    public final void writeTo(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        if (isWide()) {
+            buffer.put(bytes());
+            return;
+        }
+
+        if (buffer.order() != ByteOrder.LITTLE_ENDIAN) {
+            long v = value;
+            for (int i = 0; i < sizeInBytes(); i++) {
+                buffer.put((byte) v);
+                v >>>= 8;
+            }
+            return;
+        }
+
+        switch (sizeInBytes()) {
+            case 1:
+                buffer.put((byte) value);
+                break;
+            case 2:
+                buffer.putShort((short) value);
+                break;
+            case 4:
+                buffer.putInt((int) value);
+                break;
+            default:
+                buffer.putLong(value);
+                break;
+        }
     }
 
     public BigInteger bigInteger() {
-        return bigInteger;
+        BigInteger result = bigInteger;
+
+        if (result == null) {
+            result = BigInteger.valueOf(value);
+            if (value < 0 && !isSigned()) {
+                // UINT64 larger than Long.MAX_VALUE
+                result = result.add(BigInteger.ONE.shiftLeft(Long.SIZE));
+            }
+            bigInteger = result; // BigInteger is immutable, so racy initialization is harmless.
+        }
+
+        return result;
     }
 
     // Min / Max
 
-    private BigInteger min() {
+    private long minAsLong() {
+        if (isSigned()) {
+            return Long.MIN_VALUE >> (Long.SIZE - sizeInBytes() * 8);
+        } else {
+            return 0;
+        }
+    }
+
+    private long maxAsLong() {
+        int bits = sizeInBytes() * 8;
+
         if (isSigned()) {
-            return BigIntegerUtils.minOfSigned(sizeInBytes());
+            return Long.MAX_VALUE >> (Long.SIZE - bits);
+        } else if (bits == Long.SIZE) {
+            // UINT64 values larger than Long.MAX_VALUE can not be given as long.
+            return Long.MAX_VALUE;
         } else {
-            return BigIntegerUtils.minOfUnsigned(sizeInBytes());
+            return (1L << bits) - 1;
         }
     }
 
-    private BigInteger max() {
+    private void checkRange(BigInteger value) {
+        int bits = sizeInBytes() * 8;
+
+        boolean inRange;
         if (isSigned()) {
-            return BigIntegerUtils.maxOfSigned(sizeInBytes());
+            inRange = value.bitLength() < bits;
         } else {
-            return BigIntegerUtils.maxOfUnsigned(sizeInBytes());
+            inRange = 0 <= value.signum() && value.bitLength() <= bits;
+        }
+
+        if (!inRange) {
+            throw new IllegalArgumentException();
         }
     }
 
+    private boolean isWide() {
+        return LONG_SIZE_IN_BYTES < sizeInBytes();
+    }
+
+    /**
+     * Returns true if the value is represented exactly by the long field.
+     */
+    private boolean fitsInLong() {
+        return !isWide() && (isSigned() || 0 <= value);
+    }
+
     // Number
 
     @Override
     public int intValue() {
-        return bigInteger.intValue();
+        return (int) value;
     }
 
     @Override
     public long longValue() {
-        return bigInteger.longValue();
+        return value;
     }
 
     @Override
     public float floatValue() {
-        return bigInteger.floatValue();
+        return fitsInLong() ? (float) value : bigInteger().floatValue();
     }
 
     @Override
     public double doubleValue() {
-        return bigInteger.doubleValue();
+        return fitsInLong() ? (double) value : bigInteger().doubleValue();
     }
 
     // Comparable
 
     @Override
     public int compareTo(PtpInteger o) {
-        return bigInteger.compareTo(o.bigInteger);
+        if (fitsInLong() && o.fitsInLong()) {
+            return Long.compare(value, o.value);
+        }
+
+        return bigInteger().compareTo(o.bigInteger());
     }
 
     // Basic Method
@@ -115,21 +255,54 @@ public abstract class PtpInteger extends Number implements Comparable<PtpInteger
 
         PtpInteger rhs = (PtpInteger) o;
 
-        return bigInteger.equals(rhs.bigInteger);
+        if (isWide()) {
+            return bigInteger.equals(rhs.bigInteger);
+        }
+
+        return value == rhs.value;
     }
 
     @Override
     public int hashCode() {
-        return bigInteger.hashCode();
+        if (isWide()) {
+            return bigInteger.hashCode();
+        }
+
+        return (int) (value ^ (value >>> 32));
     }
 
     @Override
     public String toString() {
-        return BigIntegerUtils.toHexString(bigInteger, sizeInBytes());
+        if (isWide()) {
+            return BigIntegerUtils.toHexString(bigInteger, sizeInBytes());
+        }
+
+        // Same notation as BigIntegerUtils.toHexString: the magnitude of negative values without sign.
+        long magnitude = (isSigned() && value < 0) ? -value : value;
+        return "0x" + StringUtils.leftPad(Long.toHexString(magnitude), sizeInBytes() * 2, '0');
     }
 
     // For Subclasses
 
+    /**
+     * Read unsigned little endian integer from the stream without allocating a byte array.
+     *
+     * @throws EOFException if the stream ends before sizeInBytes bytes are read.
+     */
+    static long readLittleEndian(InputStream is, int sizeInBytes) throws IOException {
+        long value = 0;
+
+        for (int i = 0; i < sizeInBytes; i++) {
+            int b = is.read();
+            if (b == -1) {
+                throw new EOFException();
+            }
+            value |= (long) b << (i * 8);
+        }
+
+        return value;
+    }
+
     protected abstract int sizeInBytes();
 
     protected abstract boolean isSigned();
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.theta4j.util.IOUtils;
+import org.theta4j.util.Validators;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Reusable UTF-16LE codec for PTP String and null terminated PTP-IP String.
+ * <p>
+ * Decoding goes straight from the input into a reused char array,
+ * and encoding writes into a caller supplied buffer.
+ * Optionally, decoded strings are deduplicated through a bounded table,
+ * so repeated values such as dates of a catalog scan share one String instance.
+ * <p>
+ * This class is not thread-safe. Use one instance per thread or per session.
+ */
+public final class PtpStringCodec {
+    /**
+     * Maximum number of characters of PTP String, excluding the null terminator.
+     */
+    public static final int MAX_STR_LENGTH = 0xFF - 1;
+
+    private static final int CHAR_SIZE_IN_BYTES = 2;
+    private static final int MAX_DEDUP_TABLE_SIZE = 1 << 16;
+
+    private final byte[] byteBuffer = new byte[(MAX_STR_LENGTH + 1) * CHAR_SIZE_IN_BYTES];
+    private char[] charBuffer = new char[MAX_STR_LENGTH];
+
+    /**
+     * Direct mapped table of recently decoded strings, or null if deduplication is disabled.
+     */
+    private final String[] dedupTable;
+
+    // Constructor
+
+    /**
+     * Constructs new codec without deduplication.
+     */
+    public PtpStringCodec() {
+        this.dedupTable = null;
+    }
+
+    /**
+     * Constructs new codec which deduplicates decoded strings.
+     *
+     * @param dedupTableSize The number of entries of the dedup table. Rounded up to a power of two.
+     * @throws IllegalArgumentException if dedupTableSize is not in 1-65536.
+     */
+    public PtpStringCodec(int dedupTableSize) {
+        if (dedupTableSize < 1 || MAX_DEDUP_TABLE_SIZE < dedupTableSize) {
+            String message = String.format(Locale.US, "dedupTableSize must be in 1-%d, but was %d.", MAX_DEDUP_TABLE_SIZE, dedupTableSize);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.dedupTable = new String[roundUpToPowerOfTwo(dedupTableSize)];
+    }
+
+    // Decode (PTP String)
+
+    /**
+     * Read PTP String from the stream.
+     *
+     * @throws EOFException         if the stream ends before the string.
+     * @throws IOException          if an I/O error occurs while reading the stream.
+     * @throws NullPointerException if is is null.
+     */
+    public String readSTR(InputStream is) throws IOException {
+        Validators.notNull("is", is);
+
+        int numChars = is.read();
+
+        if (numChars == -1) {
+            throw new EOFException("length of InputStream is 0.");
+        }
+
+        if (numChars == 0) {
+            return "";
+        }
+
+        int numBytes = numChars * CHAR_SIZE_IN_BYTES;
+        IOUtils.readFully(is, byteBuffer, 0, numBytes);
+
+        // The last character is the null terminator.
+        int length = numChars - 1;
+        for (int i = 0; i < length; i++) {
+            charBuffer[i] = (char) ((byteBuffer[i * 2] & 0xFF) | (byteBuffer[i * 2 + 1] << 8));
+        }
+
+        return toString(charBuffer, length);
+    }
+
+    /**
+     * Read PTP String from the buffer, and advance the position of the buffer.
+     * The string is decoded as little endian regardless of the byte order of the buffer.
+     *
+     * @throws EOFException         if the buffer does not have enough remaining bytes.
+     * @throws NullPointerException if buffer is null.
+     */
+    public String readSTR(ByteBuffer buffer) throws EOFException {
+        Validators.notNull("buffer", buffer);
+
+        if (!buffer.hasRemaining()) {
+            throw new EOFException("Remaining of ByteBuffer is 0.");
+        }
+
+        int numChars = buffer.get(buffer.position()) & 0xFF;
+        int numBytes = numChars * CHAR_SIZE_IN_BYTES;
+
+        if (buffer.remaining() < STR.MIN_SIZE_IN_BYTES + numBytes) {
+            String message = String.format(Locale.US, "NumChars is %d (= %d bytes), but remaining is %d bytes.", numChars, numBytes, buffer.remaining() - 1);
+            throw new EOFException(message);
+        }
+
+        buffer.get();
+
+        if (numChars == 0) {
+            return "";
+        }
+
+        // The last character is the null terminator.
+        int length = numChars - 1;
+        for (int i = 0; i < length; i++) {
+            charBuffer[i] = (char) ((buffer.get() & 0xFF) | (buffer.get() << 8));
+        }
+        buffer.position(buffer.position() + CHAR_SIZE_IN_BYTES);
+
+        return toString(charBuffer, length);
+    }
+
+    // Decode (Null Terminated String)
+
+    /**
+     * Read null terminated UTF-16LE string, which is used by PTP-IP, from the stream.
+     *
+     * @throws EOFException         if the stream ends before the null terminator.
+     * @throws IOException          if an I/O error occurs while reading the stream.
+     * @throws NullPointerException if is is null.
+     */
+    public String readNullTerminated(InputStream is) throws IOException {
+        Validators.notNull("is", is);
+
+        int length = 0;
+        for (; ; ) {
+            int b0 = is.read();
+            int b1 = is.read();
+            if (b0 == -1 || b1 == -1) {
+                throw new EOFException();
+            }
+
+            char c = (char) (b0 | (b1 << 8));
+            if (c == 0) {
+                break;
+            }
+
+            ensureCharBuffer(length + 1);
+            charBuffer[length++] = c;
+        }
+
+        return toString(charBuffer, length);
+    }
+
+    /**
+     * Read null terminated UTF-16LE string, which is used by PTP-IP, from the buffer.
+     *
+     * @throws EOFException         if the buffer ends before the null terminator.
+     * @throws NullPointerException if buffer is null.
+     */
+    public String readNullTerminated(ByteBuffer buffer) throws EOFException {
+        Validators.notNull("buffer", buffer);
+
+        int length = 0;
+        for (; ; ) {
+            if (buffer.remaining() < CHAR_SIZE_IN_BYTES) {
+                throw new EOFException();
+            }
+
+            char c = (char) ((buffer.get() & 0xFF) | (buffer.get() << 8));
+            if (c == 0) {
+                break;
+            }
+
+            ensureCharBuffer(length + 1);
+            charBuffer[length++] = c;
+        }
+
+        return toString(charBuffer, length);
+    }
+
+    // Encode
+
+    /**
+     * Write str as PTP String to the buffer, as little endian regardless of the byte order of the buffer.
+     *
+     * @throws NullPointerException             if an argument is null.
+     * @throws IllegalArgumentException         if str is longer than MAX_STR_LENGTH.
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space.
+     */
+    public static void writeSTR(String str, ByteBuffer buffer) {
+        Validators.notNull("str", str);
+        Validators.notNull("buffer", buffer);
+
+        if (MAX_STR_LENGTH < str.length()) {
+            throw new IllegalArgumentException("Too long string for PTP String: " + str.length());
+        }
+
+        if (str.isEmpty()) {
+            buffer.put((byte) 0);
+            return;
+        }
+
+        buffer.put((byte) (str.length() + 1)); // +1 for null terminator
+        putChars(str, buffer);
+        buffer.put((byte) 0).put((byte) 0);
+    }
+
+    /**
+     * Write str as null terminated UTF-16LE string to the buffer.
+     *
+     * @throws NullPointerException             if an argument is null.
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space.
+     */
+    public static void writeNullTerminated(String str, ByteBuffer buffer) {
+        Validators.notNull("str", str);
+        Validators.notNull("buffer", buffer);
+
+        putChars(str, buffer);
+        buffer.put((byte) 0).put((byte) 0);
+    }
+
+    /**
+     * Returns the number of bytes of the PTP String representation of str.
+     *
+     * @throws NullPointerException if str is null.
+     */
+    public static int sizeOfSTR(String str) {
+        Validators.notNull("str", str);
+
+        if (str.isEmpty()) {
+            return STR.MIN_SIZE_IN_BYTES;
+        }
+
+        return STR.MIN_SIZE_IN_BYTES + (str.length() + 1) * CHAR_SIZE_IN_BYTES;
+    }
+
+    /**
+     * Returns the number of bytes of the null terminated UTF-16LE representation of str.
+     *
+     * @throws NullPointerException if str is null.
+     */
+    public static int sizeOfNullTerminated(String str) {
+        Validators.notNull("str", str);
+
+        return (str.length() + 1) * CHAR_SIZE_IN_BYTES;
+    }
+
+    // Private Method
+
+    private static void putChars(String str, ByteBuffer buffer) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            buffer.put((byte) c).put((byte) (c >>> 8));
+        }
+    }
+
+    private void ensureCharBuffer(int length) {
+        if (charBuffer.length < length) {
+            char[] newBuffer = new char[Math.max(length, charBuffer.length * 2)];
+            System.arraycopy(charBuffer, 0, newBuffer, 0, charBuffer.length);
+            charBuffer = newBuffer;
+        }
+    }
+
+    private String toString(char[] chars, int length) {
+        if (length == 0) {
+            return "";
+        }
+
+        if (dedupTable == null) {
+            return new String(chars, 0, length);
+        }
+
+        // Same as String.hashCode, so the cached string is checked without allocation.
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int index = (hash ^ (hash >>> 16)) & (dedupTable.length - 1);
+        String cached = dedupTable[index];
+        if (cached != null && cached.hashCode() == hash && contentEquals(cached, chars, length)) {
+            return cached;
+        }
+
+        String str = new String(chars, 0, length);
+        dedupTable[index] = str;
+        return str;
+    }
+
+    private static boolean contentEquals(String str, char[] chars, int length) {
+        if (str.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int highestOneBit = Integer.highestOneBit(value);
+        return highestOneBit == value ? value : highestOneBit << 1;
+    }
+}
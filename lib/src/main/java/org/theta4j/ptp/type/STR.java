@@ -4,12 +4,12 @@
 
 package org.theta4j.ptp.type;
 
-import org.theta4j.util.ArrayUtils;
 import org.theta4j.util.Validators;
 
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Locale;
 
@@ -32,13 +32,9 @@ public final class STR {
     public static byte[] toBytes(String str) {
         Validators.notNull("str", str);
 
-        if (str.isEmpty()) {
-            return new byte[]{0};
-        } else {
-            // length+1 is for null terminator
-            byte[] length = new byte[]{(byte) (str.length() + 1)};
-            return ArrayUtils.join(length, str.getBytes(CHARSET), NULL_TERMINATOR);
-        }
+        ByteBuffer buffer = ByteBuffer.allocate(PtpStringCodec.sizeOfSTR(str));
+        PtpStringCodec.writeSTR(str, buffer);
+        return buffer.array();
     }
 
     public static String read(InputStream is) throws IOException {
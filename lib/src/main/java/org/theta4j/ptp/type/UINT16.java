@@ -4,7 +4,6 @@
 
 package org.theta4j.ptp.type;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -20,10 +19,18 @@ public final class UINT16 extends PtpInteger {
      */
     public static final int SIZE_IN_BYTES = 2;
 
-    public static final UINT16 MIN_VALUE = new UINT16(BigIntegerUtils.minOfUnsigned(SIZE_IN_BYTES));
-    public static final UINT16 MAX_VALUE = new UINT16(BigIntegerUtils.maxOfUnsigned(SIZE_IN_BYTES));
+    // Cache for valueOf method
 
-    public static final UINT16 ZERO = new UINT16(0);
+    /**
+     * Instances are created on demand. The value field is final,
+     * so an instance which is read racily from this array is always fully initialized.
+     */
+    private static final UINT16[] CACHE = new UINT16[0x10000];
+
+    public static final UINT16 MIN_VALUE = valueOf(0);
+    public static final UINT16 MAX_VALUE = valueOf(0xFFFF);
+
+    public static final UINT16 ZERO = valueOf(0);
 
     // Constructor
 
@@ -41,14 +48,29 @@ public final class UINT16 extends PtpInteger {
 
     // Static Factory Method
 
-    public static UINT16 read(InputStream is) throws IOException {
-        byte[] bytes = new byte[SIZE_IN_BYTES];
+    /**
+     * Returns a cached UINT16 instance representing the specified value.
+     *
+     * @throws IllegalArgumentException if the value is out of range.
+     */
+    public static UINT16 valueOf(long value) {
+        if (value < 0 || 0xFFFF < value) {
+            throw new IllegalArgumentException("Out of range of UINT16: " + value);
+        }
+
+        int index = (int) value;
 
-        if (is.read(bytes) != SIZE_IN_BYTES) {
-            throw new EOFException();
+        UINT16 cached = CACHE[index];
+        if (cached == null) {
+            cached = new UINT16(value);
+            CACHE[index] = cached;
         }
 
-        return new UINT16(bytes);
+        return cached;
+    }
+
+    public static UINT16 read(InputStream is) throws IOException {
+        return valueOf(readLittleEndian(is, SIZE_IN_BYTES));
     }
 
     // LittleEndianInteger
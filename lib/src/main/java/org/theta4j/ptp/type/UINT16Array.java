@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.theta4j.util.IOUtils;
+import org.theta4j.util.Validators;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.RandomAccess;
+
+/**
+ * An immutable AUINT16 defined in PTP standard, backed by a primitive short array.
+ * <p>
+ * Elements are held as unsigned 16 bits values,
+ * and UINT16 objects are only materialized by get method from the UINT16 cache.
+ */
+public final class UINT16Array extends AbstractList<UINT16> implements RandomAccess {
+    private static final int MAX_VALUE = 0xFFFF;
+
+    private final short[] values;
+
+    // Constructor
+
+    /**
+     * Constructs new UINT16Array object.
+     *
+     * @param values The unsigned 16 bits values. The array is copied.
+     * @throws NullPointerException     if values is null.
+     * @throws IllegalArgumentException if a value is out of range of UINT16.
+     */
+    public UINT16Array(int... values) {
+        Validators.notNull("values", values);
+
+        this.values = new short[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < 0 || MAX_VALUE < values[i]) {
+                throw new IllegalArgumentException("Out of range of UINT16: " + values[i]);
+            }
+            this.values[i] = (short) values[i];
+        }
+    }
+
+    private UINT16Array(short[] values) {
+        this.values = values;
+    }
+
+    // Static Factory Method
+
+    /**
+     * Read AUINT16 from the stream into one primitive array.
+     *
+     * @throws IOException          if an I/O error occurs while reading the stream.
+     * @throws NullPointerException if is is null.
+     */
+    public static UINT16Array read(InputStream is) throws IOException {
+        Validators.notNull("is", is);
+
+        long length = UINT32.read(is).longValue();
+        if (Integer.MAX_VALUE / UINT16.SIZE_IN_BYTES < length) {
+            throw new IOException("Too many elements of AUINT16: " + length);
+        }
+
+        byte[] bytes = new byte[(int) length * UINT16.SIZE_IN_BYTES];
+        IOUtils.readFully(is, bytes);
+
+        short[] values = new short[(int) length];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(values);
+
+        return new UINT16Array(values);
+    }
+
+    /**
+     * Read AUINT16 from the buffer into one primitive array, and advance the position of the buffer.
+     * <p>
+     * The data is decoded as little endian regardless of the byte order of the buffer.
+     *
+     * @throws EOFException         if the buffer does not have enough remaining bytes.
+     * @throws NullPointerException if buffer is null.
+     */
+    public static UINT16Array read(ByteBuffer buffer) throws EOFException {
+        Validators.notNull("buffer", buffer);
+
+        ByteBuffer littleEndian = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (littleEndian.remaining() < UINT32.SIZE_IN_BYTES) {
+            throw new EOFException();
+        }
+
+        long length = littleEndian.getInt() & 0xFFFFFFFFL;
+        if (littleEndian.remaining() / UINT16.SIZE_IN_BYTES < length) {
+            String message = String.format(Locale.US, "AUINT16 of %d elements exceeds remaining %d bytes.", length, littleEndian.remaining());
+            throw new EOFException(message);
+        }
+
+        short[] values = new short[(int) length];
+        littleEndian.asShortBuffer().get(values);
+        buffer.position(littleEndian.position() + values.length * UINT16.SIZE_IN_BYTES);
+
+        return new UINT16Array(values);
+    }
+
+    // Primitive Accessor
+
+    /**
+     * Returns the unsigned value at the specified position.
+     *
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public int getInt(int index) {
+        return values[index] & MAX_VALUE;
+    }
+
+    /**
+     * Returns true if the array contains the specified unsigned value.
+     */
+    public boolean contains(int value) {
+        return indexOf(value) != -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified unsigned value, or -1 if not found.
+     */
+    public int indexOf(int value) {
+        if (value < 0 || MAX_VALUE < value) {
+            return -1;
+        }
+
+        short s = (short) value;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == s) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the values as unsigned integers.
+     */
+    public int[] toIntArray() {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] & MAX_VALUE;
+        }
+        return result;
+    }
+
+    // List
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public UINT16 get(int index) {
+        return UINT16.valueOf(getInt(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) != -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof UINT16)) {
+            return -1;
+        }
+        return indexOf(((UINT16) o).intValue());
+    }
+
+    // Basic Method
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof UINT16Array) {
+            return Arrays.equals(values, ((UINT16Array) o).values);
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        // Same as List.hashCode, since UINT16.hashCode is the value itself.
+        int hashCode = 1;
+        for (short value : values) {
+            hashCode = 31 * hashCode + (value & MAX_VALUE);
+        }
+        return hashCode;
+    }
+}
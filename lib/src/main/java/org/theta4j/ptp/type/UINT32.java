@@ -4,7 +4,6 @@
 
 package org.theta4j.ptp.type;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -20,10 +19,25 @@ public final class UINT32 extends PtpInteger {
      */
     public static final int SIZE_IN_BYTES = 4;
 
-    public static final UINT32 MIN_VALUE = new UINT32(BigIntegerUtils.minOfUnsigned(SIZE_IN_BYTES));
-    public static final UINT32 MAX_VALUE = new UINT32(BigIntegerUtils.maxOfUnsigned(SIZE_IN_BYTES));
+    // Cache for valueOf method
 
-    public static final UINT32 ZERO = new UINT32(0);
+    /**
+     * Size of the cache for small values such as packet types, session IDs and low object handles.
+     */
+    private static final int CACHE_SIZE = 0x1000;
+
+    /**
+     * Instances are created on demand. The value field is final,
+     * so an instance which is read racily from this array is always fully initialized.
+     */
+    private static final UINT32[] CACHE = new UINT32[CACHE_SIZE];
+
+    private static final long MAX_LONG_VALUE = 0xFFFFFFFFL;
+
+    public static final UINT32 MIN_VALUE = valueOf(0);
+    public static final UINT32 MAX_VALUE = new UINT32(MAX_LONG_VALUE);
+
+    public static final UINT32 ZERO = valueOf(0);
 
     // Constructor
 
@@ -41,14 +55,38 @@ public final class UINT32 extends PtpInteger {
 
     // Static Factory Method
 
-    public static UINT32 read(InputStream is) throws IOException {
-        byte[] bytes = new byte[SIZE_IN_BYTES];
+    /**
+     * Returns a UINT32 instance representing the specified value.
+     * Instances of small values and MAX_VALUE are cached.
+     *
+     * @throws IllegalArgumentException if the value is out of range.
+     */
+    public static UINT32 valueOf(long value) {
+        if (value < CACHE_SIZE) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Out of range of UINT32: " + value);
+            }
+
+            int index = (int) value;
 
-        if (is.read(bytes) != SIZE_IN_BYTES) {
-            throw new EOFException();
+            UINT32 cached = CACHE[index];
+            if (cached == null) {
+                cached = new UINT32(value);
+                CACHE[index] = cached;
+            }
+
+            return cached;
         }
 
-        return new UINT32(bytes);
+        if (value == MAX_LONG_VALUE) {
+            return MAX_VALUE;
+        }
+
+        return new UINT32(value);
+    }
+
+    public static UINT32 read(InputStream is) throws IOException {
+        return valueOf(readLittleEndian(is, SIZE_IN_BYTES));
     }
 
     // LittleEndianInteger
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.theta4j.util.IOUtils;
+import org.theta4j.util.Validators;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.RandomAccess;
+
+/**
+ * An immutable AUINT32 defined in PTP standard, backed by a primitive int array.
+ * <p>
+ * Elements are held as unsigned 32 bits values,
+ * and UINT32 objects are only materialized by get method.
+ */
+public final class UINT32Array extends AbstractList<UINT32> implements RandomAccess {
+    private static final long MAX_VALUE = 0xFFFFFFFFL;
+
+    private final int[] values;
+
+    // Constructor
+
+    /**
+     * Constructs new UINT32Array object.
+     *
+     * @param values The unsigned 32 bits values. The array is copied.
+     * @throws NullPointerException     if values is null.
+     * @throws IllegalArgumentException if a value is out of range of UINT32.
+     */
+    public UINT32Array(long... values) {
+        Validators.notNull("values", values);
+
+        this.values = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < 0 || MAX_VALUE < values[i]) {
+                throw new IllegalArgumentException("Out of range of UINT32: " + values[i]);
+            }
+            this.values[i] = (int) values[i];
+        }
+    }
+
+    private UINT32Array(int[] values) {
+        this.values = values;
+    }
+
+    // Static Factory Method
+
+    /**
+     * Read AUINT32 from the stream into one primitive array.
+     *
+     * @throws IOException          if an I/O error occurs while reading the stream.
+     * @throws NullPointerException if is is null.
+     */
+    public static UINT32Array read(InputStream is) throws IOException {
+        Validators.notNull("is", is);
+
+        long length = UINT32.read(is).longValue();
+        if (Integer.MAX_VALUE / UINT32.SIZE_IN_BYTES < length) {
+            throw new IOException("Too many elements of AUINT32: " + length);
+        }
+
+        byte[] bytes = new byte[(int) length * UINT32.SIZE_IN_BYTES];
+        IOUtils.readFully(is, bytes);
+
+        int[] values = new int[(int) length];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values);
+
+        return new UINT32Array(values);
+    }
+
+    /**
+     * Read AUINT32 from the buffer into one primitive array, and advance the position of the buffer.
+     * <p>
+     * The data is decoded as little endian regardless of the byte order of the buffer.
+     *
+     * @throws EOFException         if the buffer does not have enough remaining bytes.
+     * @throws NullPointerException if buffer is null.
+     */
+    public static UINT32Array read(ByteBuffer buffer) throws EOFException {
+        Validators.notNull("buffer", buffer);
+
+        ByteBuffer littleEndian = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (littleEndian.remaining() < UINT32.SIZE_IN_BYTES) {
+            throw new EOFException();
+        }
+
+        long length = littleEndian.getInt() & 0xFFFFFFFFL;
+        if (littleEndian.remaining() / UINT32.SIZE_IN_BYTES < length) {
+            String message = String.format(Locale.US, "AUINT32 of %d elements exceeds remaining %d bytes.", length, littleEndian.remaining());
+            throw new EOFException(message);
+        }
+
+        int[] values = new int[(int) length];
+        littleEndian.asIntBuffer().get(values);
+        buffer.position(littleEndian.position() + values.length * UINT32.SIZE_IN_BYTES);
+
+        return new UINT32Array(values);
+    }
+
+    // Primitive Accessor
+
+    /**
+     * Returns the unsigned value at the specified position.
+     *
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public long getLong(int index) {
+        return values[index] & MAX_VALUE;
+    }
+
+    /**
+     * Returns true if the array contains the specified unsigned value.
+     */
+    public boolean contains(long value) {
+        return indexOf(value) != -1;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified unsigned value, or -1 if not found.
+     */
+    public int indexOf(long value) {
+        if (value < 0 || MAX_VALUE < value) {
+            return -1;
+        }
+
+        int v = (int) value;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == v) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the values as unsigned integers.
+     */
+    public long[] toLongArray() {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] & MAX_VALUE;
+        }
+        return result;
+    }
+
+    // List
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public UINT32 get(int index) {
+        return UINT32.valueOf(getLong(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) != -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof UINT32)) {
+            return -1;
+        }
+        return indexOf(((UINT32) o).longValue());
+    }
+
+    // Basic Method
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof UINT32Array) {
+            return Arrays.equals(values, ((UINT32Array) o).values);
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        // Same as List.hashCode, since UINT32.hashCode is the low 32 bits of the value.
+        int hashCode = 1;
+        for (int value : values) {
+            hashCode = 31 * hashCode + value;
+        }
+        return hashCode;
+    }
+}
@@ -4,7 +4,6 @@
 
 package org.theta4j.ptp.type;
 
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -15,12 +14,25 @@ import java.math.BigInteger;
 public final class UINT8 extends PtpInteger {
     // Utility Field
 
+    /**
+     * Size of type in bytes.
+     */
     public static final int SIZE_IN_BYTES = 1;
 
-    public static final UINT8 MIN_VALUE = new UINT8(BigIntegerUtils.minOfUnsigned(SIZE_IN_BYTES));
-    public static final UINT8 MAX_VALUE = new UINT8(BigIntegerUtils.maxOfUnsigned(SIZE_IN_BYTES));
+    // Cache for valueOf method
 
-    public static final UINT8 ZERO = new UINT8(0);
+    private static final UINT8[] CACHE = new UINT8[0x100];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new UINT8(i);
+        }
+    }
+
+    public static final UINT8 MIN_VALUE = valueOf(0);
+    public static final UINT8 MAX_VALUE = valueOf(0xFF);
+
+    public static final UINT8 ZERO = valueOf(0);
 
     // Constructor
 
@@ -38,14 +50,21 @@ public final class UINT8 extends PtpInteger {
 
     // Static Factory Method
 
-    public static UINT8 read(InputStream is) throws IOException {
-        byte[] bytes = new byte[SIZE_IN_BYTES];
-
-        if (is.read(bytes) != SIZE_IN_BYTES) {
-            throw new EOFException();
+    /**
+     * Returns a cached UINT8 instance representing the specified value.
+     *
+     * @throws IllegalArgumentException if the value is out of range.
+     */
+    public static UINT8 valueOf(long value) {
+        if (value < 0 || 0xFF < value) {
+            throw new IllegalArgumentException("Out of range of UINT8: " + value);
         }
 
-        return new UINT8(bytes);
+        return CACHE[(int) value];
+    }
+
+    public static UINT8 read(InputStream is) throws IOException {
+        return valueOf(readLittleEndian(is, SIZE_IN_BYTES));
     }
 
     // LittleEndianInteger
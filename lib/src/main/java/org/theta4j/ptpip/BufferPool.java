@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.theta4j.util.ByteBufferSource;
+import org.theta4j.util.DirectBufferPool;
+import org.theta4j.util.Validators;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct ByteBuffers in power-of-two size classes, shared by sessions within a memory budget.
+ * <p>
+ * Each session borrows buffers through its own Lease, and closes the lease when the session is closed.
+ * Buffers still borrowed at that time are reported as leaks and dropped from the pool.
+ * Idle buffers are kept for reuse as long as the budget allows,
+ * and are dropped when another size class needs the room.
+ * This class is thread-safe.
+ */
+public final class BufferPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BufferPool.class);
+
+    /**
+     * The capacity of the smallest size class.
+     */
+    public static final int MIN_BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * Shared by initiators unless another pool is given by ConnectionOptions.
+     * The budget is 64 MiB, and buffers are up to 16 MiB.
+     */
+    public static final BufferPool SHARED = new BufferPool(64L * 1024 * 1024, 16 * 1024 * 1024);
+
+    private final long budget;
+    private final int maxBufferSize;
+
+    /**
+     * Idle buffers of each size class, from MIN_BUFFER_SIZE to maxBufferSize.
+     */
+    private final DirectBufferPool[] sizeClasses;
+
+    /**
+     * The total capacity of the buffers owned by the pool, whether leased or idle.
+     */
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    private final AtomicLong leasedBytes = new AtomicLong();
+    private final BufferPoolMetrics metrics = new BufferPoolMetrics();
+
+    // Constructor
+
+    /**
+     * @param budget        The maximum total capacity of the buffers leased and kept idle.
+     * @param maxBufferSize The maximum size of a buffer, which is rounded up to a power of two.
+     * @throws IllegalArgumentException if maxBufferSize is not positive or larger than 2^30,
+     *                                  or budget is smaller than maxBufferSize.
+     */
+    public BufferPool(long budget, int maxBufferSize) {
+        Validators.rangeEq("maxBufferSize", maxBufferSize, 1, 1 << 30);
+
+        int largest = Math.max(MIN_BUFFER_SIZE, roundUpToPowerOfTwo(maxBufferSize));
+        Validators.rangeEq("budget", budget, (long) largest, Long.MAX_VALUE);
+
+        this.budget = budget;
+        this.maxBufferSize = largest;
+
+        this.sizeClasses = new DirectBufferPool[classIndex(largest) + 1];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            int bufferSize = MIN_BUFFER_SIZE << i;
+            sizeClasses[i] = new DirectBufferPool(bufferSize, (int) Math.min(budget / bufferSize, Integer.MAX_VALUE));
+        }
+    }
+
+    // Getter
+
+    /**
+     * Returns the maximum total capacity of the buffers leased and kept idle.
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the maximum size of a buffer.
+     */
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    /**
+     * Returns the total capacity of the buffers leased and kept idle.
+     */
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * Returns the total capacity of the buffers leased.
+     */
+    public long getLeasedBytes() {
+        return leasedBytes.get();
+    }
+
+    public BufferPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Lease
+
+    /**
+     * Open a lease to borrow buffers for a session.
+     *
+     * @param owner The name of the session, which is reported with leaks.
+     * @throws NullPointerException if owner is null.
+     */
+    public Lease openLease(String owner) {
+        Validators.notNull("owner", owner);
+
+        return new Lease(owner);
+    }
+
+    // Pool
+
+    private ByteBuffer acquire(int size) throws BufferPoolExhaustedException {
+        Validators.rangeEq("size", size, 0, maxBufferSize);
+
+        DirectBufferPool sizeClass = sizeClasses[classIndex(size)];
+        ByteBuffer buffer = sizeClass.poll();
+        if (buffer == null) {
+            reserve(size, sizeClass.bufferSize());
+            buffer = ByteBuffer.allocateDirect(sizeClass.bufferSize());
+            metrics.recordAllocate();
+        }
+        metrics.recordAcquire();
+        leasedBytes.addAndGet(buffer.capacity());
+
+        buffer.order(ByteOrder.BIG_ENDIAN).limit(size);
+        return buffer;
+    }
+
+    private void release(ByteBuffer buffer) {
+        leasedBytes.addAndGet(-buffer.capacity());
+
+        if (!sizeClasses[classIndex(buffer.capacity())].offer(buffer)) {
+            reservedBytes.addAndGet(-buffer.capacity());
+        }
+    }
+
+    /**
+     * Stop accounting the leaked buffer. It is never pooled again, and freed by GC once it is unreachable.
+     */
+    private void forget(ByteBuffer buffer) {
+        leasedBytes.addAndGet(-buffer.capacity());
+        reservedBytes.addAndGet(-buffer.capacity());
+    }
+
+    /**
+     * Reserve the capacity of a new buffer within the budget, dropping idle buffers if necessary.
+     */
+    private void reserve(int size, int capacity) throws BufferPoolExhaustedException {
+        for (; ; ) {
+            long reserved = reservedBytes.get();
+            if (reserved + capacity <= budget) {
+                if (reservedBytes.compareAndSet(reserved, reserved + capacity)) {
+                    return;
+                }
+                continue;
+            }
+
+            if (!evictIdleBuffer()) {
+                metrics.recordExhausted();
+                throw new BufferPoolExhaustedException(size, budget);
+            }
+        }
+    }
+
+    /**
+     * Drop an idle buffer, preferring larger size classes.
+     *
+     * @return false if no buffer is idle.
+     */
+    private boolean evictIdleBuffer() {
+        for (int i = sizeClasses.length - 1; 0 <= i; i--) {
+            ByteBuffer buffer = sizeClasses[i].poll();
+            if (buffer != null) {
+                reservedBytes.addAndGet(-buffer.capacity());
+                metrics.recordEvict();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int classIndex(int size) {
+        if (size <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        return Integer.numberOfTrailingZeros(roundUpToPowerOfTwo(size)) - Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+    // Inner Types
+
+    /**
+     * Buffers borrowed by a session. This class is thread-safe.
+     */
+    public final class Lease implements ByteBufferSource, Closeable {
+        private final String owner;
+
+        // Guarded by the lock of this object
+        private final Set<ByteBuffer> borrowed = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
+        private boolean isClosed = false;
+
+        private Lease(String owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Returns the pool of the lease.
+         */
+        public BufferPool getPool() {
+            return BufferPool.this;
+        }
+
+        /**
+         * Returns the number of buffers borrowed and not released yet.
+         */
+        public synchronized int getBorrowedCount() {
+            return borrowed.size();
+        }
+
+        /**
+         * Returns a direct buffer of big endian, whose position is zero and limit is size.
+         * The capacity is the size class of size.
+         *
+         * @throws BufferPoolExhaustedException if the buffer does not fit in the budget.
+         * @throws IllegalArgumentException     if size is negative or larger than the maximum buffer size.
+         * @throws IllegalStateException        if the lease is closed.
+         */
+        @Override
+        public ByteBuffer acquire(int size) throws BufferPoolExhaustedException {
+            synchronized (this) {
+                if (isClosed) {
+                    throw new IllegalStateException("The lease of " + owner + " is closed.");
+                }
+            }
+
+            ByteBuffer buffer = BufferPool.this.acquire(size);
+
+            synchronized (this) {
+                if (!isClosed) {
+                    borrowed.add(buffer);
+                    return buffer;
+                }
+            }
+
+            // Closed concurrently
+            BufferPool.this.release(buffer);
+            throw new IllegalStateException("The lease of " + owner + " is closed.");
+        }
+
+        /**
+         * Give the buffer back to the pool. The buffer must be the one returned by acquire, not a view of it.
+         * Buffers released after the lease is closed are ignored, since they are already reported as leaks.
+         *
+         * @throws NullPointerException     if buffer is null.
+         * @throws IllegalArgumentException if buffer is not borrowed by this lease.
+         */
+        @Override
+        public void release(ByteBuffer buffer) {
+            Validators.notNull("buffer", buffer);
+
+            synchronized (this) {
+                if (!borrowed.remove(buffer)) {
+                    if (isClosed) {
+                        return;
+                    }
+                    throw new IllegalArgumentException("buffer is not borrowed by " + owner + ": " + buffer);
+                }
+            }
+
+            BufferPool.this.release(buffer);
+        }
+
+        /**
+         * Close the lease. Buffers not released yet are reported as leaks, and are never pooled again.
+         */
+        @Override
+        public void close() {
+            List<ByteBuffer> leaked;
+            synchronized (this) {
+                if (isClosed) {
+                    return;
+                }
+                isClosed = true;
+                leaked = new ArrayList<>(borrowed);
+                borrowed.clear();
+            }
+
+            for (ByteBuffer buffer : leaked) {
+                LOGGER.warn("Buffer of " + buffer.capacity() + " bytes is not released by " + owner);
+                metrics.recordLeak(buffer.capacity());
+                forget(buffer);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Lease of " + owner;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a buffer can not be allocated within the memory budget of BufferPool.
+ */
+public class BufferPoolExhaustedException extends IOException {
+    private final int size;
+    private final long budget;
+
+    // Constructor
+
+    /**
+     * @param size   The size of the requested buffer.
+     * @param budget The memory budget of the pool.
+     */
+    public BufferPoolExhaustedException(int size, long budget) {
+        super(String.format("A buffer of %d bytes exceeds the budget %d", size, budget));
+        this.size = size;
+        this.budget = budget;
+    }
+
+    // Getter
+
+    /**
+     * Returns the size of the requested buffer.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the memory budget of the pool.
+     */
+    public long getBudget() {
+        return budget;
+    }
+}
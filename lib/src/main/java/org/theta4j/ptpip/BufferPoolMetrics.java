@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how buffers of BufferPool are acquired, released and leaked.
+ */
+public final class BufferPoolMetrics {
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong allocateCount = new AtomicLong();
+    private final AtomicLong evictCount = new AtomicLong();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong leakedBytes = new AtomicLong();
+
+    // Constructor
+
+    BufferPoolMetrics() {
+    }
+
+    // Getter
+
+    /**
+     * Returns the number of buffers acquired, including newly allocated ones.
+     */
+    public long getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    /**
+     * Returns the number of direct buffers newly allocated, since no idle buffer of the size class was pooled.
+     */
+    public long getAllocateCount() {
+        return allocateCount.get();
+    }
+
+    /**
+     * Returns the number of idle buffers dropped to make room for other size classes within the budget.
+     */
+    public long getEvictCount() {
+        return evictCount.get();
+    }
+
+    /**
+     * Returns the number of requests failed because of the budget.
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+
+    /**
+     * Returns the number of buffers not released until their lease is closed.
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * Returns the total capacity of the leaked buffers.
+     */
+    public long getLeakedBytes() {
+        return leakedBytes.get();
+    }
+
+    // Record
+
+    void recordAcquire() {
+        acquireCount.incrementAndGet();
+    }
+
+    void recordAllocate() {
+        allocateCount.incrementAndGet();
+    }
+
+    void recordEvict() {
+        evictCount.incrementAndGet();
+    }
+
+    void recordExhausted() {
+        exhaustedCount.incrementAndGet();
+    }
+
+    void recordLeak(int bytes) {
+        leakCount.incrementAndGet();
+        leakedBytes.addAndGet(bytes);
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.util.Validators;
+
+/**
+ * Options of the connections of PtpIpInitiator.
+ * <p>
+ * Instances are immutable, and built by ConnectionOptions.Builder.
+ * Socket options are applied by TcpTransport, and ignored by transports without sockets.
+ * Buffer sizes and the traffic class are left to the platform unless they are given.
+ */
+public final class ConnectionOptions {
+    /**
+     * The value of buffer sizes and timeouts which means the platform default or no timeout.
+     */
+    public static final int DEFAULT_VALUE = 0;
+
+    /**
+     * The traffic class which means the platform default.
+     */
+    public static final int DEFAULT_TRAFFIC_CLASS = -1;
+
+    /**
+     * Stream I/O with coalesced writes and TCP_NODELAY, and no timeouts.
+     */
+    public static final ConnectionOptions DEFAULT = new Builder().build();
+
+    private final PtpIpInitiator.IOMode ioMode;
+    private final boolean coalesceWrites;
+    private final boolean tcpNoDelay;
+    private final boolean keepAlive;
+    private final int sendBufferSize;
+    private final int receiveBufferSize;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int trafficClass;
+    private final BufferPool bufferPool;
+
+    // Constructor
+
+    private ConnectionOptions(Builder builder) {
+        this.ioMode = builder.ioMode;
+        this.coalesceWrites = builder.coalesceWrites;
+        this.tcpNoDelay = builder.tcpNoDelay;
+        this.keepAlive = builder.keepAlive;
+        this.sendBufferSize = builder.sendBufferSize;
+        this.receiveBufferSize = builder.receiveBufferSize;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.trafficClass = builder.trafficClass;
+        this.bufferPool = builder.bufferPool;
+    }
+
+    // Getter
+
+    /**
+     * Returns the I/O implementation of the connections.
+     */
+    public PtpIpInitiator.IOMode getIOMode() {
+        return ioMode;
+    }
+
+    /**
+     * Returns true if an OperationRequest is held until its data phase or the wait for the response,
+     * so that the request phase goes out by one write call.
+     */
+    public boolean isCoalesceWrites() {
+        return coalesceWrites;
+    }
+
+    /**
+     * Returns true if Nagle's algorithm is disabled.
+     */
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    /**
+     * Returns true if SO_KEEPALIVE is enabled.
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Returns SO_SNDBUF in bytes, or DEFAULT_VALUE.
+     */
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    /**
+     * Returns SO_RCVBUF in bytes, or DEFAULT_VALUE.
+     */
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    /**
+     * Returns the connect timeout in milliseconds, or DEFAULT_VALUE for no timeout.
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Returns the read timeout of the Command Data Connection in milliseconds, or DEFAULT_VALUE for no timeout.
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Returns IP_TOS, or DEFAULT_TRAFFIC_CLASS.
+     */
+    public int getTrafficClass() {
+        return trafficClass;
+    }
+
+    /**
+     * Returns the pool of the direct buffers used by the session.
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+    // Inner Types
+
+    /**
+     * Builder of ConnectionOptions. This class is not thread-safe.
+     */
+    public static final class Builder {
+        private PtpIpInitiator.IOMode ioMode = PtpIpInitiator.IOMode.STREAM;
+        private boolean coalesceWrites = true;
+        private boolean tcpNoDelay = true;
+        private boolean keepAlive = false;
+        private int sendBufferSize = DEFAULT_VALUE;
+        private int receiveBufferSize = DEFAULT_VALUE;
+        private int connectTimeout = DEFAULT_VALUE;
+        private int readTimeout = DEFAULT_VALUE;
+        private int trafficClass = DEFAULT_TRAFFIC_CLASS;
+        private BufferPool bufferPool = BufferPool.SHARED;
+
+        /**
+         * @throws NullPointerException if ioMode is null.
+         */
+        public Builder ioMode(PtpIpInitiator.IOMode ioMode) {
+            Validators.notNull("ioMode", ioMode);
+
+            this.ioMode = ioMode;
+            return this;
+        }
+
+        public Builder coalesceWrites(boolean coalesceWrites) {
+            this.coalesceWrites = coalesceWrites;
+            return this;
+        }
+
+        public Builder tcpNoDelay(boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        public Builder keepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * @param sendBufferSize SO_SNDBUF in bytes, or DEFAULT_VALUE.
+         * @throws IllegalArgumentException if sendBufferSize is negative.
+         */
+        public Builder sendBufferSize(int sendBufferSize) {
+            Validators.rangeEq("sendBufferSize", sendBufferSize, 0, Integer.MAX_VALUE);
+
+            this.sendBufferSize = sendBufferSize;
+            return this;
+        }
+
+        /**
+         * @param receiveBufferSize SO_RCVBUF in bytes, or DEFAULT_VALUE.
+         * @throws IllegalArgumentException if receiveBufferSize is negative.
+         */
+        public Builder receiveBufferSize(int receiveBufferSize) {
+            Validators.rangeEq("receiveBufferSize", receiveBufferSize, 0, Integer.MAX_VALUE);
+
+            this.receiveBufferSize = receiveBufferSize;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout The connect timeout in milliseconds, or DEFAULT_VALUE for no timeout.
+         * @throws IllegalArgumentException if connectTimeout is negative.
+         */
+        public Builder connectTimeout(int connectTimeout) {
+            Validators.rangeEq("connectTimeout", connectTimeout, 0, Integer.MAX_VALUE);
+
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * The timeout applies to the Command Data Connection and the initialization of the Event Connection.
+         * Events are waited without timeout.
+         *
+         * @param readTimeout The read timeout in milliseconds, or DEFAULT_VALUE for no timeout.
+         * @throws IllegalArgumentException if readTimeout is negative.
+         */
+        public Builder readTimeout(int readTimeout) {
+            Validators.rangeEq("readTimeout", readTimeout, 0, Integer.MAX_VALUE);
+
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * @param trafficClass IP_TOS in 0 to 255, or DEFAULT_TRAFFIC_CLASS.
+         * @throws IllegalArgumentException if trafficClass is out of range.
+         */
+        public Builder trafficClass(int trafficClass) {
+            Validators.rangeEq("trafficClass", trafficClass, DEFAULT_TRAFFIC_CLASS, 255);
+
+            this.trafficClass = trafficClass;
+            return this;
+        }
+
+        /**
+         * Sessions draw the buffers of channel I/O and received data from the pool. The default is BufferPool.SHARED.
+         *
+         * @throws NullPointerException if bufferPool is null.
+         */
+        public Builder bufferPool(BufferPool bufferPool) {
+            Validators.notNull("bufferPool", bufferPool);
+
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if a read timeout is given with IOMode.CHANNEL,
+         *                                  since reads on blocking SocketChannels do not time out.
+         */
+        public ConnectionOptions build() {
+            if (ioMode == PtpIpInitiator.IOMode.CHANNEL && readTimeout != DEFAULT_VALUE) {
+                throw new IllegalArgumentException("readTimeout is not supported by IOMode.CHANNEL");
+            }
+
+            return new ConnectionOptions(this);
+        }
+    }
+}
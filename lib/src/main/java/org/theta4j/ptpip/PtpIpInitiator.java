@@ -7,6 +7,11 @@ package org.theta4j.ptpip;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.theta4j.ptp.AbstractPtpInitiator;
+import org.theta4j.ptp.CancelCondition;
+import org.theta4j.ptp.DataBufferAllocator;
+import org.theta4j.ptp.DataHandler;
+import org.theta4j.ptp.DataPhaseCancelledException;
+import org.theta4j.ptp.DataTooLargeException;
 import org.theta4j.ptp.TransactionIDIterator;
 import org.theta4j.ptp.code.Code;
 import org.theta4j.ptp.data.Event;
@@ -16,11 +21,26 @@ import org.theta4j.ptp.type.UINT32;
 import org.theta4j.ptpip.io.PtpIpInputStream;
 import org.theta4j.ptpip.io.PtpIpOutputStream;
 import org.theta4j.ptpip.packet.*;
+import org.theta4j.ptpip.transport.Connection;
+import org.theta4j.ptpip.transport.TcpTransport;
+import org.theta4j.ptpip.transport.Transport;
 import org.theta4j.util.Validators;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.UUID;
 
 /**
@@ -29,53 +49,142 @@ import java.util.UUID;
 public final class PtpIpInitiator extends AbstractPtpInitiator {
     private static final Logger LOGGER = LoggerFactory.getLogger(PtpIpInitiator.class);
 
+    /**
+     * The size of the buffers of IOMode.CHANNEL. Each initiator borrows four buffers while it is open.
+     */
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+
     // Property
 
     private final UUID guid;
-    private final String host;
-    private final int port;
+    private final Transport transport;
+    private final ConnectionOptions options;
+
+    /**
+     * The buffers borrowed from the pool of the options, which are reported as leaks if not released on close.
+     */
+    private final BufferPool.Lease lease;
 
     // State
 
     private volatile boolean isClosed = false;
     private final TransactionIDIterator transactionIDIterator = new TransactionIDIterator();
 
+    /**
+     * The TransactionID of the last operation, which is shared by its data phase.
+     */
+    private volatile UINT32 transactionID = UINT32.ZERO;
+
+    private volatile ReceiveDataPolicy receiveDataPolicy = ReceiveDataPolicy.DEFAULT;
+    private final ReceiveDataMetrics receiveDataMetrics = new ReceiveDataMetrics();
+
     // Command Data Connection
 
-    private final Socket commandDataConnection;
+    private final Connection commandDataConnection;
     private final PtpIpInputStream ci;
     private final PtpIpOutputStream co;
 
     // Event Connection
 
-    private final Socket eventConnection;
+    private final Connection eventConnection;
     private final PtpIpInputStream ei;
     private final PtpIpOutputStream eo;
 
     // Connect
 
     public PtpIpInitiator(UUID guid, String host, int port) throws IOException {
+        this(guid, host, port, ConnectionOptions.DEFAULT);
+    }
+
+    public PtpIpInitiator(UUID guid, String host, int port, IOMode ioMode) throws IOException {
+        this(guid, host, port, newOptions(ioMode));
+    }
+
+    public PtpIpInitiator(UUID guid, String host, int port, ConnectionOptions options) throws IOException {
+        this(guid, new TcpTransport(host, port), options);
+    }
+
+    public PtpIpInitiator(UUID guid, Transport transport) throws IOException {
+        this(guid, transport, ConnectionOptions.DEFAULT);
+    }
+
+    public PtpIpInitiator(UUID guid, Transport transport, ConnectionOptions options) throws IOException {
         Validators.notNull("guid", guid);
-        Validators.notNull("host", host);
-        Validators.portNumber(port);
+        Validators.notNull("transport", transport);
+        Validators.notNull("options", options);
 
         this.guid = guid;
-        this.host = host;
-        this.port = port;
+        this.transport = transport;
+        this.options = options;
+        this.lease = options.getBufferPool().openLease("PtpIpInitiator " + guid);
+
+        try {
+            // Establish Command Data Connection
+            this.commandDataConnection = transport.connect(options);
+            commandDataConnection.setReadTimeout(options.getReadTimeout());
+            this.ci = newInputStream(commandDataConnection);
+            this.co = newOutputStream(commandDataConnection);
+            UINT32 connectionNumber = establishCommandDataConnection();
+
+            // Establish Event Connection
+            this.eventConnection = transport.connect(options);
+            eventConnection.setReadTimeout(options.getReadTimeout());
+            this.ei = newInputStream(eventConnection);
+            this.eo = newOutputStream(eventConnection);
+            establishEventConnection(connectionNumber);
+
+            // Events may not come for a long time.
+            eventConnection.setReadTimeout(0);
+        } catch (IOException | RuntimeException e) {
+            // close() is never called on the initiator whose handshake failed.
+            closeAfterFailedHandshake();
+            throw e;
+        }
 
-        // Establish Command Data Connection
-        this.commandDataConnection = new Socket(host, port);
-        this.ci = new PtpIpInputStream(commandDataConnection.getInputStream());
-        this.co = new PtpIpOutputStream(commandDataConnection.getOutputStream());
-        UINT32 connectionNumber = establishCommandDataConnection();
+        startEventHandlerThread();
+    }
 
-        // Establish Event Connection
-        this.eventConnection = new Socket(host, port);
-        this.ei = new PtpIpInputStream(eventConnection.getInputStream());
-        this.eo = new PtpIpOutputStream(eventConnection.getOutputStream());
-        establishEventConnection(connectionNumber);
+    /**
+     * Close the connections and the streams opened so far, and give back the buffers of the lease.
+     */
+    private void closeAfterFailedHandshake() {
+        isClosed = true;
 
-        startEventHandlerThread();
+        // The streams are closed before the lease, so that their buffers are not reported as leaks.
+        for (Closeable closeable : new Closeable[]{ei, eo, eventConnection, ci, co, commandDataConnection}) {
+            if (closeable == null) {
+                continue;
+            }
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to close " + closeable + ": " + e);
+            }
+        }
+
+        lease.close();
+    }
+
+    private static ConnectionOptions newOptions(IOMode ioMode) {
+        Validators.notNull("ioMode", ioMode);
+
+        return new ConnectionOptions.Builder().ioMode(ioMode).build();
+    }
+
+    private PtpIpInputStream newInputStream(Connection connection) throws IOException {
+        if (options.getIOMode() == IOMode.CHANNEL) {
+            return new PtpIpInputStream(connection, lease, CHANNEL_BUFFER_SIZE);
+        } else {
+            return new PtpIpInputStream(connection.getInputStream());
+        }
+    }
+
+    private PtpIpOutputStream newOutputStream(Connection connection) throws IOException {
+        if (options.getIOMode() == IOMode.CHANNEL) {
+            return new PtpIpOutputStream(connection, lease, CHANNEL_BUFFER_SIZE);
+        } else {
+            return new PtpIpOutputStream(connection.getOutputStream());
+        }
     }
 
     private UINT32 establishCommandDataConnection() throws IOException {
@@ -146,17 +255,65 @@ public final class PtpIpInitiator extends AbstractPtpInitiator {
     }
 
     /**
-     * Returns the host of responder which the initiator is connecting of current session.
+     * Returns the host of responder which the initiator is connecting of current session,
+     * or null if the transport is not TcpTransport.
      */
     public String getHost() {
-        return host;
+        return transport instanceof TcpTransport ? ((TcpTransport) transport).getHost() : null;
     }
 
     /**
-     * Returns the TCP port of responder which the initiator is connecting of current session.
+     * Returns the TCP port of responder which the initiator is connecting of current session,
+     * or -1 if the transport is not TcpTransport.
      */
     public int getPort() {
-        return port;
+        return transport instanceof TcpTransport ? ((TcpTransport) transport).getPort() : -1;
+    }
+
+    /**
+     * Returns the transport of the connections.
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Returns the I/O implementation of the connections.
+     */
+    public IOMode getIOMode() {
+        return options.getIOMode();
+    }
+
+    /**
+     * Returns the options of the connections.
+     */
+    public ConnectionOptions getConnectionOptions() {
+        return options;
+    }
+
+    /**
+     * Returns the policy to receive data phases by receiveData() and receiveDataAsBuffer.
+     */
+    public ReceiveDataPolicy getReceiveDataPolicy() {
+        return receiveDataPolicy;
+    }
+
+    /**
+     * Set the policy to receive data phases by receiveData() and receiveDataAsBuffer.
+     *
+     * @throws NullPointerException if receiveDataPolicy is null.
+     */
+    public void setReceiveDataPolicy(ReceiveDataPolicy receiveDataPolicy) {
+        Validators.notNull("receiveDataPolicy", receiveDataPolicy);
+
+        this.receiveDataPolicy = receiveDataPolicy;
+    }
+
+    /**
+     * Returns the counters of data phases received under the policy.
+     */
+    public ReceiveDataMetrics getReceiveDataMetrics() {
+        return receiveDataMetrics;
     }
 
     // AbstractPtpInitiator
@@ -174,14 +331,20 @@ public final class PtpIpInitiator extends AbstractPtpInitiator {
         Validators.notNull("p5", p5);
 
         UINT32 transactionID = transactionIDIterator.next();
+        this.transactionID = transactionID;
 
         OperationRequestPacket operationRequestPacket = new OperationRequestPacket(
-                new UINT32(1),
+                UINT32.valueOf(1),
                 operationCode.value(),
                 transactionID,
                 p1, p2, p3, p4, p5
         );
-        co.write(operationRequestPacket);
+        if (options.isCoalesceWrites()) {
+            // Sent together with the data phase, or before waiting for the reply.
+            co.append(operationRequestPacket);
+        } else {
+            co.write(operationRequestPacket);
+        }
         LOGGER.debug("Sent OperationRequest: " + operationRequestPacket);
 
         return transactionID;
@@ -192,11 +355,17 @@ public final class PtpIpInitiator extends AbstractPtpInitiator {
      */
     @Override
     public Response receiveResponse() throws IOException {
+        flushPendingRequest();
+
         if (ci.nextType() != PtpIpPacket.Type.OPERATION_RESPONSE) {
             throw new IllegalStateException("Expected OperationResponse but was " + ci.nextType());
         }
 
         OperationResponsePacket operationResponsePacket = ci.readOperationResponsePacket();
+        if (!operationResponsePacket.getTransactionID().equals(transactionID)) {
+            throw new IOException("Expected the response of the transaction " + transactionID
+                    + " but was " + operationResponsePacket.getTransactionID());
+        }
 
         return new Response(
                 operationResponsePacket.getResponseCode(),
@@ -217,7 +386,195 @@ public final class PtpIpInitiator extends AbstractPtpInitiator {
     public void sendData(byte[] data) throws IOException {
         Validators.notNull("data", data);
 
-        co.writeData(transactionIDIterator.next(), data);
+        co.writeData(transactionID, data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sendData(ReadableByteChannel src, long length) throws IOException {
+        Validators.notNull("src", src);
+
+        co.writeData(transactionID, src, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The data is received on the heap up to the memory threshold of the ReceiveDataPolicy.
+     * Larger data spills to a temporary file, which is deleted when the returned stream is closed.
+     *
+     * @throws DataTooLargeException if the announced length exceeds the maximum data length of the policy.
+     *                               The data phase is cancelled, and the response of the operation is read.
+     */
+    @Override
+    public InputStream receiveData() throws IOException {
+        ReceiveDataPolicy policy = receiveDataPolicy;
+        long totalDataLength = readStartDataWithin(policy);
+
+        if (policy.fitsInMemory(totalDataLength)) {
+            ByteBuffer buffer = readDataPayload(ByteBuffer.allocate((int) totalDataLength), totalDataLength);
+            receiveDataMetrics.recordInMemory();
+            return new ByteArrayInputStream(buffer.array());
+        }
+
+        File file = File.createTempFile("theta4j", ".data");
+        try {
+            FileOutputStream fos = new FileOutputStream(file);
+            try {
+                FileChannel fileChannel = fos.getChannel();
+                ci.readDataPayload(fileChannel, totalDataLength);
+                receiveDataMetrics.recordSpill(fileChannel.position());
+            } finally {
+                fos.close();
+            }
+            return new BufferedInputStream(new DeleteOnCloseInputStream(file));
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws DataTooLargeException if the announced length exceeds the maximum data length of the ReceiveDataPolicy.
+     *                               The data phase is cancelled, and the response of the operation is read.
+     */
+    @Override
+    public ByteBuffer receiveDataAsBuffer(DataBufferAllocator allocator) throws IOException {
+        Validators.notNull("allocator", allocator);
+
+        long totalDataLength = readStartDataWithin(receiveDataPolicy);
+        ByteBuffer buffer = allocateDataBuffer(allocator, totalDataLength);
+
+        return readDataPayload(buffer, totalDataLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The data is received into a direct buffer borrowed from the BufferPool of the ConnectionOptions,
+     * which is given back when the handler returns.
+     * The data is received on the heap if it is larger than the buffers of the pool, or the budget is exhausted.
+     *
+     * @throws DataTooLargeException if the announced length exceeds the maximum data length of the ReceiveDataPolicy.
+     *                               The data phase is cancelled, and the response of the operation is read.
+     */
+    @Override
+    public <T> T receiveData(DataHandler<T> handler) throws IOException {
+        Validators.notNull("handler", handler);
+
+        long totalDataLength = readStartDataWithin(receiveDataPolicy);
+
+        ByteBuffer buffer = acquireDataBuffer(totalDataLength);
+        if (buffer == null) {
+            buffer = allocateDataBuffer(DataBufferAllocator.HEAP, totalDataLength);
+            return handler.handle(readDataPayload(buffer, totalDataLength));
+        }
+
+        try {
+            return handler.handle(readDataPayload(buffer, totalDataLength));
+        } finally {
+            lease.release(buffer);
+        }
+    }
+
+    /**
+     * Returns a pooled buffer for the data, or null if the data does not fit in the buffers of the pool or the budget.
+     */
+    private ByteBuffer acquireDataBuffer(long totalDataLength) {
+        if (totalDataLength < 0 || lease.getPool().getMaxBufferSize() < totalDataLength) {
+            return null;
+        }
+
+        try {
+            return lease.acquire((int) totalDataLength);
+        } catch (BufferPoolExhaustedException e) {
+            LOGGER.debug("Receive the data on the heap: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Allocate the buffer for the data, and discard the data and the response if the allocation fails.
+     */
+    private ByteBuffer allocateDataBuffer(DataBufferAllocator allocator, long totalDataLength) throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = allocator.allocate(totalDataLength);
+        } catch (IOException e) {
+            // Keep the connection on the transaction boundary, so that the next operation reads its own response.
+            long skipped = ci.skipDataPayload();
+            Response response = receiveResponse();
+            LOGGER.debug("Discarded " + skipped + " bytes of the data which could not be allocated: " + response);
+            throw e;
+        }
+        Validators.notNull("buffer", buffer);
+
+        return buffer;
+    }
+
+    /**
+     * Read the data into the buffer, and read the response if the data does not match the announced length.
+     */
+    private ByteBuffer readDataPayload(ByteBuffer buffer, long totalDataLength) throws IOException {
+        try {
+            return ci.readDataPayload(buffer, totalDataLength);
+        } catch (InterruptedIOException e) {
+            // Such as a read timeout, which leaves the connection in the middle of the data phase.
+            throw e;
+        } catch (IOException e) {
+            // The data phase is read to the end. Keep the connection on the transaction boundary,
+            // so that the next operation reads its own response.
+            try {
+                Response response = receiveResponse();
+                LOGGER.debug("Discarded the response of the data which did not match the length: " + response);
+            } catch (IOException re) {
+                e.addSuppressed(re);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Read StartData, and cancel the data phase if the announced length exceeds the maximum data length of the policy.
+     *
+     * @return The announced total data length, or negative if it is unknown or larger than Long.MAX_VALUE.
+     */
+    private long readStartDataWithin(ReceiveDataPolicy policy) throws IOException {
+        flushPendingRequest();
+
+        StartDataPacket startData = ci.readStartData();
+        long totalDataLength = startData.getTotalDataLength().longValue();
+
+        if (policy.exceeds(totalDataLength)) {
+            Response response = cancelDataPhase(startData.getTransactionID());
+            receiveDataMetrics.recordCancel();
+            throw new DataTooLargeException(totalDataLength, policy.getMaxDataLength(), response.getResponseCode());
+        }
+
+        return totalDataLength;
+    }
+
+    /**
+     * Cancel the data phase in progress, and read the rest of the data phase and the response,
+     * so that the next operation reads its own response.
+     *
+     * @return The response of the cancelled operation.
+     */
+    private Response cancelDataPhase(UINT32 transactionID) throws IOException {
+        // PTP-IP sends Cancel on the Event Connection, and the responder still ends the data phase by EndData.
+        CancelPacket cancel = new CancelPacket(transactionID);
+        eo.write(cancel);
+        LOGGER.debug("Sent Cancel: " + cancel);
+
+        long skipped = ci.skipDataPayload();
+        Response response = receiveResponse();
+        LOGGER.debug("Discarded " + skipped + " bytes of the cancelled data phase: " + response);
+
+        return response;
     }
 
     /**
@@ -227,9 +584,54 @@ public final class PtpIpInitiator extends AbstractPtpInitiator {
     public void receiveData(OutputStream dst) throws IOException {
         Validators.notNull("dst", dst);
 
+        flushPendingRequest();
+
+        ci.readData(dst);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void receiveData(WritableByteChannel dst) throws IOException {
+        Validators.notNull("dst", dst);
+
+        flushPendingRequest();
+
         ci.readData(dst);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The condition is checked before each Data and EndData packet.
+     * Once it requests, Cancel is sent on the Event Connection and the rest of the data phase is discarded.
+     */
+    @Override
+    public void receiveData(WritableByteChannel dst, CancelCondition condition) throws IOException {
+        Validators.notNull("dst", dst);
+        Validators.notNull("condition", condition);
+
+        flushPendingRequest();
+
+        StartDataPacket startData = ci.readStartData();
+        try {
+            ci.readDataPayload(dst, startData.getTotalDataLength().longValue(), condition);
+        } catch (DataPhaseCancelledException e) {
+            Response response = cancelDataPhase(startData.getTransactionID());
+            throw new DataPhaseCancelledException(e.getReceivedLength(), e.getTotalDataLength(), response.getResponseCode());
+        }
+    }
+
+    /**
+     * Write the OperationRequest held by the coalescing writes before waiting for the reply.
+     */
+    private void flushPendingRequest() throws IOException {
+        if (co.hasPendingPackets()) {
+            co.flush();
+        }
+    }
+
     // Closeable
 
     /**
@@ -243,11 +645,64 @@ public final class PtpIpInitiator extends AbstractPtpInitiator {
         // (1) Close Event Connection
         if (eventConnection != null) {
             eventConnection.close();
+            ei.close();
+            eo.close();
         }
 
         // (2) Close Command Data Connection
         if (commandDataConnection != null) {
             commandDataConnection.close();
+            ci.close();
+            co.close();
+        }
+
+        // (3) Report buffers which are not given back
+        lease.close();
+    }
+
+    // Private Method
+
+    private static void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            LOGGER.warn("Failed to delete the temporary file " + file);
+        }
+    }
+
+    // Inner Types
+
+    /**
+     * The stream of the spilled data, which deletes the file when closed.
+     */
+    private static final class DeleteOnCloseInputStream extends FileInputStream {
+        private final File file;
+
+        DeleteOnCloseInputStream(File file) throws FileNotFoundException {
+            super(file);
+            this.file = file;
         }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * The I/O implementation of the connections.
+     */
+    public enum IOMode {
+        /**
+         * The streams of the connections, which are plain Socket streams for TcpTransport.
+         */
+        STREAM,
+
+        /**
+         * The connections as blocking channels with pooled direct buffers, which are SocketChannels for TcpTransport.
+         */
+        CHANNEL
     }
 }
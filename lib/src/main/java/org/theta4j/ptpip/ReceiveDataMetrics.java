@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how PtpIpInitiator received data phases under its ReceiveDataPolicy.
+ * <p>
+ * Data phases received into a destination given by the caller are not counted.
+ */
+public final class ReceiveDataMetrics {
+    private final AtomicLong inMemoryCount = new AtomicLong();
+    private final AtomicLong spillCount = new AtomicLong();
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private final AtomicLong cancelCount = new AtomicLong();
+
+    // Constructor
+
+    ReceiveDataMetrics() {
+    }
+
+    // Getter
+
+    /**
+     * Returns the number of data phases received on the heap.
+     */
+    public long getInMemoryCount() {
+        return inMemoryCount.get();
+    }
+
+    /**
+     * Returns the number of data phases spilled to temporary files.
+     */
+    public long getSpillCount() {
+        return spillCount.get();
+    }
+
+    /**
+     * Returns the total bytes spilled to temporary files.
+     */
+    public long getSpilledBytes() {
+        return spilledBytes.get();
+    }
+
+    /**
+     * Returns the number of data phases cancelled because of the maximum data length.
+     */
+    public long getCancelCount() {
+        return cancelCount.get();
+    }
+
+    // Record
+
+    void recordInMemory() {
+        inMemoryCount.incrementAndGet();
+    }
+
+    void recordSpill(long bytes) {
+        spillCount.incrementAndGet();
+        spilledBytes.addAndGet(bytes);
+    }
+
+    void recordCancel() {
+        cancelCount.incrementAndGet();
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
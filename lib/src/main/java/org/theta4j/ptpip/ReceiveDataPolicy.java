@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.util.Validators;
+
+/**
+ * Bounds the memory used by PtpIpInitiator to receive data phases on behalf of the caller.
+ * <p>
+ * Data phases up to the memory threshold are received on the heap, and larger ones spill to a temporary file.
+ * Data phases announced larger than the maximum data length are cancelled.
+ */
+public final class ReceiveDataPolicy {
+    /**
+     * Some VMs reserve header words in an array.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * The maximum data length which means no limit.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /**
+     * Receives up to 16 MiB on the heap, and never cancels.
+     */
+    public static final ReceiveDataPolicy DEFAULT = new ReceiveDataPolicy(16 * 1024 * 1024, UNLIMITED);
+
+    private final int memoryThreshold;
+    private final long maxDataLength;
+
+    // Constructor
+
+    /**
+     * @param memoryThreshold The maximum data length to receive on the heap.
+     * @param maxDataLength   The maximum data length to accept, or UNLIMITED.
+     * @throws IllegalArgumentException if memoryThreshold is negative or too large for an array,
+     *                                  or maxDataLength is negative.
+     */
+    public ReceiveDataPolicy(int memoryThreshold, long maxDataLength) {
+        Validators.rangeEq("memoryThreshold", memoryThreshold, 0, MAX_ARRAY_SIZE);
+        Validators.rangeEq("maxDataLength", maxDataLength, 0L, Long.MAX_VALUE);
+
+        this.memoryThreshold = memoryThreshold;
+        this.maxDataLength = maxDataLength;
+    }
+
+    // Getter
+
+    /**
+     * Returns the maximum data length to receive on the heap.
+     */
+    public int getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    /**
+     * Returns the maximum data length to accept, or UNLIMITED.
+     */
+    public long getMaxDataLength() {
+        return maxDataLength;
+    }
+
+    /**
+     * Returns true if the data phase of the announced length should be cancelled.
+     *
+     * @param totalDataLength The announced total data length, or negative if it is unknown or larger than Long.MAX_VALUE.
+     */
+    boolean exceeds(long totalDataLength) {
+        if (totalDataLength < 0) {
+            return maxDataLength != UNLIMITED;
+        }
+
+        return maxDataLength < totalDataLength;
+    }
+
+    /**
+     * Returns true if the data phase of the announced length can be received on the heap.
+     *
+     * @param totalDataLength The announced total data length, or negative if it is unknown or larger than Long.MAX_VALUE.
+     */
+    boolean fitsInMemory(long totalDataLength) {
+        return 0 <= totalDataLength && totalDataLength <= memoryThreshold;
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -4,13 +4,25 @@
 
 package org.theta4j.ptpip.io;
 
+import org.theta4j.ptp.CancelCondition;
+import org.theta4j.ptp.DataBufferAllocator;
+import org.theta4j.ptp.DataPhaseCancelledException;
 import org.theta4j.ptp.PtpException;
 import org.theta4j.ptp.code.ResponseCode;
 import org.theta4j.ptp.io.PtpInputStream;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.ptpip.packet.*;
+import org.theta4j.util.ByteBufferSource;
+import org.theta4j.util.ChannelInputStream;
+import org.theta4j.util.DirectBufferPool;
+import org.theta4j.util.IOUtils;
+import org.theta4j.util.Validators;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 import static org.theta4j.ptpip.packet.PtpIpPacket.Type.*;
 
@@ -18,8 +30,32 @@ import static org.theta4j.ptpip.packet.PtpIpPacket.Type.*;
  * InputStream of PTP-IP.
  */
 public final class PtpIpInputStream implements Closeable {
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    private static final int DATA_TYPE_CODE = DATA.value().intValue();
+    private static final int END_DATA_TYPE_CODE = END_DATA.value().intValue();
+    private static final int OPERATION_RESPONSE_TYPE_CODE = OPERATION_RESPONSE.value().intValue();
+
     private final PtpInputStream pis;
 
+    /**
+     * The header of the next packet, which is valid while hasHeader is true.
+     */
+    private final PtpIpHeader header = new PtpIpHeader();
+    private boolean hasHeader = false;
+
+    /**
+     * Non-null if the stream reads a channel.
+     */
+    private final ChannelInputStream channelInputStream;
+
+    private final byte[] transactionIDBytes = new byte[UINT32.SIZE_IN_BYTES];
+
+    /**
+     * Reused for all data phases, and allocated lazily since the event connection never receives data.
+     */
+    private byte[] transferBuffer;
+
     /**
      * Wrap InputStream by PtpIpInputStream.
      *
@@ -27,30 +63,47 @@ public final class PtpIpInputStream implements Closeable {
      */
     public PtpIpInputStream(InputStream is) {
         this.pis = new PtpInputStream(is);
+        this.channelInputStream = null;
+    }
+
+    /**
+     * Read the channel through a direct buffer borrowed from the pool.
+     * The buffer is given back to the pool on close.
+     *
+     * @param channel The blocking channel to read.
+     * @param pool    The pool of receive buffers.
+     * @throws NullPointerException if an argument is null.
+     */
+    public PtpIpInputStream(ReadableByteChannel channel, DirectBufferPool pool) {
+        this.channelInputStream = new ChannelInputStream(channel, pool);
+        this.pis = new PtpInputStream(channelInputStream);
+    }
+
+    /**
+     * Read the channel through a direct buffer borrowed from the source.
+     * The buffer is given back to the source on close.
+     *
+     * @param channel    The blocking channel to read.
+     * @param source     The source of the receive buffer.
+     * @param bufferSize The size of the receive buffer.
+     * @throws NullPointerException if an argument is null.
+     * @throws IOException          if the source can not provide the buffer.
+     */
+    public PtpIpInputStream(ReadableByteChannel channel, ByteBufferSource source, int bufferSize) throws IOException {
+        this.channelInputStream = new ChannelInputStream(channel, source, bufferSize);
+        this.pis = new PtpInputStream(channelInputStream);
     }
 
     // Check Next
 
     /**
      * Get type of next PTP-IP Packet.
-     * This method does not change the position of stream.
+     * The header of the next packet is read only once, and is consumed by the following read method.
      *
      * @throws IOException
      */
     public PtpIpPacket.Type nextType() throws IOException {
-        pis.mark(UINT32.SIZE_IN_BYTES + UINT32.SIZE_IN_BYTES);
-
-        // Skip Length Value on Header
-        long sizeToSkip = UINT32.SIZE_IN_BYTES;
-        if (pis.skip(sizeToSkip) != sizeToSkip) {
-            throw new IOException();
-        }
-
-        UINT32 typeValue = pis.readUINT32();
-
-        pis.reset();
-
-        return PtpIpPacket.Type.valueOf(typeValue);
+        return peekHeader().getType();
     }
 
     // Read Packet
@@ -62,9 +115,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public InitCommandRequestPacket readInitCommandRequestPacket() throws IOException {
-        assertNextTypeIs(INIT_COMMAND_REQUEST);
-
-        return InitCommandRequestPacket.read(pis);
+        return InitCommandRequestPacket.read(takeHeader(INIT_COMMAND_REQUEST), pis);
     }
 
     /**
@@ -74,9 +125,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public InitCommandAckPacket readInitCommandAckPacket() throws IOException {
-        assertNextTypeIs(INIT_COMMAND_ACK);
-
-        return InitCommandAckPacket.read(pis);
+        return InitCommandAckPacket.read(takeHeader(INIT_COMMAND_ACK), pis);
     }
 
     /**
@@ -86,9 +135,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public InitEventRequestPacket readInitEventRequestPacket() throws IOException {
-        assertNextTypeIs(INIT_EVENT_REQUEST);
-
-        return InitEventRequestPacket.read(pis);
+        return InitEventRequestPacket.read(takeHeader(INIT_EVENT_REQUEST), pis);
     }
 
     /**
@@ -98,9 +145,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public InitEventAckPacket readInitEventAckPacket() throws IOException {
-        assertNextTypeIs(INIT_EVENT_ACK);
-
-        return InitEventAckPacket.read(pis);
+        return InitEventAckPacket.read(takeHeader(INIT_EVENT_ACK), pis);
     }
 
     /**
@@ -110,9 +155,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public InitFailPacket readInitFailPacket() throws IOException {
-        assertNextTypeIs(INIT_FAIL);
-
-        return InitFailPacket.read(pis);
+        return InitFailPacket.read(takeHeader(INIT_FAIL), pis);
     }
 
     /**
@@ -122,9 +165,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public OperationRequestPacket readOperationRequestPacket() throws IOException {
-        assertNextTypeIs(OPERATION_REQUEST);
-
-        return OperationRequestPacket.read(pis);
+        return OperationRequestPacket.read(takeHeader(OPERATION_REQUEST), pis);
     }
 
     /**
@@ -134,9 +175,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public OperationResponsePacket readOperationResponsePacket() throws IOException {
-        assertNextTypeIs(OPERATION_RESPONSE);
-
-        return OperationResponsePacket.read(pis);
+        return OperationResponsePacket.read(takeHeader(OPERATION_RESPONSE), pis);
     }
 
     /**
@@ -146,9 +185,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public EventPacket readEventPacket() throws IOException {
-        assertNextTypeIs(EVENT);
-
-        return EventPacket.read(pis);
+        return EventPacket.read(takeHeader(EVENT), pis);
     }
 
     /**
@@ -158,9 +195,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public StartDataPacket readStartDataPacket() throws IOException {
-        assertNextTypeIs(START_DATA);
-
-        return StartDataPacket.read(pis);
+        return StartDataPacket.read(takeHeader(START_DATA), pis);
     }
 
     /**
@@ -170,9 +205,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public DataPacket readDataPacket() throws IOException {
-        assertNextTypeIs(DATA);
-
-        return DataPacket.read(pis);
+        return DataPacket.read(takeHeader(DATA), pis);
     }
 
     /**
@@ -182,9 +215,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public EndDataPacket readEndDataPacket() throws IOException {
-        assertNextTypeIs(END_DATA);
-
-        return EndDataPacket.read(pis);
+        return EndDataPacket.read(takeHeader(END_DATA), pis);
     }
 
     /**
@@ -194,9 +225,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public CancelPacket readCancelPacket() throws IOException {
-        assertNextTypeIs(CANCEL);
-
-        return CancelPacket.read(pis);
+        return CancelPacket.read(takeHeader(CANCEL), pis);
     }
 
     /**
@@ -206,9 +235,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public ProbeRequestPacket readProbeRequestPacket() throws IOException {
-        assertNextTypeIs(PROBE_REQUEST);
-
-        return ProbeRequestPacket.read(pis);
+        return ProbeRequestPacket.read(takeHeader(PROBE_REQUEST), pis);
     }
 
     /**
@@ -218,9 +245,7 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public ProbeResponsePacket readProbeResponsePacket() throws IOException {
-        assertNextTypeIs(PROBE_RESPONSE);
-
-        return ProbeResponsePacket.read(pis);
+        return ProbeResponsePacket.read(takeHeader(PROBE_RESPONSE), pis);
     }
 
     // Read Data
@@ -231,9 +256,8 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public byte[] readData() throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        readData(baos);
-        return baos.toByteArray();
+        // The array is allocated once for the total data length announced by StartData.
+        return readData(DataBufferAllocator.HEAP).array();
     }
 
     /**
@@ -244,7 +268,62 @@ public final class PtpIpInputStream implements Closeable {
      * @throws IOException
      */
     public void readData(OutputStream dst) throws IOException {
-        if (nextType() == OPERATION_RESPONSE) {
+        Validators.notNull("dst", dst);
+
+        readStartData();
+        readDataPayload(dst);
+    }
+
+    /**
+     * Process Data Phase (StartData -&gt; [Data] -&gt; EndData) and writes all data to dst.
+     * <p>
+     * If the stream is constructed with a channel, the data flows from the direct receive buffer to dst without heap copies.
+     * If dst is a FileChannel, the file is extended to the total data length announced by StartData before
+     * receiving the data, and the data is written at the current position of the channel.
+     *
+     * @param dst
+     * @throws RuntimeException if it is not Data Phase.
+     * @throws IOException
+     */
+    public void readData(WritableByteChannel dst) throws IOException {
+        Validators.notNull("dst", dst);
+
+        StartDataPacket startData = readStartData();
+        readDataPayload(dst, startData.getTotalDataLength().longValue());
+    }
+
+    /**
+     * Process Data Phase (StartData -&gt; [Data] -&gt; EndData) and reads all data into the buffer from the allocator.
+     * <p>
+     * If the stream is constructed with a channel, the bytes not buffered yet are read from the channel directly into the buffer.
+     *
+     * @param allocator Allocates the buffer for the total data length announced by StartData.
+     * @return The buffer from the allocator, whose content between position and limit is the received data.
+     * @throws RuntimeException if it is not Data Phase.
+     * @throws IOException      if the received data length does not match the announced length.
+     */
+    public ByteBuffer readData(DataBufferAllocator allocator) throws IOException {
+        Validators.notNull("allocator", allocator);
+
+        long totalDataLength = readStartData().getTotalDataLength().longValue();
+        ByteBuffer dst = allocator.allocate(totalDataLength);
+        Validators.notNull("buffer", dst);
+
+        return readDataPayload(dst, totalDataLength);
+    }
+
+    // Read Data Step by Step
+
+    /**
+     * Read StartData which begins Data Phase.
+     * The following Data and EndData packets must be read by one of readDataPayload or skipDataPayload.
+     *
+     * @return StartData, which announces the total data length.
+     * @throws PtpException if the responder sent OperationResponse of an error instead of StartData.
+     * @throws IOException
+     */
+    public StartDataPacket readStartData() throws IOException {
+        if (peekHeader().getTypeCode() == OPERATION_RESPONSE_TYPE_CODE) {
             OperationResponsePacket response = readOperationResponsePacket();
 
             if (response.getResponseCode().equals(ResponseCode.OK.value())) {
@@ -254,20 +333,304 @@ public final class PtpIpInputStream implements Closeable {
             }
         }
 
-        readStartDataPacket();
+        return readStartDataPacket();
+    }
+
+    /**
+     * Read the payloads of Data and EndData packets following StartData, and writes them to dst.
+     *
+     * @param dst
+     * @throws IOException
+     */
+    public void readDataPayload(OutputStream dst) throws IOException {
+        Validators.notNull("dst", dst);
 
         for (; ; ) {
-            switch (nextType()) {
-                case DATA:
-                    dst.write(readDataPacket().getDataPayload());
-                    break;
-                case END_DATA:
-                    dst.write(readEndDataPacket().getDataPayload());
-                    return;
-                default:
-                    throw new IOException("Expected Data or EndData but was " + nextType());
+            int typeCode = nextDataTypeCode();
+            long remaining = takeDataPayloadLength();
+
+            copy(remaining, dst);
+
+            if (typeCode == END_DATA_TYPE_CODE) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read the payloads of Data and EndData packets following StartData, and writes them to dst.
+     * <p>
+     * If dst is a FileChannel, the file is extended to totalDataLength before receiving the data,
+     * and is truncated if the responder sends less data.
+     *
+     * @param dst
+     * @param totalDataLength The total data length announced by StartData, or negative if unknown.
+     * @throws IOException
+     */
+    public void readDataPayload(WritableByteChannel dst, long totalDataLength) throws IOException {
+        Validators.notNull("dst", dst);
+
+        FileChannel fileChannel = null;
+        long preallocatedEnd = -1;
+        if (dst instanceof FileChannel) {
+            fileChannel = (FileChannel) dst;
+            preallocatedEnd = preallocate(fileChannel, totalDataLength);
+        }
+
+        for (; ; ) {
+            int typeCode = nextDataTypeCode();
+            long remaining = takeDataPayloadLength();
+
+            if (channelInputStream != null) {
+                channelInputStream.transferTo(remaining, dst);
+            } else {
+                copy(remaining, dst);
+            }
+
+            if (typeCode == END_DATA_TYPE_CODE) {
+                break;
             }
         }
+
+        if (fileChannel != null && fileChannel.position() < preallocatedEnd) {
+            // The responder sent less data than announced.
+            fileChannel.truncate(fileChannel.position());
+        }
+    }
+
+    /**
+     * Read the payloads of Data and EndData packets following StartData into dst like readDataPayload,
+     * but stop before the next packet once the condition requests to cancel.
+     * When stopped, the rest of the data phase is left unread, and must be read by skipDataPayload.
+     *
+     * @param dst
+     * @param totalDataLength The total data length announced by StartData, or negative if unknown.
+     * @param condition       Checked before each Data and EndData packet.
+     * @return The number of bytes written to dst.
+     * @throws DataPhaseCancelledException if the condition requested to cancel.
+     * @throws IOException
+     */
+    public long readDataPayload(WritableByteChannel dst, long totalDataLength, CancelCondition condition) throws IOException {
+        Validators.notNull("dst", dst);
+        Validators.notNull("condition", condition);
+
+        FileChannel fileChannel = null;
+        long preallocatedEnd = -1;
+        if (dst instanceof FileChannel) {
+            fileChannel = (FileChannel) dst;
+            preallocatedEnd = preallocate(fileChannel, totalDataLength);
+        }
+
+        long received = 0;
+        try {
+            for (; ; ) {
+                int typeCode = nextDataTypeCode();
+                if (condition.isCancelRequested()) {
+                    throw new DataPhaseCancelledException(received, totalDataLength);
+                }
+
+                long remaining = takeDataPayloadLength();
+
+                if (channelInputStream != null) {
+                    channelInputStream.transferTo(remaining, dst);
+                } else {
+                    copy(remaining, dst);
+                }
+                received += remaining;
+
+                if (typeCode == END_DATA_TYPE_CODE) {
+                    return received;
+                }
+            }
+        } finally {
+            if (fileChannel != null && fileChannel.position() < preallocatedEnd) {
+                // The responder sent less data than announced, or the data phase is cancelled.
+                fileChannel.truncate(fileChannel.position());
+            }
+        }
+    }
+
+    /**
+     * Read the payloads of Data and EndData packets following StartData into dst.
+     *
+     * @param dst
+     * @param totalDataLength The total data length announced by StartData.
+     * @return dst, whose content between position and limit is the received data.
+     * @throws IOException if the received data length does not match totalDataLength.
+     *                     If the data exceeds dst, the rest of the data phase is discarded before throwing.
+     */
+    public ByteBuffer readDataPayload(ByteBuffer dst, long totalDataLength) throws IOException {
+        Validators.notNull("dst", dst);
+
+        int start = dst.position();
+        for (; ; ) {
+            int typeCode = nextDataTypeCode();
+            long remaining = takeDataPayloadLength();
+
+            if (dst.remaining() < remaining) {
+                // Keep the stream on the packet boundary after the data phase.
+                copy(remaining, (OutputStream) null);
+                if (typeCode != END_DATA_TYPE_CODE) {
+                    skipDataPayload();
+                }
+                throw new IOException("Received data exceeds the total data length: " + totalDataLength);
+            }
+
+            if (channelInputStream != null) {
+                channelInputStream.readFully(dst, (int) remaining);
+            } else {
+                copy((int) remaining, dst);
+            }
+
+            if (typeCode == END_DATA_TYPE_CODE) {
+                break;
+            }
+        }
+
+        long received = dst.position() - start;
+        if (received != totalDataLength) {
+            throw new IOException(String.format("Received %d bytes but the total data length was %d", received, totalDataLength));
+        }
+
+        dst.limit(dst.position());
+        dst.position(start);
+        return dst;
+    }
+
+    /**
+     * Read and discard the payloads of Data and EndData packets following StartData.
+     *
+     * @return The number of discarded bytes.
+     * @throws IOException
+     */
+    public long skipDataPayload() throws IOException {
+        long skipped = 0;
+
+        for (; ; ) {
+            int typeCode = nextDataTypeCode();
+            long remaining = takeDataPayloadLength();
+
+            copy(remaining, (OutputStream) null);
+            skipped += remaining;
+
+            if (typeCode == END_DATA_TYPE_CODE) {
+                return skipped;
+            }
+        }
+    }
+
+    /**
+     * Extend the file so that length bytes fit from the current position.
+     *
+     * @return The end position of the extended file, or -1 if the file is not extended.
+     */
+    private static long preallocate(FileChannel fileChannel, long length) throws IOException {
+        long position = fileChannel.position();
+
+        // A negative length means that the total data length is unknown or larger than any file.
+        if (length <= 0 || Long.MAX_VALUE - position < length) {
+            return -1;
+        }
+
+        long end = position + length;
+        if (end <= fileChannel.size()) {
+            return -1;
+        }
+
+        fileChannel.write(ByteBuffer.wrap(new byte[1]), end - 1);
+        return end;
+    }
+
+    /**
+     * Copy count bytes of the stream to dst, or discard them if dst is null.
+     */
+    private void copy(long count, OutputStream dst) throws IOException {
+        byte[] buffer = transferBuffer();
+
+        long remaining = count;
+        while (0 < remaining) {
+            int read = pis.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (read == -1) {
+                throw new EOFException();
+            }
+            if (dst != null) {
+                dst.write(buffer, 0, read);
+            }
+            remaining -= read;
+        }
+    }
+
+    private void copy(int count, ByteBuffer dst) throws IOException {
+        if (dst.hasArray()) {
+            IOUtils.readFully(pis, dst.array(), dst.arrayOffset() + dst.position(), count);
+            dst.position(dst.position() + count);
+            return;
+        }
+
+        byte[] buffer = transferBuffer();
+
+        int remaining = count;
+        while (0 < remaining) {
+            int read = pis.read(buffer, 0, Math.min(remaining, buffer.length));
+            if (read == -1) {
+                throw new EOFException();
+            }
+            dst.put(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private void copy(long count, WritableByteChannel dst) throws IOException {
+        byte[] buffer = transferBuffer();
+
+        long remaining = count;
+        while (0 < remaining) {
+            int read = pis.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (read == -1) {
+                throw new EOFException();
+            }
+            ByteBuffer src = ByteBuffer.wrap(buffer, 0, read);
+            while (src.hasRemaining()) {
+                dst.write(src);
+            }
+            remaining -= read;
+        }
+    }
+
+    private byte[] transferBuffer() {
+        if (transferBuffer == null) {
+            transferBuffer = new byte[TRANSFER_BUFFER_SIZE];
+        }
+
+        return transferBuffer;
+    }
+
+    private int nextDataTypeCode() throws IOException {
+        int typeCode = peekHeader().getTypeCode();
+
+        if (typeCode != DATA_TYPE_CODE && typeCode != END_DATA_TYPE_CODE) {
+            throw new IOException("Expected Data or EndData but was " + nextType());
+        }
+
+        return typeCode;
+    }
+
+    /**
+     * Consume the header and the TransactionID of the Data or EndData packet, and returns the length of the data payload.
+     */
+    private long takeDataPayloadLength() throws IOException {
+        hasHeader = false;
+
+        long payloadLength = header.getPayloadLength();
+        long dataLength = payloadLength - UINT32.SIZE_IN_BYTES; // -TransactionID
+        if (dataLength < 0) {
+            throw new IOException("Too short packet length: " + header.getLength());
+        }
+
+        // Skip TransactionID
+        IOUtils.readFully(pis, transactionIDBytes);
+
+        return dataLength;
     }
 
     // Closeable
@@ -279,19 +642,30 @@ public final class PtpIpInputStream implements Closeable {
 
     // Utility
 
-    private void assertNextTypeIs(PtpIpPacket.Type expected) throws IOException {
+    private PtpIpHeader peekHeader() throws IOException {
+        if (!hasHeader) {
+            header.read(pis);
+            hasHeader = true;
+        }
+
+        return header;
+    }
+
+    /**
+     * Returns the header of the next packet after checking its type, and marks it as consumed.
+     */
+    private PtpIpHeader takeHeader(PtpIpPacket.Type expected) throws IOException {
         PtpIpPacket.Type actual = nextType();
 
         if (expected == PROBE_REQUEST || expected == PROBE_RESPONSE) {
             if (actual != PROBE_REQUEST && actual != PROBE_RESPONSE) {
                 throw new RuntimeException(String.format("Expected %s but was %s", expected, actual));
             }
-
-            return;
-        }
-
-        if (actual != expected) {
+        } else if (actual != expected) {
             throw new RuntimeException(String.format("Expected %s but was %s", expected, actual));
         }
+
+        hasHeader = false;
+        return header;
     }
 }
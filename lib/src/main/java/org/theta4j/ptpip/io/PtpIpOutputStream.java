@@ -4,21 +4,58 @@
 
 package org.theta4j.ptpip.io;
 
-import org.theta4j.ptp.io.PtpOutputStream;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.ptp.type.UINT64;
 import org.theta4j.ptpip.packet.PtpIpPacket;
 import org.theta4j.ptpip.packet.StartDataPacket;
+import org.theta4j.util.ByteBufferSource;
+import org.theta4j.util.ChannelOutputStream;
+import org.theta4j.util.DirectBufferPool;
+import org.theta4j.util.Validators;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * OutputStream of PTP-IP.
+ * <p>
+ * Packets are encoded into a reused buffer, and the stream is flushed once per transaction phase.
+ * Packets appended by append(PtpIpPacket) are held in the buffer,
+ * and go out with the next packet written or by flush(), so that a whole phase is written by one write call.
+ * This class is not thread-safe.
  */
 public final class PtpIpOutputStream implements Closeable {
-    private final PtpOutputStream os;
+    /**
+     * Large enough for all packets except data packets and InitCommand packets with very long names.
+     */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int START_DATA_SIZE_IN_BYTES =
+            UINT32.SIZE_IN_BYTES + PtpIpPacket.Type.SIZE_IN_BYTES + UINT32.SIZE_IN_BYTES + UINT64.SIZE_IN_BYTES;
+
+    private static final int END_DATA_HEADER_SIZE_IN_BYTES =
+            UINT32.SIZE_IN_BYTES + PtpIpPacket.Type.SIZE_IN_BYTES + UINT32.SIZE_IN_BYTES;
+
+    /**
+     * The maximum data length of one Data or EndData packet when data is streamed.
+     */
+    static final int STREAMED_DATA_PAYLOAD_SIZE = 64 * 1024;
+
+    private final OutputStream os;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Holds a whole Data packet while streaming data to a stream, and allocated lazily since uploads are rare.
+     */
+    private ByteBuffer packetBuffer;
 
     /**
      * Wrap OutputStream by PacketOutputStream
@@ -26,7 +63,35 @@ public final class PtpIpOutputStream implements Closeable {
      * @param os
      */
     public PtpIpOutputStream(OutputStream os) {
-        this.os = new PtpOutputStream(os);
+        Validators.notNull("os", os);
+
+        this.os = os;
+    }
+
+    /**
+     * Write the channel through a direct buffer borrowed from the pool.
+     * The buffer is given back to the pool on close.
+     *
+     * @param channel The blocking channel to write.
+     * @param pool    The pool of send buffers.
+     * @throws NullPointerException if an argument is null.
+     */
+    public PtpIpOutputStream(WritableByteChannel channel, DirectBufferPool pool) {
+        this(new ChannelOutputStream(channel, pool));
+    }
+
+    /**
+     * Write the channel through a direct buffer borrowed from the source.
+     * The buffer is given back to the source on close.
+     *
+     * @param channel    The blocking channel to write.
+     * @param source     The source of the send buffer.
+     * @param bufferSize The size of the send buffer.
+     * @throws NullPointerException if an argument is null.
+     * @throws IOException          if the source can not provide the buffer.
+     */
+    public PtpIpOutputStream(WritableByteChannel channel, ByteBufferSource source, int bufferSize) throws IOException {
+        this(new ChannelOutputStream(channel, source, bufferSize));
     }
 
     /**
@@ -36,32 +101,199 @@ public final class PtpIpOutputStream implements Closeable {
      * @throws IOException
      */
     public void write(PtpIpPacket packet) throws IOException {
-        os.write(packet.bytes());
+        append(packet);
+        flush();
+    }
+
+    /**
+     * Append PTP-IP Packet to the buffer without flushing the stream.
+     * <p>
+     * The packet is written together with the packets following it, when the buffer fills up or by flush().
+     *
+     * @param packet
+     * @throws IOException if the buffer is written to the stream to make room for the packet.
+     */
+    public void append(PtpIpPacket packet) throws IOException {
+        Validators.notNull("packet", packet);
+
+        if (packet.sizeInBytes() <= buffer.capacity()) {
+            ensureRemaining(packet.sizeInBytes());
+            packet.writeTo(buffer);
+        } else {
+            writeBuffer();
+            for (ByteBuffer src : packet.toByteBuffers()) {
+                write(src);
+            }
+        }
+    }
+
+    /**
+     * Returns true if appended packets are held in the buffer.
+     */
+    public boolean hasPendingPackets() {
+        return 0 < buffer.position();
+    }
+
+    /**
+     * Write the appended packets, and flush the stream.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        writeBuffer();
         os.flush();
     }
 
     /**
      * Write data to the stream as content of DataPhase (StartData -&gt; [Data] -&gt; EndData)
+     * <p>
+     * The data is written directly from the given array, and the stream is flushed once at the end of the phase.
      *
      * @param transactionID
      * @param data
      * @throws IOException
      */
     public void writeData(UINT32 transactionID, byte[] data) throws IOException {
-        // Send StartData
-        StartDataPacket startDataPacket = new StartDataPacket(transactionID, new UINT64(data.length));
-        write(startDataPacket);
+        Validators.notNull("transactionID", transactionID);
+        Validators.notNull("data", data);
+
+        ensureRemaining(START_DATA_SIZE_IN_BYTES + END_DATA_HEADER_SIZE_IN_BYTES);
 
-        long packetLength = UINT32.SIZE_IN_BYTES + PtpIpPacket.Type.SIZE_IN_BYTES + UINT32.SIZE_IN_BYTES + data.length;
+        // StartData
+        new StartDataPacket(transactionID, new UINT64(data.length)).writeTo(buffer);
+
+        // EndData (Header and TransactionID)
+        writeDataHeaderTo(buffer, PtpIpPacket.Type.END_DATA, transactionID, data.length);
+
+        // EndData (Data)
+        if (data.length <= buffer.remaining()) {
+            buffer.put(data);
+            writeBuffer();
+        } else {
+            writeBuffer();
+            os.write(data);
+        }
+
+        os.flush();
+    }
+
+    /**
+     * Write data read from the channel as content of DataPhase (StartData -&gt; [Data] -&gt; EndData)
+     * <p>
+     * The data is split into Data packets of bounded size, so that the whole data is never held in memory.
+     * If the stream is constructed with a channel, the data is read into the direct send buffer,
+     * or transferred from a FileChannel to the socket by the platform.
+     * The stream is flushed once at the end of the phase.
+     *
+     * @param transactionID
+     * @param src           The channel to read the data from its current position.
+     * @param length        The total data length, which is announced by StartData.
+     * @throws EOFException if src reaches end of stream before length bytes are read.
+     * @throws IOException
+     */
+    public void writeData(UINT32 transactionID, ReadableByteChannel src, long length) throws IOException {
+        Validators.notNull("transactionID", transactionID);
+        Validators.notNull("src", src);
+        Validators.rangeEq("length", length, 0L, Long.MAX_VALUE);
+
+        ensureRemaining(START_DATA_SIZE_IN_BYTES);
+        new StartDataPacket(transactionID, new UINT64(length)).writeTo(buffer);
+        writeBuffer();
+
+        long remaining = length;
+        do {
+            int payloadLength = (int) Math.min(remaining, STREAMED_DATA_PAYLOAD_SIZE);
+            remaining -= payloadLength;
+            PtpIpPacket.Type type = remaining == 0 ? PtpIpPacket.Type.END_DATA : PtpIpPacket.Type.DATA;
+
+            if (os instanceof ChannelOutputStream) {
+                writeDataHeaderTo(buffer, type, transactionID, payloadLength);
+                writeBuffer();
+                ((ChannelOutputStream) os).transferFrom(src, payloadLength);
+            } else {
+                if (packetBuffer == null) {
+                    packetBuffer = ByteBuffer.allocate(END_DATA_HEADER_SIZE_IN_BYTES + STREAMED_DATA_PAYLOAD_SIZE)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                }
+                packetBuffer.clear();
+                writeDataHeaderTo(packetBuffer, type, transactionID, payloadLength);
+                packetBuffer.limit(packetBuffer.position() + payloadLength);
+                while (packetBuffer.hasRemaining()) {
+                    if (src.read(packetBuffer) == -1) {
+                        throw new EOFException();
+                    }
+                }
+                os.write(packetBuffer.array(), 0, packetBuffer.limit());
+            }
+        } while (0 < remaining);
 
-        // Send EndData
-        os.write(new UINT32(packetLength));
-        os.write(PtpIpPacket.Type.END_DATA.value());
-        os.write(transactionID);
-        os.write(data);
         os.flush();
     }
 
+    /**
+     * Write data read from the stream as content of DataPhase (StartData -&gt; [Data] -&gt; EndData)
+     * <p>
+     * The data is split into Data packets of bounded size, so that the whole data is never held in memory.
+     *
+     * @param transactionID
+     * @param src           The stream to read the data.
+     * @param length        The total data length, which is announced by StartData.
+     * @throws EOFException if src reaches end of stream before length bytes are read.
+     * @throws IOException
+     */
+    public void writeData(UINT32 transactionID, InputStream src, long length) throws IOException {
+        Validators.notNull("src", src);
+
+        writeData(transactionID, Channels.newChannel(src), length);
+    }
+
+    /**
+     * Write the header and the TransactionID of Data or EndData packet.
+     */
+    private static void writeDataHeaderTo(ByteBuffer dst, PtpIpPacket.Type type, UINT32 transactionID, int payloadLength) {
+        dst.putInt(END_DATA_HEADER_SIZE_IN_BYTES + payloadLength);
+        type.value().writeTo(dst);
+        transactionID.writeTo(dst);
+    }
+
+    /**
+     * Write the buffer if it does not have enough room for the bytes.
+     */
+    private void ensureRemaining(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Write the bytes held in the buffer, and clear it.
+     */
+    private void writeBuffer() throws IOException {
+        if (0 < buffer.position()) {
+            os.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Write the buffer of a packet. The bytes held in the buffer must be written in advance.
+     */
+    private void write(ByteBuffer src) throws IOException {
+        if (src.hasArray()) {
+            os.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+            src.position(src.limit());
+            return;
+        }
+
+        // Read-only or direct buffer
+        while (src.hasRemaining()) {
+            int length = Math.min(src.remaining(), buffer.capacity());
+            buffer.clear();
+            src.get(buffer.array(), 0, length);
+            os.write(buffer.array(), 0, length);
+        }
+    }
+
     @Override
     public void close() throws IOException {
         os.close();
@@ -5,11 +5,14 @@
 package org.theta4j.ptpip.packet;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Cancel Packet defined in PTP-IP
@@ -19,16 +22,12 @@ public final class CancelPacket extends PtpIpPacket {
 
     private final UINT32 transactionID;
 
-    private final byte[] payload;
-
     // Constructor
 
     public CancelPacket(UINT32 transactionID) {
         Validators.notNull("transactionID", transactionID);
 
         this.transactionID = transactionID;
-
-        this.payload = this.transactionID.bytes();
     }
 
     // Static Factory Method
@@ -36,17 +35,41 @@ public final class CancelPacket extends PtpIpPacket {
     public static CancelPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static CancelPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static CancelPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of CancelPacket following the header which has been read already.
+     */
+    public static CancelPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.CANCEL);
         PtpIpPacketUtils.checkLength((int) payloadLength, SIZE_IN_BYTES);
 
         // Read Body
-        UINT32 transactionID = pis.readUINT32();
+        UINT32 transactionID = reader.readUINT32();
 
         return new CancelPacket(transactionID);
     }
@@ -59,8 +82,13 @@ public final class CancelPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return UINT32.SIZE_IN_BYTES;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        transactionID.writeTo(buffer);
     }
 
     // Getter
@@ -7,13 +7,15 @@ package org.theta4j.ptpip.packet;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT32;
-import org.theta4j.util.ArrayUtils;
 import org.theta4j.util.Validators;
 
-import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Data Packet defined in PTP-IP
@@ -22,47 +24,92 @@ public final class DataPacket extends PtpIpPacket {
     private static final int MIN_SIZE_IN_BYTES = UINT32.SIZE_IN_BYTES;
 
     private final UINT32 transactionID;
-    private final byte[] dataPayload;
 
-    private final byte[] payload;
+    /**
+     * The position is always zero. It is exposed only as read-only views.
+     */
+    private final ByteBuffer dataPayload;
 
     // Constructor
 
     public DataPacket(UINT32 transactionID, byte[] dataPayload) {
+        this(transactionID, copyOf(dataPayload));
+    }
+
+    private DataPacket(UINT32 transactionID, ByteBuffer dataPayload) {
         Validators.notNull("transactionID", transactionID);
-        Validators.notNull("dataPayload", dataPayload);
 
         this.transactionID = transactionID;
-        this.dataPayload = dataPayload.clone();
+        this.dataPayload = dataPayload;
+    }
 
-        this.payload = ArrayUtils.join(
-                transactionID.bytes(),
-                this.dataPayload
-        );
+    private static ByteBuffer copyOf(byte[] dataPayload) {
+        Validators.notNull("dataPayload", dataPayload);
+
+        return ByteBuffer.wrap(dataPayload.clone());
     }
 
     // Static Factory Method
 
+    /**
+     * Create a packet which shares the remaining bytes of dataPayload as the data payload without copying.
+     * The content of dataPayload must not be modified while the packet is in use.
+     *
+     * @throws NullPointerException if an argument is null.
+     */
+    public static DataPacket wrap(UINT32 transactionID, ByteBuffer dataPayload) {
+        Validators.notNull("transactionID", transactionID);
+        Validators.notNull("dataPayload", dataPayload);
+
+        return new DataPacket(transactionID, dataPayload.slice());
+    }
+
     public static DataPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    /**
+     * Read DataPacket from the buffer.
+     * The data payload of the returned packet is a view of the buffer, so the buffer must not be reused while the packet is in use.
+     */
+    public static DataPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static DataPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of DataPacket following the header which has been read already.
+     */
+    public static DataPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.DATA);
 
         // Read Body (TransactionID)
-        UINT32 transactionID = pis.readUINT32();
+        UINT32 transactionID = reader.readUINT32();
+        PtpIpPacketUtils.checkMinLength((int) payloadLength, MIN_SIZE_IN_BYTES);
 
         // Read Body (Data)
         long dataLength = payloadLength - UINT32.SIZE_IN_BYTES; // -TransactionID
-        byte[] dataPayload = new byte[(int) dataLength];
-        if (pis.read(dataPayload) != dataLength) {
-            throw new EOFException();
-        }
+        ByteBuffer dataPayload = PtpIpPacketUtils.readDataPayload(reader, (int) dataLength);
 
         return new DataPacket(transactionID, dataPayload);
     }
@@ -75,8 +122,27 @@ public final class DataPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return UINT32.SIZE_IN_BYTES + dataPayload.remaining();
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        transactionID.writeTo(buffer);
+        buffer.put(dataPayload.duplicate());
+    }
+
+    /**
+     * Returns the header with the TransactionID and a read-only view of the data payload, without copying the payload.
+     */
+    @Override
+    public ByteBuffer[] toByteBuffers() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE_IN_BYTES + UINT32.SIZE_IN_BYTES);
+        writeHeaderTo(header, sizeInBytes());
+        transactionID.writeTo(header);
+        header.flip();
+
+        return new ByteBuffer[]{header, dataPayload.asReadOnlyBuffer()};
     }
 
     // Getter
@@ -85,8 +151,43 @@ public final class DataPacket extends PtpIpPacket {
         return transactionID;
     }
 
+    /**
+     * Returns a copy of the data payload.
+     *
+     * @see #getDataPayloadBuffer()
+     * @see #writeDataPayloadTo(OutputStream)
+     */
     public byte[] getDataPayload() {
-        return dataPayload.clone();
+        byte[] bytes = new byte[dataPayload.remaining()];
+        dataPayload.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns a read-only view of the data payload without copying.
+     * The position and the limit of the view are independent of the packet.
+     */
+    public ByteBuffer getDataPayloadBuffer() {
+        return dataPayload.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the length of the data payload in bytes.
+     */
+    public int getDataPayloadLength() {
+        return dataPayload.remaining();
+    }
+
+    /**
+     * Write the data payload to the stream without an intermediate copy when the payload is backed by an array.
+     *
+     * @throws NullPointerException if os is null.
+     * @throws IOException          if an I/O error occurs while writing the stream.
+     */
+    public void writeDataPayloadTo(OutputStream os) throws IOException {
+        Validators.notNull("os", os);
+
+        PtpIpPacketUtils.write(dataPayload, os);
     }
 
     // Basic Method
@@ -7,13 +7,15 @@ package org.theta4j.ptpip.packet;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT16;
 import org.theta4j.ptp.type.UINT32;
-import org.theta4j.util.ArrayUtils;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Event Packet defined in PTP-IP
@@ -25,20 +27,18 @@ public final class EventPacket extends PtpIpPacket {
     private final UINT32 transactionID;
     private final UINT32 p1, p2, p3;
 
-    private final byte[] payload;
-
     // Constructor
 
     public EventPacket(UINT16 eventCode, UINT32 transactionID) {
-        this(eventCode, transactionID, new UINT32(0));
+        this(eventCode, transactionID, UINT32.ZERO);
     }
 
     public EventPacket(UINT16 eventCode, UINT32 transactionID, UINT32 p1) {
-        this(eventCode, transactionID, p1, new UINT32(0));
+        this(eventCode, transactionID, p1, UINT32.ZERO);
     }
 
     public EventPacket(UINT16 eventCode, UINT32 transactionID, UINT32 p1, UINT32 p2) {
-        this(eventCode, transactionID, p1, p2, new UINT32(0));
+        this(eventCode, transactionID, p1, p2, UINT32.ZERO);
     }
 
     public EventPacket(UINT16 eventCode, UINT32 transactionID, UINT32 p1, UINT32 p2, UINT32 p3) {
@@ -53,12 +53,6 @@ public final class EventPacket extends PtpIpPacket {
         this.p1 = p1;
         this.p2 = p2;
         this.p3 = p3;
-
-        this.payload = ArrayUtils.join(
-                eventCode.bytes(),
-                transactionID.bytes(),
-                p1.bytes(), p2.bytes(), p3.bytes()
-        );
     }
 
     // Static Factory Method
@@ -66,21 +60,45 @@ public final class EventPacket extends PtpIpPacket {
     public static EventPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static EventPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static EventPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of EventPacket following the header which has been read already.
+     */
+    public static EventPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.EVENT);
         PtpIpPacketUtils.checkLength((int) payloadLength, SIZE_IN_BYTES);
 
         // Read Body
-        UINT16 eventCode = pis.readUINT16();
-        UINT32 transactionID = pis.readUINT32();
-        UINT32 p1 = pis.readUINT32();
-        UINT32 p2 = pis.readUINT32();
-        UINT32 p3 = pis.readUINT32();
+        UINT16 eventCode = reader.readUINT16();
+        UINT32 transactionID = reader.readUINT32();
+        UINT32 p1 = reader.readUINT32();
+        UINT32 p2 = reader.readUINT32();
+        UINT32 p3 = reader.readUINT32();
 
         return new EventPacket(eventCode, transactionID, p1, p2, p3);
     }
@@ -93,8 +111,17 @@ public final class EventPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return SIZE_IN_BYTES;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        eventCode.writeTo(buffer);
+        transactionID.writeTo(buffer);
+        p1.writeTo(buffer);
+        p2.writeTo(buffer);
+        p3.writeTo(buffer);
     }
 
     // Getter
@@ -4,6 +4,8 @@
 
 package org.theta4j.ptpip.packet;
 
+import org.theta4j.ptp.io.PtpReader;
+
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -20,10 +22,19 @@ final class GUID {
 
     public static byte[] toBytes(UUID guid) {
         ByteBuffer buffer = ByteBuffer.wrap(new byte[SIZE_IN_BYTES]);
+        writeTo(guid, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Write the GUID as little endian at the current position of the buffer, regardless of the byte order of the buffer.
+     */
+    public static void writeTo(UUID guid, ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
         buffer.order(ByteOrder.LITTLE_ENDIAN);
         buffer.putLong(guid.getMostSignificantBits());
         buffer.putLong(guid.getLeastSignificantBits());
-        return buffer.array();
+        buffer.order(order);
     }
 
     public static UUID read(InputStream is) throws IOException {
@@ -38,4 +49,11 @@ final class GUID {
 
         return new UUID(buffer.getLong(), buffer.getLong());
     }
+
+    public static UUID read(PtpReader reader) throws IOException {
+        long mostSignificantBits = reader.readINT64().longValue();
+        long leastSignificantBits = reader.readINT64().longValue();
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
 }
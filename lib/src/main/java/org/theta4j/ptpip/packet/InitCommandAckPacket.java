@@ -7,13 +7,16 @@ package org.theta4j.ptpip.packet;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
+import org.theta4j.ptp.type.PtpStringCodec;
 import org.theta4j.ptp.type.STR;
 import org.theta4j.ptp.type.UINT32;
-import org.theta4j.util.ArrayUtils;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.UUID;
 
 /**
@@ -27,8 +30,6 @@ public final class InitCommandAckPacket extends PtpIpPacket {
     private final String name;
     private final UINT32 protocolVersion;
 
-    private final byte[] payload;
-
     // Constructor
 
     public InitCommandAckPacket(UINT32 connectionNumber, UUID guid, String name, UINT32 protocolVersion) {
@@ -41,13 +42,6 @@ public final class InitCommandAckPacket extends PtpIpPacket {
         this.guid = guid;
         this.name = name;
         this.protocolVersion = protocolVersion;
-
-        this.payload = ArrayUtils.join(
-                connectionNumber.bytes(),
-                GUID.toBytes(guid),
-                PtpIpString.toBytes(name),
-                protocolVersion.bytes()
-        );
     }
 
     // Static Factory Method
@@ -55,20 +49,44 @@ public final class InitCommandAckPacket extends PtpIpPacket {
     public static InitCommandAckPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static InitCommandAckPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static InitCommandAckPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of InitCommandAckPacket following the header which has been read already.
+     */
+    public static InitCommandAckPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.INIT_COMMAND_ACK);
         PtpIpPacketUtils.checkMinLength((int) payloadLength, MIN_SIZE_IN_BYTES);
 
         // Read Body
-        UINT32 connectionNumber = pis.readUINT32();
-        UUID guid = GUID.read(pis);
-        String name = PtpIpString.read(pis);
-        UINT32 protocolVersion = pis.readUINT32();
+        UINT32 connectionNumber = reader.readUINT32();
+        UUID guid = GUID.read(reader);
+        String name = PtpIpString.read(reader);
+        UINT32 protocolVersion = reader.readUINT32();
 
         return new InitCommandAckPacket(connectionNumber, guid, name, protocolVersion);
     }
@@ -81,8 +99,16 @@ public final class InitCommandAckPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return UINT32.SIZE_IN_BYTES + GUID.SIZE_IN_BYTES + PtpStringCodec.sizeOfNullTerminated(name) + UINT32.SIZE_IN_BYTES;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        connectionNumber.writeTo(buffer);
+        GUID.writeTo(guid, buffer);
+        PtpStringCodec.writeNullTerminated(name, buffer);
+        protocolVersion.writeTo(buffer);
     }
 
     // Getter
@@ -6,10 +6,13 @@ package org.theta4j.ptpip.packet;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * InitEventAck Packet defined in PTP-IP
@@ -22,10 +25,34 @@ public final class InitEventAckPacket extends PtpIpPacket {
     public static InitEventAckPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static InitEventAckPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static InitEventAckPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of InitEventAckPacket following the header which has been read already.
+     */
+    public static InitEventAckPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.INIT_EVENT_ACK);
@@ -42,8 +69,13 @@ public final class InitEventAckPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return ArrayUtils.EMPTY_BYTE_ARRAY;
+    int payloadSizeInBytes() {
+        return 0;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        // No payload
     }
 
     // Basic Method
@@ -5,11 +5,14 @@
 package org.theta4j.ptpip.packet;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * InitEventRequest Packet defined in PTP-IP
@@ -19,15 +22,12 @@ public final class InitEventRequestPacket extends PtpIpPacket {
 
     private final UINT32 connectionNumber;
 
-    private final byte[] payload;
-
     // Constructor
 
     public InitEventRequestPacket(UINT32 connectionNumber) {
         Validators.notNull("connectionNumber", connectionNumber);
 
         this.connectionNumber = connectionNumber;
-        this.payload = connectionNumber.bytes();
     }
 
     // Static Factory Method
@@ -35,17 +35,41 @@ public final class InitEventRequestPacket extends PtpIpPacket {
     public static InitEventRequestPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static InitEventRequestPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static InitEventRequestPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of InitEventRequestPacket following the header which has been read already.
+     */
+    public static InitEventRequestPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.INIT_EVENT_REQUEST);
         PtpIpPacketUtils.checkLength((int) payloadLength, SIZE_IN_BYTES);
 
         // Read Body
-        UINT32 connectionNumber = pis.readUINT32();
+        UINT32 connectionNumber = reader.readUINT32();
 
         return new InitEventRequestPacket(connectionNumber);
     }
@@ -58,8 +82,13 @@ public final class InitEventRequestPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return UINT32.SIZE_IN_BYTES;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        connectionNumber.writeTo(buffer);
     }
 
     // Getter
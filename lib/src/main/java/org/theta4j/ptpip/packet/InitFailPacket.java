@@ -5,11 +5,14 @@
 package org.theta4j.ptpip.packet;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * InitFail Packet defined in PTP-IP
@@ -19,15 +22,12 @@ public final class InitFailPacket extends PtpIpPacket {
 
     private final UINT32 reason;
 
-    private final byte[] payload;
-
     // Constructor
 
     public InitFailPacket(UINT32 reason) {
         Validators.notNull("reason", reason);
 
         this.reason = reason;
-        this.payload = reason.bytes();
     }
 
     // Static Factory Method
@@ -35,17 +35,41 @@ public final class InitFailPacket extends PtpIpPacket {
     public static InitFailPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static InitFailPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static InitFailPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of InitFailPacket following the header which has been read already.
+     */
+    public static InitFailPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.INIT_FAIL);
         PtpIpPacketUtils.checkLength((int) payloadLength, SIZE_IN_BYTES);
 
         // Read Body
-        UINT32 reason = pis.readUINT32();
+        UINT32 reason = reader.readUINT32();
 
         return new InitFailPacket(reason);
     }
@@ -58,8 +82,13 @@ public final class InitFailPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return UINT32.SIZE_IN_BYTES;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        reason.writeTo(buffer);
     }
 
     // Getter
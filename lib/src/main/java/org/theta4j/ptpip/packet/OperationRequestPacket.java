@@ -7,13 +7,15 @@ package org.theta4j.ptpip.packet;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT16;
 import org.theta4j.ptp.type.UINT32;
-import org.theta4j.util.ArrayUtils;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * OperationRequest Packet defined in PTP-IP
@@ -26,28 +28,26 @@ public final class OperationRequestPacket extends PtpIpPacket {
     private final UINT32 transactionID;
     private final UINT32 p1, p2, p3, p4, p5;
 
-    private final byte[] payload;
-
     // Constructor
 
     public OperationRequestPacket(UINT32 dataPhaseInfo, UINT16 operationCode, UINT32 transactionID) {
-        this(dataPhaseInfo, operationCode, transactionID, new UINT32(0));
+        this(dataPhaseInfo, operationCode, transactionID, UINT32.ZERO);
     }
 
     public OperationRequestPacket(UINT32 dataPhaseInfo, UINT16 operationCode, UINT32 transactionID, UINT32 p1) {
-        this(dataPhaseInfo, operationCode, transactionID, p1, new UINT32(0));
+        this(dataPhaseInfo, operationCode, transactionID, p1, UINT32.ZERO);
     }
 
     public OperationRequestPacket(UINT32 dataPhaseInfo, UINT16 operationCode, UINT32 transactionID, UINT32 p1, UINT32 p2) {
-        this(dataPhaseInfo, operationCode, transactionID, p1, p2, new UINT32(0));
+        this(dataPhaseInfo, operationCode, transactionID, p1, p2, UINT32.ZERO);
     }
 
     public OperationRequestPacket(UINT32 dataPhaseInfo, UINT16 operationCode, UINT32 transactionID, UINT32 p1, UINT32 p2, UINT32 p3) {
-        this(dataPhaseInfo, operationCode, transactionID, p1, p2, p3, new UINT32(0));
+        this(dataPhaseInfo, operationCode, transactionID, p1, p2, p3, UINT32.ZERO);
     }
 
     public OperationRequestPacket(UINT32 dataPhaseInfo, UINT16 operationCode, UINT32 transactionID, UINT32 p1, UINT32 p2, UINT32 p3, UINT32 p4) {
-        this(dataPhaseInfo, operationCode, transactionID, p1, p2, p3, p4, new UINT32(0));
+        this(dataPhaseInfo, operationCode, transactionID, p1, p2, p3, p4, UINT32.ZERO);
     }
 
     public OperationRequestPacket(UINT32 dataPhaseInfo, UINT16 operationCode, UINT32 transactionID, UINT32 p1, UINT32 p2, UINT32 p3, UINT32 p4, UINT32 p5) {
@@ -68,17 +68,6 @@ public final class OperationRequestPacket extends PtpIpPacket {
         this.p3 = p3;
         this.p4 = p4;
         this.p5 = p5;
-
-        this.payload = ArrayUtils.join(
-                dataPhaseInfo.bytes(),
-                operationCode.bytes(),
-                transactionID.bytes(),
-                p1.bytes(),
-                p2.bytes(),
-                p3.bytes(),
-                p4.bytes(),
-                p5.bytes()
-        );
     }
 
     // Static Factory Method
@@ -86,24 +75,48 @@ public final class OperationRequestPacket extends PtpIpPacket {
     public static OperationRequestPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static OperationRequestPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static OperationRequestPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of OperationRequestPacket following the header which has been read already.
+     */
+    public static OperationRequestPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.OPERATION_REQUEST);
         PtpIpPacketUtils.checkLength((int) payloadLength, SIZE_IN_BYTES);
 
         // Read Body
-        UINT32 dataPhaseInfo = pis.readUINT32();
-        UINT16 operationCode = pis.readUINT16();
-        UINT32 transactionID = pis.readUINT32();
-        UINT32 p1 = pis.readUINT32();
-        UINT32 p2 = pis.readUINT32();
-        UINT32 p3 = pis.readUINT32();
-        UINT32 p4 = pis.readUINT32();
-        UINT32 p5 = pis.readUINT32();
+        UINT32 dataPhaseInfo = reader.readUINT32();
+        UINT16 operationCode = reader.readUINT16();
+        UINT32 transactionID = reader.readUINT32();
+        UINT32 p1 = reader.readUINT32();
+        UINT32 p2 = reader.readUINT32();
+        UINT32 p3 = reader.readUINT32();
+        UINT32 p4 = reader.readUINT32();
+        UINT32 p5 = reader.readUINT32();
 
         return new OperationRequestPacket(dataPhaseInfo, operationCode, transactionID, p1, p2, p3, p4, p5);
     }
@@ -116,8 +129,20 @@ public final class OperationRequestPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return SIZE_IN_BYTES;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        dataPhaseInfo.writeTo(buffer);
+        operationCode.writeTo(buffer);
+        transactionID.writeTo(buffer);
+        p1.writeTo(buffer);
+        p2.writeTo(buffer);
+        p3.writeTo(buffer);
+        p4.writeTo(buffer);
+        p5.writeTo(buffer);
     }
 
     // Getter
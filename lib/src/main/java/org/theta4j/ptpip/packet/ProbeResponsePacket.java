@@ -6,10 +6,13 @@ package org.theta4j.ptpip.packet;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * ProbeResponse Packet defined in PTP-IP
@@ -22,10 +25,34 @@ public final class ProbeResponsePacket extends PtpIpPacket {
     public static ProbeResponsePacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static ProbeResponsePacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static ProbeResponsePacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of ProbeResponsePacket following the header which has been read already.
+     */
+    public static ProbeResponsePacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.PROBE_RESPONSE.value(), Type.PROBE_RESPONSE);
@@ -42,8 +69,13 @@ public final class ProbeResponsePacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return ArrayUtils.EMPTY_BYTE_ARRAY;
+    int payloadSizeInBytes() {
+        return 0;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        // No payload
     }
 
     // Basic Method
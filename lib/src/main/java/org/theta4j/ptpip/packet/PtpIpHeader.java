@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.packet;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpReader;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.util.Validators;
+
+import java.io.IOException;
+
+/**
+ * The header of PTP-IP packets, which consists of the packet length and the packet type.
+ * <p>
+ * The instance is mutable so that a stream can read the header of every packet into the same instance.
+ * This class is not thread-safe.
+ */
+public final class PtpIpHeader {
+    public static final int SIZE_IN_BYTES = UINT32.SIZE_IN_BYTES + PtpIpPacket.Type.SIZE_IN_BYTES;
+
+    private final byte[] bytes = new byte[SIZE_IN_BYTES];
+
+    private long length;
+    private int typeCode;
+
+    // Reader
+
+    /**
+     * Read the header of the next packet from the reader into this instance.
+     *
+     * @throws NullPointerException if reader is null.
+     * @throws IOException          if an I/O error occurs while reading.
+     */
+    public void read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
+        reader.readFully(bytes);
+
+        length = getInt(0) & 0xFFFFFFFFL;
+        typeCode = getInt(UINT32.SIZE_IN_BYTES);
+    }
+
+    private int getInt(int offset) {
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    // Getter
+
+    /**
+     * Returns the length of the packet including the header.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the length of the packet excluding the header.
+     * It can be negative if the peer sent an invalid length.
+     */
+    public long getPayloadLength() {
+        return length - SIZE_IN_BYTES;
+    }
+
+    /**
+     * Returns the raw packet type code.
+     */
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    /**
+     * Returns the packet type.
+     *
+     * @throws IllegalArgumentException if the type code is unknown.
+     */
+    public PtpIpPacket.Type getType() {
+        return PtpIpPacket.Type.valueOf(typeCode);
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("length", length)
+                .append("typeCode", typeCode)
+                .toString();
+    }
+}
@@ -5,16 +5,14 @@
 package org.theta4j.ptpip.packet;
 
 import org.theta4j.ptp.code.Code;
-import org.theta4j.ptp.io.PtpInputStream;
-import org.theta4j.ptp.io.PtpOutputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT32;
-import org.theta4j.util.Closer;
 import org.theta4j.util.Validators;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * PTP-IP Packet
@@ -22,15 +20,21 @@ import java.util.Map;
 public abstract class PtpIpPacket {
     // Utility Field
 
-    static final int HEADER_SIZE_IN_BYTES = UINT32.SIZE_IN_BYTES + UINT32.SIZE_IN_BYTES;
+    static final int HEADER_SIZE_IN_BYTES = PtpIpHeader.SIZE_IN_BYTES;
 
-    // Map for valueOf method
+    // Table for valueOf method, indexed by the type code
 
-    private static final Map<UINT32, Type> TYPE_MAP = new HashMap<>();
+    private static final Type[] TYPE_TABLE;
 
     static {
+        int maxCode = 0;
         for (Type type : Type.values()) {
-            TYPE_MAP.put(type.value, type);
+            maxCode = Math.max(maxCode, type.code);
+        }
+
+        TYPE_TABLE = new Type[maxCode + 1];
+        for (Type type : Type.values()) {
+            TYPE_TABLE[type.code] = type;
         }
     }
 
@@ -44,27 +48,76 @@ public abstract class PtpIpPacket {
 
     abstract Type getType();
 
-    abstract byte[] getPayload();
+    /**
+     * Returns the exact number of bytes of the payload.
+     */
+    abstract int payloadSizeInBytes();
+
+    /**
+     * Write the payload at the current position of the buffer as little endian, regardless of the byte order of the buffer.
+     * The buffer is guaranteed to have payloadSizeInBytes() remaining bytes.
+     */
+    abstract void writePayloadTo(ByteBuffer buffer);
+
+    byte[] getPayload() {
+        ByteBuffer buffer = ByteBuffer.allocate(payloadSizeInBytes());
+        writePayloadTo(buffer);
+        return buffer.array();
+    }
 
     // Converter
 
-    public final byte[] bytes() {
-        UINT32 length = new UINT32(UINT32.SIZE_IN_BYTES + Type.SIZE_IN_BYTES + getPayload().length);
-
-        final Closer closer = new Closer();
-        try {
-            final ByteArrayOutputStream baos = closer.push(new ByteArrayOutputStream());
-            final PtpOutputStream pos = closer.push(new PtpOutputStream(baos));
-
-            pos.write(length);
-            pos.write(getType().value);
-            pos.write(getPayload());
-            return baos.toByteArray();
-        } catch (IOException e) {
-            throw new AssertionError(e);
-        } finally {
-            closer.close();
+    /**
+     * Returns the exact number of bytes of the encoded packet including the header.
+     */
+    public final int sizeInBytes() {
+        return HEADER_SIZE_IN_BYTES + payloadSizeInBytes();
+    }
+
+    /**
+     * Write the encoded packet at the current position of the buffer without allocating intermediate arrays.
+     *
+     * @throws NullPointerException    if buffer is null.
+     * @throws BufferOverflowException if the buffer has less than sizeInBytes() remaining bytes.
+     */
+    public final void writeTo(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        int size = sizeInBytes();
+        if (buffer.remaining() < size) {
+            throw new BufferOverflowException();
         }
+
+        writeHeaderTo(buffer, size);
+        writePayloadTo(buffer);
+    }
+
+    /**
+     * Returns the encoded packet as buffers for a gathering write.
+     * <p>
+     * Packets which carry a bulk data payload return the header and a read-only view of the payload separately,
+     * so that the payload is never copied. The other packets return a single buffer.
+     * The returned buffers are ready to be written, and are not shared with the packet except for read-only views.
+     */
+    public ByteBuffer[] toByteBuffers() {
+        ByteBuffer buffer = ByteBuffer.allocate(sizeInBytes());
+        writeTo(buffer);
+        buffer.flip();
+        return new ByteBuffer[]{buffer};
+    }
+
+    public final byte[] bytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(sizeInBytes());
+        writeTo(buffer);
+        return buffer.array();
+    }
+
+    final void writeHeaderTo(ByteBuffer buffer, int length) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(length);
+        buffer.putInt(getType().code);
+        buffer.order(order);
     }
 
     // Inner Types
@@ -89,12 +142,14 @@ public abstract class PtpIpPacket {
 
         // Property
 
+        private final int code;
         private final UINT32 value;
 
         // Constructor
 
         Type(int value) {
-            this.value = new UINT32(value);
+            this.code = value;
+            this.value = UINT32.valueOf(value);
         }
 
         // Code
@@ -109,19 +164,23 @@ public abstract class PtpIpPacket {
         public static Type valueOf(UINT32 value) {
             Validators.notNull("value", value);
 
-            if (!TYPE_MAP.containsKey(value)) {
-                throw new IllegalArgumentException("Unknown Packet Type: " + value);
+            return valueOf((int) value.longValue());
+        }
+
+        public static Type valueOf(int code) {
+            if (code < 0 || TYPE_TABLE.length <= code || TYPE_TABLE[code] == null) {
+                throw new IllegalArgumentException("Unknown Packet Type: " + new UINT32(code & 0xFFFFFFFFL));
             }
 
-            return TYPE_MAP.get(value);
+            return TYPE_TABLE[code];
         }
 
         // read
 
-        public static Type read(PtpInputStream pis) throws IOException {
-            Validators.notNull("pis", pis);
+        public static Type read(PtpReader reader) throws IOException {
+            Validators.notNull("reader", reader);
 
-            UINT32 typeValue = pis.readUINT32();
+            UINT32 typeValue = reader.readUINT32();
             return valueOf(typeValue);
         }
     }
@@ -4,12 +4,18 @@
 
 package org.theta4j.ptpip.packet;
 
+import org.theta4j.ptp.io.PtpByteBufferReader;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT32;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 class PtpIpPacketUtils {
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
     private PtpIpPacketUtils() {
         throw new AssertionError();
     }
@@ -37,4 +43,37 @@ class PtpIpPacketUtils {
             throw new EOFException(String.format("Too short packet length: actual=%d, min=%d.", actual, min));
         }
     }
+
+    /**
+     * Read the data payload of Data and EndData packets.
+     * The payload is sliced without copying from PtpByteBufferReader, and is read into a new array once from the others.
+     */
+    public static ByteBuffer readDataPayload(PtpReader reader, int length) throws IOException {
+        if (reader instanceof PtpByteBufferReader) {
+            return ((PtpByteBufferReader) reader).readSlice(length);
+        }
+
+        byte[] dataPayload = new byte[length];
+        reader.readFully(dataPayload);
+        return ByteBuffer.wrap(dataPayload);
+    }
+
+    /**
+     * Write the remaining bytes of src to os without changing the position of src.
+     * Heap buffers are written without copying.
+     */
+    public static void write(ByteBuffer src, OutputStream os) throws IOException {
+        if (src.hasArray()) {
+            os.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+            return;
+        }
+
+        ByteBuffer view = src.duplicate();
+        byte[] buffer = new byte[Math.min(view.remaining(), COPY_BUFFER_SIZE)];
+        while (view.hasRemaining()) {
+            int length = Math.min(view.remaining(), buffer.length);
+            view.get(buffer, 0, length);
+            os.write(buffer, 0, length);
+        }
+    }
 }
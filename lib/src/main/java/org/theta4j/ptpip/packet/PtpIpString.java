@@ -4,14 +4,15 @@
 
 package org.theta4j.ptpip.packet;
 
+import org.theta4j.ptp.io.PtpReader;
+import org.theta4j.ptp.type.PtpStringCodec;
 import org.theta4j.ptp.type.UINT16;
 import org.theta4j.util.Validators;
 
-import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
 
 /**
  * Converter for java.lang.String and PTP-IP String
@@ -22,8 +23,6 @@ final class PtpIpString {
      */
     public static final int MIN_SIZE = UINT16.SIZE_IN_BYTES;
 
-    private static final Charset CHARSET = Charset.forName("UTF-16LE");
-
     private PtpIpString() {
         throw new AssertionError();
     }
@@ -31,13 +30,15 @@ final class PtpIpString {
     public static byte[] toBytes(String str) {
         Validators.notNull("str", str);
 
-        return (str + "\u0000").getBytes(CHARSET);
+        ByteBuffer buffer = ByteBuffer.allocate(PtpStringCodec.sizeOfNullTerminated(str));
+        PtpStringCodec.writeNullTerminated(str, buffer);
+        return buffer.array();
     }
 
     public static String read(InputStream is) throws IOException {
         Validators.notNull("is", is);
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StringBuilder sb = new StringBuilder();
 
         for (; ; ) {
             int b0 = is.read();
@@ -55,10 +56,28 @@ final class PtpIpString {
                 break;
             }
 
-            baos.write(b0);
-            baos.write(b1);
+            sb.append((char) (b0 | (b1 << 8)));
+        }
+
+        return sb.toString();
+    }
+
+    public static String read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
+        StringBuilder sb = new StringBuilder();
+
+        for (; ; ) {
+            int c = reader.readUINT16().intValue();
+
+            // End with NULL?
+            if (c == 0) {
+                break;
+            }
+
+            sb.append((char) c);
         }
 
-        return new String(baos.toByteArray(), CHARSET);
+        return sb.toString();
     }
 }
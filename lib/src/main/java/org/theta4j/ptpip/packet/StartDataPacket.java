@@ -7,13 +7,15 @@ package org.theta4j.ptpip.packet;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptp.io.PtpByteBufferReader;
 import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.io.PtpReader;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.ptp.type.UINT64;
-import org.theta4j.util.ArrayUtils;
 import org.theta4j.util.Validators;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * StartData Packet defined in PTP-IP
@@ -24,8 +26,6 @@ public final class StartDataPacket extends PtpIpPacket {
     private final UINT32 transactionID;
     private final UINT64 totalDataLength;
 
-    private final byte[] payload;
-
     // Constructor
 
     public StartDataPacket(UINT32 transactionID, UINT64 totalDataLength) {
@@ -34,11 +34,6 @@ public final class StartDataPacket extends PtpIpPacket {
 
         this.transactionID = transactionID;
         this.totalDataLength = totalDataLength;
-
-        this.payload = ArrayUtils.join(
-                transactionID.bytes(),
-                totalDataLength.bytes()
-        );
     }
 
     // Static Factory Method
@@ -46,18 +41,42 @@ public final class StartDataPacket extends PtpIpPacket {
     public static StartDataPacket read(PtpInputStream pis) throws IOException {
         Validators.notNull("pis", pis);
 
+        return read((PtpReader) pis);
+    }
+
+    public static StartDataPacket read(ByteBuffer buffer) throws IOException {
+        Validators.notNull("buffer", buffer);
+
+        return read(new PtpByteBufferReader(buffer));
+    }
+
+    public static StartDataPacket read(PtpReader reader) throws IOException {
+        Validators.notNull("reader", reader);
+
         // Read Header
-        long length = pis.readUINT32().longValue();
-        long payloadLength = length - HEADER_SIZE_IN_BYTES;
-        PtpIpPacket.Type type = PtpIpPacket.Type.read(pis);
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(reader);
+
+        return read(header, reader);
+    }
+
+    /**
+     * Read the payload of StartDataPacket following the header which has been read already.
+     */
+    public static StartDataPacket read(PtpIpHeader header, PtpReader reader) throws IOException {
+        Validators.notNull("header", header);
+        Validators.notNull("reader", reader);
+
+        long payloadLength = header.getPayloadLength();
+        PtpIpPacket.Type type = header.getType();
 
         // Validate Header
         PtpIpPacketUtils.assertType(type, Type.START_DATA);
         PtpIpPacketUtils.checkLength((int) payloadLength, SIZE_IN_BYTES);
 
         // Read Body
-        UINT32 transactionID = pis.readUINT32();
-        UINT64 totalDataLength = pis.readUINT64();
+        UINT32 transactionID = reader.readUINT32();
+        UINT64 totalDataLength = reader.readUINT64();
 
         return new StartDataPacket(transactionID, totalDataLength);
     }
@@ -70,8 +89,14 @@ public final class StartDataPacket extends PtpIpPacket {
     }
 
     @Override
-    byte[] getPayload() {
-        return payload;
+    int payloadSizeInBytes() {
+        return SIZE_IN_BYTES;
+    }
+
+    @Override
+    void writePayloadTo(ByteBuffer buffer) {
+        transactionID.writeTo(buffer);
+        totalDataLength.writeTo(buffer);
     }
 
     // Getter
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ByteChannel;
+
+/**
+ * A duplex byte stream connection opened by Transport.
+ * <p>
+ * The connection is read and written as a blocking channel, or through its streams.
+ * PtpIpInitiator uses one of them according to IOMode, and never mixes them.
+ * Closing the streams closes the connection.
+ */
+public interface Connection extends ByteChannel {
+    /**
+     * Returns the stream to read the connection.
+     *
+     * @throws IOException if an I/O error occurs while creating the stream.
+     */
+    InputStream getInputStream() throws IOException;
+
+    /**
+     * Returns the stream to write the connection.
+     *
+     * @throws IOException if an I/O error occurs while creating the stream.
+     */
+    OutputStream getOutputStream() throws IOException;
+
+    /**
+     * Set the timeout of reads.
+     * A read blocked longer than the timeout throws java.net.SocketTimeoutException.
+     *
+     * @param timeout The timeout in milliseconds, or zero for no timeout.
+     * @throws IllegalArgumentException if timeout is negative.
+     * @throws IOException              if an I/O error occurs while setting the timeout.
+     */
+    void setReadTimeout(int timeout) throws IOException;
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded one-way byte pipe on a ring buffer. A writer blocks while the buffer is full,
+ * and a reader blocks while it is empty.
+ * <p>
+ * This class is thread-safe.
+ */
+final class Pipe {
+    private final byte[] buffer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // Guarded by lock
+    private int readIndex;
+    private int count;
+    private boolean readerClosed;
+    private boolean writerClosed;
+
+    Pipe(int bufferSize) {
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Read available bytes into dst, blocking until at least one byte is available.
+     *
+     * @param timeout The timeout in milliseconds, or zero for no timeout.
+     * @return The number of bytes read, or -1 if the writer is closed and all bytes are read.
+     * @throws ClosedChannelException if the reader is closed.
+     * @throws SocketTimeoutException if no byte is available within the timeout.
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    int read(ByteBuffer dst, int timeout) throws IOException {
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            for (; ; ) {
+                if (readerClosed) {
+                    throw new ClosedChannelException();
+                }
+                if (0 < count) {
+                    break;
+                }
+                if (writerClosed) {
+                    return -1;
+                }
+                if (timeout == 0) {
+                    notEmpty.await();
+                } else if (0 < nanos) {
+                    nanos = notEmpty.awaitNanos(nanos);
+                } else {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+            }
+
+            int length = Math.min(count, dst.remaining());
+            int first = Math.min(length, buffer.length - readIndex);
+            dst.put(buffer, readIndex, first);
+            dst.put(buffer, 0, length - first);
+
+            readIndex = (readIndex + length) % buffer.length;
+            count -= length;
+            notFull.signalAll();
+
+            return length;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write all remaining bytes of src, blocking while the buffer is full.
+     *
+     * @return The number of bytes written.
+     * @throws ClosedChannelException if the writer is closed.
+     * @throws IOException            if the reader is closed.
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    int write(ByteBuffer src) throws IOException {
+        int written = src.remaining();
+
+        lock.lock();
+        try {
+            while (src.hasRemaining()) {
+                if (writerClosed) {
+                    throw new ClosedChannelException();
+                }
+                if (readerClosed) {
+                    throw new IOException("Broken pipe");
+                }
+                if (count == buffer.length) {
+                    notFull.await();
+                    continue;
+                }
+
+                int writeIndex = (readIndex + count) % buffer.length;
+                int length = Math.min(src.remaining(), buffer.length - count);
+                int first = Math.min(length, buffer.length - writeIndex);
+                src.get(buffer, writeIndex, first);
+                src.get(buffer, 0, length - first);
+
+                count += length;
+                notEmpty.signalAll();
+            }
+
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the read side. Blocked readers and writers fail.
+     */
+    void closeReader() {
+        lock.lock();
+        try {
+            readerClosed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the write side. Readers read the remaining bytes, and then reach end of stream.
+     */
+    void closeWriter() {
+        lock.lock();
+        try {
+            writerClosed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
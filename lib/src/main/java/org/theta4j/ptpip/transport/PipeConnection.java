@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import org.theta4j.util.Validators;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * One end of an in-memory connection, which reads one pipe and writes the other.
+ */
+final class PipeConnection implements Connection {
+    private final Pipe inbound;
+    private final Pipe outbound;
+
+    private volatile boolean isOpen = true;
+    private volatile int readTimeout = 0;
+
+    PipeConnection(Pipe inbound, Pipe outbound) {
+        this.inbound = inbound;
+        this.outbound = outbound;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        return inbound.read(dst, readTimeout);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        return outbound.write(src);
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new InputStream() {
+            private final byte[] single = new byte[1];
+
+            @Override
+            public int read() throws IOException {
+                int n = read(single, 0, 1);
+                return n == -1 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return inbound.read(ByteBuffer.wrap(b, off, len), readTimeout);
+            }
+
+            @Override
+            public void close() {
+                PipeConnection.this.close();
+            }
+        };
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                outbound.write(ByteBuffer.wrap(b, off, len));
+            }
+
+            @Override
+            public void close() {
+                PipeConnection.this.close();
+            }
+        };
+    }
+
+    @Override
+    public void setReadTimeout(int timeout) {
+        Validators.rangeEq("timeout", timeout, 0, Integer.MAX_VALUE);
+
+        this.readTimeout = timeout;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    @Override
+    public void close() {
+        isOpen = false;
+        inbound.closeReader();
+        outbound.closeWriter();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import org.theta4j.ptpip.ConnectionOptions;
+import org.theta4j.util.Validators;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Connects to a responder in the same process through in-memory pipes.
+ * <p>
+ * Each connection is a pair of bounded pipes, and its other end is handed to the responder by accept().
+ * This transport runs the whole PTP-IP stack without kernel networking,
+ * for benchmarks and load tests. Socket options of ConnectionOptions are ignored.
+ */
+public final class PipeTransport implements Transport {
+    /**
+     * The default buffer size of each direction of a connection.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final int bufferSize;
+    private final BlockingQueue<Connection> pendingConnections = new LinkedBlockingQueue<>();
+
+    // Constructor
+
+    public PipeTransport() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize The buffer size of each direction of a connection.
+     * @throws IllegalArgumentException if bufferSize is not positive.
+     */
+    public PipeTransport(int bufferSize) {
+        Validators.rangeEq("bufferSize", bufferSize, 1, Integer.MAX_VALUE);
+
+        this.bufferSize = bufferSize;
+    }
+
+    // Transport
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The connection is established immediately, and the responder side is queued until accept() takes it.
+     */
+    @Override
+    public Connection connect(ConnectionOptions options) {
+        Validators.notNull("options", options);
+
+        Pipe toResponder = new Pipe(bufferSize);
+        Pipe toInitiator = new Pipe(bufferSize);
+
+        pendingConnections.add(new PipeConnection(toResponder, toInitiator));
+        return new PipeConnection(toInitiator, toResponder);
+    }
+
+    // Responder
+
+    /**
+     * Returns the responder side of the next connection, waiting until an initiator connects.
+     *
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public Connection accept() throws IOException {
+        try {
+            return pendingConnections.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+}
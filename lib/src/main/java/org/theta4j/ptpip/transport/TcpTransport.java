@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.theta4j.ptpip.ConnectionOptions;
+import org.theta4j.ptpip.PtpIpInitiator;
+import org.theta4j.util.Validators;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Connects to the responder by TCP.
+ * <p>
+ * Connections of IOMode.STREAM are plain Sockets, and those of IOMode.CHANNEL are SocketChannels.
+ * All socket options of ConnectionOptions are applied.
+ * Reads of SocketChannels do not time out, so the read timeout has effect on IOMode.STREAM only.
+ */
+public final class TcpTransport implements Transport {
+    private final String host;
+    private final int port;
+
+    // Constructor
+
+    /**
+     * @throws NullPointerException     if host is null.
+     * @throws IllegalArgumentException if port is not a valid port number.
+     */
+    public TcpTransport(String host, int port) {
+        Validators.notNull("host", host);
+        Validators.portNumber(port);
+
+        this.host = host;
+        this.port = port;
+    }
+
+    // Getter
+
+    /**
+     * Returns the host of the responder.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Returns the TCP port of the responder.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    // Transport
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection connect(ConnectionOptions options) throws IOException {
+        Validators.notNull("options", options);
+
+        InetSocketAddress address = new InetSocketAddress(host, port);
+
+        if (options.getIOMode() == PtpIpInitiator.IOMode.CHANNEL) {
+            SocketChannel channel = SocketChannel.open();
+            try {
+                configure(channel.socket(), options);
+                // The connect timeout is only supported by the socket adaptor.
+                channel.socket().connect(address, options.getConnectTimeout());
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            return new SocketConnection(channel.socket(), channel, channel);
+        }
+
+        Socket socket = new Socket();
+        try {
+            configure(socket, options);
+            socket.connect(address, options.getConnectTimeout());
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return new SocketConnection(
+                socket,
+                Channels.newChannel(socket.getInputStream()),
+                Channels.newChannel(socket.getOutputStream())
+        );
+    }
+
+    /**
+     * Set the socket options to the unconnected socket.
+     * Buffer sizes are set before connecting, so that the TCP window scale reflects them.
+     */
+    static void configure(Socket socket, ConnectionOptions options) throws SocketException {
+        socket.setTcpNoDelay(options.isTcpNoDelay());
+        socket.setKeepAlive(options.isKeepAlive());
+        if (options.getSendBufferSize() != ConnectionOptions.DEFAULT_VALUE) {
+            socket.setSendBufferSize(options.getSendBufferSize());
+        }
+        if (options.getReceiveBufferSize() != ConnectionOptions.DEFAULT_VALUE) {
+            socket.setReceiveBufferSize(options.getReceiveBufferSize());
+        }
+        if (options.getTrafficClass() != ConnectionOptions.DEFAULT_TRAFFIC_CLASS) {
+            socket.setTrafficClass(options.getTrafficClass());
+        }
+    }
+
+    // Basic Method
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+
+    // Inner Types
+
+    private static final class SocketConnection implements Connection {
+        private final Socket socket;
+        private final ReadableByteChannel in;
+        private final WritableByteChannel out;
+
+        SocketConnection(Socket socket, ReadableByteChannel in, WritableByteChannel out) {
+            this.socket = socket;
+            this.in = in;
+            this.out = out;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return in.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return out.write(src);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return socket.getInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return socket.getOutputStream();
+        }
+
+        @Override
+        public void setReadTimeout(int timeout) throws IOException {
+            Validators.rangeEq("timeout", timeout, 0, Integer.MAX_VALUE);
+
+            socket.setSoTimeout(timeout);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !socket.isClosed();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closes the SocketChannel as well.
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import org.theta4j.ptpip.ConnectionOptions;
+
+import java.io.IOException;
+
+/**
+ * Opens connections from PtpIpInitiator to a PTP-IP responder.
+ * <p>
+ * PtpIpInitiator opens two connections for a session, the Command Data Connection and then the Event Connection.
+ * Implementations must be thread-safe.
+ */
+public interface Transport {
+    /**
+     * Open a new connection to the responder.
+     *
+     * @param options The options of the connection. Options without meaning for the transport are ignored.
+     * @throws IOException if an I/O error occurs while connecting.
+     */
+    Connection connect(ConnectionOptions options) throws IOException;
+}
@@ -4,9 +4,6 @@
 
 package org.theta4j.util;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-
 public final class ArrayUtils {
     private ArrayUtils() {
         throw new AssertionError();
@@ -20,19 +17,13 @@ public final class ArrayUtils {
         }
 
         // Join Byte Arrays
-        final Closer closer = new Closer();
-        try {
-            final ByteArrayOutputStream baos = closer.push(new ByteArrayOutputStream(length));
-
-            for (byte[] bytes : byteArrays) {
-                baos.write(bytes);
-            }
-
-            return baos.toByteArray();
-        } catch (IOException e) {
-            throw new AssertionError(e);
-        } finally {
-            closer.close();
+        byte[] joined = new byte[length];
+        int offset = 0;
+        for (byte[] bytes : byteArrays) {
+            System.arraycopy(bytes, 0, joined, offset, bytes.length);
+            offset += bytes.length;
         }
+
+        return joined;
     }
 }
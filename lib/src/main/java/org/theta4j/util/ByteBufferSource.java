@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A source of reusable direct ByteBuffers, which are borrowed and given back.
+ */
+public interface ByteBufferSource {
+    /**
+     * Returns a direct buffer whose limit is the given size. The capacity may be larger.
+     *
+     * @param size The number of bytes required.
+     * @throws IOException              if the buffer can not be provided.
+     * @throws IllegalArgumentException if size is negative or larger than the source supports.
+     */
+    ByteBuffer acquire(int size) throws IOException;
+
+    /**
+     * Give the buffer back. The buffer must not be used after this call.
+     *
+     * @throws NullPointerException     if buffer is null.
+     * @throws IllegalArgumentException if buffer is not acquired from this source.
+     */
+    void release(ByteBuffer buffer);
+}
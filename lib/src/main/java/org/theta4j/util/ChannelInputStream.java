@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A buffered InputStream which reads a blocking channel through a direct buffer borrowed from a pool.
+ * <p>
+ * Besides the InputStream methods, it can transfer bytes from the direct buffer to a channel without heap copies.
+ * Reading methods must be called by one thread at a time, but close() may be called from any thread
+ * to abort a blocking read. The buffer is given back to the pool on close.
+ */
+public final class ChannelInputStream extends InputStream {
+    private final ReadableByteChannel channel;
+    private final ByteBufferSource pool;
+
+    /**
+     * Null after closed. The content between position and limit is not read yet.
+     */
+    private ByteBuffer buffer;
+
+    // Constructor
+
+    /**
+     * @throws NullPointerException if an argument is null.
+     */
+    public ChannelInputStream(ReadableByteChannel channel, DirectBufferPool pool) {
+        Validators.notNull("channel", channel);
+        Validators.notNull("pool", pool);
+
+        this.channel = channel;
+        this.pool = pool;
+        this.buffer = pool.acquire();
+        this.buffer.flip(); // empty
+    }
+
+    /**
+     * @param bufferSize The size of the buffer to borrow from the source.
+     * @throws NullPointerException     if an argument is null.
+     * @throws IllegalArgumentException if bufferSize is not positive.
+     * @throws IOException              if the source can not provide the buffer.
+     */
+    public ChannelInputStream(ReadableByteChannel channel, ByteBufferSource source, int bufferSize) throws IOException {
+        Validators.notNull("channel", channel);
+        Validators.notNull("source", source);
+        Validators.rangeEq("bufferSize", bufferSize, 1, Integer.MAX_VALUE);
+
+        this.channel = channel;
+        this.pool = source;
+        this.buffer = source.acquire(bufferSize);
+        this.buffer.flip(); // empty
+    }
+
+    // InputStream
+
+    @Override
+    public synchronized int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        Validators.notNull("b", b);
+        if (off < 0 || len < 0 || b.length - off < len) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!fill()) {
+            return -1;
+        }
+
+        int length = Math.min(len, buffer.remaining());
+        buffer.get(b, off, length);
+        return length;
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        return buffer == null ? 0 : buffer.remaining();
+    }
+
+    /**
+     * Close the channel and give the buffer back to the pool.
+     */
+    @Override
+    public void close() throws IOException {
+        // Close the channel first without the lock, so that a blocking read in another thread is aborted.
+        channel.close();
+
+        synchronized (this) {
+            if (buffer != null) {
+                pool.release(buffer);
+                buffer = null;
+            }
+        }
+    }
+
+    // Transfer
+
+    /**
+     * Transfer exactly count bytes to dst directly from the direct buffer.
+     * <p>
+     * If dst is a FileChannel, the buffered bytes are written first and the rest is transferred
+     * by FileChannel.transferFrom, which lets the platform move the bytes from the socket to the file.
+     *
+     * @throws EOFException if the channel reaches end of stream before count bytes are transferred.
+     */
+    public synchronized void transferTo(long count, WritableByteChannel dst) throws IOException {
+        Validators.notNull("dst", dst);
+
+        long remaining = drainTo(count, dst);
+
+        if (dst instanceof FileChannel) {
+            FileChannel fileChannel = (FileChannel) dst;
+            while (0 < remaining) {
+                long position = fileChannel.position();
+                long transferred = fileChannel.transferFrom(channel, position, remaining);
+                if (transferred <= 0) {
+                    throw new EOFException();
+                }
+                fileChannel.position(position + transferred); // transferFrom does not update the position.
+                remaining -= transferred;
+            }
+            return;
+        }
+
+        while (0 < remaining) {
+            if (!fill()) {
+                throw new EOFException();
+            }
+            remaining = drainTo(remaining, dst);
+        }
+    }
+
+    /**
+     * Read exactly count bytes into dst. The bytes not buffered yet are read from the channel directly into dst.
+     *
+     * @throws EOFException             if the channel reaches end of stream before count bytes are read.
+     * @throws IllegalArgumentException if count is negative or larger than dst.remaining().
+     */
+    public synchronized void readFully(ByteBuffer dst, int count) throws IOException {
+        Validators.notNull("dst", dst);
+        if (count < 0 || dst.remaining() < count) {
+            throw new IllegalArgumentException("count: " + count);
+        }
+
+        if (buffer == null) {
+            throw new ClosedChannelException();
+        }
+
+        int length = Math.min(count, buffer.remaining());
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + length);
+        dst.put(buffer);
+        buffer.limit(limit);
+
+        int dstLimit = dst.limit();
+        dst.limit(dst.position() + count - length);
+        try {
+            while (dst.hasRemaining()) {
+                if (channel.read(dst) == -1) {
+                    throw new EOFException();
+                }
+            }
+        } finally {
+            dst.limit(dstLimit);
+        }
+    }
+
+    // Private Method
+
+    /**
+     * Write up to count bytes buffered already to dst.
+     *
+     * @return the number of bytes not written yet.
+     */
+    private long drainTo(long count, WritableByteChannel dst) throws IOException {
+        if (buffer == null) {
+            throw new ClosedChannelException();
+        }
+
+        int length = (int) Math.min(count, buffer.remaining());
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + length);
+        try {
+            while (buffer.hasRemaining()) {
+                dst.write(buffer);
+            }
+        } finally {
+            buffer.limit(limit);
+        }
+
+        return count - length;
+    }
+
+    /**
+     * Read the channel into the buffer if the buffer is empty.
+     *
+     * @return false if the channel reached end of stream.
+     */
+    private boolean fill() throws IOException {
+        if (buffer == null) {
+            throw new ClosedChannelException();
+        }
+
+        while (!buffer.hasRemaining()) {
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+
+            if (read == -1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
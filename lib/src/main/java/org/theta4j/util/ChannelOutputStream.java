@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A buffered OutputStream which writes a blocking channel through a direct buffer borrowed from a pool.
+ * <p>
+ * Written bytes are accumulated in the direct buffer and written to the channel when the buffer is full or flushed,
+ * so that small packets of one phase are sent by one system call.
+ * Writing methods must be called by one thread at a time. The buffer is given back to the pool on close.
+ */
+public final class ChannelOutputStream extends OutputStream {
+    private final WritableByteChannel channel;
+    private final ByteBufferSource pool;
+
+    /**
+     * Null after closed. The content between zero and position is not written yet.
+     */
+    private ByteBuffer buffer;
+
+    // Constructor
+
+    /**
+     * @throws NullPointerException if an argument is null.
+     */
+    public ChannelOutputStream(WritableByteChannel channel, DirectBufferPool pool) {
+        Validators.notNull("channel", channel);
+        Validators.notNull("pool", pool);
+
+        this.channel = channel;
+        this.pool = pool;
+        this.buffer = pool.acquire();
+    }
+
+    /**
+     * @param bufferSize The size of the buffer to borrow from the source.
+     * @throws NullPointerException     if an argument is null.
+     * @throws IllegalArgumentException if bufferSize is not positive.
+     * @throws IOException              if the source can not provide the buffer.
+     */
+    public ChannelOutputStream(WritableByteChannel channel, ByteBufferSource source, int bufferSize) throws IOException {
+        Validators.notNull("channel", channel);
+        Validators.notNull("source", source);
+        Validators.rangeEq("bufferSize", bufferSize, 1, Integer.MAX_VALUE);
+
+        this.channel = channel;
+        this.pool = source;
+        this.buffer = source.acquire(bufferSize);
+        this.buffer.clear();
+    }
+
+    // OutputStream
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+        ensureOpen();
+
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        Validators.notNull("b", b);
+        if (off < 0 || len < 0 || b.length - off < len) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureOpen();
+
+        while (0 < len) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+
+            int length = Math.min(len, buffer.remaining());
+            buffer.put(b, off, length);
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+
+        drain();
+    }
+
+    /**
+     * Close the channel and give the buffer back to the pool. Bytes which are not flushed are discarded.
+     */
+    @Override
+    public void close() throws IOException {
+        // Close the channel first without the lock, so that a blocking write in another thread is aborted.
+        channel.close();
+
+        synchronized (this) {
+            if (buffer != null) {
+                pool.release(buffer);
+                buffer = null;
+            }
+        }
+    }
+
+    // Transfer
+
+    /**
+     * Write exactly count bytes read from src after the buffered bytes.
+     * <p>
+     * If src is a FileChannel, the buffered bytes are written first and the rest is transferred
+     * by FileChannel.transferTo, which lets the platform move the bytes from the file to the socket.
+     * Otherwise src is read directly into the direct buffer.
+     *
+     * @throws EOFException if src reaches end of stream before count bytes are read.
+     */
+    public synchronized void transferFrom(ReadableByteChannel src, long count) throws IOException {
+        Validators.notNull("src", src);
+
+        ensureOpen();
+
+        if (src instanceof FileChannel) {
+            drain();
+
+            FileChannel fileChannel = (FileChannel) src;
+            long remaining = count;
+            while (0 < remaining) {
+                long position = fileChannel.position();
+                long transferred = fileChannel.transferTo(position, remaining, channel);
+                if (transferred <= 0 && fileChannel.size() <= position) {
+                    throw new EOFException();
+                }
+                fileChannel.position(position + transferred); // transferTo does not update the position.
+                remaining -= transferred;
+            }
+            return;
+        }
+
+        long remaining = count;
+        while (0 < remaining) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + (int) Math.min(remaining, buffer.remaining()));
+            int read;
+            try {
+                read = src.read(buffer);
+            } finally {
+                buffer.limit(limit);
+            }
+
+            if (read == -1) {
+                throw new EOFException();
+            }
+            remaining -= read;
+        }
+    }
+
+    // Private Method
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+}
@@ -8,6 +8,12 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.Stack;
 
+/**
+ * Closes the pushed Closeables in the reverse order.
+ * <p>
+ * The Closer must be closed explicitly, typically in a finally block.
+ * Prefer try-with-resources, and avoid wrapping in-memory streams at all on hot paths.
+ */
 public final class Closer implements Closeable {
     private boolean isClosed;
     private final Stack<Closeable> closeables = new Stack<>();
@@ -38,13 +44,4 @@ public final class Closer implements Closeable {
             }
         }
     }
-
-    @Override
-    protected void finalize() throws Throwable {
-        if (!isClosed) {
-            close();
-        }
-
-        super.finalize();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct ByteBuffers of the same capacity.
+ * <p>
+ * Allocating direct buffers is expensive and their memory is released only by GC,
+ * so connections borrow buffers from the pool and give them back when closed.
+ * This class is thread-safe.
+ */
+public final class DirectBufferPool implements ByteBufferSource {
+    private final int bufferSize;
+    private final int maxPooled;
+
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    // Constructor
+
+    /**
+     * @param bufferSize The capacity of buffers in bytes.
+     * @param maxPooled  The max number of idle buffers kept by the pool.
+     * @throws IllegalArgumentException if bufferSize is not positive or maxPooled is negative.
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        Validators.rangeEq("bufferSize", bufferSize, 1, Integer.MAX_VALUE);
+        Validators.rangeEq("maxPooled", maxPooled, 0, Integer.MAX_VALUE);
+
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    // Getter
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns the number of idle buffers in the pool.
+     */
+    public int pooledCount() {
+        return pooled.get();
+    }
+
+    // Pool
+
+    /**
+     * Returns a cleared direct buffer, which is taken from the pool or newly allocated.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = poll();
+
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Returns a direct buffer whose limit is the given size, which is taken from the pool or newly allocated.
+     *
+     * @throws IllegalArgumentException if size is negative or larger than the buffer size.
+     */
+    @Override
+    public ByteBuffer acquire(int size) {
+        Validators.rangeEq("size", size, 0, bufferSize);
+
+        ByteBuffer buffer = acquire();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Returns a cleared idle buffer, or null if the pool is empty. A new buffer is never allocated.
+     */
+    public ByteBuffer poll() {
+        ByteBuffer buffer = buffers.poll();
+
+        if (buffer == null) {
+            return null;
+        }
+
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Give the buffer back to the pool. The buffer must not be used after this call.
+     * The buffer is dropped if the pool is full.
+     *
+     * @throws NullPointerException     if buffer is null.
+     * @throws IllegalArgumentException if buffer is not a direct buffer of this pool's capacity.
+     */
+    @Override
+    public void release(ByteBuffer buffer) {
+        offer(buffer);
+    }
+
+    /**
+     * Give the buffer back to the pool, same as release.
+     *
+     * @return true if the buffer is kept by the pool, or false if it is dropped because the pool is full.
+     * @throws NullPointerException     if buffer is null.
+     * @throws IllegalArgumentException if buffer is not a direct buffer of this pool's capacity.
+     */
+    public boolean offer(ByteBuffer buffer) {
+        Validators.notNull("buffer", buffer);
+
+        if (!buffer.isDirect() || buffer.capacity() != bufferSize) {
+            throw new IllegalArgumentException("buffer is not acquired from this pool: " + buffer);
+        }
+
+        if (maxPooled < pooled.incrementAndGet()) {
+            pooled.decrementAndGet();
+            return false;
+        }
+
+        buffer.clear();
+        buffers.offer(buffer);
+        return true;
+    }
+}
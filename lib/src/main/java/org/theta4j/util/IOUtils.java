@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+public final class IOUtils {
+    private IOUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Read exactly b.length bytes from the stream into b.
+     *
+     * @throws EOFException if the stream ends before b is filled.
+     */
+    public static void readFully(InputStream is, byte[] b) throws IOException {
+        Validators.notNull("b", b);
+
+        readFully(is, b, 0, b.length);
+    }
+
+    /**
+     * Read exactly len bytes from the stream into b, starting at off.
+     *
+     * @throws EOFException if the stream ends before len bytes are read.
+     */
+    public static void readFully(InputStream is, byte[] b, int off, int len) throws IOException {
+        Validators.notNull("is", is);
+        Validators.notNull("b", b);
+
+        int end = off + len;
+        while (off < end) {
+            int read = is.read(b, off, end - off);
+            if (read == -1) {
+                throw new EOFException();
+            }
+            off += read;
+        }
+    }
+}
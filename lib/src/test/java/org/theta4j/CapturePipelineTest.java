@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+public class CapturePipelineTest {
+    private final CapturePipeline.Builder builder = new CapturePipeline.Builder(Paths.get("."));
+
+    @Test(expected = NullPointerException.class)
+    public void withNullDirectory() {
+        // act
+        new CapturePipeline.Builder(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroMaxPendingObjects() {
+        // act
+        builder.maxPendingObjects(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeCaptureTimeout() {
+        // act
+        builder.captureTimeout(-1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullTimeUnit() {
+        // act
+        builder.captureTimeout(1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeShotCount() {
+        // act
+        builder.shotCount(-1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullListener() {
+        // act
+        builder.listener(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void startWithNullTheta() {
+        // act
+        builder.start(null);
+    }
+}
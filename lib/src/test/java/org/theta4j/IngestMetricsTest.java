@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class IngestMetricsTest {
+    @Test
+    public void recordStage() {
+        // given
+        IngestMetrics metrics = new IngestMetrics();
+
+        // act
+        metrics.recordStage(IngestMetrics.Stage.DOWNLOAD, 30);
+        metrics.recordStage(IngestMetrics.Stage.DOWNLOAD, 50);
+        metrics.recordStage(IngestMetrics.Stage.DOWNLOAD, 20);
+
+        // verify
+        assertThat(metrics.getCount(IngestMetrics.Stage.DOWNLOAD), is(3L));
+        assertThat(metrics.getTotalNanos(IngestMetrics.Stage.DOWNLOAD), is(100L));
+        assertThat(metrics.getMaxNanos(IngestMetrics.Stage.DOWNLOAD), is(50L));
+        assertThat(metrics.getCount(IngestMetrics.Stage.CAPTURE), is(0L));
+    }
+
+    @Test
+    public void recordIngest() throws InterruptedException {
+        // given
+        IngestMetrics metrics = new IngestMetrics();
+
+        // act
+        metrics.recordIngest(100);
+        metrics.recordIngest(200);
+        Thread.sleep(1);
+
+        // verify
+        assertThat(metrics.getIngestCount(), is(2L));
+        assertThat(metrics.getIngestedBytes(), is(300L));
+        assertTrue(0 < metrics.getObjectsPerMinute());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getCountOfNull() {
+        // act
+        new IngestMetrics().getCount(null);
+    }
+}
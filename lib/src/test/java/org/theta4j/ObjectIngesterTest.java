@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.Test;
+import org.theta4j.ptp.type.UINT32;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ObjectIngesterTest {
+    private final IngestMetrics metrics = new IngestMetrics();
+    private final ObjectIngester ingester = new ObjectIngester(null, Paths.get("."), 2, ObjectIngester.NULL_LISTENER, metrics);
+
+    @Test
+    public void offerUntilFull() throws InterruptedException {
+        // act
+        boolean actual1 = ingester.offer(new UINT32(1));
+        boolean actual2 = ingester.offer(new UINT32(2));
+        boolean actual3 = ingester.offer(new UINT32(3));
+        Thread.sleep(1);
+
+        // verify
+        assertThat(actual1, is(true));
+        assertThat(actual2, is(true));
+        assertThat(actual3, is(false));
+        assertThat(ingester.getQueueDepth(), is(2));
+        assertTrue(0 < ingester.getLagNanos());
+    }
+
+    @Test
+    public void noLagWhenEmpty() {
+        // verify
+        assertThat(ingester.getLagNanos(), is(0L));
+    }
+
+    @Test
+    public void finishWhenEmpty() {
+        // arrange
+        ingester.finish();
+
+        // act
+        ingester.run();
+
+        // verify
+        assertThat(metrics.getIngestCount(), is(0L));
+    }
+
+    @Test
+    public void failureDoesNotStopIngesting() throws InterruptedException {
+        // given (the session throws NullPointerException)
+        ingester.put(new UINT32(1));
+        ingester.put(new UINT32(2));
+        ingester.finish();
+
+        // act
+        ingester.run();
+
+        // verify
+        assertThat(metrics.getIngestFailureCount(), is(2L));
+        assertThat(ingester.getQueueDepth(), is(0));
+    }
+
+    @Test
+    public void file() throws IOException {
+        // verify
+        assertThat(ingester.file("R0010001.JPG", 0), is(Paths.get(".", "R0010001.JPG")));
+        assertThat(ingester.file("DCIM/100RICOH/R0010001.JPG", 0), is(Paths.get(".", "R0010001.JPG")));
+        assertThat(ingester.file("../../R0010001.JPG", 0), is(Paths.get(".", "R0010001.JPG")));
+    }
+
+    @Test
+    public void sequenceFile() throws IOException {
+        // arrange
+        ingester.setSequence("frame_", 0);
+
+        // verify
+        assertThat(ingester.file("../R0010001.JPG", 12), is(Paths.get(".", "frame_000012.JPG")));
+    }
+
+    @Test
+    public void fileOutsideOfDirectory() {
+        for (String name : new String[]{"", ".", "..", "../..", "R0010001\u0000.JPG"}) {
+            try {
+                // act
+                ingester.file(name, 0);
+                fail(name);
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void awaitResult() throws Exception {
+        // given
+        FutureTask<Integer> future = new FutureTask<>(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return 1;
+            }
+        });
+        future.run();
+
+        // verify
+        assertThat(ObjectIngester.await(future), is(1));
+    }
+
+    @Test
+    public void awaitFailure() throws InterruptedException {
+        // given
+        FutureTask<Integer> future = new FutureTask<>(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                throw new IllegalStateException("broken");
+            }
+        });
+        future.run();
+
+        // act
+        try {
+            ObjectIngester.await(future);
+            fail();
+        } catch (IOException e) {
+            // verify
+            assertThat(e.getCause() instanceof IllegalStateException, is(true));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+public class OperationFutureTest {
+    private static final class RecordingCallback implements OperationCallback<Object> {
+        final AtomicReference<Object> result = new AtomicReference<>();
+        final AtomicReference<Throwable> cause = new AtomicReference<>();
+
+        @Override
+        public void onSuccess(Object result) {
+            this.result.set(result);
+        }
+
+        @Override
+        public void onFailure(Throwable cause) {
+            this.cause.set(cause);
+        }
+    }
+
+    private static OperationFuture<Object> futureOf(final Object result) {
+        return new OperationFuture<>(new Callable<Object>() {
+            @Override
+            public Object call() {
+                return result;
+            }
+        });
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void addNullCallback() {
+        // act
+        futureOf("a").addCallback(null);
+    }
+
+    @Test
+    public void callbackOnSuccess() {
+        // given
+        OperationFuture<Object> future = futureOf("a");
+        RecordingCallback callback = new RecordingCallback();
+
+        // act
+        future.addCallback(callback);
+        future.run();
+
+        // verify
+        assertThat(callback.result.get(), is((Object) "a"));
+        assertNull(callback.cause.get());
+    }
+
+    @Test
+    public void callbackAfterDone() {
+        // given
+        OperationFuture<Object> future = futureOf("a");
+        RecordingCallback callback = new RecordingCallback();
+        future.run();
+
+        // act
+        future.addCallback(callback);
+
+        // verify
+        assertThat(callback.result.get(), is((Object) "a"));
+    }
+
+    @Test
+    public void callbackOnFailure() {
+        // given
+        OperationFuture<Object> future = new OperationFuture<>(new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                throw new IOException("broken");
+            }
+        });
+        RecordingCallback callback = new RecordingCallback();
+
+        // act
+        future.addCallback(callback);
+        future.run();
+
+        // verify
+        assertThat(callback.cause.get(), is(instanceOf(IOException.class)));
+    }
+
+    @Test
+    public void callbackOnCancel() {
+        // given
+        OperationFuture<Object> future = futureOf("a");
+        RecordingCallback callback = new RecordingCallback();
+        future.addCallback(callback);
+
+        // act
+        future.cancel(true);
+        future.run();
+
+        // verify
+        assertThat(callback.cause.get(), is(instanceOf(CancellationException.class)));
+        assertNull(callback.result.get());
+    }
+
+    @Test
+    public void failingCallbackDoesNotAffectOthers() {
+        // given
+        OperationFuture<Object> future = futureOf("a");
+        RecordingCallback callback = new RecordingCallback();
+        future.addCallback(new OperationCallback<Object>() {
+            @Override
+            public void onSuccess(Object result) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+            }
+        });
+        future.addCallback(callback);
+
+        // act
+        future.run();
+
+        // verify
+        assertThat(callback.result.get(), is((Object) "a"));
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OperationQueueTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Callable<Integer> append(final List<Integer> list, final int value, final AtomicInteger running) {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() throws InterruptedException {
+                if (running.incrementAndGet() != 1) {
+                    throw new AssertionError("operations overlap");
+                }
+                Thread.sleep(1);
+                list.add(value);
+                running.decrementAndGet();
+                return value;
+            }
+        };
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void submitNull() {
+        // act
+        new OperationQueue(executor).submit(OperationPriority.METADATA, null, null);
+    }
+
+    @Test
+    public void runInOrderOneByOne() throws Exception {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+        List<Integer> actual = Collections.synchronizedList(new ArrayList<Integer>());
+        AtomicInteger running = new AtomicInteger();
+
+        // act
+        OperationFuture<Integer> last = null;
+        for (int i = 0; i < 20; i++) {
+            last = queue.submit(OperationPriority.METADATA, null, append(actual, i, running));
+        }
+
+        // verify
+        assertThat(last.get(5, TimeUnit.SECONDS), is(19));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void shareExecutor() throws Exception {
+        // given
+        OperationQueue queue1 = new OperationQueue(executor);
+        OperationQueue queue2 = new OperationQueue(executor);
+        List<Integer> actual1 = Collections.synchronizedList(new ArrayList<Integer>());
+        List<Integer> actual2 = Collections.synchronizedList(new ArrayList<Integer>());
+        AtomicInteger running1 = new AtomicInteger();
+        AtomicInteger running2 = new AtomicInteger();
+
+        // act
+        OperationFuture<Integer> last1 = null;
+        OperationFuture<Integer> last2 = null;
+        for (int i = 0; i < 10; i++) {
+            last1 = queue1.submit(OperationPriority.METADATA, null, append(actual1, i, running1));
+            last2 = queue2.submit(OperationPriority.METADATA, null, append(actual2, i, running2));
+        }
+
+        // verify
+        assertThat(last1.get(5, TimeUnit.SECONDS), is(9));
+        assertThat(last2.get(5, TimeUnit.SECONDS), is(9));
+        assertThat(actual1.size(), is(10));
+        assertThat(actual2.size(), is(10));
+    }
+
+    @Test
+    public void withOwnThread() throws Exception {
+        // given
+        OperationQueue queue = new OperationQueue(null);
+
+        // act
+        OperationFuture<Boolean> actual = queue.submit(OperationPriority.METADATA, null, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return Thread.currentThread().isDaemon();
+            }
+        });
+
+        // verify
+        assertThat(actual.get(5, TimeUnit.SECONDS), is(true));
+        queue.close();
+    }
+
+    @Test
+    public void failure() throws InterruptedException {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+
+        // act
+        OperationFuture<Object> actual = queue.submit(OperationPriority.METADATA, null, new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                throw new IOException("broken");
+            }
+        });
+        OperationFuture<Integer> next = queue.submit(OperationPriority.METADATA, null, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return 1;
+            }
+        });
+
+        // verify
+        try {
+            actual.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(IOException.class)));
+        }
+        try {
+            assertThat(next.get(), is(1));
+        } catch (ExecutionException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void closeCancelsPendingOperations() throws Exception {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        OperationFuture<Integer> running = queue.submit(OperationPriority.METADATA, null, new Callable<Integer>() {
+            @Override
+            public Integer call() throws InterruptedException {
+                started.countDown();
+                release.await();
+                return 1;
+            }
+        });
+        OperationFuture<Integer> pending = queue.submit(OperationPriority.METADATA, null, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return 2;
+            }
+        });
+        started.await();
+
+        // act
+        queue.close();
+        release.countDown();
+
+        // verify
+        assertThat(running.get(5, TimeUnit.SECONDS), is(1));
+        assertTrue(pending.isCancelled());
+        assertThat(queue.pendingCount(), is(0));
+    }
+
+    @Test
+    public void submitAfterClose() throws InterruptedException {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+        queue.close();
+
+        // act
+        OperationFuture<Integer> actual = queue.submit(OperationPriority.METADATA, null, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return 1;
+            }
+        });
+
+        // verify
+        try {
+            actual.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(IOException.class)));
+        }
+    }
+
+    @Test
+    public void rejectedByExecutor() throws InterruptedException {
+        // given
+        executor.shutdown();
+        OperationQueue queue = new OperationQueue(executor);
+
+        // act
+        OperationFuture<Integer> actual = queue.submit(OperationPriority.METADATA, null, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return 1;
+            }
+        });
+
+        // verify
+        assertTrue(actual.isDone());
+        assertThat(queue.pendingCount(), is(0));
+    }
+
+    private static OperationFuture<Integer> block(OperationQueue queue, final CountDownLatch started, final CountDownLatch release) {
+        return queue.submit(OperationPriority.CONTROL, null, new Callable<Integer>() {
+            @Override
+            public Integer call() throws InterruptedException {
+                started.countDown();
+                release.await();
+                return -1;
+            }
+        });
+    }
+
+    @Test
+    public void runByPriority() throws Exception {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        block(queue, started, release);
+        started.await();
+
+        List<Integer> actual = Collections.synchronizedList(new ArrayList<Integer>());
+        AtomicInteger running = new AtomicInteger();
+
+        // act
+        OperationFuture<Integer> bulk = queue.submit(OperationPriority.BULK, null, append(actual, 3, running));
+        queue.submit(OperationPriority.THUMBNAIL, null, append(actual, 2, running));
+        queue.submit(OperationPriority.METADATA, null, append(actual, 1, running));
+        queue.submit(OperationPriority.CONTROL, null, append(actual, 0, running));
+        release.countDown();
+
+        // verify
+        assertThat(bulk.get(5, TimeUnit.SECONDS), is(3));
+        assertThat(actual, is(Arrays.asList(0, 1, 2, 3)));
+    }
+
+    @Test
+    public void takeCallersInTurn() throws Exception {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        block(queue, started, release);
+        started.await();
+
+        List<Integer> actual = Collections.synchronizedList(new ArrayList<Integer>());
+        AtomicInteger running = new AtomicInteger();
+        Object caller1 = new Object();
+        Object caller2 = new Object();
+
+        // act
+        queue.submit(OperationPriority.METADATA, caller1, append(actual, 10, running));
+        queue.submit(OperationPriority.METADATA, caller1, append(actual, 11, running));
+        queue.submit(OperationPriority.METADATA, caller1, append(actual, 12, running));
+        queue.submit(OperationPriority.METADATA, caller2, append(actual, 20, running));
+        OperationFuture<Integer> last = queue.submit(OperationPriority.METADATA, caller2, append(actual, 21, running));
+        release.countDown();
+
+        // verify
+        last.get(5, TimeUnit.SECONDS);
+        assertThat(queue.submit(OperationPriority.BULK, null, append(actual, 99, running)).get(5, TimeUnit.SECONDS), is(99));
+        assertThat(actual, is(Arrays.asList(10, 20, 11, 21, 12, 99)));
+    }
+
+    @Test
+    public void preempt() throws Exception {
+        // given
+        final OperationQueue queue = new OperationQueue(executor);
+        final List<Integer> actual = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final AtomicLong bulkDepth = new AtomicLong();
+
+        OperationFuture<Boolean> bulk = queue.submit(OperationPriority.BULK, null, new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws InterruptedException {
+                started.countDown();
+                submitted.await();
+                boolean hasWaiting = queue.hasWaitingAbove(OperationPriority.BULK);
+
+                // act
+                int ran = queue.preempt(OperationPriority.BULK);
+
+                actual.add(ran);
+                bulkDepth.set(queue.getMetrics().getDepth(OperationPriority.BULK));
+                return hasWaiting && !queue.hasWaitingAbove(OperationPriority.BULK);
+            }
+        });
+        started.await();
+        queue.submit(OperationPriority.BULK, null, append(actual, 30, running));
+        queue.submit(OperationPriority.THUMBNAIL, null, append(actual, 20, running));
+        queue.submit(OperationPriority.CONTROL, null, append(actual, 10, running));
+        submitted.countDown();
+
+        // verify
+        assertThat(bulk.get(5, TimeUnit.SECONDS), is(true));
+        assertThat(actual, is(Arrays.asList(10, 20, 2)));
+        assertThat(queue.getMetrics().getPreemptCount(), is(1L));
+        assertThat(bulkDepth.get(), is(1L));
+    }
+
+    @Test
+    public void cancelledWhileWaiting() throws Exception {
+        // given
+        final OperationQueue queue = new OperationQueue(executor);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+
+        OperationFuture<Boolean> bulk = queue.submit(OperationPriority.BULK, null, new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws InterruptedException {
+                started.countDown();
+                cancelled.await();
+
+                // act
+                return queue.hasWaitingAbove(OperationPriority.BULK);
+            }
+        });
+        started.await();
+        queue.submit(OperationPriority.CONTROL, null, new Callable<Void>() {
+            @Override
+            public Void call() {
+                throw new AssertionError("cancelled operation ran");
+            }
+        }).cancel(false);
+        cancelled.countDown();
+
+        // verify
+        assertThat(bulk.get(5, TimeUnit.SECONDS), is(false));
+        assertThat(queue.getMetrics().getDepth(OperationPriority.CONTROL), is(0L));
+        assertThat(queue.pendingCount(), is(0));
+    }
+
+    @Test
+    public void hasWaitingAboveControl() {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+
+        // verify
+        assertThat(queue.hasWaitingAbove(OperationPriority.CONTROL), is(false));
+    }
+
+    @Test
+    public void metrics() throws Exception {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        block(queue, started, release);
+        started.await();
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+
+        // act
+        queue.submit(OperationPriority.THUMBNAIL, null, append(list, 1, running));
+        OperationFuture<Integer> last = queue.submit(OperationPriority.THUMBNAIL, null, append(list, 2, running));
+        OperationQueueMetrics actual = queue.getMetrics();
+
+        // verify
+        assertThat(actual.getDepth(OperationPriority.THUMBNAIL), is(2L));
+        assertThat(actual.getDepth(), is(2L));
+        assertThat(queue.hasWaitingAbove(OperationPriority.BULK), is(true));
+        assertThat(queue.hasWaitingAbove(OperationPriority.THUMBNAIL), is(false));
+
+        Thread.sleep(10);
+        release.countDown();
+        last.get(5, TimeUnit.SECONDS);
+
+        assertThat(actual.getDepth(), is(0L));
+        assertThat(actual.getStartCount(OperationPriority.CONTROL), is(1L));
+        assertThat(actual.getStartCount(OperationPriority.THUMBNAIL), is(2L));
+        assertTrue(TimeUnit.MILLISECONDS.toNanos(10) <= actual.getMaxWaitNanos(OperationPriority.THUMBNAIL));
+        assertTrue(actual.getMaxWaitNanos(OperationPriority.THUMBNAIL) <= actual.getTotalWaitNanos(OperationPriority.THUMBNAIL));
+    }
+
+    @Test
+    public void closeResetsDepth() throws Exception {
+        // given
+        OperationQueue queue = new OperationQueue(executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        block(queue, started, release);
+        started.await();
+        queue.submit(OperationPriority.BULK, null, append(new ArrayList<Integer>(), 1, new AtomicInteger()));
+
+        // act
+        queue.close();
+        release.countDown();
+
+        // verify
+        assertThat(queue.getMetrics().getDepth(), is(0L));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.After;
+import org.junit.Test;
+import org.theta4j.ptp.PtpException;
+import org.theta4j.ptp.code.EventCode;
+import org.theta4j.ptp.code.ResponseCode;
+import org.theta4j.ptp.data.Event;
+import org.theta4j.ptp.type.UINT32;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class PendingCaptureTableTest {
+    private static final UINT32 SESSION_ID = new UINT32(1);
+    private static final UINT32 TRANSACTION_ID_1 = new UINT32(10);
+    private static final UINT32 TRANSACTION_ID_2 = new UINT32(11);
+    private static final UINT32 OBJECT_HANDLE_1 = new UINT32(100);
+    private static final UINT32 OBJECT_HANDLE_2 = new UINT32(101);
+
+    private final PendingCaptureTable table = new PendingCaptureTable();
+
+    @After
+    public void tearDown() {
+        table.close();
+    }
+
+    private static Event objectAdded(UINT32 objectHandle) {
+        return new Event(EventCode.OBJECT_ADDED.value(), SESSION_ID, UINT32.ZERO, objectHandle);
+    }
+
+    private static Event captureComplete(UINT32 transactionID) {
+        return new Event(EventCode.CAPTURE_COMPLETE.value(), SESSION_ID, UINT32.ZERO, transactionID);
+    }
+
+    private static Throwable causeOf(OperationFuture<?> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("The future completed normally.");
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (TimeoutException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void complete() throws Exception {
+        // given
+        PendingCaptureTable.Capture capture = table.open(0, TimeUnit.SECONDS);
+        table.assign(capture, TRANSACTION_ID_1);
+
+        // act
+        table.onEvent(objectAdded(OBJECT_HANDLE_1));
+        assertFalse(capture.future.isDone());
+        table.onEvent(captureComplete(TRANSACTION_ID_1));
+
+        // verify
+        assertThat(capture.future.get(), is(OBJECT_HANDLE_1));
+        assertThat(table.pendingCount(), is(0));
+    }
+
+    @Test
+    public void overlappedCaptures() throws Exception {
+        // given
+        PendingCaptureTable.Capture capture1 = table.open(0, TimeUnit.SECONDS);
+        table.assign(capture1, TRANSACTION_ID_1);
+        PendingCaptureTable.Capture capture2 = table.open(0, TimeUnit.SECONDS);
+        table.assign(capture2, TRANSACTION_ID_2);
+
+        // act
+        table.onEvent(objectAdded(OBJECT_HANDLE_1));
+        table.onEvent(objectAdded(OBJECT_HANDLE_2));
+        table.onEvent(captureComplete(TRANSACTION_ID_2));
+        table.onEvent(captureComplete(TRANSACTION_ID_1));
+
+        // verify
+        assertThat(capture1.future.get(), is(OBJECT_HANDLE_1));
+        assertThat(capture2.future.get(), is(OBJECT_HANDLE_2));
+    }
+
+    @Test
+    public void completeBeforeAssign() throws Exception {
+        // given
+        PendingCaptureTable.Capture capture = table.open(0, TimeUnit.SECONDS);
+        table.onEvent(objectAdded(OBJECT_HANDLE_1));
+        table.onEvent(captureComplete(TRANSACTION_ID_1));
+
+        // act
+        table.assign(capture, TRANSACTION_ID_1);
+
+        // verify
+        assertThat(capture.future.get(), is(OBJECT_HANDLE_1));
+    }
+
+    @Test
+    public void storeFull() throws Exception {
+        // given
+        PendingCaptureTable.Capture capture = table.open(0, TimeUnit.SECONDS);
+        table.assign(capture, TRANSACTION_ID_1);
+
+        // act
+        table.onEvent(new Event(EventCode.STORE_FULL.value(), SESSION_ID, TRANSACTION_ID_1));
+
+        // verify
+        Throwable actual = causeOf(capture.future);
+        assertThat(actual, is(instanceOf(PtpException.class)));
+        assertThat(((PtpException) actual).value(), is(ResponseCode.STORE_FULL.value()));
+    }
+
+    @Test
+    public void unknownTransaction() throws IOException {
+        // given
+        PendingCaptureTable.Capture capture = table.open(0, TimeUnit.SECONDS);
+        table.assign(capture, TRANSACTION_ID_1);
+
+        // act
+        table.onEvent(captureComplete(TRANSACTION_ID_2));
+
+        // verify
+        assertFalse(capture.future.isDone());
+        assertThat(table.pendingCount(), is(1));
+    }
+
+    @Test
+    public void deadline() throws Exception {
+        // given
+        PendingCaptureTable.Capture capture = table.open(10, TimeUnit.MILLISECONDS);
+        table.assign(capture, TRANSACTION_ID_1);
+
+        // verify
+        assertThat(causeOf(capture.future), is(instanceOf(TimeoutException.class)));
+        assertThat(table.pendingCount(), is(0));
+    }
+
+    @Test
+    public void abandon() throws Exception {
+        // given
+        PendingCaptureTable.Capture capture = table.open(0, TimeUnit.SECONDS);
+
+        // act
+        table.abandon(capture, new IOException("broken"));
+
+        // verify
+        assertThat(causeOf(capture.future), is(instanceOf(IOException.class)));
+        assertThat(table.pendingCount(), is(0));
+    }
+
+    @Test
+    public void close() throws Exception {
+        // given
+        PendingCaptureTable.Capture capture = table.open(1, TimeUnit.MINUTES);
+        table.assign(capture, TRANSACTION_ID_1);
+
+        // act
+        table.close();
+
+        // verify
+        assertThat(causeOf(capture.future), is(instanceOf(IOException.class)));
+        try {
+            table.open(0, TimeUnit.SECONDS);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTimeout() throws IOException {
+        // act
+        table.open(-1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.theta4j.ptp.PtpException;
+import org.theta4j.ptp.code.EventCode;
+import org.theta4j.ptp.code.OperationCode;
+import org.theta4j.ptp.code.ResponseCode;
+import org.theta4j.ptp.type.DataType;
+import org.theta4j.ptp.type.UINT16;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT64;
+import org.theta4j.ptpip.ConnectionOptions;
+import org.theta4j.ptpip.FakeResponder;
+import org.theta4j.ptpip.packet.EndDataPacket;
+import org.theta4j.ptpip.packet.EventPacket;
+import org.theta4j.ptpip.packet.OperationRequestPacket;
+import org.theta4j.ptpip.packet.OperationResponsePacket;
+import org.theta4j.ptpip.packet.StartDataPacket;
+import org.theta4j.ptpip.transport.PipeTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(Enclosed.class)
+public class ThetaTest {
+    private static final UINT32 OBJECT_HANDLE_1 = new UINT32(100);
+    private static final UINT32 OBJECT_HANDLE_2 = new UINT32(101);
+
+    /**
+     * A session with a FakeResponder, whose OpenSession is the transaction 0.
+     */
+    public abstract static class WithResponder {
+        FakeResponder responder;
+        Theta theta;
+
+        @Before
+        public void setUp() throws IOException {
+            PipeTransport transport = new PipeTransport();
+            responder = new FakeResponder(transport);
+            replyOK(UINT32.ZERO);
+            theta = connect(transport);
+        }
+
+        Theta connect(PipeTransport transport) throws IOException {
+            return new Theta(transport, ConnectionOptions.DEFAULT);
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            responder.close();
+            try {
+                theta.close();
+            } catch (IOException e) {
+                // CloseSession is not answered.
+            }
+        }
+
+        void replyOK(UINT32 transactionID) {
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), transactionID));
+        }
+
+        void replyError(UINT32 transactionID) {
+            responder.reply(new OperationResponsePacket(ResponseCode.INVALID_OBJECT_HANDLE.value(), transactionID));
+        }
+
+        void replyData(UINT32 transactionID, byte[] data) {
+            responder.reply(
+                    new StartDataPacket(transactionID, new UINT64(data.length)),
+                    new EndDataPacket(transactionID, data),
+                    new OperationResponsePacket(ResponseCode.OK.value(), transactionID)
+            );
+        }
+
+        /**
+         * Waits until the thread is blocked on the monitor of the Theta, which is held by the current thread.
+         */
+        void awaitBlockedOnTheta(Thread thread) throws InterruptedException {
+            String lockName = theta.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(theta));
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            for (; ; ) {
+                ThreadInfo info = threadMXBean.getThreadInfo(thread.getId());
+                if (info != null && info.getThreadState() == Thread.State.BLOCKED && lockName.equals(info.getLockName())) {
+                    return;
+                }
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    /**
+     * Retrieves an object into a file which exists.
+     */
+    public abstract static class WithFile extends WithResponder {
+        static final byte[] OLD_DATA = new byte[]{0x01, 0x02, 0x03};
+        static final byte[] NEW_DATA = new byte[]{0x04, 0x05, 0x06, 0x07};
+
+        @Rule
+        public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+        Path file;
+
+        @Before
+        public void createFile() throws IOException {
+            file = temporaryFolder.getRoot().toPath().resolve("R0010001.JPG");
+            Files.write(file, OLD_DATA);
+        }
+
+        void assertOnlyFile(byte[] data) throws IOException {
+            assertThat(Files.readAllBytes(file), is(data));
+            assertThat(temporaryFolder.getRoot().list().length, is(1));
+        }
+    }
+
+    public static class GetObjectMapped extends WithFile {
+        @Test
+        public void replace() throws IOException {
+            // arrange
+            replyData(new UINT32(1), NEW_DATA);
+
+            // act
+            MappedByteBuffer actual = theta.getObjectMapped(OBJECT_HANDLE_1, file);
+
+            // verify
+            assertThat(actual.remaining(), is(NEW_DATA.length));
+            assertOnlyFile(NEW_DATA);
+        }
+
+        @Test
+        public void keepFileOnFailure() throws IOException {
+            // arrange
+            replyError(new UINT32(1));
+
+            // act
+            try {
+                theta.getObjectMapped(OBJECT_HANDLE_1, file);
+                fail();
+            } catch (PtpException e) {
+                // verify
+                assertThat(e.value(), is(ResponseCode.INVALID_OBJECT_HANDLE.value()));
+            }
+
+            // verify
+            assertOnlyFile(OLD_DATA);
+        }
+    }
+
+    public static class GetObjectPreemptibly extends WithResponder {
+        private static final byte[] DATA = new byte[]{0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+        private static final UINT32 NUM_OBJECTS = new UINT32(42);
+
+        private final ByteArrayOutputStream dst = new ByteArrayOutputStream();
+        private volatile Thread operationThread;
+
+        @Override
+        Theta connect(PipeTransport transport) throws IOException {
+            Executor executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    operationThread = new Thread(runnable);
+                    operationThread.setDaemon(true);
+                    return operationThread;
+                }
+            });
+            return new Theta(transport, ConnectionOptions.DEFAULT, executor);
+        }
+
+        /**
+         * Retrieves the object by the transaction 1, while GetNumObjects of higher priority is queued,
+         * which preempts the transfer before the first packet of the data.
+         */
+        private OperationFuture<Void> getObjectPreempted(UINT16 responseCode, byte[] data) throws Exception {
+            UINT32 transactionID = new UINT32(1);
+            responder.reply(
+                    new StartDataPacket(transactionID, new UINT64(data.length)),
+                    new EndDataPacket(transactionID, data),
+                    new OperationResponsePacket(responseCode, transactionID)
+            );
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), new UINT32(2), NUM_OBJECTS));
+
+            OperationFuture<Void> transfer;
+            OperationFuture<Long> numObjects;
+            synchronized (theta) {
+                transfer = theta.getObjectAsync(OBJECT_HANDLE_1, dst);
+                while (operationThread == null) {
+                    Thread.sleep(1);
+                }
+                awaitBlockedOnTheta(operationThread);
+                numObjects = theta.getNumObjectsAsync();
+            }
+
+            assertThat(numObjects.get(5, TimeUnit.SECONDS), is(NUM_OBJECTS.longValue()));
+            return transfer;
+        }
+
+        private UINT16 nextOperationCode() throws InterruptedException {
+            return responder.takeOperationRequest().getOperationCode();
+        }
+
+        @Test
+        public void resumeAfterTransactionCancelled() throws Exception {
+            // act
+            OperationFuture<Void> transfer = getObjectPreempted(ResponseCode.TRANSACTION_CANCELLED.value(), DATA);
+            replyData(new UINT32(3), DATA);
+            transfer.get(5, TimeUnit.SECONDS);
+
+            // verify
+            assertThat(dst.toByteArray(), is(DATA));
+            nextOperationCode();
+            assertThat(nextOperationCode(), is(OperationCode.GET_OBJECT.value()));
+            assertThat(nextOperationCode(), is(OperationCode.GET_NUM_OBJECTS.value()));
+            assertThat(nextOperationCode(), is(OperationCode.GET_OBJECT.value()));
+        }
+
+        @Test
+        public void notResumedOnceReceived() throws Exception {
+            // act
+            OperationFuture<Void> transfer = getObjectPreempted(ResponseCode.OK.value(), new byte[0]);
+            transfer.get(5, TimeUnit.SECONDS);
+            replyOK(new UINT32(3));
+            theta.deleteObject(OBJECT_HANDLE_1);
+
+            // verify
+            nextOperationCode();
+            assertThat(nextOperationCode(), is(OperationCode.GET_OBJECT.value()));
+            assertThat(nextOperationCode(), is(OperationCode.GET_NUM_OBJECTS.value()));
+            assertThat(nextOperationCode(), is(OperationCode.DELETE_OBJECT.value()));
+        }
+
+        @Test
+        public void failOnOtherResponse() throws Exception {
+            // act
+            OperationFuture<Void> transfer = getObjectPreempted(ResponseCode.GENERAL_ERROR.value(), DATA);
+            try {
+                transfer.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                // verify
+                assertThat(((PtpException) e.getCause()).value(), is(ResponseCode.GENERAL_ERROR.value()));
+            }
+            replyOK(new UINT32(3));
+            theta.deleteObject(OBJECT_HANDLE_1);
+
+            // verify
+            nextOperationCode();
+            assertThat(nextOperationCode(), is(OperationCode.GET_OBJECT.value()));
+            assertThat(nextOperationCode(), is(OperationCode.GET_NUM_OBJECTS.value()));
+            assertThat(nextOperationCode(), is(OperationCode.DELETE_OBJECT.value()));
+        }
+    }
+
+    public static class GetObjectAsyncToFile extends WithFile {
+        @Test
+        public void replace() throws Exception {
+            // arrange
+            replyData(new UINT32(1), NEW_DATA);
+
+            // act
+            theta.getObjectAsync(OBJECT_HANDLE_1, file).get(5, TimeUnit.SECONDS);
+
+            // verify
+            assertOnlyFile(NEW_DATA);
+        }
+
+        @Test
+        public void keepFileOnFailure() throws Exception {
+            // arrange
+            replyError(new UINT32(1));
+
+            // act
+            try {
+                theta.getObjectAsync(OBJECT_HANDLE_1, file).get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                // verify
+                assertThat(((PtpException) e.getCause()).value(), is(ResponseCode.INVALID_OBJECT_HANDLE.value()));
+            }
+
+            // verify
+            assertOnlyFile(OLD_DATA);
+        }
+    }
+
+    public static class GetObjectToFile extends WithFile {
+        @Test
+        public void replace() throws IOException {
+            // arrange
+            replyData(new UINT32(1), NEW_DATA);
+
+            // act
+            theta.getObject(OBJECT_HANDLE_1, file);
+
+            // verify
+            assertOnlyFile(NEW_DATA);
+        }
+
+        @Test
+        public void keepFileOnFailure() throws IOException {
+            // arrange
+            replyError(new UINT32(1));
+
+            // act
+            try {
+                theta.getObject(OBJECT_HANDLE_1, file);
+                fail();
+            } catch (PtpException e) {
+                // verify
+                assertThat(e.value(), is(ResponseCode.INVALID_OBJECT_HANDLE.value()));
+            }
+
+            // verify
+            assertOnlyFile(OLD_DATA);
+        }
+    }
+
+    public static class StartCapture extends WithResponder {
+        private void captured(UINT32 objectHandle, UINT32 transactionID) throws IOException {
+            responder.sendEvent(new EventPacket(EventCode.OBJECT_ADDED.value(), UINT32.ZERO, objectHandle));
+            responder.sendEvent(new EventPacket(EventCode.CAPTURE_COMPLETE.value(), UINT32.ZERO, transactionID));
+        }
+
+        @Test
+        public void concurrentCaptures() throws Exception {
+            // arrange
+            replyOK(new UINT32(1));
+            replyOK(new UINT32(2));
+
+            final AtomicReference<OperationFuture<UINT32>> laterCapture = new AtomicReference<>();
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        laterCapture.set(theta.startCapture(0, TimeUnit.SECONDS));
+                    } catch (IOException e) {
+                        // verified by the null future
+                    }
+                }
+            });
+
+            // act
+            // The other thread calls startCapture first, but the current thread sends InitiateCapture first.
+            OperationFuture<UINT32> earlierCapture;
+            synchronized (theta) {
+                thread.start();
+                awaitBlockedOnTheta(thread);
+                earlierCapture = theta.startCapture(0, TimeUnit.SECONDS);
+            }
+            thread.join(5000);
+
+            captured(OBJECT_HANDLE_1, new UINT32(1));
+            captured(OBJECT_HANDLE_2, new UINT32(2));
+
+            // verify
+            assertThat(earlierCapture.get(5, TimeUnit.SECONDS), is(OBJECT_HANDLE_1));
+            assertThat(laterCapture.get().get(5, TimeUnit.SECONDS), is(OBJECT_HANDLE_2));
+        }
+    }
+
+    public static class InitiateCaptureAsync extends WithResponder {
+        // The operations of the queue, which are run by the test.
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+        @Override
+        Theta connect(PipeTransport transport) throws IOException {
+            Executor executor = new Executor() {
+                @Override
+                public void execute(Runnable task) {
+                    tasks.add(task);
+                }
+            };
+            return new Theta(transport, ConnectionOptions.DEFAULT, executor);
+        }
+
+        @Test
+        public void cancelBeforeInitiateCapture() throws Exception {
+            // arrange
+            replyOK(new UINT32(1));
+            replyOK(new UINT32(2));
+            OperationFuture<UINT32> capture = theta.initiateCaptureAsync();
+
+            // act
+            capture.cancel(false);
+            for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                task.run();
+            }
+            theta.deleteObject(OBJECT_HANDLE_1);
+
+            // verify
+            responder.takeOperationRequest();
+            OperationRequestPacket request = responder.takeOperationRequest();
+            assertThat(request.getOperationCode(), is(OperationCode.DELETE_OBJECT.value()));
+            assertThat(request.getTransactionID(), is(new UINT32(1)));
+        }
+    }
+
+    public static class DeviceProperty extends WithResponder {
+        @Test
+        public void getDevicePropValueAsync() throws Exception {
+            // arrange
+            replyData(new UINT32(1), new byte[]{0x02, 0x00});
+
+            // act
+            Object actual = theta.getDevicePropValueAsync(DevicePropCode.WHITE_BALANCE, DataType.UINT16).get(5, TimeUnit.SECONDS);
+
+            // verify
+            assertThat(actual, is((Object) UINT16.valueOf(2)));
+            responder.takeOperationRequest();
+            OperationRequestPacket request = responder.takeOperationRequest();
+            assertThat(request.getOperationCode(), is(OperationCode.GET_DEVICE_PROP_VALUE.value()));
+            assertThat(request.getP1(), is(new UINT32(0x5005)));
+        }
+
+        @Test
+        public void setDevicePropValueAsync() throws Exception {
+            // arrange
+            replyOK(new UINT32(1));
+
+            // act
+            theta.setDevicePropValueAsync(DevicePropCode.WHITE_BALANCE, UINT16.valueOf(2)).get(5, TimeUnit.SECONDS);
+
+            // verify
+            responder.takeOperationRequest();
+            OperationRequestPacket request = responder.takeOperationRequest();
+            assertThat(request.getOperationCode(), is(OperationCode.SET_DEVICE_PROP_VALUE.value()));
+            assertThat(request.getP1(), is(new UINT32(0x5005)));
+            assertThat(responder.takeData(), is(new byte[]{0x02, 0x00}));
+        }
+
+        @Test
+        public void setStringDevicePropValueAsync() throws Exception {
+            // arrange
+            replyOK(new UINT32(1));
+
+            // act
+            theta.setDevicePropValueAsync(DevicePropCode.DATE_TIME, "A").get(5, TimeUnit.SECONDS);
+
+            // verify
+            responder.takeOperationRequest();
+            OperationRequestPacket request = responder.takeOperationRequest();
+            assertThat(request.getOperationCode(), is(OperationCode.SET_DEVICE_PROP_VALUE.value()));
+            assertThat(request.getP1(), is(new UINT32(0x5011)));
+            // The value is terminated by an extra null character as the other string properties.
+            assertThat(responder.takeData(), is(new byte[]{0x03, 0x41, 0x00, 0x00, 0x00, 0x00, 0x00}));
+        }
+    }
+}
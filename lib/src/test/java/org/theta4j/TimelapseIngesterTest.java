@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j;
+
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+public class TimelapseIngesterTest {
+    private final TimelapseIngester.Builder builder = new TimelapseIngester.Builder(Paths.get("."));
+
+    @Test(expected = NullPointerException.class)
+    public void withNullDirectory() {
+        // act
+        new TimelapseIngester.Builder(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroMaxPendingFrames() {
+        // act
+        builder.maxPendingFrames(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullFileNamePrefix() {
+        // act
+        builder.fileNamePrefix(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeFirstIndex() {
+        // act
+        builder.firstIndex(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeInterval() {
+        // act
+        builder.interval(-1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void startWithNullTheta() {
+        // act
+        builder.start(null);
+    }
+}
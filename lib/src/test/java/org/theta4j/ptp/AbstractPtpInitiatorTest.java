@@ -10,11 +10,22 @@ import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 import org.theta4j.ptp.code.Code;
 import org.theta4j.ptp.code.OperationCode;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.theta4j.ptp.type.STR;
 import org.theta4j.ptp.type.UINT16;
 import org.theta4j.ptp.type.UINT32;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
 @RunWith(Enclosed.class)
@@ -90,4 +101,100 @@ public class AbstractPtpInitiatorTest {
                     P1, P2, P3, P4, UINT32.ZERO);
         }
     }
+
+    public static class ReceiveData extends Base {
+        @Test
+        public void toChannel() throws IOException {
+            // given
+            WritableByteChannel dst = Channels.newChannel(new ByteArrayOutputStream());
+
+            // act
+            sub.receiveData(dst);
+
+            // verify
+            verify(sub).receiveData(any(OutputStream.class));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void toNullChannel() throws IOException {
+            // act
+            sub.receiveData((WritableByteChannel) null);
+        }
+
+        @Test
+        public void asBuffer() throws IOException {
+            // act
+            sub.receiveDataAsBuffer();
+
+            // verify
+            verify(sub).receiveDataAsBuffer(DataBufferAllocator.HEAP);
+        }
+
+        @Test
+        public void asBufferFromOutputStream() throws IOException {
+            // given
+            final byte[] given = new byte[]{0x01, 0x02, 0x03};
+
+            // arrange
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) throws IOException {
+                    ((OutputStream) invocation.getArguments()[0]).write(given);
+                    return null;
+                }
+            }).when(sub).receiveData(any(OutputStream.class));
+
+            // act
+            ByteBuffer actual = sub.receiveDataAsBuffer();
+
+            // verify
+            assertThat(actual.capacity(), is(given.length));
+            assertThat(actual.array(), is(given));
+        }
+
+        @Test
+        public void asInputStream() throws IOException {
+            // given
+            ByteBuffer given = ByteBuffer.wrap(new byte[]{0x00, 0x01, 0x02, 0x03});
+            given.position(1);
+
+            // arrange
+            doReturn(given).when(sub).receiveDataAsBuffer(DataBufferAllocator.HEAP);
+
+            // act
+            InputStream actual = sub.receiveData();
+
+            // verify
+            assertThat(actual.read(), is(0x01));
+            assertThat(actual.available(), is(2));
+        }
+    }
+
+    public static class GetDevicePropValue extends Base {
+        @Test
+        public void asUINT16() throws IOException {
+            // arrange
+            doReturn(ByteBuffer.wrap(new byte[]{0x34, 0x12})).when(sub).receiveDataAsBuffer(DataBufferAllocator.HEAP);
+            doReturn(null).when(sub).checkAndReadResponse();
+
+            // act
+            UINT16 actual = sub.getDevicePropValueAsUINT16(OPERATION_CODE);
+
+            // verify
+            assertThat(actual, is(new UINT16(0x1234)));
+        }
+
+        @Test
+        public void asString() throws IOException {
+            // arrange
+            doReturn(ByteBuffer.wrap(STR.toBytes("ab"))).when(sub).receiveDataAsBuffer(DataBufferAllocator.HEAP);
+            doReturn(null).when(sub).checkAndReadResponse();
+
+            // act
+            String actual = sub.getDevicePropValueAsString(OPERATION_CODE);
+
+            // verify
+            assertThat(actual, is("ab"));
+        }
+    }
 }
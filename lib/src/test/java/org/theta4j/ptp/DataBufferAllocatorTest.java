@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class DataBufferAllocatorTest {
+    @Test
+    public void heap() throws IOException {
+        // act
+        ByteBuffer actual = DataBufferAllocator.HEAP.allocate(10);
+
+        // verify
+        assertThat(actual.hasArray(), is(true));
+        assertThat(actual.array().length, is(10));
+        assertThat(actual.remaining(), is(10));
+    }
+
+    @Test(expected = IOException.class)
+    public void heapWithUnknownLength() throws IOException {
+        // act
+        DataBufferAllocator.HEAP.allocate(-1);
+    }
+
+    @Test(expected = IOException.class)
+    public void heapWithTooLargeLength() throws IOException {
+        // act
+        DataBufferAllocator.HEAP.allocate(Integer.MAX_VALUE);
+    }
+}
@@ -5,8 +5,12 @@
 package org.theta4j.ptp;
 
 import org.junit.Test;
+import org.theta4j.ptp.type.UINT32;
 
 import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -43,4 +47,31 @@ public class TransactionIDIteratorTest {
         // Skip 0xFFFF_FFFFL because that is reserved.
         assertThat(iterator.next().longValue(), is(1L));
     }
+
+    @Test
+    public void concurrent() throws InterruptedException {
+        // given
+        final TransactionIDIterator iterator = new TransactionIDIterator();
+        final Set<UINT32> actual = Collections.newSetFromMap(new ConcurrentHashMap<UINT32, Boolean>());
+        Thread[] threads = new Thread[4];
+
+        // act
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        actual.add(iterator.next());
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // verify
+        assertThat(actual.size(), is(40000));
+    }
 }
@@ -13,6 +13,7 @@ import org.theta4j.util.ArrayUtils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -224,6 +225,60 @@ public class DeviceInfoTest {
         assertThat(actual, is(expected));
     }
 
+    @Test
+    public void readFromByteBuffer() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                STANDARD_VERSION.bytes(),
+                VENDOR_EXTENSION_ID.bytes(),
+                VENDOR_EXTENSION_VERSION.bytes(),
+                STR.toBytes(VENDOR_EXTENSION_DESC),
+                FUNCTIONAL_MODE.bytes(),
+                UINT32.ZERO.bytes(),
+                UINT32.ZERO.bytes(),
+                UINT32.ZERO.bytes(),
+                UINT32.ZERO.bytes(),
+                UINT32.ZERO.bytes(),
+                STR.toBytes(MANUFACTURER),
+                STR.toBytes(MODEL),
+                STR.toBytes(DEVICE_VERSION),
+                STR.toBytes(SERIAL_NUMBER)
+        );
+
+        // expected
+        DeviceInfo expected = new DeviceInfo(
+                STANDARD_VERSION, VENDOR_EXTENSION_ID, VENDOR_EXTENSION_VERSION, VENDOR_EXTENSION_DESC,
+                FUNCTIONAL_MODE, OPERATIONS_SUPPORTED, EVENTS_SUPPORTED, DEVICE_PROPERTIES_SUPPORTED,
+                CAPTURE_FORMATS, IMAGE_FORMATS, MANUFACTURER, MODEL, DEVICE_VERSION, SERIAL_NUMBER);
+
+        // arrange
+        ByteBuffer givenBuffer = ByteBuffer.wrap(given);
+
+        // act
+        DeviceInfo actual = DeviceInfo.read(givenBuffer);
+
+        // verify
+        assertThat(givenBuffer.remaining(), is(0));
+        assertThat(actual, is(expected));
+    }
+
+    // bytes
+
+    @Test
+    public void bytesAndRead() throws IOException {
+        // given
+        DeviceInfo given = new DeviceInfo(
+                STANDARD_VERSION, VENDOR_EXTENSION_ID, VENDOR_EXTENSION_VERSION, VENDOR_EXTENSION_DESC,
+                FUNCTIONAL_MODE, LIST_1, LIST_2, LIST_1, LIST_2, LIST_1, MANUFACTURER, MODEL, DEVICE_VERSION, SERIAL_NUMBER);
+
+        // act
+        byte[] actual = given.bytes();
+
+        // verify
+        assertThat(actual.length, is(given.sizeInBytes()));
+        assertThat(DeviceInfo.read(ByteBuffer.wrap(actual)), is(given));
+    }
+
     // hashCode
 
     @Test
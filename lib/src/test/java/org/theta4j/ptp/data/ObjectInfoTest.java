@@ -14,6 +14,7 @@ import org.theta4j.util.ArrayUtils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -309,6 +310,91 @@ public class ObjectInfoTest {
         assertThat(actual, is(expected));
     }
 
+    @Test
+    public void readFromByteBuffer() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                STORAGE_ID.bytes(),
+                OBJECT_FORMAT.bytes(),
+                PROTECTION_STATUS.value().bytes(),
+                OBJECT_COMPRESSED_SIZE.bytes(),
+                THUMB_FORMAT.bytes(),
+                THUMB_COMPRESSED_SIZE.bytes(),
+                THUMB_PIX_WIDTH.bytes(),
+                THUMB_PIX_HEIGHT.bytes(),
+                IMAGE_PIX_WIDTH.bytes(),
+                IMAGE_PIX_HEIGHT.bytes(),
+                IMAGE_BIT_DEPTH.bytes(),
+                PARENT_OBJECT.bytes(),
+                ASSOCIATION_TYPE.bytes(),
+                ASSOCIATION_DESC.bytes(),
+                SEQUENCE_NUMBER.bytes(),
+                STR.toBytes(FILE_NAME),
+                STR.toBytes(CAPTURE_DATE),
+                STR.toBytes(MODIFICATION_DATE),
+                STR.toBytes(KEYWORDS)
+        );
+
+        // expected
+        ObjectInfo expected = new ObjectInfo(STORAGE_ID, OBJECT_FORMAT, PROTECTION_STATUS, OBJECT_COMPRESSED_SIZE,
+                THUMB_FORMAT, THUMB_COMPRESSED_SIZE, THUMB_PIX_WIDTH, THUMB_PIX_HEIGHT,
+                IMAGE_PIX_WIDTH, IMAGE_PIX_HEIGHT, IMAGE_BIT_DEPTH, PARENT_OBJECT,
+                ASSOCIATION_TYPE, ASSOCIATION_DESC, SEQUENCE_NUMBER, FILE_NAME,
+                CAPTURE_DATE, MODIFICATION_DATE, KEYWORDS);
+
+        // arrange
+        ByteBuffer givenBuffer = ByteBuffer.wrap(given);
+
+        // act
+        ObjectInfo actual = ObjectInfo.read(givenBuffer);
+
+        // verify
+        assertThat(givenBuffer.remaining(), is(0));
+        assertThat(actual, is(expected));
+    }
+
+    // bytes
+
+    @Test
+    public void bytes() {
+        // given
+        ObjectInfo given = new ObjectInfo(STORAGE_ID, OBJECT_FORMAT, PROTECTION_STATUS, OBJECT_COMPRESSED_SIZE,
+                THUMB_FORMAT, THUMB_COMPRESSED_SIZE, THUMB_PIX_WIDTH, THUMB_PIX_HEIGHT,
+                IMAGE_PIX_WIDTH, IMAGE_PIX_HEIGHT, IMAGE_BIT_DEPTH, PARENT_OBJECT,
+                ASSOCIATION_TYPE, ASSOCIATION_DESC, SEQUENCE_NUMBER, FILE_NAME,
+                CAPTURE_DATE, MODIFICATION_DATE, KEYWORDS);
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                STORAGE_ID.bytes(),
+                OBJECT_FORMAT.bytes(),
+                PROTECTION_STATUS.value().bytes(),
+                OBJECT_COMPRESSED_SIZE.bytes(),
+                THUMB_FORMAT.bytes(),
+                THUMB_COMPRESSED_SIZE.bytes(),
+                THUMB_PIX_WIDTH.bytes(),
+                THUMB_PIX_HEIGHT.bytes(),
+                IMAGE_PIX_WIDTH.bytes(),
+                IMAGE_PIX_HEIGHT.bytes(),
+                IMAGE_BIT_DEPTH.bytes(),
+                PARENT_OBJECT.bytes(),
+                ASSOCIATION_TYPE.bytes(),
+                ASSOCIATION_DESC.bytes(),
+                SEQUENCE_NUMBER.bytes(),
+                STR.toBytes(FILE_NAME),
+                STR.toBytes(CAPTURE_DATE),
+                STR.toBytes(MODIFICATION_DATE),
+                STR.toBytes(KEYWORDS)
+        );
+
+        // act
+        byte[] actual = given.bytes();
+
+        // verify
+        assertThat(actual, is(expected));
+        assertThat(given.sizeInBytes(), is(expected.length));
+    }
+
     // hashCode
 
     @Test
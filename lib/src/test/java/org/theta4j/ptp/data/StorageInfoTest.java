@@ -14,6 +14,7 @@ import org.theta4j.util.ArrayUtils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -136,6 +137,63 @@ public class StorageInfoTest {
         assertThat(actual, is(expected));
     }
 
+    @Test
+    public void readFromByteBuffer() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                STORAGE_TYPE.bytes(),
+                FILE_SYSTEM_TYPE.bytes(),
+                ACCESS_CAPABILITY.bytes(),
+                MAX_CAPACITY.bytes(),
+                FREE_SPACE_IN_BYTES.bytes(),
+                FREE_SPACE_IN_IMAGES.bytes(),
+                STR.toBytes(STORAGE_DESCRIPTION),
+                STR.toBytes(VOLUME_LABEL)
+        );
+
+        // expected
+        StorageInfo expected = new StorageInfo(STORAGE_TYPE, FILE_SYSTEM_TYPE, ACCESS_CAPABILITY, MAX_CAPACITY,
+                FREE_SPACE_IN_BYTES, FREE_SPACE_IN_IMAGES, STORAGE_DESCRIPTION, VOLUME_LABEL);
+
+        // arrange
+        ByteBuffer givenBuffer = ByteBuffer.wrap(given);
+
+        // act
+        StorageInfo actual = StorageInfo.read(givenBuffer);
+
+        // verify
+        assertThat(givenBuffer.remaining(), is(0));
+        assertThat(actual, is(expected));
+    }
+
+    // bytes
+
+    @Test
+    public void bytes() {
+        // given
+        StorageInfo given = new StorageInfo(STORAGE_TYPE, FILE_SYSTEM_TYPE, ACCESS_CAPABILITY, MAX_CAPACITY,
+                FREE_SPACE_IN_BYTES, FREE_SPACE_IN_IMAGES, STORAGE_DESCRIPTION, VOLUME_LABEL);
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                STORAGE_TYPE.bytes(),
+                FILE_SYSTEM_TYPE.bytes(),
+                ACCESS_CAPABILITY.bytes(),
+                MAX_CAPACITY.bytes(),
+                FREE_SPACE_IN_BYTES.bytes(),
+                FREE_SPACE_IN_IMAGES.bytes(),
+                STR.toBytes(STORAGE_DESCRIPTION),
+                STR.toBytes(VOLUME_LABEL)
+        );
+
+        // act
+        byte[] actual = given.bytes();
+
+        // verify
+        assertThat(actual, is(expected));
+        assertThat(given.sizeInBytes(), is(expected.length));
+    }
+
     // hashCode
 
     @Test
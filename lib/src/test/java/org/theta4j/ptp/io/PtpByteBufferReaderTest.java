@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.io;
+
+import org.junit.Test;
+import org.theta4j.ptp.type.*;
+import org.theta4j.util.ArrayUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PtpByteBufferReaderTest {
+    // Constructor
+
+    @Test(expected = NullPointerException.class)
+    public void withNull() {
+        // act
+        new PtpByteBufferReader(null);
+    }
+
+    @Test
+    public void setsLittleEndian() {
+        // given
+        ByteBuffer given = ByteBuffer.allocate(0).order(ByteOrder.BIG_ENDIAN);
+
+        // act
+        PtpByteBufferReader reader = new PtpByteBufferReader(given);
+
+        // verify
+        assertThat(reader.buffer().order(), is(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    // read PtpInteger
+
+    @Test
+    public void readIntegers() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                INT8.MIN_VALUE.bytes(),
+                UINT8.MAX_VALUE.bytes(),
+                INT16.MIN_VALUE.bytes(),
+                UINT16.MAX_VALUE.bytes(),
+                INT32.MIN_VALUE.bytes(),
+                UINT32.MAX_VALUE.bytes(),
+                INT64.MIN_VALUE.bytes(),
+                UINT64.MAX_VALUE.bytes(),
+                INT128.MIN_VALUE.bytes(),
+                UINT128.MAX_VALUE.bytes()
+        );
+
+        // arrange
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+
+        // act & verify
+        assertThat(reader.readINT8(), is(INT8.MIN_VALUE));
+        assertThat(reader.readUINT8(), is(UINT8.MAX_VALUE));
+        assertThat(reader.readINT16(), is(INT16.MIN_VALUE));
+        assertThat(reader.readUINT16(), is(UINT16.MAX_VALUE));
+        assertThat(reader.readINT32(), is(INT32.MIN_VALUE));
+        assertThat(reader.readUINT32(), is(UINT32.MAX_VALUE));
+        assertThat(reader.readINT64(), is(INT64.MIN_VALUE));
+        assertThat(reader.readUINT64(), is(UINT64.MAX_VALUE));
+        assertThat(reader.readINT128(), is(INT128.MIN_VALUE));
+        assertThat(reader.readUINT128(), is(UINT128.MAX_VALUE));
+        assertThat(reader.remaining(), is(0));
+    }
+
+    @Test
+    public void readFromDirectBuffer() throws IOException {
+        // given
+        ByteBuffer given = ByteBuffer.allocateDirect(UINT32.SIZE_IN_BYTES);
+        given.put(new UINT32(0x12345678).bytes());
+        given.flip();
+
+        // act
+        UINT32 actual = new PtpByteBufferReader(given).readUINT32();
+
+        // verify
+        assertThat(actual, is(new UINT32(0x12345678)));
+    }
+
+    @Test(expected = EOFException.class)
+    public void readTooShortInteger() throws IOException {
+        // given
+        ByteBuffer given = ByteBuffer.wrap(new byte[UINT32.SIZE_IN_BYTES - 1]);
+
+        // act
+        new PtpByteBufferReader(given).readUINT32();
+    }
+
+    // get PtpInteger
+
+    @Test
+    public void getIntegers() {
+        // given
+        byte[] given = ArrayUtils.join(
+                INT8.MIN_VALUE.bytes(),
+                UINT8.MAX_VALUE.bytes(),
+                INT16.MIN_VALUE.bytes(),
+                UINT16.MAX_VALUE.bytes(),
+                INT32.MIN_VALUE.bytes(),
+                UINT32.MAX_VALUE.bytes(),
+                INT64.MIN_VALUE.bytes(),
+                UINT64.MAX_VALUE.bytes()
+        );
+
+        // arrange
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+
+        // act & verify
+        assertThat(reader.getINT8(0), is(INT8.MIN_VALUE));
+        assertThat(reader.getUINT8(1), is(UINT8.MAX_VALUE));
+        assertThat(reader.getINT16(2), is(INT16.MIN_VALUE));
+        assertThat(reader.getUINT16(4), is(UINT16.MAX_VALUE));
+        assertThat(reader.getINT32(6), is(INT32.MIN_VALUE));
+        assertThat(reader.getUINT32(10), is(UINT32.MAX_VALUE));
+        assertThat(reader.getINT64(14), is(INT64.MIN_VALUE));
+        assertThat(reader.getUINT64(22), is(UINT64.MAX_VALUE));
+        assertThat(reader.position(), is(0));
+    }
+
+    @Test
+    public void getUINT64LargerThanLong() {
+        // given
+        UINT64 given = new UINT64(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE));
+
+        // act
+        UINT64 actual = new PtpByteBufferReader(ByteBuffer.wrap(given.bytes())).getUINT64(0);
+
+        // verify
+        assertThat(actual, is(given));
+    }
+
+    // read Array
+
+    @Test
+    public void readAUINT16() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                new UINT32(2).bytes(),
+                UINT16.MIN_VALUE.bytes(),
+                UINT16.MAX_VALUE.bytes()
+        );
+
+        // expected
+        List<UINT16> expected = Arrays.asList(UINT16.MIN_VALUE, UINT16.MAX_VALUE);
+
+        // act
+        List<UINT16> actual = new PtpByteBufferReader(ByteBuffer.wrap(given)).readAUINT16();
+
+        // verify
+        assertThat(actual, is(expected));
+    }
+
+    @Test(expected = EOFException.class)
+    public void readTooLongArray() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                UINT32.MAX_VALUE.bytes(),
+                UINT16.MIN_VALUE.bytes()
+        );
+
+        // act
+        new PtpByteBufferReader(ByteBuffer.wrap(given)).readAUINT16();
+    }
+
+    @Test
+    public void readUINT32Array() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                new UINT32(2).bytes(),
+                UINT32.MIN_VALUE.bytes(),
+                UINT32.MAX_VALUE.bytes(),
+                UINT8.MAX_VALUE.bytes()
+        );
+
+        // arrange
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+
+        // act
+        UINT32Array actual = reader.readUINT32Array();
+
+        // verify
+        assertThat(actual, is(new UINT32Array(0, 0xFFFFFFFFL)));
+        assertThat(reader.readUINT8(), is(UINT8.MAX_VALUE));
+    }
+
+    // read String
+
+    @Test
+    public void readString() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                STR.toBytes("theta4j"),
+                STR.toBytes("")
+        );
+
+        // arrange
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+
+        // act & verify
+        assertThat(reader.readString(), is("theta4j"));
+        assertThat(reader.readString(), is(""));
+        assertThat(reader.remaining(), is(0));
+    }
+
+    @Test(expected = EOFException.class)
+    public void readTooShortString() throws IOException {
+        // given
+        byte[] given = new byte[]{3, 'a', 0};
+
+        // act
+        new PtpByteBufferReader(ByteBuffer.wrap(given)).readString();
+    }
+
+    // readAs
+
+    @Test
+    public void readAs() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                UINT16.MAX_VALUE.bytes(),
+                new UINT32(1).bytes(),
+                INT8.MIN_VALUE.bytes(),
+                STR.toBytes("theta4j")
+        );
+
+        // arrange
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+
+        // act & verify
+        assertThat(reader.readAs(DataType.UINT16), is((Object) UINT16.MAX_VALUE));
+        assertThat(reader.readAs(DataType.AINT8), is((Object) Arrays.asList(INT8.MIN_VALUE)));
+        assertThat(reader.readAs(DataType.STR), is((Object) "theta4j"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readAsUndefined() throws IOException {
+        // act
+        new PtpByteBufferReader(ByteBuffer.allocate(0)).readAs(DataType.UNDEF);
+    }
+
+    // readFully
+
+    @Test(expected = EOFException.class)
+    public void readFullyTooShort() throws IOException {
+        // act
+        new PtpByteBufferReader(ByteBuffer.allocate(1)).readFully(new byte[2]);
+    }
+
+    // readSlice
+
+    @Test
+    public void readSlice() throws IOException {
+        // given
+        byte[] given = new byte[]{0x01, 0x02, 0x03, 0x04};
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+        reader.readINT8();
+
+        // act
+        ByteBuffer actual = reader.readSlice(2);
+
+        // verify
+        assertThat(actual.remaining(), is(2));
+        assertThat(actual.get(0), is((byte) 0x02));
+        assertThat(actual.get(1), is((byte) 0x03));
+        assertThat(reader.position(), is(3));
+        given[1] = 0x7F;
+        assertThat(actual.get(0), is((byte) 0x7F));
+    }
+
+    @Test(expected = EOFException.class)
+    public void readSliceTooShort() throws IOException {
+        // act
+        new PtpByteBufferReader(ByteBuffer.allocate(1)).readSlice(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readSliceNegativeLength() throws IOException {
+        // act
+        new PtpByteBufferReader(ByteBuffer.allocate(1)).readSlice(-1);
+    }
+
+    // skip
+
+    @Test
+    public void skip() throws IOException {
+        // given
+        byte[] given = new byte[]{0x01, 0x02, 0x03, 0x04};
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+        reader.readINT8();
+
+        // act
+        int actual = reader.skip(2);
+
+        // verify
+        assertThat(actual, is(1));
+        assertThat(reader.position(), is(3));
+        assertThat(reader.getUINT16(actual), is(new UINT16(0x0302)));
+    }
+
+    @Test(expected = EOFException.class)
+    public void skipTooShort() throws IOException {
+        // act
+        new PtpByteBufferReader(ByteBuffer.allocate(1)).skip(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void skipNegativeLength() throws IOException {
+        // act
+        new PtpByteBufferReader(ByteBuffer.allocate(1)).skip(-1);
+    }
+}
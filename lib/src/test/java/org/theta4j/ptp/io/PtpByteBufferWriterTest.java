@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.io;
+
+import org.junit.Test;
+import org.theta4j.ptp.type.*;
+import org.theta4j.util.ArrayUtils;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PtpByteBufferWriterTest {
+    // Constructor
+
+    @Test(expected = NullPointerException.class)
+    public void withNull() {
+        // act
+        new PtpByteBufferWriter(null);
+    }
+
+    // write PtpInteger
+
+    @Test
+    public void writeIntegers() {
+        // expected
+        byte[] expected = ArrayUtils.join(
+                INT8.MIN_VALUE.bytes(),
+                UINT16.MAX_VALUE.bytes(),
+                UINT32.MAX_VALUE.bytes(),
+                UINT64.MAX_VALUE.bytes(),
+                INT128.MIN_VALUE.bytes()
+        );
+
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        PtpByteBufferWriter writer = new PtpByteBufferWriter(buffer);
+
+        // act
+        writer.write(INT8.MIN_VALUE);
+        writer.write(UINT16.MAX_VALUE);
+        writer.write(UINT32.MAX_VALUE);
+        writer.write(UINT64.MAX_VALUE);
+        writer.write(INT128.MIN_VALUE);
+
+        // verify
+        assertThat(buffer.array(), is(expected));
+        assertThat(writer.position(), is(expected.length));
+    }
+
+    @Test
+    public void writeToBigEndianBuffer() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(UINT32.SIZE_IN_BYTES).order(ByteOrder.BIG_ENDIAN);
+
+        // act
+        new UINT32(0x12345678).writeTo(buffer);
+
+        // verify
+        assertThat(buffer.array(), is(new UINT32(0x12345678).bytes()));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void writeToTooSmallBuffer() {
+        // act
+        new PtpByteBufferWriter(ByteBuffer.allocate(1)).write(UINT16.MAX_VALUE);
+    }
+
+    @Test
+    public void put() {
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate(UINT32.SIZE_IN_BYTES + UINT16.SIZE_IN_BYTES);
+        PtpByteBufferWriter writer = new PtpByteBufferWriter(buffer);
+        writer.write(UINT32.ZERO);
+
+        // act
+        writer.put(0, UINT32.MAX_VALUE);
+
+        // verify
+        assertThat(writer.position(), is(UINT32.SIZE_IN_BYTES));
+        assertThat(new PtpByteBufferReader(buffer).getUINT32(0), is(UINT32.MAX_VALUE));
+    }
+
+    // write Array
+
+    @Test
+    public void writeArray() {
+        // expected
+        byte[] expected = ArrayUtils.join(
+                new UINT32(2).bytes(),
+                UINT16.MIN_VALUE.bytes(),
+                UINT16.MAX_VALUE.bytes()
+        );
+
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+
+        // act
+        new PtpByteBufferWriter(buffer).writeArray(Arrays.asList(UINT16.MIN_VALUE, UINT16.MAX_VALUE));
+
+        // verify
+        assertThat(buffer.array(), is(expected));
+    }
+
+    // write String
+
+    @Test
+    public void writeString() {
+        // expected
+        byte[] expected = ArrayUtils.join(
+                STR.toBytes("theta4j"),
+                STR.toBytes("")
+        );
+
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        PtpByteBufferWriter writer = new PtpByteBufferWriter(buffer);
+
+        // act
+        writer.write("theta4j");
+        writer.write("");
+
+        // verify
+        assertThat(buffer.array(), is(expected));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writeTooLongString() {
+        // given
+        char[] given = new char[255];
+        Arrays.fill(given, 'a');
+
+        // act
+        new PtpByteBufferWriter(ByteBuffer.allocate(1024)).write(new String(given));
+    }
+
+    @Test
+    public void sizeOf() {
+        assertThat(PtpByteBufferWriter.sizeOf(""), is(STR.toBytes("").length));
+        assertThat(PtpByteBufferWriter.sizeOf("theta4j"), is(STR.toBytes("theta4j").length));
+    }
+}
@@ -1049,6 +1049,54 @@ public class PtpInputStreamTest {
         assertThat(actual, is(expected));
     }
 
+    // read UINT16Array / UINT32Array
+
+    @Test
+    public void readUINT16Array() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                new UINT32(2).bytes(),
+                UINT16.MIN_VALUE.bytes(),
+                UINT16.MAX_VALUE.bytes()
+        );
+
+        // expected
+        UINT16Array expected = new UINT16Array(0, 0xFFFF);
+
+        // arrange
+        InputStream givenInputStream = new ByteArrayInputStream(given);
+        PtpInputStream pis = new PtpInputStream(givenInputStream);
+
+        // act
+        UINT16Array actual = pis.readUINT16Array();
+
+        // verify
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void readUINT32Array() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                new UINT32(2).bytes(),
+                UINT32.MIN_VALUE.bytes(),
+                UINT32.MAX_VALUE.bytes()
+        );
+
+        // expected
+        UINT32Array expected = new UINT32Array(0, 0xFFFFFFFFL);
+
+        // arrange
+        InputStream givenInputStream = new ByteArrayInputStream(given);
+        PtpInputStream pis = new PtpInputStream(givenInputStream);
+
+        // act
+        UINT32Array actual = pis.readUINT32Array();
+
+        // verify
+        assertThat(actual, is(expected));
+    }
+
     // read String
 
     @Test
@@ -184,6 +184,60 @@ public class INT16Test {
         assertThat(actual, is(expected));
     }
 
+    @Test
+    public void readNegativeValue() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new byte[]{(byte) 0xFF, (byte) 0xFF});
+
+        // expected
+        INT16 expected = new INT16(-1);
+
+        // act
+        INT16 actual = INT16.read(given);
+
+        // verify
+        assertThat(actual, is(expected));
+        assertThat(actual.longValue(), is(-1L));
+        assertThat(actual.bigInteger(), is(BigInteger.valueOf(-1)));
+    }
+
+    // valueOf
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooSmallValue() {
+        // act
+        INT16.valueOf(Short.MIN_VALUE - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooBigValue() {
+        // act
+        INT16.valueOf(Short.MAX_VALUE + 1);
+    }
+
+    @Test
+    public void valueOfReturnsCachedInstance() {
+        // act
+        INT16 actual1 = INT16.valueOf(-1);
+        INT16 actual2 = INT16.valueOf(-1);
+
+        // verify
+        assertThat(actual1, is(new INT16(-1)));
+        assertSame(actual1, actual2);
+    }
+
+    @Test
+    public void readReturnsCachedInstance() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new INT16(-1).bytes());
+
+        // act
+        INT16 actual = INT16.read(given);
+
+        // verify
+        assertSame(INT16.valueOf(-1), actual);
+    }
+
     // Basic method
 
     @Test
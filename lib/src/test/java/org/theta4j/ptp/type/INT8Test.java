@@ -184,6 +184,43 @@ public class INT8Test {
         assertThat(actual, is(expected));
     }
 
+    // valueOf
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooSmallValue() {
+        // act
+        INT8.valueOf(Byte.MIN_VALUE - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooBigValue() {
+        // act
+        INT8.valueOf(Byte.MAX_VALUE + 1);
+    }
+
+    @Test
+    public void valueOfReturnsCachedInstance() {
+        // act
+        INT8 actual1 = INT8.valueOf(-1);
+        INT8 actual2 = INT8.valueOf(-1);
+
+        // verify
+        assertThat(actual1, is(new INT8(-1)));
+        assertSame(actual1, actual2);
+    }
+
+    @Test
+    public void readReturnsCachedInstance() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new INT8(-1).bytes());
+
+        // act
+        INT8 actual = INT8.read(given);
+
+        // verify
+        assertSame(INT8.valueOf(-1), actual);
+    }
+
     // Basic method
 
     @Test
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.junit.Test;
+import org.theta4j.util.ArrayUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PtpStringCodecTest {
+    private static final Charset CHARSET = Charset.forName("UTF-16LE");
+
+    // Constructor with error
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroDedupTableSize() {
+        // act
+        new PtpStringCodec(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withTooLargeDedupTableSize() {
+        // act
+        new PtpStringCodec((1 << 16) + 1);
+    }
+
+    // readSTR
+
+    @Test(expected = NullPointerException.class)
+    public void readSTRFromNullStream() throws IOException {
+        // act
+        new PtpStringCodec().readSTR((InputStream) null);
+    }
+
+    @Test(expected = EOFException.class)
+    public void readSTRFromEmptyStream() throws IOException {
+        // act
+        new PtpStringCodec().readSTR(new ByteArrayInputStream(new byte[0]));
+    }
+
+    @Test(expected = EOFException.class)
+    public void readSTRFromInsufficientStream() throws IOException {
+        // given (NumChars is 2, but actual is 1 char)
+        byte[] given = new byte[]{0x02, 0x00, 0x00};
+
+        // act
+        new PtpStringCodec().readSTR(new ByteArrayInputStream(given));
+    }
+
+    @Test
+    public void readSTRFromStream() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                STR.toBytes("\u30B7\u30FC\u30BF"),
+                STR.toBytes(""),
+                STR.toBytes("theta4j")
+        );
+
+        // arrange
+        PtpStringCodec codec = new PtpStringCodec();
+        InputStream givenInputStream = new ByteArrayInputStream(given);
+
+        // act & verify
+        assertThat(codec.readSTR(givenInputStream), is("\u30B7\u30FC\u30BF"));
+        assertThat(codec.readSTR(givenInputStream), is(""));
+        assertThat(codec.readSTR(givenInputStream), is("theta4j"));
+    }
+
+    @Test
+    public void readSTRFromBuffer() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                STR.toBytes("\u30B7\u30FC\u30BF"),
+                STR.toBytes("")
+        );
+
+        // arrange
+        PtpStringCodec codec = new PtpStringCodec();
+        ByteBuffer givenBuffer = ByteBuffer.wrap(given).order(ByteOrder.BIG_ENDIAN);
+
+        // act & verify
+        assertThat(codec.readSTR(givenBuffer), is("\u30B7\u30FC\u30BF"));
+        assertThat(codec.readSTR(givenBuffer), is(""));
+        assertThat(givenBuffer.remaining(), is(0));
+    }
+
+    @Test
+    public void readSTRFromInsufficientBuffer() throws IOException {
+        // given (NumChars is 2, but actual is 1 char)
+        ByteBuffer given = ByteBuffer.wrap(new byte[]{0x02, 0x00, 0x00});
+
+        // act
+        try {
+            new PtpStringCodec().readSTR(given);
+        } catch (EOFException e) {
+            // verify (position is not changed)
+            assertThat(given.position(), is(0));
+            return;
+        }
+        throw new AssertionError("EOFException is expected.");
+    }
+
+    // readNullTerminated
+
+    @Test(expected = EOFException.class)
+    public void readNullTerminatedWithoutTerminator() throws IOException {
+        // given
+        byte[] given = "test".getBytes(CHARSET);
+
+        // act
+        new PtpStringCodec().readNullTerminated(new ByteArrayInputStream(given));
+    }
+
+    @Test
+    public void readNullTerminated() throws IOException {
+        // given
+        char[] longChars = new char[1000];
+        Arrays.fill(longChars, 'a');
+        String longString = new String(longChars);
+
+        // arrange
+        byte[] given = ArrayUtils.join(
+                (longString + "\u0000").getBytes(CHARSET),
+                "\u30B7\u30FC\u30BF\u0000".getBytes(CHARSET)
+        );
+        PtpStringCodec codec = new PtpStringCodec();
+
+        // act & verify (stream)
+        InputStream givenInputStream = new ByteArrayInputStream(given);
+        assertThat(codec.readNullTerminated(givenInputStream), is(longString));
+        assertThat(codec.readNullTerminated(givenInputStream), is("\u30B7\u30FC\u30BF"));
+
+        // act & verify (buffer)
+        ByteBuffer givenBuffer = ByteBuffer.wrap(given);
+        assertThat(codec.readNullTerminated(givenBuffer), is(longString));
+        assertThat(codec.readNullTerminated(givenBuffer), is("\u30B7\u30FC\u30BF"));
+    }
+
+    // Deduplication
+
+    @Test
+    public void readSameStringWithDedup() throws IOException {
+        // given
+        byte[] given = STR.toBytes("20150101T000000");
+
+        // arrange
+        PtpStringCodec codec = new PtpStringCodec(16);
+
+        // act
+        String actual1 = codec.readSTR(ByteBuffer.wrap(given));
+        String actual2 = codec.readSTR(ByteBuffer.wrap(given));
+
+        // verify
+        assertThat(actual1, is("20150101T000000"));
+        assertThat(actual2, is(sameInstance(actual1)));
+    }
+
+    @Test
+    public void readSameStringWithoutDedup() throws IOException {
+        // given
+        byte[] given = STR.toBytes("20150101T000000");
+
+        // arrange
+        PtpStringCodec codec = new PtpStringCodec();
+
+        // act
+        String actual1 = codec.readSTR(ByteBuffer.wrap(given));
+        String actual2 = codec.readSTR(ByteBuffer.wrap(given));
+
+        // verify
+        assertThat(actual2, is(actual1));
+        assertThat(actual2, not(sameInstance(actual1)));
+    }
+
+    @Test
+    public void readDifferentStringsWithSmallDedupTable() throws IOException {
+        // arrange
+        PtpStringCodec codec = new PtpStringCodec(1);
+
+        // act & verify (entries are replaced, but the values are never mixed up)
+        assertThat(codec.readSTR(ByteBuffer.wrap(STR.toBytes("a"))), is("a"));
+        assertThat(codec.readSTR(ByteBuffer.wrap(STR.toBytes("b"))), is("b"));
+        assertThat(codec.readSTR(ByteBuffer.wrap(STR.toBytes("a"))), is("a"));
+    }
+
+    // writeSTR
+
+    @Test
+    public void writeSTR() {
+        // given
+        String given = "\u30B7\u30FC\u30BF";
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                new byte[]{(byte) (given.length() + 1)},
+                (given + "\u0000").getBytes(CHARSET)
+        );
+
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate(PtpStringCodec.sizeOfSTR(given)).order(ByteOrder.BIG_ENDIAN);
+
+        // act
+        PtpStringCodec.writeSTR(given, buffer);
+
+        // verify
+        assertThat(buffer.array(), is(expected));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writeTooLongSTR() {
+        // given
+        char[] given = new char[PtpStringCodec.MAX_STR_LENGTH + 1];
+        Arrays.fill(given, 'a');
+
+        // act
+        PtpStringCodec.writeSTR(new String(given), ByteBuffer.allocate(1024));
+    }
+
+    // writeNullTerminated
+
+    @Test
+    public void writeNullTerminated() {
+        // given
+        String given = "theta4j";
+
+        // expected
+        byte[] expected = (given + "\u0000").getBytes(CHARSET);
+
+        // arrange
+        ByteBuffer buffer = ByteBuffer.allocate(PtpStringCodec.sizeOfNullTerminated(given));
+
+        // act
+        PtpStringCodec.writeNullTerminated(given, buffer);
+
+        // verify
+        assertThat(buffer.array(), is(expected));
+    }
+}
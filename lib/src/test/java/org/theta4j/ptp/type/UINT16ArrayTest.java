@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.junit.Test;
+import org.theta4j.util.ArrayUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class UINT16ArrayTest {
+    // Constructor with error
+
+    @Test(expected = NullPointerException.class)
+    public void withNull() {
+        // act
+        new UINT16Array((int[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeValue() {
+        // act
+        new UINT16Array(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withTooBigValue() {
+        // act
+        new UINT16Array(0x10000);
+    }
+
+    // read with error
+
+    @Test(expected = NullPointerException.class)
+    public void readNull() throws IOException {
+        // act
+        UINT16Array.read((InputStream) null);
+    }
+
+    @Test(expected = EOFException.class)
+    public void readMissingHeader() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new byte[]{});
+
+        // act
+        UINT16Array.read(given);
+    }
+
+    @Test(expected = EOFException.class)
+    public void readMissingBody() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new UINT32(2).bytes());
+
+        // act
+        UINT16Array.read(given);
+    }
+
+    @Test(expected = IOException.class)
+    public void readTooLongArray() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(UINT32.MAX_VALUE.bytes());
+
+        // act
+        UINT16Array.read(given);
+    }
+
+    // read
+
+    @Test
+    public void readEmpty() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(UINT32.ZERO.bytes());
+
+        // act
+        UINT16Array actual = UINT16Array.read(given);
+
+        // verify
+        assertThat(actual.size(), is(0));
+    }
+
+    @Test
+    public void read() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                new UINT32(3).bytes(),
+                UINT16.MIN_VALUE.bytes(),
+                new UINT16(1).bytes(),
+                UINT16.MAX_VALUE.bytes()
+        );
+
+        // expected
+        List<UINT16> expected = Arrays.asList(UINT16.MIN_VALUE, new UINT16(1), UINT16.MAX_VALUE);
+
+        // act
+        UINT16Array actual = UINT16Array.read(new ByteArrayInputStream(given));
+
+        // verify
+        assertThat(actual.size(), is(3));
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertThat(actual.hashCode(), is(expected.hashCode()));
+    }
+
+    // Primitive Accessor
+
+    @Test
+    public void getInt() {
+        // given
+        UINT16Array given = new UINT16Array(0, 1, 0xFFFF);
+
+        // act & verify
+        assertThat(given.getInt(0), is(0));
+        assertThat(given.getInt(1), is(1));
+        assertThat(given.getInt(2), is(0xFFFF));
+    }
+
+    @Test
+    public void contains() {
+        // given
+        UINT16Array given = new UINT16Array(0, 1, 0xFFFF);
+
+        // act & verify
+        assertTrue(given.contains(0xFFFF));
+        assertTrue(given.contains(UINT16.MAX_VALUE));
+        assertFalse(given.contains(2));
+        assertFalse(given.contains(-1));
+        assertFalse(given.contains(0x10000));
+        assertFalse(given.contains("1"));
+    }
+
+    @Test
+    public void indexOf() {
+        // given
+        UINT16Array given = new UINT16Array(0, 1, 0xFFFF);
+
+        // act & verify
+        assertThat(given.indexOf(0xFFFF), is(2));
+        assertThat(given.indexOf(new UINT16(1)), is(1));
+        assertThat(given.indexOf(2), is(-1));
+    }
+
+    @Test
+    public void toIntArray() {
+        // given
+        UINT16Array given = new UINT16Array(0, 1, 0xFFFF);
+
+        // expected
+        int[] expected = new int[]{0, 1, 0xFFFF};
+
+        // act
+        int[] actual = given.toIntArray();
+
+        // verify
+        assertArrayEquals(expected, actual);
+    }
+
+    // List
+
+    @Test
+    public void iterate() {
+        // given
+        UINT16Array given = new UINT16Array(0, 1, 0xFFFF);
+
+        // act
+        int count = 0;
+        for (UINT16 value : given) {
+            assertThat(value.longValue(), is((long) given.getInt(count)));
+            count++;
+        }
+
+        // verify
+        assertThat(count, is(3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void isImmutable() {
+        // given
+        UINT16Array given = new UINT16Array(0, 1, 0xFFFF);
+
+        // act
+        given.add(UINT16.MIN_VALUE);
+    }
+
+    @Test
+    public void constructorCopiesArray() {
+        // given
+        int[] given = new int[]{1};
+
+        // arrange
+        UINT16Array array = new UINT16Array(given);
+        given[0] = 2;
+
+        // verify
+        assertThat(array.getInt(0), is(1));
+    }
+
+    // Basic method
+
+    @Test
+    public void testEquals() {
+        // given
+        UINT16Array given1 = new UINT16Array(0, 1, 0xFFFF);
+        UINT16Array given2 = new UINT16Array(0, 1, 0xFFFF);
+        UINT16Array given3 = new UINT16Array(0, 1);
+
+        // verify
+        assertEquals(given1, given2);
+        assertThat(given1.hashCode(), is(given2.hashCode()));
+        assertNotEquals(given1, given3);
+    }
+}
@@ -167,6 +167,43 @@ public class UINT16Test {
         assertThat(actual, is(expected));
     }
 
+    // valueOf
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooSmallValue() {
+        // act
+        UINT16.valueOf(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooBigValue() {
+        // act
+        UINT16.valueOf(0x10000);
+    }
+
+    @Test
+    public void valueOfReturnsCachedInstance() {
+        // act
+        UINT16 actual1 = UINT16.valueOf(0xFFFF);
+        UINT16 actual2 = UINT16.valueOf(0xFFFF);
+
+        // verify
+        assertThat(actual1, is(new UINT16(0xFFFF)));
+        assertSame(actual1, actual2);
+    }
+
+    @Test
+    public void readReturnsCachedInstance() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new UINT16(0xFFFF).bytes());
+
+        // act
+        UINT16 actual = UINT16.read(given);
+
+        // verify
+        assertSame(UINT16.valueOf(0xFFFF), actual);
+    }
+
     // Basic method
 
     @Test
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptp.type;
+
+import org.junit.Test;
+import org.theta4j.util.ArrayUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class UINT32ArrayTest {
+    // Constructor with error
+
+    @Test(expected = NullPointerException.class)
+    public void withNull() {
+        // act
+        new UINT32Array((long[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeValue() {
+        // act
+        new UINT32Array(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withTooBigValue() {
+        // act
+        new UINT32Array(0x100000000L);
+    }
+
+    // read with error
+
+    @Test(expected = NullPointerException.class)
+    public void readNull() throws IOException {
+        // act
+        UINT32Array.read((InputStream) null);
+    }
+
+    @Test(expected = EOFException.class)
+    public void readMissingHeader() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new byte[]{});
+
+        // act
+        UINT32Array.read(given);
+    }
+
+    @Test(expected = EOFException.class)
+    public void readMissingBody() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new UINT32(2).bytes());
+
+        // act
+        UINT32Array.read(given);
+    }
+
+    @Test(expected = IOException.class)
+    public void readTooLongArray() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(UINT32.MAX_VALUE.bytes());
+
+        // act
+        UINT32Array.read(given);
+    }
+
+    // read
+
+    @Test
+    public void readEmpty() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(UINT32.ZERO.bytes());
+
+        // act
+        UINT32Array actual = UINT32Array.read(given);
+
+        // verify
+        assertThat(actual.size(), is(0));
+    }
+
+    @Test
+    public void read() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                new UINT32(3).bytes(),
+                UINT32.MIN_VALUE.bytes(),
+                new UINT32(1).bytes(),
+                UINT32.MAX_VALUE.bytes()
+        );
+
+        // expected
+        List<UINT32> expected = Arrays.asList(UINT32.MIN_VALUE, new UINT32(1), UINT32.MAX_VALUE);
+
+        // act
+        UINT32Array actual = UINT32Array.read(new ByteArrayInputStream(given));
+
+        // verify
+        assertThat(actual.size(), is(3));
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertThat(actual.hashCode(), is(expected.hashCode()));
+    }
+
+    // Primitive Accessor
+
+    @Test
+    public void getLong() {
+        // given
+        UINT32Array given = new UINT32Array(0, 1, 0xFFFFFFFFL);
+
+        // act & verify
+        assertThat(given.getLong(0), is((long) 0));
+        assertThat(given.getLong(1), is((long) 1));
+        assertThat(given.getLong(2), is(0xFFFFFFFFL));
+    }
+
+    @Test
+    public void contains() {
+        // given
+        UINT32Array given = new UINT32Array(0, 1, 0xFFFFFFFFL);
+
+        // act & verify
+        assertTrue(given.contains(0xFFFFFFFFL));
+        assertTrue(given.contains(UINT32.MAX_VALUE));
+        assertFalse(given.contains(2));
+        assertFalse(given.contains(-1));
+        assertFalse(given.contains(0x100000000L));
+        assertFalse(given.contains("1"));
+    }
+
+    @Test
+    public void indexOf() {
+        // given
+        UINT32Array given = new UINT32Array(0, 1, 0xFFFFFFFFL);
+
+        // act & verify
+        assertThat(given.indexOf(0xFFFFFFFFL), is(2));
+        assertThat(given.indexOf(new UINT32(1)), is(1));
+        assertThat(given.indexOf(2), is(-1));
+    }
+
+    @Test
+    public void toLongArray() {
+        // given
+        UINT32Array given = new UINT32Array(0, 1, 0xFFFFFFFFL);
+
+        // expected
+        long[] expected = new long[]{0, 1, 0xFFFFFFFFL};
+
+        // act
+        long[] actual = given.toLongArray();
+
+        // verify
+        assertArrayEquals(expected, actual);
+    }
+
+    // List
+
+    @Test
+    public void iterate() {
+        // given
+        UINT32Array given = new UINT32Array(0, 1, 0xFFFFFFFFL);
+
+        // act
+        int count = 0;
+        for (UINT32 value : given) {
+            assertThat(value.longValue(), is(given.getLong(count)));
+            count++;
+        }
+
+        // verify
+        assertThat(count, is(3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void isImmutable() {
+        // given
+        UINT32Array given = new UINT32Array(0, 1, 0xFFFFFFFFL);
+
+        // act
+        given.add(UINT32.MIN_VALUE);
+    }
+
+    @Test
+    public void constructorCopiesArray() {
+        // given
+        long[] given = new long[]{1};
+
+        // arrange
+        UINT32Array array = new UINT32Array(given);
+        given[0] = 2;
+
+        // verify
+        assertThat(array.getLong(0), is((long) 1));
+    }
+
+    // Basic method
+
+    @Test
+    public void testEquals() {
+        // given
+        UINT32Array given1 = new UINT32Array(0, 1, 0xFFFFFFFFL);
+        UINT32Array given2 = new UINT32Array(0, 1, 0xFFFFFFFFL);
+        UINT32Array given3 = new UINT32Array(0, 1);
+
+        // verify
+        assertEquals(given1, given2);
+        assertThat(given1.hashCode(), is(given2.hashCode()));
+        assertNotEquals(given1, given3);
+    }
+}
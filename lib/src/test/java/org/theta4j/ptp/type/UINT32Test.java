@@ -167,6 +167,50 @@ public class UINT32Test {
         assertThat(actual, is(expected));
     }
 
+    // valueOf
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooSmallValue() {
+        // act
+        UINT32.valueOf(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooBigValue() {
+        // act
+        UINT32.valueOf(0x100000000L);
+    }
+
+    @Test
+    public void valueOfReturnsCachedInstance() {
+        // act
+        UINT32 actual1 = UINT32.valueOf(1);
+        UINT32 actual2 = UINT32.valueOf(1);
+
+        // verify
+        assertThat(actual1, is(new UINT32(1)));
+        assertSame(actual1, actual2);
+    }
+
+    @Test
+    public void readReturnsCachedInstance() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new UINT32(1).bytes());
+
+        // act
+        UINT32 actual = UINT32.read(given);
+
+        // verify
+        assertSame(UINT32.valueOf(1), actual);
+    }
+
+    @Test
+    public void valueOfLargeValue() {
+        // verify
+        assertThat(UINT32.valueOf(0x12345678L), is(new UINT32(0x12345678L)));
+        assertSame(UINT32.MAX_VALUE, UINT32.valueOf(0xFFFFFFFFL));
+    }
+
     // Basic method
 
     @Test
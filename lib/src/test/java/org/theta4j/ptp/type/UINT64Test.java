@@ -187,6 +187,35 @@ public class UINT64Test {
         assertThat(V3.compareTo(V3), is(0));
     }
 
+    @Test
+    public void compareWithValueLargerThanLong() {
+        // given
+        UINT64 large = new UINT64(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE));
+
+        // verify
+        assertThat(V1.compareTo(large), is(-1));
+        assertThat(large.compareTo(V1), is(1));
+        assertThat(large.compareTo(UINT64.MAX_VALUE), is(-1));
+        assertThat(UINT64.MAX_VALUE.compareTo(large), is(1));
+    }
+
+    @Test
+    public void bigIntegerOfValueLargerThanLong() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new byte[]{0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0x80});
+
+        // expected
+        BigInteger expected = BigInteger.ONE.shiftLeft(63);
+
+        // act
+        UINT64 actual = UINT64.read(given);
+
+        // verify
+        assertThat(actual.bigInteger(), is(expected));
+        assertThat(actual.doubleValue(), is(expected.doubleValue()));
+        assertThat(actual.longValue(), is(Long.MIN_VALUE));
+    }
+
     @Test
     public void testHashCode() {
         // verify
@@ -167,6 +167,43 @@ public class UINT8Test {
         assertThat(actual, is(expected));
     }
 
+    // valueOf
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooSmallValue() {
+        // act
+        UINT8.valueOf(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOfTooBigValue() {
+        // act
+        UINT8.valueOf(0x100);
+    }
+
+    @Test
+    public void valueOfReturnsCachedInstance() {
+        // act
+        UINT8 actual1 = UINT8.valueOf(0xFF);
+        UINT8 actual2 = UINT8.valueOf(0xFF);
+
+        // verify
+        assertThat(actual1, is(new UINT8(0xFF)));
+        assertSame(actual1, actual2);
+    }
+
+    @Test
+    public void readReturnsCachedInstance() throws IOException {
+        // given
+        InputStream given = new ByteArrayInputStream(new UINT8(0xFF).bytes());
+
+        // act
+        UINT8 actual = UINT8.read(given);
+
+        // verify
+        assertSame(UINT8.valueOf(0xFF), actual);
+    }
+
     // Basic method
 
     @Test
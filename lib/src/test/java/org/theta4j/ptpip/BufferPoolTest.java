@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(Enclosed.class)
+public class BufferPoolTest {
+    private static final int KiB = 1024;
+
+    public static class Construct {
+        @Test(expected = IllegalArgumentException.class)
+        public void withZeroMaxBufferSize() {
+            // act
+            new BufferPool(64 * KiB, 0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void withBudgetSmallerThanMaxBufferSize() {
+            // act
+            new BufferPool(8 * KiB - 1, 8 * KiB);
+        }
+
+        @Test
+        public void roundUpMaxBufferSize() {
+            // act
+            BufferPool actual = new BufferPool(64 * KiB, 5 * KiB);
+
+            // verify
+            assertThat(actual.getMaxBufferSize(), is(8 * KiB));
+            assertThat(actual.getBudget(), is(64L * KiB));
+        }
+
+        @Test
+        public void atLeastMinBufferSize() {
+            // act
+            BufferPool actual = new BufferPool(64 * KiB, 1);
+
+            // verify
+            assertThat(actual.getMaxBufferSize(), is(BufferPool.MIN_BUFFER_SIZE));
+        }
+    }
+
+    public static class Acquire {
+        @Test
+        public void sizeClass() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+
+            try (BufferPool.Lease lease = pool.openLease("test")) {
+                // act
+                ByteBuffer actual = lease.acquire(5 * KiB);
+
+                // verify
+                assertTrue(actual.isDirect());
+                assertThat(actual.capacity(), is(8 * KiB));
+                assertThat(actual.position(), is(0));
+                assertThat(actual.limit(), is(5 * KiB));
+                assertThat(actual.order(), is(ByteOrder.BIG_ENDIAN));
+                assertThat(pool.getLeasedBytes(), is(8L * KiB));
+                assertThat(pool.getReservedBytes(), is(8L * KiB));
+                assertThat(lease.getBorrowedCount(), is(1));
+            }
+        }
+
+        @Test
+        public void smallestClass() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+
+            try (BufferPool.Lease lease = pool.openLease("test")) {
+                // act
+                ByteBuffer actual = lease.acquire(0);
+
+                // verify
+                assertThat(actual.capacity(), is(BufferPool.MIN_BUFFER_SIZE));
+                assertThat(actual.limit(), is(0));
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void largerThanMaxBufferSize() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+
+            try (BufferPool.Lease lease = pool.openLease("test")) {
+                // act
+                lease.acquire(16 * KiB + 1);
+            }
+        }
+
+        @Test
+        public void reuseReleasedBuffer() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+
+            try (BufferPool.Lease lease = pool.openLease("test")) {
+                ByteBuffer given = lease.acquire(8 * KiB);
+                given.put((byte) 1);
+
+                // act
+                lease.release(given);
+                ByteBuffer actual = lease.acquire(6 * KiB);
+
+                // verify
+                assertThat(actual, is(sameInstance(given)));
+                assertThat(actual.position(), is(0));
+                assertThat(actual.limit(), is(6 * KiB));
+                assertThat(pool.getMetrics().getAcquireCount(), is(2L));
+                assertThat(pool.getMetrics().getAllocateCount(), is(1L));
+                assertThat(pool.getReservedBytes(), is(8L * KiB));
+            }
+        }
+
+        @Test
+        public void evictIdleBufferOfOtherClass() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(16 * KiB, 16 * KiB);
+
+            try (BufferPool.Lease lease = pool.openLease("test")) {
+                lease.release(lease.acquire(8 * KiB));
+                lease.release(lease.acquire(4 * KiB));
+
+                // act
+                ByteBuffer actual = lease.acquire(16 * KiB);
+
+                // verify
+                assertThat(actual.capacity(), is(16 * KiB));
+                assertThat(pool.getReservedBytes(), is(16L * KiB));
+                assertThat(pool.getMetrics().getEvictCount(), is(2L));
+            }
+        }
+
+        @Test
+        public void exhausted() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(16 * KiB, 8 * KiB);
+
+            try (BufferPool.Lease lease = pool.openLease("test")) {
+                lease.acquire(8 * KiB);
+                lease.acquire(8 * KiB);
+
+                // act
+                try {
+                    lease.acquire(1);
+                    fail();
+                } catch (BufferPoolExhaustedException e) {
+                    // verify
+                    assertThat(e.getSize(), is(1));
+                    assertThat(e.getBudget(), is(16L * KiB));
+                }
+
+                // verify
+                assertThat(pool.getMetrics().getExhaustedCount(), is(1L));
+                assertThat(pool.getReservedBytes(), is(16L * KiB));
+            }
+        }
+    }
+
+    public static class WithLease {
+        @Test(expected = NullPointerException.class)
+        public void openWithNullOwner() {
+            // act
+            new BufferPool(64 * KiB, 16 * KiB).openLease(null);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void releaseBufferOfOtherLease() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+
+            try (BufferPool.Lease lease1 = pool.openLease("test1");
+                 BufferPool.Lease lease2 = pool.openLease("test2")) {
+                // act
+                lease2.release(lease1.acquire(1));
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void releaseTwice() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+
+            try (BufferPool.Lease lease = pool.openLease("test")) {
+                ByteBuffer given = lease.acquire(1);
+                lease.release(given);
+
+                // act
+                lease.release(given);
+            }
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void acquireAfterClose() throws IOException {
+            // given
+            BufferPool.Lease lease = new BufferPool(64 * KiB, 16 * KiB).openLease("test");
+            lease.close();
+
+            // act
+            lease.acquire(1);
+        }
+
+        @Test
+        public void closeWithoutLeak() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+            BufferPool.Lease lease = pool.openLease("test");
+            lease.release(lease.acquire(1));
+
+            // act
+            lease.close();
+
+            // verify
+            assertThat(pool.getMetrics().getLeakCount(), is(0L));
+            assertThat(pool.getReservedBytes(), is((long) BufferPool.MIN_BUFFER_SIZE));
+            assertThat(pool.getLeasedBytes(), is(0L));
+        }
+
+        @Test
+        public void detectLeak() throws IOException {
+            // given
+            BufferPool pool = new BufferPool(64 * KiB, 16 * KiB);
+            BufferPool.Lease lease = pool.openLease("test");
+            ByteBuffer given = lease.acquire(8 * KiB);
+            lease.release(lease.acquire(1));
+
+            // act
+            lease.close();
+
+            // verify
+            assertThat(pool.getMetrics().getLeakCount(), is(1L));
+            assertThat(pool.getMetrics().getLeakedBytes(), is(8L * KiB));
+            assertThat(pool.getReservedBytes(), is((long) BufferPool.MIN_BUFFER_SIZE));
+            assertThat(pool.getLeasedBytes(), is(0L));
+            assertThat(lease.getBorrowedCount(), is(0));
+
+            // The leaked buffer is ignored after close.
+            lease.release(given);
+            assertThat(pool.getReservedBytes(), is((long) BufferPool.MIN_BUFFER_SIZE));
+        }
+    }
+}
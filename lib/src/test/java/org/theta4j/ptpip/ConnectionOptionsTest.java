@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ConnectionOptionsTest {
+    @Test
+    public void defaults() {
+        // act
+        ConnectionOptions actual = ConnectionOptions.DEFAULT;
+
+        // verify
+        assertThat(actual.getIOMode(), is(PtpIpInitiator.IOMode.STREAM));
+        assertThat(actual.isCoalesceWrites(), is(true));
+        assertThat(actual.isTcpNoDelay(), is(true));
+        assertThat(actual.isKeepAlive(), is(false));
+        assertThat(actual.getSendBufferSize(), is(ConnectionOptions.DEFAULT_VALUE));
+        assertThat(actual.getReceiveBufferSize(), is(ConnectionOptions.DEFAULT_VALUE));
+        assertThat(actual.getConnectTimeout(), is(ConnectionOptions.DEFAULT_VALUE));
+        assertThat(actual.getReadTimeout(), is(ConnectionOptions.DEFAULT_VALUE));
+        assertThat(actual.getTrafficClass(), is(ConnectionOptions.DEFAULT_TRAFFIC_CLASS));
+        assertThat(actual.getBufferPool(), is(sameInstance(BufferPool.SHARED)));
+    }
+
+    @Test
+    public void build() {
+        // act
+        ConnectionOptions actual = new ConnectionOptions.Builder()
+                .ioMode(PtpIpInitiator.IOMode.CHANNEL)
+                .coalesceWrites(false)
+                .tcpNoDelay(false)
+                .keepAlive(true)
+                .sendBufferSize(1024)
+                .receiveBufferSize(2048)
+                .connectTimeout(3000)
+                .trafficClass(0x10)
+                .build();
+
+        // verify
+        assertThat(actual.getIOMode(), is(PtpIpInitiator.IOMode.CHANNEL));
+        assertThat(actual.isCoalesceWrites(), is(false));
+        assertThat(actual.isTcpNoDelay(), is(false));
+        assertThat(actual.isKeepAlive(), is(true));
+        assertThat(actual.getSendBufferSize(), is(1024));
+        assertThat(actual.getReceiveBufferSize(), is(2048));
+        assertThat(actual.getConnectTimeout(), is(3000));
+        assertThat(actual.getTrafficClass(), is(0x10));
+    }
+
+    @Test
+    public void withBufferPool() {
+        // given
+        BufferPool given = new BufferPool(64 * 1024, 4 * 1024);
+
+        // act
+        ConnectionOptions actual = new ConnectionOptions.Builder().bufferPool(given).build();
+
+        // verify
+        assertThat(actual.getBufferPool(), is(sameInstance(given)));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullBufferPool() {
+        // act
+        new ConnectionOptions.Builder().bufferPool(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullIOMode() {
+        // act
+        new ConnectionOptions.Builder().ioMode(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeSendBufferSize() {
+        // act
+        new ConnectionOptions.Builder().sendBufferSize(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeReceiveBufferSize() {
+        // act
+        new ConnectionOptions.Builder().receiveBufferSize(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeConnectTimeout() {
+        // act
+        new ConnectionOptions.Builder().connectTimeout(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeReadTimeout() {
+        // act
+        new ConnectionOptions.Builder().readTimeout(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withTooLargeTrafficClass() {
+        // act
+        new ConnectionOptions.Builder().trafficClass(256);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withReadTimeoutOfChannel() {
+        // act
+        new ConnectionOptions.Builder()
+                .ioMode(PtpIpInitiator.IOMode.CHANNEL)
+                .readTimeout(1000)
+                .build();
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptpip.io.PtpIpInputStream;
+import org.theta4j.ptpip.io.PtpIpOutputStream;
+import org.theta4j.ptpip.packet.*;
+import org.theta4j.ptpip.transport.Connection;
+import org.theta4j.ptpip.transport.PipeTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A PTP-IP responder on the loopback interface or a PipeTransport,
+ * which answers each OperationRequest by the bytes given in advance,
+ * and records the data phases and the Cancel packets sent by the initiator.
+ * Events are sent on the event connection by sendEvent().
+ */
+public final class FakeResponder implements Closeable {
+    private static final UUID GUID = UUID.randomUUID();
+
+    private final ServerSocket serverSocket;
+    private final PipeTransport pipeTransport;
+    private final BlockingQueue<byte[]> replies = new LinkedBlockingQueue<>();
+    private final BlockingQueue<OperationRequestPacket> operationRequests = new LinkedBlockingQueue<>();
+    private final BlockingQueue<CancelPacket> cancels = new LinkedBlockingQueue<>();
+    private final BlockingQueue<StartDataPacket> startDataPackets = new LinkedBlockingQueue<>();
+    private final BlockingQueue<byte[]> data = new LinkedBlockingQueue<>();
+
+    private volatile Closeable commandDataConnection;
+    private volatile Closeable eventConnection;
+    private volatile PtpIpOutputStream eventOutputStream;
+
+    FakeResponder() throws IOException {
+        this(new ServerSocket(0, 2, InetAddress.getLoopbackAddress()), null);
+    }
+
+    /**
+     * Respond to the initiators connecting by the transport.
+     */
+    public FakeResponder(PipeTransport pipeTransport) {
+        this(null, pipeTransport);
+    }
+
+    private FakeResponder(ServerSocket serverSocket, PipeTransport pipeTransport) {
+        this.serverSocket = serverSocket;
+        this.pipeTransport = pipeTransport;
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    serve();
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Answer the next OperationRequest by the packets.
+     */
+    public void reply(PtpIpPacket... packets) {
+        int length = 0;
+        for (PtpIpPacket packet : packets) {
+            length += packet.sizeInBytes();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (PtpIpPacket packet : packets) {
+            packet.writeTo(buffer);
+        }
+        replies.add(buffer.array());
+    }
+
+    public OperationRequestPacket takeOperationRequest() throws InterruptedException {
+        return operationRequests.poll(5, TimeUnit.SECONDS);
+    }
+
+    public StartDataPacket takeStartData() throws InterruptedException {
+        return startDataPackets.poll(5, TimeUnit.SECONDS);
+    }
+
+    public byte[] takeData() throws InterruptedException {
+        return data.poll(5, TimeUnit.SECONDS);
+    }
+
+    public CancelPacket takeCancel() throws InterruptedException {
+        return cancels.poll(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Send the event on the event connection, once the initiator is connected.
+     */
+    public void sendEvent(EventPacket event) throws IOException {
+        PtpIpOutputStream eo = eventOutputStream;
+        if (eo == null) {
+            throw new IOException("The event connection is not established.");
+        }
+        synchronized (eo) {
+            eo.write(event);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        if (commandDataConnection != null) {
+            commandDataConnection.close();
+        }
+        if (eventConnection != null) {
+            eventConnection.close();
+        }
+    }
+
+    private void serve() throws IOException {
+        commandDataConnection = accept();
+        PtpIpInputStream ci = new PtpIpInputStream(inputStreamOf(commandDataConnection));
+        PtpIpOutputStream co = new PtpIpOutputStream(outputStreamOf(commandDataConnection));
+        ci.readInitCommandRequestPacket();
+        co.write(new InitCommandAckPacket(new UINT32(1), GUID, "fake", ProtocolVersions.REV_1_0));
+
+        eventConnection = accept();
+        final PtpIpInputStream ei = new PtpIpInputStream(inputStreamOf(eventConnection));
+        PtpIpOutputStream eo = new PtpIpOutputStream(outputStreamOf(eventConnection));
+        ei.readInitEventRequestPacket();
+        eo.write(new InitEventAckPacket());
+        eventOutputStream = eo;
+
+        Thread eventThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (; ; ) {
+                        cancels.add(ei.readCancelPacket());
+                    }
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        });
+        eventThread.setDaemon(true);
+        eventThread.start();
+
+        OutputStream os = outputStreamOf(commandDataConnection);
+        for (; ; ) {
+            if (ci.nextType() == PtpIpPacket.Type.START_DATA) {
+                startDataPackets.add(ci.readStartData());
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                ci.readDataPayload(baos);
+                data.add(baos.toByteArray());
+                continue;
+            }
+
+            operationRequests.add(ci.readOperationRequestPacket());
+            try {
+                os.write(replies.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            os.flush();
+        }
+    }
+
+    private Closeable accept() throws IOException {
+        if (pipeTransport != null) {
+            return pipeTransport.accept();
+        }
+        return serverSocket.accept();
+    }
+
+    private static InputStream inputStreamOf(Closeable connection) throws IOException {
+        if (connection instanceof Socket) {
+            return ((Socket) connection).getInputStream();
+        }
+        return ((Connection) connection).getInputStream();
+    }
+
+    private static OutputStream outputStreamOf(Closeable connection) throws IOException {
+        if (connection instanceof Socket) {
+            return ((Socket) connection).getOutputStream();
+        }
+        return ((Connection) connection).getOutputStream();
+    }
+}
@@ -4,13 +4,44 @@
 
 package org.theta4j.ptpip;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
+import org.theta4j.ptp.CancelCondition;
+import org.theta4j.ptp.DataBufferAllocator;
+import org.theta4j.ptp.DataHandler;
+import org.theta4j.ptp.DataPhaseCancelledException;
+import org.theta4j.ptp.DataTooLargeException;
+import org.theta4j.ptp.code.OperationCode;
+import org.theta4j.ptp.code.ResponseCode;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.ptp.type.UINT64;
+import org.theta4j.ptpip.packet.*;
+import org.theta4j.ptpip.transport.Connection;
+import org.theta4j.ptpip.transport.PipeTransport;
+import org.theta4j.ptpip.transport.Transport;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
 @RunWith(Enclosed.class)
 public class PtpIpInitiatorTest {
     private static final UUID GUID = UUID.randomUUID();
@@ -41,5 +72,856 @@ public class PtpIpInitiatorTest {
             // act
             new PtpIpInitiator(GUID, HOST, 65536);
         }
+
+        @Test(expected = NullPointerException.class)
+        public void withNullOptions() throws IOException {
+            // act
+            new PtpIpInitiator(GUID, HOST, PORT, (ConnectionOptions) null);
+        }
+    }
+
+    public static class ReceiveDataWithPolicy {
+        private static final UINT32 TRANSACTION_ID = UINT32.ZERO;
+        private static final byte[] DATA = new byte[]{0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07};
+
+        private FakeResponder responder;
+        private PtpIpInitiator initiator;
+
+        @Before
+        public void setUp() throws IOException {
+            responder = new FakeResponder();
+            initiator = new PtpIpInitiator(GUID, HOST, responder.getPort());
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            initiator.close();
+            responder.close();
+        }
+
+        private void replyData() {
+            responder.reply(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(DATA.length)),
+                    new DataPacket(TRANSACTION_ID, Arrays.copyOf(DATA, 4)),
+                    new EndDataPacket(TRANSACTION_ID, Arrays.copyOfRange(DATA, 4, DATA.length)),
+                    new OperationResponsePacket(ResponseCode.OK.value(), TRANSACTION_ID)
+            );
+        }
+
+        private static byte[] readAll(InputStream is) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            int b;
+            while ((b = is.read()) != -1) {
+                baos.write(b);
+            }
+            is.close();
+            return baos.toByteArray();
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void withNullPolicy() {
+            // act
+            initiator.setReceiveDataPolicy(null);
+        }
+
+        @Test
+        public void inMemory() throws IOException {
+            // arrange
+            initiator.setReceiveDataPolicy(new ReceiveDataPolicy(DATA.length, ReceiveDataPolicy.UNLIMITED));
+            replyData();
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            InputStream actual = initiator.receiveData();
+            initiator.checkAndReadResponse();
+
+            // verify
+            assertThat(readAll(actual), is(DATA));
+            assertThat(initiator.getReceiveDataMetrics().getInMemoryCount(), is(1L));
+            assertThat(initiator.getReceiveDataMetrics().getSpillCount(), is(0L));
+        }
+
+        @Test
+        public void spill() throws IOException {
+            // arrange
+            initiator.setReceiveDataPolicy(new ReceiveDataPolicy(DATA.length - 1, ReceiveDataPolicy.UNLIMITED));
+            replyData();
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            InputStream actual = initiator.receiveData();
+            initiator.checkAndReadResponse();
+
+            // verify
+            assertThat(readAll(actual), is(DATA));
+            assertThat(initiator.getReceiveDataMetrics().getInMemoryCount(), is(0L));
+            assertThat(initiator.getReceiveDataMetrics().getSpillCount(), is(1L));
+            assertThat(initiator.getReceiveDataMetrics().getSpilledBytes(), is((long) DATA.length));
+        }
+
+        private static Set<String> spillFiles() {
+            Set<String> names = new HashSet<>();
+            for (String name : new File(System.getProperty("java.io.tmpdir")).list()) {
+                if (name.startsWith("theta4j") && name.endsWith(".data")) {
+                    names.add(name);
+                }
+            }
+            return names;
+        }
+
+        @Test
+        public void spillFileIsDeletedOnClose() throws IOException {
+            // given
+            Set<String> before = spillFiles();
+
+            // arrange
+            initiator.setReceiveDataPolicy(new ReceiveDataPolicy(DATA.length - 1, ReceiveDataPolicy.UNLIMITED));
+            replyData();
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            InputStream actual = initiator.receiveData();
+            initiator.checkAndReadResponse();
+            Set<String> whileOpen = spillFiles();
+            actual.close();
+
+            // verify
+            assertThat(whileOpen.size(), is(before.size() + 1));
+            assertThat(spillFiles(), is(before));
+        }
+
+        @Test
+        public void cancel() throws IOException, InterruptedException {
+            // arrange
+            initiator.setReceiveDataPolicy(new ReceiveDataPolicy(0, DATA.length - 1));
+            replyData();
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            try {
+                initiator.receiveData();
+                fail();
+            } catch (DataTooLargeException e) {
+                // verify
+                assertThat(e.getTotalDataLength(), is((long) DATA.length));
+                assertThat(e.getMaxDataLength(), is(DATA.length - 1L));
+                assertThat(e.getResponseCode(), is(ResponseCode.OK.value()));
+            }
+
+            // verify
+            assertThat(responder.takeCancel(), is(new CancelPacket(TRANSACTION_ID)));
+            assertThat(initiator.getReceiveDataMetrics().getCancelCount(), is(1L));
+        }
+
+        @Test
+        public void cancelBuffer() throws IOException, InterruptedException {
+            // arrange
+            initiator.setReceiveDataPolicy(new ReceiveDataPolicy(0, DATA.length - 1));
+            replyData();
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            try {
+                initiator.receiveDataAsBuffer();
+                fail();
+            } catch (DataTooLargeException e) {
+                // verify
+                assertThat(e.getResponseCode(), is(ResponseCode.OK.value()));
+            }
+
+            // verify
+            assertThat(responder.takeCancel(), is(new CancelPacket(TRANSACTION_ID)));
+        }
+
+        @Test
+        public void nextOperationAfterCancel() throws IOException {
+            // given
+            UINT32 numObjects = new UINT32(42);
+
+            // arrange
+            initiator.setReceiveDataPolicy(new ReceiveDataPolicy(0, DATA.length - 1));
+            replyData();
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), new UINT32(1), numObjects));
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            try {
+                initiator.receiveData();
+                fail();
+            } catch (DataTooLargeException e) {
+                // expected
+            }
+            initiator.sendOperation(OperationCode.GET_NUM_OBJECTS);
+            UINT32 actual = initiator.checkAndReadResponse().getP1();
+
+            // verify
+            assertThat(actual, is(numObjects));
+        }
+
+        @Test
+        public void allocationFailure() throws IOException {
+            // given
+            UINT32 numObjects = new UINT32(42);
+
+            // arrange
+            replyData();
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), new UINT32(1), numObjects));
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            try {
+                initiator.receiveDataAsBuffer(new DataBufferAllocator() {
+                    @Override
+                    public ByteBuffer allocate(long totalDataLength) throws IOException {
+                        throw new IOException("too large");
+                    }
+                });
+                fail();
+            } catch (IOException e) {
+                // verify
+                assertThat(e.getMessage(), is("too large"));
+            }
+
+            // verify (the next operation reads its own response)
+            initiator.sendOperation(OperationCode.GET_NUM_OBJECTS);
+            assertThat(initiator.checkAndReadResponse().getP1(), is(numObjects));
+        }
+
+        private void receiveDataAsBufferOfLength(long announcedLength) throws IOException {
+            // given
+            UINT32 numObjects = new UINT32(42);
+
+            // arrange
+            responder.reply(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(announcedLength)),
+                    new EndDataPacket(TRANSACTION_ID, DATA),
+                    new OperationResponsePacket(ResponseCode.OK.value(), TRANSACTION_ID)
+            );
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), new UINT32(1), numObjects));
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            try {
+                initiator.receiveDataAsBuffer(DataBufferAllocator.HEAP);
+                fail();
+            } catch (IOException e) {
+                // expected
+            }
+
+            // verify (the next operation reads its own response)
+            initiator.sendOperation(OperationCode.GET_NUM_OBJECTS);
+            assertThat(initiator.checkAndReadResponse().getP1(), is(numObjects));
+        }
+
+        @Test
+        public void shorterThanAnnounced() throws IOException {
+            receiveDataAsBufferOfLength(DATA.length + 1);
+        }
+
+        @Test
+        public void longerThanAnnounced() throws IOException {
+            receiveDataAsBufferOfLength(DATA.length - 1);
+        }
+    }
+
+    public static class ReceiveDataWithCancelCondition {
+        private static final UINT32 TRANSACTION_ID = UINT32.ZERO;
+        private static final byte[] DATA = new byte[]{0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07};
+
+        private FakeResponder responder;
+        private PtpIpInitiator initiator;
+
+        @Before
+        public void setUp() throws IOException {
+            responder = new FakeResponder();
+            initiator = new PtpIpInitiator(GUID, HOST, responder.getPort());
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            initiator.close();
+            responder.close();
+        }
+
+        /**
+         * Requests to cancel from the given check.
+         */
+        private static CancelCondition cancelAt(final int check) {
+            return new CancelCondition() {
+                private int count = 0;
+
+                @Override
+                public boolean isCancelRequested() {
+                    return check <= ++count;
+                }
+            };
+        }
+
+        @Test
+        public void notCancelled() throws IOException {
+            // arrange
+            responder.reply(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(DATA.length)),
+                    new DataPacket(TRANSACTION_ID, Arrays.copyOf(DATA, 4)),
+                    new EndDataPacket(TRANSACTION_ID, Arrays.copyOfRange(DATA, 4, DATA.length)),
+                    new OperationResponsePacket(ResponseCode.OK.value(), TRANSACTION_ID)
+            );
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            initiator.receiveData(Channels.newChannel(actual), cancelAt(3));
+            initiator.checkAndReadResponse();
+
+            // verify
+            assertThat(actual.toByteArray(), is(DATA));
+        }
+
+        @Test
+        public void cancelBetweenPackets() throws IOException, InterruptedException {
+            // arrange
+            responder.reply(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(DATA.length)),
+                    new DataPacket(TRANSACTION_ID, Arrays.copyOf(DATA, 4)),
+                    new EndDataPacket(TRANSACTION_ID, Arrays.copyOfRange(DATA, 4, DATA.length)),
+                    new OperationResponsePacket(ResponseCode.TRANSACTION_CANCELLED.value(), TRANSACTION_ID)
+            );
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+            // act
+            initiator.sendOperation(OperationCode.GET_OBJECT);
+            try {
+                initiator.receiveData(Channels.newChannel(actual), cancelAt(2));
+                fail();
+            } catch (DataPhaseCancelledException e) {
+                // verify
+                assertThat(e.getReceivedLength(), is(4L));
+                assertThat(e.getTotalDataLength(), is((long) DATA.length));
+                assertThat(e.getResponseCode(), is(ResponseCode.TRANSACTION_CANCELLED.value()));
+            }
+
+            // verify
+            assertThat(actual.toByteArray(), is(Arrays.copyOf(DATA, 4)));
+            assertThat(responder.takeCancel(), is(new CancelPacket(TRANSACTION_ID)));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void withNullCondition() throws IOException {
+            // act
+            initiator.receiveData(Channels.newChannel(new ByteArrayOutputStream()), null);
+        }
+    }
+
+    public static class ReceiveResponse {
+        private FakeResponder responder;
+        private PtpIpInitiator initiator;
+
+        @Before
+        public void setUp() throws IOException {
+            responder = new FakeResponder();
+            initiator = new PtpIpInitiator(GUID, HOST, responder.getPort());
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            initiator.close();
+            responder.close();
+        }
+
+        @Test
+        public void sameTransactionID() throws IOException {
+            // arrange
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), UINT32.ZERO));
+
+            // act
+            UINT32 transactionID = initiator.sendOperation(OperationCode.GET_NUM_OBJECTS);
+            UINT32 actual = initiator.receiveResponse().getTransactionID();
+
+            // verify
+            assertThat(actual, is(transactionID));
+        }
+
+        @Test(expected = IOException.class)
+        public void otherTransactionID() throws IOException {
+            // arrange
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), new UINT32(1)));
+
+            // act
+            initiator.sendOperation(OperationCode.GET_NUM_OBJECTS);
+            initiator.receiveResponse();
+        }
+    }
+
+    public static class SendData {
+        private FakeResponder responder;
+        private PtpIpInitiator initiator;
+
+        @Before
+        public void setUp() throws IOException {
+            responder = new FakeResponder();
+            initiator = new PtpIpInitiator(GUID, HOST, responder.getPort());
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            initiator.close();
+            responder.close();
+        }
+
+        @Test
+        public void fromChannel() throws IOException, InterruptedException {
+            // given
+            byte[] given = new byte[100 * 1024];
+            given[given.length - 1] = 0x12;
+
+            // arrange
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), UINT32.ZERO));
+
+            // act
+            UINT32 transactionID = initiator.sendOperation(OperationCode.SEND_OBJECT);
+            initiator.sendData(Channels.newChannel(new ByteArrayInputStream(given)), given.length);
+            initiator.checkAndReadResponse();
+
+            // verify
+            StartDataPacket startData = responder.takeStartData();
+            assertThat(startData.getTransactionID(), is(transactionID));
+            assertThat(startData.getTotalDataLength(), is(new UINT64(given.length)));
+            assertThat(responder.takeData(), is(given));
+        }
+
+        @Test
+        public void fromArray() throws IOException, InterruptedException {
+            // given
+            byte[] given = new byte[]{0x01, 0x02};
+
+            // arrange
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), UINT32.ZERO));
+
+            // act
+            UINT32 transactionID = initiator.sendOperation(OperationCode.SET_DEVICE_PROP_VALUE);
+            initiator.sendData(given);
+            initiator.checkAndReadResponse();
+
+            // verify
+            assertThat(responder.takeStartData().getTransactionID(), is(transactionID));
+            assertThat(responder.takeData(), is(given));
+        }
+    }
+
+    public static class WithConnectionOptions {
+        private FakeResponder responder;
+
+        @Before
+        public void setUp() throws IOException {
+            responder = new FakeResponder();
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            responder.close();
+        }
+
+        private void roundTrip(ConnectionOptions options) throws IOException, InterruptedException {
+            // given
+            byte[] given = new byte[]{0x01, 0x02};
+
+            // arrange
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), UINT32.ZERO));
+
+            try (PtpIpInitiator initiator = new PtpIpInitiator(GUID, HOST, responder.getPort(), options)) {
+                // act
+                UINT32 transactionID = initiator.sendOperation(OperationCode.SET_DEVICE_PROP_VALUE);
+                initiator.sendData(given);
+                initiator.checkAndReadResponse();
+
+                // verify
+                assertThat(initiator.getConnectionOptions(), is(options));
+                assertThat(responder.takeOperationRequest().getTransactionID(), is(transactionID));
+                assertThat(responder.takeStartData().getTransactionID(), is(transactionID));
+                assertThat(responder.takeData(), is(given));
+            }
+        }
+
+        @Test
+        public void coalesced() throws IOException, InterruptedException {
+            roundTrip(new ConnectionOptions.Builder().coalesceWrites(true).build());
+        }
+
+        @Test
+        public void notCoalesced() throws IOException, InterruptedException {
+            roundTrip(new ConnectionOptions.Builder().coalesceWrites(false).build());
+        }
+
+        @Test
+        public void coalescedChannel() throws IOException, InterruptedException {
+            roundTrip(new ConnectionOptions.Builder().ioMode(PtpIpInitiator.IOMode.CHANNEL).build());
+        }
+
+        @Test
+        public void socketOptions() throws IOException, InterruptedException {
+            roundTrip(new ConnectionOptions.Builder()
+                    .tcpNoDelay(false)
+                    .keepAlive(true)
+                    .sendBufferSize(32 * 1024)
+                    .receiveBufferSize(32 * 1024)
+                    .connectTimeout(5000)
+                    .readTimeout(5000)
+                    .build());
+        }
+
+        @Test
+        public void responseWithoutData() throws IOException, InterruptedException {
+            // arrange
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), UINT32.ZERO));
+
+            try (PtpIpInitiator initiator = new PtpIpInitiator(GUID, HOST, responder.getPort())) {
+                // act
+                UINT32 transactionID = initiator.sendOperation(OperationCode.CLOSE_SESSION);
+                initiator.checkAndReadResponse();
+
+                // verify
+                assertThat(responder.takeOperationRequest().getTransactionID(), is(transactionID));
+            }
+        }
+
+        @Test(expected = SocketTimeoutException.class)
+        public void readTimeout() throws IOException {
+            // arrange
+            ConnectionOptions options = new ConnectionOptions.Builder().readTimeout(100).build();
+
+            try (PtpIpInitiator initiator = new PtpIpInitiator(GUID, HOST, responder.getPort(), options)) {
+                // act
+                initiator.sendOperation(OperationCode.CLOSE_SESSION);
+                initiator.receiveResponse();
+            }
+        }
+    }
+
+    public static class WithPipeTransport {
+        private PipeTransport transport;
+        private FakeResponder responder;
+
+        @Before
+        public void setUp() {
+            transport = new PipeTransport();
+            responder = new FakeResponder(transport);
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            responder.close();
+        }
+
+        private void roundTrip(ConnectionOptions options) throws IOException, InterruptedException {
+            // given
+            byte[] given = new byte[100 * 1024];
+            given[given.length - 1] = 0x12;
+            UINT32 transactionID = new UINT32(1);
+
+            // arrange
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), UINT32.ZERO));
+            responder.reply(
+                    new StartDataPacket(transactionID, new UINT64(2)),
+                    new EndDataPacket(transactionID, new byte[]{0x01, 0x02}),
+                    new OperationResponsePacket(ResponseCode.OK.value(), transactionID)
+            );
+
+            try (PtpIpInitiator initiator = new PtpIpInitiator(GUID, transport, options)) {
+                // act
+                initiator.sendOperation(OperationCode.SEND_OBJECT);
+                initiator.sendData(Channels.newChannel(new ByteArrayInputStream(given)), given.length);
+                initiator.checkAndReadResponse();
+
+                initiator.sendOperation(OperationCode.GET_OBJECT);
+                byte[] actual = initiator.receiveDataAsBuffer().array();
+                initiator.checkAndReadResponse();
+
+                // verify
+                assertThat(initiator.getTransport(), is((Transport) transport));
+                assertThat(initiator.getHost() == null, is(true));
+                assertThat(responder.takeData(), is(given));
+                assertThat(actual, is(new byte[]{0x01, 0x02}));
+            }
+        }
+
+        @Test
+        public void stream() throws IOException, InterruptedException {
+            roundTrip(ConnectionOptions.DEFAULT);
+        }
+
+        @Test
+        public void channel() throws IOException, InterruptedException {
+            roundTrip(new ConnectionOptions.Builder().ioMode(PtpIpInitiator.IOMode.CHANNEL).build());
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void withNullTransport() throws IOException {
+            // act
+            new PtpIpInitiator(GUID, (Transport) null);
+        }
+    }
+
+    public static class WithBufferPool {
+        private static final UINT32 TRANSACTION_ID = UINT32.ZERO;
+
+        private PipeTransport transport;
+        private FakeResponder responder;
+        private BufferPool pool;
+
+        @Before
+        public void setUp() {
+            transport = new PipeTransport();
+            responder = new FakeResponder(transport);
+            pool = new BufferPool(512 * 1024, 64 * 1024);
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            responder.close();
+        }
+
+        private PtpIpInitiator connect(PtpIpInitiator.IOMode ioMode) throws IOException {
+            ConnectionOptions options = new ConnectionOptions.Builder().ioMode(ioMode).bufferPool(pool).build();
+            return new PtpIpInitiator(GUID, transport, options);
+        }
+
+        private void replyData(byte[] data) {
+            replyData(TRANSACTION_ID, data);
+        }
+
+        private void replyData(UINT32 transactionID, byte[] data) {
+            responder.reply(
+                    new StartDataPacket(transactionID, new UINT64(data.length)),
+                    new EndDataPacket(transactionID, data),
+                    new OperationResponsePacket(ResponseCode.OK.value(), transactionID)
+            );
+        }
+
+        /**
+         * Copies the data, and records whether the buffer is direct.
+         */
+        private static final class CopyHandler implements DataHandler<byte[]> {
+            private boolean isDirect;
+
+            @Override
+            public byte[] handle(ByteBuffer data) {
+                isDirect = data.isDirect();
+                byte[] bytes = new byte[data.remaining()];
+                data.get(bytes);
+                return bytes;
+            }
+        }
+
+        @Test
+        public void pooled() throws IOException {
+            // given
+            byte[] given = new byte[]{0x01, 0x02, 0x03};
+            CopyHandler handler = new CopyHandler();
+
+            // arrange
+            replyData(given);
+            replyData(new UINT32(1), given);
+
+            try (PtpIpInitiator initiator = connect(PtpIpInitiator.IOMode.STREAM)) {
+                // act
+                initiator.sendOperation(OperationCode.GET_OBJECT_INFO);
+                byte[] actual1 = initiator.receiveData(handler);
+                initiator.checkAndReadResponse();
+
+                initiator.sendOperation(OperationCode.GET_OBJECT_INFO);
+                byte[] actual2 = initiator.receiveData(handler);
+                initiator.checkAndReadResponse();
+
+                // verify
+                assertThat(actual1, is(given));
+                assertThat(actual2, is(given));
+                assertThat(handler.isDirect, is(true));
+                assertThat(pool.getLeasedBytes(), is(0L));
+                assertThat(pool.getMetrics().getAcquireCount(), is(2L));
+                assertThat(pool.getMetrics().getAllocateCount(), is(1L));
+            }
+        }
+
+        @Test
+        public void largerThanMaxBufferSize() throws IOException {
+            // given
+            byte[] given = new byte[pool.getMaxBufferSize() + 1];
+            CopyHandler handler = new CopyHandler();
+
+            // arrange
+            replyData(given);
+
+            try (PtpIpInitiator initiator = connect(PtpIpInitiator.IOMode.STREAM)) {
+                // act
+                initiator.sendOperation(OperationCode.GET_OBJECT_INFO);
+                byte[] actual = initiator.receiveData(handler);
+                initiator.checkAndReadResponse();
+
+                // verify
+                assertThat(actual, is(given));
+                assertThat(handler.isDirect, is(false));
+                assertThat(pool.getMetrics().getAcquireCount(), is(0L));
+            }
+        }
+
+        @Test
+        public void exhausted() throws IOException {
+            // given
+            byte[] given = new byte[]{0x01, 0x02, 0x03};
+            CopyHandler handler = new CopyHandler();
+
+            // arrange
+            replyData(given);
+
+            try (PtpIpInitiator initiator = connect(PtpIpInitiator.IOMode.STREAM);
+                 BufferPool.Lease other = pool.openLease("other")) {
+                for (int i = 0; i < 8; i++) {
+                    other.acquire(pool.getMaxBufferSize());
+                }
+
+                // act
+                initiator.sendOperation(OperationCode.GET_OBJECT_INFO);
+                byte[] actual = initiator.receiveData(handler);
+                initiator.checkAndReadResponse();
+
+                // verify
+                assertThat(actual, is(given));
+                assertThat(handler.isDirect, is(false));
+                assertThat(pool.getMetrics().getExhaustedCount(), is(1L));
+            }
+        }
+
+        @Test
+        public void releaseWhenHandlerFails() throws IOException {
+            // arrange
+            replyData(new byte[]{0x01});
+
+            try (PtpIpInitiator initiator = connect(PtpIpInitiator.IOMode.STREAM)) {
+                // act
+                initiator.sendOperation(OperationCode.GET_OBJECT_INFO);
+                try {
+                    initiator.receiveData(new DataHandler<Object>() {
+                        @Override
+                        public Object handle(ByteBuffer data) throws IOException {
+                            throw new IOException("broken");
+                        }
+                    });
+                    fail();
+                } catch (IOException e) {
+                    // verify
+                    assertThat(e.getMessage(), is("broken"));
+                }
+
+                // verify
+                assertThat(pool.getLeasedBytes(), is(0L));
+                assertThat(initiator.receiveResponse().getResponseCode(), is(ResponseCode.OK.value()));
+            }
+        }
+
+        private void receiveDataOfLength(long announcedLength, byte[] data) throws IOException {
+            // given
+            UINT32 numObjects = new UINT32(42);
+
+            // arrange
+            responder.reply(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(announcedLength)),
+                    new EndDataPacket(TRANSACTION_ID, data),
+                    new OperationResponsePacket(ResponseCode.OK.value(), TRANSACTION_ID)
+            );
+            responder.reply(new OperationResponsePacket(ResponseCode.OK.value(), new UINT32(1), numObjects));
+
+            try (PtpIpInitiator initiator = connect(PtpIpInitiator.IOMode.STREAM)) {
+                // act
+                initiator.sendOperation(OperationCode.GET_OBJECT_INFO);
+                try {
+                    initiator.receiveData(new CopyHandler());
+                    fail();
+                } catch (IOException e) {
+                    // expected
+                }
+
+                // verify (the next operation reads its own response)
+                assertThat(pool.getLeasedBytes(), is(0L));
+                initiator.sendOperation(OperationCode.GET_NUM_OBJECTS);
+                assertThat(initiator.checkAndReadResponse().getP1(), is(numObjects));
+            }
+        }
+
+        @Test
+        public void shorterThanAnnouncedIntoPooledBuffer() throws IOException {
+            receiveDataOfLength(4, new byte[]{0x01, 0x02, 0x03});
+        }
+
+        @Test
+        public void longerThanAnnouncedOnHeap() throws IOException {
+            int announcedLength = pool.getMaxBufferSize() + 1;
+            receiveDataOfLength(announcedLength, new byte[announcedLength + 1]);
+        }
+
+        @Test
+        public void channelBuffersAreReleasedOnClose() throws IOException {
+            // act
+            PtpIpInitiator initiator = connect(PtpIpInitiator.IOMode.CHANNEL);
+            long leasedWhileOpen = pool.getLeasedBytes();
+            initiator.close();
+
+            // verify
+            assertThat(leasedWhileOpen, is(4 * 64 * 1024L));
+            assertThat(pool.getLeasedBytes(), is(0L));
+            assertThat(pool.getMetrics().getLeakCount(), is(0L));
+        }
+
+        @Test
+        public void releaseWhenHandshakeFails() throws IOException {
+            // given (the responder closes the connection without InitCommandAck)
+            final PipeTransport refusing = new PipeTransport();
+            final List<Connection> connections = new ArrayList<>();
+            Transport transport = new Transport() {
+                @Override
+                public Connection connect(ConnectionOptions options) {
+                    Connection connection = refusing.connect(options);
+                    connections.add(connection);
+                    return connection;
+                }
+            };
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refusing.accept().close();
+                    } catch (IOException e) {
+                        // closed
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            ConnectionOptions options = new ConnectionOptions.Builder()
+                    .ioMode(PtpIpInitiator.IOMode.CHANNEL)
+                    .bufferPool(pool)
+                    .build();
+
+            // act
+            try {
+                new PtpIpInitiator(GUID, transport, options);
+                fail();
+            } catch (IOException e) {
+                // expected
+            }
+
+            // verify
+            assertThat(connections.size(), is(1));
+            assertThat(connections.get(0).isOpen(), is(false));
+            assertThat(pool.getLeasedBytes(), is(0L));
+            assertThat(pool.getMetrics().getLeakCount(), is(0L));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void withNullHandler() throws IOException {
+            try (PtpIpInitiator initiator = connect(PtpIpInitiator.IOMode.STREAM)) {
+                // act
+                initiator.receiveData((DataHandler<Object>) null);
+            }
+        }
     }
 }
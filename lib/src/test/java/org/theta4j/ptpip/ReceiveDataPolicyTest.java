@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class ReceiveDataPolicyTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeMemoryThreshold() {
+        // act
+        new ReceiveDataPolicy(-1, ReceiveDataPolicy.UNLIMITED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeMaxDataLength() {
+        // act
+        new ReceiveDataPolicy(0, -1);
+    }
+
+    @Test
+    public void fitsInMemory() {
+        // given
+        ReceiveDataPolicy policy = new ReceiveDataPolicy(10, ReceiveDataPolicy.UNLIMITED);
+
+        // verify
+        assertThat(policy.fitsInMemory(0), is(true));
+        assertThat(policy.fitsInMemory(10), is(true));
+        assertThat(policy.fitsInMemory(11), is(false));
+        assertThat(policy.fitsInMemory(-1), is(false));
+    }
+
+    @Test
+    public void exceeds() {
+        // given
+        ReceiveDataPolicy policy = new ReceiveDataPolicy(0, 10);
+
+        // verify
+        assertThat(policy.exceeds(10), is(false));
+        assertThat(policy.exceeds(11), is(true));
+        assertThat(policy.exceeds(-1), is(true));
+    }
+
+    @Test
+    public void unlimited() {
+        // given
+        ReceiveDataPolicy policy = new ReceiveDataPolicy(0, ReceiveDataPolicy.UNLIMITED);
+
+        // verify
+        assertThat(policy.exceeds(Long.MAX_VALUE), is(false));
+        assertThat(policy.exceeds(-1), is(false));
+    }
+}
@@ -4,9 +4,12 @@
 
 package org.theta4j.ptpip.io;
 
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.theta4j.ptp.DataBufferAllocator;
 import org.theta4j.ptp.PtpException;
 import org.theta4j.ptp.code.ResponseCode;
 import org.theta4j.ptp.type.UINT16;
@@ -14,14 +17,26 @@ import org.theta4j.ptp.type.UINT32;
 import org.theta4j.ptp.type.UINT64;
 import org.theta4j.ptpip.packet.*;
 import org.theta4j.util.ArrayUtils;
+import org.theta4j.util.DirectBufferPool;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.UUID;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 @RunWith(Enclosed.class)
 public class PtpIpInputStreamTest {
@@ -40,6 +55,35 @@ public class PtpIpInputStreamTest {
             assertThat(pis.nextType(), is(PtpIpPacket.Type.INIT_COMMAND_REQUEST));
             assertThat(pis.readInitCommandRequestPacket(), is(given));
         }
+
+        @Test
+        public void consecutivePackets() throws IOException {
+            // given
+            PtpIpPacket given1 = new CancelPacket(new UINT32(1));
+            PtpIpPacket given2 = new InitFailPacket(new UINT32(2));
+
+            // arrange
+            InputStream givenInputStream = new ByteArrayInputStream(ArrayUtils.join(given1.bytes(), given2.bytes()));
+            PtpIpInputStream pis = new PtpIpInputStream(givenInputStream);
+
+            // act & verify
+            assertThat(pis.nextType(), is(PtpIpPacket.Type.CANCEL));
+            assertThat(pis.readCancelPacket(), is(given1));
+            assertThat(pis.nextType(), is(PtpIpPacket.Type.INIT_FAIL));
+            assertThat(pis.readInitFailPacket(), is(given2));
+        }
+
+        @Test(expected = RuntimeException.class)
+        public void unexpectedType() throws IOException {
+            // given
+            PtpIpPacket given = new CancelPacket(new UINT32(1));
+
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(given.bytes()));
+
+            // act
+            pis.readInitFailPacket();
+        }
     }
 
     public static class ReadPacket {
@@ -322,5 +366,353 @@ public class PtpIpInputStreamTest {
             // verify
             assertThat(actual, is(data));
         }
+
+        @Test
+        public void largerThanTransferBuffer() throws IOException {
+            // given
+            UINT32 transactionID = new UINT32(1);
+            byte[] data1 = new byte[100 * 1024];
+            byte[] data2 = new byte[200 * 1024];
+            data1[0] = 0x01;
+            data2[data2.length - 1] = 0x02;
+            byte[] data = ArrayUtils.join(data1, data2);
+
+            // arrange
+            byte[] givenBytes = ArrayUtils.join(
+                    new StartDataPacket(transactionID, new UINT64(data.length)).bytes(),
+                    new DataPacket(transactionID, data1).bytes(),
+                    new EndDataPacket(transactionID, data2).bytes()
+            );
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(givenBytes));
+
+            // act
+            byte[] actual = pis.readData();
+
+            // verify
+            assertThat(actual, is(data));
+        }
+
+        @Test(expected = EOFException.class)
+        public void truncatedDataPayload() throws IOException {
+            // given
+            UINT32 transactionID = new UINT32(1);
+            byte[] endData = new EndDataPacket(transactionID, new byte[]{0x00, 0x01, 0x02, 0x03}).bytes();
+
+            // arrange
+            byte[] givenBytes = ArrayUtils.join(
+                    new StartDataPacket(transactionID, new UINT64(4)).bytes(),
+                    Arrays.copyOf(endData, endData.length - 1)
+            );
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(givenBytes));
+
+            // act
+            pis.readData();
+        }
+
+        @Test(expected = IOException.class)
+        public void unexpectedPacketInDataPhase() throws IOException {
+            // given
+            UINT32 transactionID = new UINT32(1);
+
+            // arrange
+            byte[] givenBytes = ArrayUtils.join(
+                    new StartDataPacket(transactionID, new UINT64(4)).bytes(),
+                    new CancelPacket(transactionID).bytes()
+            );
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(givenBytes));
+
+            // act
+            pis.readData();
+        }
+
+        @Test
+        public void fromChannel() throws IOException {
+            // given
+            UINT32 transactionID = new UINT32(1);
+            byte[] data1 = new byte[100 * 1024];
+            byte[] data2 = new byte[]{0x04, 0x05, 0x06, 0x07};
+            data1[data1.length - 1] = 0x03;
+            byte[] data = ArrayUtils.join(data1, data2);
+
+            // arrange
+            byte[] givenBytes = ArrayUtils.join(
+                    new StartDataPacket(transactionID, new UINT64(data.length)).bytes(),
+                    new DataPacket(transactionID, data1).bytes(),
+                    new EndDataPacket(transactionID, data2).bytes()
+            );
+            ReadableByteChannel givenChannel = Channels.newChannel(new ByteArrayInputStream(givenBytes));
+            PtpIpInputStream pis = new PtpIpInputStream(givenChannel, new DirectBufferPool(16 * 1024, 1));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+            // act
+            pis.readData(Channels.newChannel(baos));
+
+            // verify
+            assertThat(baos.toByteArray(), is(data));
+        }
+
+        @Test
+        public void fromStreamToChannel() throws IOException {
+            // given
+            UINT32 transactionID = new UINT32(1);
+            byte[] data = new byte[]{0x00, 0x01, 0x02, 0x03};
+
+            // arrange
+            byte[] givenBytes = ArrayUtils.join(
+                    new StartDataPacket(transactionID, new UINT64(data.length)).bytes(),
+                    new EndDataPacket(transactionID, data).bytes()
+            );
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(givenBytes));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+            // act
+            pis.readData(Channels.newChannel(baos));
+
+            // verify
+            assertThat(baos.toByteArray(), is(data));
+        }
+
+        @Test
+        public void closeReleasesBuffer() throws IOException {
+            // given
+            DirectBufferPool pool = new DirectBufferPool(16, 1);
+            PtpIpInputStream pis = new PtpIpInputStream(Channels.newChannel(new ByteArrayInputStream(new byte[0])), pool);
+
+            // act
+            pis.close();
+
+            // verify
+            assertThat(pool.pooledCount(), is(1));
+        }
+    }
+
+    public static class ReadDataToFile {
+        private static final UINT32 TRANSACTION_ID = new UINT32(1);
+
+        @Rule
+        public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+        private static byte[] dataPhase(long totalDataLength, byte[] data1, byte[] data2) {
+            return ArrayUtils.join(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(totalDataLength)).bytes(),
+                    new DataPacket(TRANSACTION_ID, data1).bytes(),
+                    new EndDataPacket(TRANSACTION_ID, data2).bytes()
+            );
+        }
+
+        @Test
+        public void fromChannel() throws IOException {
+            // given
+            byte[] data1 = new byte[100 * 1024];
+            byte[] data2 = new byte[]{0x04, 0x05, 0x06, 0x07};
+            data1[data1.length - 1] = 0x03;
+            byte[] data = ArrayUtils.join(data1, data2);
+
+            // arrange
+            ReadableByteChannel givenChannel = Channels.newChannel(new ByteArrayInputStream(dataPhase(data.length, data1, data2)));
+            PtpIpInputStream pis = new PtpIpInputStream(givenChannel, new DirectBufferPool(16 * 1024, 1));
+            Path path = temporaryFolder.newFile().toPath();
+
+            // act
+            try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                pis.readData(fileChannel);
+
+                // verify
+                assertThat(fileChannel.position(), is((long) data.length));
+            }
+            assertThat(Files.readAllBytes(path), is(data));
+        }
+
+        @Test
+        public void fromStreamAtPosition() throws IOException {
+            // given
+            byte[] head = new byte[]{0x0A, 0x0B};
+            byte[] data1 = new byte[]{0x00, 0x01};
+            byte[] data2 = new byte[]{0x02, 0x03};
+
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(dataPhase(4, data1, data2)));
+            Path path = temporaryFolder.newFile().toPath();
+            Files.write(path, head);
+
+            // act
+            try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                fileChannel.position(head.length);
+                pis.readData(fileChannel);
+            }
+
+            // verify
+            assertThat(Files.readAllBytes(path), is(ArrayUtils.join(head, data1, data2)));
+        }
+
+        @Test
+        public void truncateIfShorterThanAnnounced() throws IOException {
+            // given
+            byte[] data1 = new byte[]{0x00, 0x01};
+            byte[] data2 = new byte[]{0x02, 0x03};
+
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(dataPhase(1024, data1, data2)));
+            Path path = temporaryFolder.newFile().toPath();
+
+            // act
+            try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                pis.readData(fileChannel);
+            }
+
+            // verify
+            assertThat(Files.readAllBytes(path), is(ArrayUtils.join(data1, data2)));
+        }
+    }
+
+    public static class ReadDataToBuffer {
+        private static final UINT32 TRANSACTION_ID = new UINT32(1);
+
+        private static final DataBufferAllocator HEAP = new DataBufferAllocator() {
+            @Override
+            public ByteBuffer allocate(long totalDataLength) {
+                return ByteBuffer.allocate((int) totalDataLength);
+            }
+        };
+
+        private static final DataBufferAllocator DIRECT = new DataBufferAllocator() {
+            @Override
+            public ByteBuffer allocate(long totalDataLength) {
+                return ByteBuffer.allocateDirect((int) totalDataLength);
+            }
+        };
+
+        private static byte[] dataPhase(long totalDataLength, byte[] data1, byte[] data2) {
+            return ArrayUtils.join(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(totalDataLength)).bytes(),
+                    new DataPacket(TRANSACTION_ID, data1).bytes(),
+                    new EndDataPacket(TRANSACTION_ID, data2).bytes()
+            );
+        }
+
+        private static byte[] toBytes(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        @Test
+        public void fromStreamToHeap() throws IOException {
+            // given
+            byte[] data1 = new byte[]{0x00, 0x01};
+            byte[] data2 = new byte[]{0x02, 0x03};
+
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(dataPhase(4, data1, data2)));
+
+            // act
+            ByteBuffer actual = pis.readData(HEAP);
+
+            // verify
+            assertThat(toBytes(actual), is(ArrayUtils.join(data1, data2)));
+        }
+
+        @Test
+        public void fromStreamToDirect() throws IOException {
+            // given
+            byte[] data1 = new byte[]{0x00, 0x01};
+            byte[] data2 = new byte[]{0x02, 0x03};
+
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(dataPhase(4, data1, data2)));
+
+            // act
+            ByteBuffer actual = pis.readData(DIRECT);
+
+            // verify
+            assertThat(toBytes(actual), is(ArrayUtils.join(data1, data2)));
+        }
+
+        @Test
+        public void fromChannel() throws IOException {
+            // given
+            byte[] data1 = new byte[100 * 1024];
+            byte[] data2 = new byte[]{0x04, 0x05, 0x06, 0x07};
+            data1[data1.length - 1] = 0x03;
+            byte[] data = ArrayUtils.join(data1, data2);
+
+            // arrange
+            ReadableByteChannel givenChannel = Channels.newChannel(new ByteArrayInputStream(dataPhase(data.length, data1, data2)));
+            PtpIpInputStream pis = new PtpIpInputStream(givenChannel, new DirectBufferPool(16 * 1024, 1));
+
+            // act
+            ByteBuffer actual = pis.readData(DIRECT);
+
+            // verify
+            assertThat(toBytes(actual), is(data));
+        }
+
+        @Test
+        public void keepPositionOfBuffer() throws IOException {
+            // given
+            byte[] data1 = new byte[]{0x00, 0x01};
+            byte[] data2 = new byte[]{0x02, 0x03};
+
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(dataPhase(4, data1, data2)));
+            final ByteBuffer given = ByteBuffer.allocate(16);
+            given.position(3);
+
+            // act
+            ByteBuffer actual = pis.readData(new DataBufferAllocator() {
+                @Override
+                public ByteBuffer allocate(long totalDataLength) {
+                    return given;
+                }
+            });
+
+            // verify
+            assertThat(actual.position(), is(3));
+            assertThat(actual.limit(), is(7));
+        }
+
+        @Test(expected = IOException.class)
+        public void longerThanAnnounced() throws IOException {
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(dataPhase(3, new byte[2], new byte[2])));
+
+            // act
+            pis.readData(HEAP);
+        }
+
+        @Test(expected = IOException.class)
+        public void shorterThanAnnounced() throws IOException {
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(dataPhase(5, new byte[2], new byte[2])));
+
+            // act
+            pis.readData(HEAP);
+        }
+
+        @Test
+        public void skipRestOfDataPhaseWhenLongerThanAnnounced() throws IOException {
+            // given
+            OperationResponsePacket response = new OperationResponsePacket(ResponseCode.OK.value(), TRANSACTION_ID);
+
+            // arrange
+            PtpIpInputStream pis = new PtpIpInputStream(new ByteArrayInputStream(ArrayUtils.join(
+                    new StartDataPacket(TRANSACTION_ID, new UINT64(1)).bytes(),
+                    new DataPacket(TRANSACTION_ID, new byte[2]).bytes(),
+                    new DataPacket(TRANSACTION_ID, new byte[2]).bytes(),
+                    new EndDataPacket(TRANSACTION_ID, new byte[2]).bytes(),
+                    response.bytes()
+            )));
+
+            // act
+            try {
+                pis.readData(HEAP);
+                fail();
+            } catch (IOException e) {
+                // expected
+            }
+
+            // verify
+            assertThat(pis.readOperationResponsePacket(), is(response));
+        }
     }
 }
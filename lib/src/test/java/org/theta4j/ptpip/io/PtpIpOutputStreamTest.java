@@ -6,28 +6,43 @@ package org.theta4j.ptpip.io;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.theta4j.ptp.type.UINT32;
 import org.theta4j.ptp.type.UINT64;
 import org.theta4j.ptpip.packet.CancelPacket;
+import org.theta4j.ptpip.packet.DataPacket;
 import org.theta4j.ptpip.packet.EndDataPacket;
 import org.theta4j.ptpip.packet.PtpIpPacket;
 import org.theta4j.ptpip.packet.StartDataPacket;
 import org.theta4j.util.ArrayUtils;
+import org.theta4j.util.DirectBufferPool;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
 public class PtpIpOutputStreamTest {
-    private ByteArrayOutputStream baos;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FlushCountingOutputStream baos;
     private PtpIpOutputStream pos;
 
     @Before
     public void setUp() {
-        baos = new ByteArrayOutputStream();
+        baos = new FlushCountingOutputStream();
         pos = new PtpIpOutputStream(baos);
     }
 
@@ -71,4 +86,357 @@ public class PtpIpOutputStreamTest {
         byte[] actual = baos.toByteArray();
         assertThat(actual, is(expected));
     }
+
+    @Test
+    public void writeLargePacket() throws IOException {
+        // given
+        PtpIpPacket given = new DataPacket(new UINT32(2), new byte[100 * 1024]);
+
+        // expected
+        byte[] expected = given.bytes();
+
+        // act
+        pos.write(given);
+
+        // verify
+        byte[] actual = baos.toByteArray();
+        assertThat(actual, is(expected));
+        assertThat(baos.flushCount, is(1));
+    }
+
+    @Test
+    public void writeLargeData() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        byte[] given = new byte[100 * 1024];
+        given[given.length - 1] = 0x12;
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                new StartDataPacket(transactionID, new UINT64(given.length)).bytes(),
+                new EndDataPacket(transactionID, given).bytes()
+        );
+
+        // act
+        pos.writeData(transactionID, given);
+
+        // verify
+        byte[] actual = baos.toByteArray();
+        assertThat(actual, is(expected));
+        assertThat(baos.flushCount, is(1));
+    }
+
+    @Test
+    public void writeDataFlushesOnce() throws IOException {
+        // act
+        pos.writeData(new UINT32(2), new byte[]{0x12, 0x34});
+
+        // verify
+        assertThat(baos.flushCount, is(1));
+    }
+
+    @Test
+    public void append() throws IOException {
+        // act
+        pos.append(new CancelPacket(UINT32.MAX_VALUE));
+
+        // verify
+        assertThat(baos.size(), is(0));
+        assertThat(pos.hasPendingPackets(), is(true));
+    }
+
+    @Test
+    public void appendAndFlush() throws IOException {
+        // given
+        PtpIpPacket given1 = new CancelPacket(new UINT32(1));
+        PtpIpPacket given2 = new CancelPacket(new UINT32(2));
+
+        // expected
+        byte[] expected = ArrayUtils.join(given1.bytes(), given2.bytes());
+
+        // act
+        pos.append(given1);
+        pos.append(given2);
+        pos.flush();
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+        assertThat(baos.writeCount, is(1));
+        assertThat(baos.flushCount, is(1));
+        assertThat(pos.hasPendingPackets(), is(false));
+    }
+
+    @Test
+    public void appendAndWrite() throws IOException {
+        // given
+        PtpIpPacket given1 = new CancelPacket(new UINT32(1));
+        PtpIpPacket given2 = new CancelPacket(new UINT32(2));
+
+        // expected
+        byte[] expected = ArrayUtils.join(given1.bytes(), given2.bytes());
+
+        // act
+        pos.append(given1);
+        pos.write(given2);
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+        assertThat(baos.writeCount, is(1));
+    }
+
+    @Test
+    public void appendAndWriteData() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        PtpIpPacket given = new CancelPacket(transactionID);
+        byte[] data = new byte[]{0x12, 0x34};
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                given.bytes(),
+                new StartDataPacket(transactionID, new UINT64(data.length)).bytes(),
+                new EndDataPacket(transactionID, data).bytes()
+        );
+
+        // act
+        pos.append(given);
+        pos.writeData(transactionID, data);
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+        assertThat(baos.writeCount, is(1));
+        assertThat(baos.flushCount, is(1));
+    }
+
+    @Test
+    public void appendAndWriteStreamedData() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        PtpIpPacket given = new CancelPacket(transactionID);
+        byte[] data = new byte[]{0x12, 0x34};
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                given.bytes(),
+                new StartDataPacket(transactionID, new UINT64(data.length)).bytes(),
+                new EndDataPacket(transactionID, data).bytes()
+        );
+
+        // act
+        pos.append(given);
+        pos.writeData(transactionID, new ByteArrayInputStream(data), data.length);
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+        assertThat(baos.flushCount, is(1));
+    }
+
+    @Test
+    public void appendLargePacket() throws IOException {
+        // given
+        PtpIpPacket given1 = new CancelPacket(new UINT32(1));
+        PtpIpPacket given2 = new DataPacket(new UINT32(2), new byte[100 * 1024]);
+
+        // expected
+        byte[] expected = ArrayUtils.join(given1.bytes(), given2.bytes());
+
+        // act
+        pos.append(given1);
+        pos.append(given2);
+        pos.flush();
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+    }
+
+    @Test
+    public void appendBeyondBuffer() throws IOException {
+        // given
+        PtpIpPacket given = new DataPacket(new UINT32(2), new byte[3 * 1024]);
+
+        // expected
+        byte[] expected = ArrayUtils.join(given.bytes(), given.bytes(), given.bytes());
+
+        // act
+        pos.append(given);
+        pos.append(given);
+        pos.append(given);
+        pos.flush();
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+        assertThat(baos.writeCount, is(2));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void appendNull() throws IOException {
+        // act
+        pos.append(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void writeNull() throws IOException {
+        // act
+        pos.write(null);
+    }
+
+    @Test
+    public void writeDataToChannel() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        byte[] given = new byte[100 * 1024];
+        given[given.length - 1] = 0x12;
+        DirectBufferPool pool = new DirectBufferPool(16 * 1024, 1);
+        PtpIpOutputStream channelStream = new PtpIpOutputStream(Channels.newChannel(baos), pool);
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                new StartDataPacket(transactionID, new UINT64(given.length)).bytes(),
+                new EndDataPacket(transactionID, given).bytes()
+        );
+
+        // act
+        channelStream.writeData(transactionID, given);
+        channelStream.close();
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+        assertThat(pool.pooledCount(), is(1));
+    }
+
+    @Test
+    public void writeStreamedData() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        int chunk = PtpIpOutputStream.STREAMED_DATA_PAYLOAD_SIZE;
+        byte[] given = streamedData(chunk * 2 + 3);
+
+        // act
+        pos.writeData(transactionID, new ByteArrayInputStream(given), given.length);
+
+        // verify
+        assertThat(baos.toByteArray(), is(expectedStreamedData(transactionID, given)));
+        assertThat(baos.flushCount, is(1));
+    }
+
+    @Test
+    public void writeStreamedDataOfChunkSize() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        byte[] given = streamedData(PtpIpOutputStream.STREAMED_DATA_PAYLOAD_SIZE);
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                new StartDataPacket(transactionID, new UINT64(given.length)).bytes(),
+                new EndDataPacket(transactionID, given).bytes()
+        );
+
+        // act
+        pos.writeData(transactionID, new ByteArrayInputStream(given), given.length);
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+    }
+
+    @Test
+    public void writeEmptyStreamedData() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+
+        // expected
+        byte[] expected = ArrayUtils.join(
+                new StartDataPacket(transactionID, new UINT64(0)).bytes(),
+                new EndDataPacket(transactionID, new byte[0]).bytes()
+        );
+
+        // act
+        pos.writeData(transactionID, new ByteArrayInputStream(new byte[0]), 0);
+
+        // verify
+        assertThat(baos.toByteArray(), is(expected));
+    }
+
+    @Test(expected = EOFException.class)
+    public void writeTruncatedStreamedData() throws IOException {
+        // act
+        pos.writeData(new UINT32(2), new ByteArrayInputStream(new byte[3]), 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writeStreamedDataOfNegativeLength() throws IOException {
+        // act
+        pos.writeData(new UINT32(2), new ByteArrayInputStream(new byte[0]), -1);
+    }
+
+    @Test
+    public void writeStreamedDataToChannel() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        byte[] given = streamedData(PtpIpOutputStream.STREAMED_DATA_PAYLOAD_SIZE * 2 + 3);
+        PtpIpOutputStream channelStream = new PtpIpOutputStream(Channels.newChannel(baos), new DirectBufferPool(16 * 1024, 1));
+
+        // act
+        channelStream.writeData(transactionID, Channels.newChannel(new ByteArrayInputStream(given)), given.length);
+        channelStream.close();
+
+        // verify
+        assertThat(baos.toByteArray(), is(expectedStreamedData(transactionID, given)));
+    }
+
+    @Test
+    public void writeStreamedDataFromFileToChannel() throws IOException {
+        // given
+        UINT32 transactionID = new UINT32(2);
+        byte[] given = streamedData(PtpIpOutputStream.STREAMED_DATA_PAYLOAD_SIZE * 2 + 3);
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, given);
+        PtpIpOutputStream channelStream = new PtpIpOutputStream(Channels.newChannel(baos), new DirectBufferPool(16 * 1024, 1));
+
+        // act
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channelStream.writeData(transactionID, fileChannel, given.length);
+        }
+        channelStream.close();
+
+        // verify
+        assertThat(baos.toByteArray(), is(expectedStreamedData(transactionID, given)));
+    }
+
+    private static byte[] streamedData(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    /**
+     * StartData, Data packets of the chunk size, and EndData of the rest.
+     */
+    private static byte[] expectedStreamedData(UINT32 transactionID, byte[] data) {
+        int chunk = PtpIpOutputStream.STREAMED_DATA_PAYLOAD_SIZE;
+        return ArrayUtils.join(
+                new StartDataPacket(transactionID, new UINT64(data.length)).bytes(),
+                new DataPacket(transactionID, Arrays.copyOfRange(data, 0, chunk)).bytes(),
+                new DataPacket(transactionID, Arrays.copyOfRange(data, chunk, chunk * 2)).bytes(),
+                new EndDataPacket(transactionID, Arrays.copyOfRange(data, chunk * 2, data.length)).bytes()
+        );
+    }
+
+    private static final class FlushCountingOutputStream extends ByteArrayOutputStream {
+        private int flushCount;
+        private int writeCount;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writeCount++;
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushCount++;
+            super.flush();
+        }
+    }
 }
@@ -12,6 +12,7 @@ import org.theta4j.ptp.type.UINT32;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -50,7 +51,7 @@ public class CancelPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            CancelPacket.read(null);
+            CancelPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -96,6 +97,25 @@ public class CancelPacketTest {
             assertThat(actual.getTransactionID(), is(TRANSACTION_ID));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = TRANSACTION_ID.bytes();
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(CANCEL, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            CancelPacket actual = CancelPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(CANCEL));
+            assertThat(actual.getTransactionID(), is(TRANSACTION_ID));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
     }
 
     public static class HashCode {
@@ -12,8 +12,10 @@ import org.theta4j.ptp.type.UINT32;
 import org.theta4j.util.ArrayUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -63,7 +65,7 @@ public class DataPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            DataPacket.read(null);
+            DataPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -130,6 +132,124 @@ public class DataPacketTest {
             assertThat(actual.getDataPayload(), is(DATA_PAYLOAD));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = ArrayUtils.join(
+                    TRANSACTION_ID.bytes(),
+                    DATA_PAYLOAD
+            );
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(DATA, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            DataPacket actual = DataPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(DATA));
+            assertThat(actual.getTransactionID(), is(TRANSACTION_ID));
+            assertThat(actual.getDataPayload(), is(DATA_PAYLOAD));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
+    }
+
+    public static class Encode {
+        @Test
+        public void toByteBuffers() {
+            // given
+            DataPacket packet = new DataPacket(TRANSACTION_ID, DATA_PAYLOAD);
+
+            // expected
+            byte[] expected = packet.bytes();
+
+            // act
+            ByteBuffer[] actual = packet.toByteBuffers();
+
+            // verify
+            assertThat(actual.length, is(2));
+            assertThat(actual[1].isReadOnly(), is(true));
+            ByteBuffer joined = ByteBuffer.allocate(actual[0].remaining() + actual[1].remaining());
+            joined.put(actual[0]).put(actual[1]);
+            assertThat(joined.array(), is(expected));
+            assertThat(packet.sizeInBytes(), is(expected.length));
+        }
+    }
+
+    public static class PayloadView {
+        @Test
+        public void wrapSharesContent() {
+            // given
+            byte[] given = DATA_PAYLOAD.clone();
+
+            // act
+            DataPacket packet = DataPacket.wrap(TRANSACTION_ID, ByteBuffer.wrap(given));
+            given[0] = 0x7F;
+
+            // verify
+            assertThat(packet.getDataPayload()[0], is((byte) 0x7F));
+            assertThat(packet.getDataPayloadLength(), is(DATA_PAYLOAD.length));
+        }
+
+        @Test
+        public void readFromByteBufferWithoutCopy() throws IOException {
+            // given
+            byte[] givenPacketBytes = new DataPacket(TRANSACTION_ID, DATA_PAYLOAD).bytes();
+
+            // act
+            DataPacket packet = DataPacket.read(ByteBuffer.wrap(givenPacketBytes));
+            givenPacketBytes[givenPacketBytes.length - 1] = 0x7F;
+
+            // verify
+            byte[] actual = packet.getDataPayload();
+            assertThat(actual[actual.length - 1], is((byte) 0x7F));
+        }
+
+        @Test
+        public void getDataPayloadBuffer() {
+            // given
+            DataPacket packet = new DataPacket(TRANSACTION_ID, DATA_PAYLOAD);
+
+            // act
+            ByteBuffer actual = packet.getDataPayloadBuffer();
+            actual.get();
+
+            // verify
+            assertTrue(actual.isReadOnly());
+            assertThat(packet.getDataPayloadBuffer().remaining(), is(DATA_PAYLOAD.length));
+        }
+
+        @Test
+        public void writeDataPayloadTo() throws IOException {
+            // given
+            DataPacket packet = new DataPacket(TRANSACTION_ID, DATA_PAYLOAD);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+            // act
+            packet.writeDataPayloadTo(baos);
+
+            // verify
+            assertThat(baos.toByteArray(), is(DATA_PAYLOAD));
+        }
+
+        @Test
+        public void writeDataPayloadToFromDirectBuffer() throws IOException {
+            // given
+            ByteBuffer direct = ByteBuffer.allocateDirect(DATA_PAYLOAD.length);
+            direct.put(DATA_PAYLOAD).flip();
+            DataPacket packet = DataPacket.wrap(TRANSACTION_ID, direct);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+            // act
+            packet.writeDataPayloadTo(baos);
+
+            // verify
+            assertThat(baos.toByteArray(), is(DATA_PAYLOAD));
+            assertThat(packet.getDataPayloadLength(), is(DATA_PAYLOAD.length));
+        }
     }
 
     public static class HashCode {
@@ -15,6 +15,7 @@ import org.theta4j.util.ArrayUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -87,7 +88,7 @@ public class EventPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            EventPacket.read(null);
+            EventPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -141,6 +142,33 @@ public class EventPacketTest {
             assertThat(actual.getP3(), is(P3));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = ArrayUtils.join(
+                    EVENT_CODE.bytes(),
+                    TRANSACTION_ID.bytes(),
+                    P1.bytes(), P2.bytes(), P3.bytes()
+            );
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(PtpIpPacket.Type.EVENT, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            EventPacket actual = EventPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), Is.is(PtpIpPacket.Type.EVENT));
+            assertThat(actual.getEventCode(), is(EVENT_CODE));
+            assertThat(actual.getTransactionID(), is(TRANSACTION_ID));
+            assertThat(actual.getP1(), is(P1));
+            assertThat(actual.getP2(), is(P2));
+            assertThat(actual.getP3(), is(P3));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
     }
 
     public static class HashCode {
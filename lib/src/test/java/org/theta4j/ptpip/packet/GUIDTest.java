@@ -60,7 +60,7 @@ public class GUIDTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            GUID.read(null);
+            GUID.read((InputStream) null);
         }
 
         @Test(expected = EOFException.class)
@@ -15,6 +15,7 @@ import org.theta4j.util.ArrayUtils;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.UUID;
 
 import static org.hamcrest.core.Is.is;
@@ -106,7 +107,7 @@ public class InitCommandAckPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            InitCommandAckPacket.read(null);
+            InitCommandAckPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -159,6 +160,32 @@ public class InitCommandAckPacketTest {
             assertThat(actual.getProtocolVersion(), is(PROTOCOL_VERSION));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = ArrayUtils.join(
+                    CONNECTION_NUMBER.bytes(),
+                    GUID.toBytes(GUID_),
+                    PtpIpString.toBytes(NAME),
+                    PROTOCOL_VERSION.bytes());
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(INIT_COMMAND_ACK, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            InitCommandAckPacket actual = InitCommandAckPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(INIT_COMMAND_ACK));
+            assertThat(actual.getConnectionNumber(), is(CONNECTION_NUMBER));
+            assertThat(actual.getGUID(), is(GUID_));
+            assertThat(actual.getName(), is(NAME));
+            assertThat(actual.getProtocolVersion(), is(PROTOCOL_VERSION));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
     }
 
     public static class HashCode {
@@ -15,6 +15,7 @@ import org.theta4j.util.ArrayUtils;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.UUID;
 
 import static org.hamcrest.core.Is.is;
@@ -97,7 +98,7 @@ public class InitCommandRequestPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            InitCommandRequestPacket.read(null);
+            InitCommandRequestPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -151,6 +152,31 @@ public class InitCommandRequestPacketTest {
             assertThat(actual.getProtocolVersion(), is(PROTOCOL_VERSION));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = ArrayUtils.join(
+                    GUID.toBytes(GUID_),
+                    PtpIpString.toBytes(NAME),
+                    PROTOCOL_VERSION.bytes()
+            );
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(INIT_COMMAND_REQUEST, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            InitCommandRequestPacket actual = InitCommandRequestPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(INIT_COMMAND_REQUEST));
+            assertThat(actual.getGUID(), is(GUID_));
+            assertThat(actual.getName(), is(NAME));
+            assertThat(actual.getProtocolVersion(), is(PROTOCOL_VERSION));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
     }
 
     public static class HashCode {
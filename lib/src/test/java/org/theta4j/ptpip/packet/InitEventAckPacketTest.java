@@ -12,6 +12,7 @@ import org.theta4j.ptp.io.PtpInputStream;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -36,7 +37,7 @@ public class InitEventAckPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            InitEventAckPacket.read(null);
+            InitEventAckPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -81,6 +82,24 @@ public class InitEventAckPacketTest {
             assertThat(actual.getType(), is(INIT_EVENT_ACK));
             assertThat(actual.getPayload(), is(new byte[0]));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = new byte[0];
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(INIT_EVENT_ACK, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            InitEventAckPacket actual = InitEventAckPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(INIT_EVENT_ACK));
+            assertThat(actual.getPayload(), is(new byte[0]));
+        }
     }
 
     public static class HashCode {
@@ -12,6 +12,7 @@ import org.theta4j.ptp.type.UINT32;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -47,7 +48,7 @@ public class InitEventRequestPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            InitEventRequestPacket.read(null);
+            InitEventRequestPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -92,6 +93,22 @@ public class InitEventRequestPacketTest {
             assertThat(actual.getConnectionNumber(), is(CONNECTION_NUMBER));
             assertThat(actual.getPayload(), is(CONNECTION_NUMBER.bytes()));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(INIT_EVENT_REQUEST, CONNECTION_NUMBER.bytes());
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            InitEventRequestPacket actual = InitEventRequestPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(INIT_EVENT_REQUEST));
+            assertThat(actual.getConnectionNumber(), is(CONNECTION_NUMBER));
+            assertThat(actual.getPayload(), is(CONNECTION_NUMBER.bytes()));
+        }
     }
 
     public static class HashCode {
@@ -12,6 +12,7 @@ import org.theta4j.ptp.type.UINT32;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -49,7 +50,7 @@ public class InitFailPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            InitFailPacket.read(null);
+            InitFailPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -92,6 +93,22 @@ public class InitFailPacketTest {
             assertThat(actual.getReason(), is(REASON));
             assertThat(actual.getPayload(), is(REASON.bytes()));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(INIT_FAIL, REASON.bytes());
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            InitFailPacket actual = InitFailPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(INIT_FAIL));
+            assertThat(actual.getReason(), is(REASON));
+            assertThat(actual.getPayload(), is(REASON.bytes()));
+        }
     }
 
     public static class HashCode {
@@ -14,6 +14,7 @@ import org.theta4j.util.ArrayUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -113,7 +114,7 @@ public class OperationRequestPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            OperationRequestPacket.read(null);
+            OperationRequestPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -171,6 +172,37 @@ public class OperationRequestPacketTest {
             assertThat(actual.getP5(), is(P5));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = ArrayUtils.join(
+                    DATA_PHASE_INFO.bytes(),
+                    OPERATION_CODE.bytes(),
+                    TRANSACTION_ID.bytes(),
+                    P1.bytes(), P2.bytes(), P3.bytes(), P4.bytes(), P5.bytes()
+            );
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(OPERATION_REQUEST, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            OperationRequestPacket actual = OperationRequestPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(OPERATION_REQUEST));
+            assertThat(actual.getDataPhaseInfo(), is(DATA_PHASE_INFO));
+            assertThat(actual.getOperationCode(), is(OPERATION_CODE));
+            assertThat(actual.getTransactionID(), is(TRANSACTION_ID));
+            assertThat(actual.getP1(), is(P1));
+            assertThat(actual.getP2(), is(P2));
+            assertThat(actual.getP3(), is(P3));
+            assertThat(actual.getP4(), is(P4));
+            assertThat(actual.getP5(), is(P5));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
     }
 
     public static class HashCode {
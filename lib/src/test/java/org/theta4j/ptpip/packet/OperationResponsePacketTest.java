@@ -15,6 +15,7 @@ import org.theta4j.util.ArrayUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -105,7 +106,7 @@ public class OperationResponsePacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            OperationResponsePacket.read(null);
+            OperationResponsePacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -161,6 +162,35 @@ public class OperationResponsePacketTest {
             assertThat(actual.getP5(), is(P5));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = ArrayUtils.join(
+                    RESPONSE_CODE.bytes(),
+                    TRANSACTION_ID.bytes(),
+                    P1.bytes(), P2.bytes(), P3.bytes(), P4.bytes(), P5.bytes()
+            );
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(PtpIpPacket.Type.OPERATION_RESPONSE, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            OperationResponsePacket actual = OperationResponsePacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), Is.is(PtpIpPacket.Type.OPERATION_RESPONSE));
+            assertThat(actual.getResponseCode(), is(RESPONSE_CODE));
+            assertThat(actual.getTransactionID(), is(TRANSACTION_ID));
+            assertThat(actual.getP1(), is(P1));
+            assertThat(actual.getP2(), is(P2));
+            assertThat(actual.getP3(), is(P3));
+            assertThat(actual.getP4(), is(P4));
+            assertThat(actual.getP5(), is(P5));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
     }
 
     public static class HashCode {
@@ -12,6 +12,7 @@ import org.theta4j.ptp.io.PtpInputStream;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -36,7 +37,7 @@ public class ProbeResponsePacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            ProbeResponsePacket.read(null);
+            ProbeResponsePacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -81,6 +82,24 @@ public class ProbeResponsePacketTest {
             assertThat(actual.getType(), is(PROBE_RESPONSE));
             assertThat(actual.getPayload(), is(new byte[0]));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = new byte[0];
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(PROBE_RESPONSE, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            ProbeResponsePacket actual = ProbeResponsePacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), is(PROBE_RESPONSE));
+            assertThat(actual.getPayload(), is(new byte[0]));
+        }
     }
 
     public static class HashCode {
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.packet;
+
+import org.junit.Test;
+import org.theta4j.ptp.io.PtpByteBufferReader;
+import org.theta4j.ptp.io.PtpInputStream;
+import org.theta4j.ptp.type.UINT32;
+import org.theta4j.util.ArrayUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PtpIpHeaderTest {
+    @Test(expected = NullPointerException.class)
+    public void readNull() throws IOException {
+        // act
+        new PtpIpHeader().read(null);
+    }
+
+    @Test
+    public void read() throws IOException {
+        // given
+        byte[] given = new CancelPacket(new UINT32(1)).bytes();
+
+        // arrange
+        PtpInputStream pis = new PtpInputStream(new ByteArrayInputStream(given));
+        PtpIpHeader header = new PtpIpHeader();
+
+        // act
+        header.read(pis);
+
+        // verify
+        assertThat(header.getLength(), is((long) given.length));
+        assertThat(header.getPayloadLength(), is((long) given.length - PtpIpHeader.SIZE_IN_BYTES));
+        assertThat(header.getTypeCode(), is(PtpIpPacket.Type.CANCEL.value().intValue()));
+        assertThat(header.getType(), is(PtpIpPacket.Type.CANCEL));
+        assertThat(CancelPacket.read(header, pis), is(new CancelPacket(new UINT32(1))));
+    }
+
+    @Test
+    public void reuse() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(
+                new InitEventAckPacket().bytes(),
+                new InitFailPacket(new UINT32(2)).bytes()
+        );
+
+        // arrange
+        PtpByteBufferReader reader = new PtpByteBufferReader(ByteBuffer.wrap(given));
+        PtpIpHeader header = new PtpIpHeader();
+
+        // act
+        header.read(reader);
+        InitEventAckPacket.read(header, reader);
+        header.read(reader);
+
+        // verify
+        assertThat(header.getType(), is(PtpIpPacket.Type.INIT_FAIL));
+        assertThat(InitFailPacket.read(header, reader), is(new InitFailPacket(new UINT32(2))));
+    }
+
+    @Test
+    public void lengthLargerThanIntMaxValue() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(UINT32.MAX_VALUE.bytes(), PtpIpPacket.Type.DATA.value().bytes());
+
+        // arrange
+        PtpIpHeader header = new PtpIpHeader();
+
+        // act
+        header.read(new PtpByteBufferReader(ByteBuffer.wrap(given)));
+
+        // verify
+        assertThat(header.getLength(), is(UINT32.MAX_VALUE.longValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownType() throws IOException {
+        // given
+        byte[] given = ArrayUtils.join(new UINT32(8).bytes(), new UINT32(0xFF).bytes());
+
+        // arrange
+        PtpIpHeader header = new PtpIpHeader();
+        header.read(new PtpByteBufferReader(ByteBuffer.wrap(given)));
+
+        // act
+        header.getType();
+    }
+
+    @Test(expected = EOFException.class)
+    public void tooShort() throws IOException {
+        // act
+        new PtpIpHeader().read(new PtpByteBufferReader(ByteBuffer.allocate(PtpIpHeader.SIZE_IN_BYTES - 1)));
+    }
+}
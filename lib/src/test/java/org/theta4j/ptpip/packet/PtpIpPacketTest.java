@@ -6,6 +6,10 @@ package org.theta4j.ptpip.packet;
 
 import org.junit.Test;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
@@ -13,28 +17,136 @@ public class PtpIpPacketTest {
     private static final PtpIpPacket.Type TYPE = PtpIpPacket.Type.INIT_COMMAND_REQUEST;
     private static final byte[] PAYLOAD = new byte[]{0x01, 0x02, 0x03};
 
+    private static final PtpIpPacket PACKET = new PtpIpPacket() {
+        @Override
+        public Type getType() {
+            return TYPE;
+        }
+
+        @Override
+        int payloadSizeInBytes() {
+            return PAYLOAD.length;
+        }
+
+        @Override
+        void writePayloadTo(ByteBuffer buffer) {
+            buffer.put(PAYLOAD);
+        }
+    };
+
     @Test
     public void bytes() {
+        // expected
+        byte[] expected = PtpIpPacketTestUtils.bytes(TYPE, PAYLOAD);
+
+        // act
+        byte[] actual = PACKET.bytes();
+
+        // verify
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void sizeInBytes() {
+        // expected
+        int expected = PtpIpPacketTestUtils.bytes(TYPE, PAYLOAD).length;
+
+        // act
+        int actual = PACKET.sizeInBytes();
+
+        // verify
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void getPayload() {
+        // act
+        byte[] actual = PACKET.getPayload();
+
+        // verify
+        assertThat(actual, is(PAYLOAD));
+    }
+
+    @Test
+    public void writeToBigEndianBuffer() {
         // given
-        PtpIpPacket packet = new PtpIpPacket() {
-            @Override
-            public Type getType() {
-                return TYPE;
-            }
-
-            @Override
-            public byte[] getPayload() {
-                return PAYLOAD;
-            }
-        };
+        ByteBuffer buffer = ByteBuffer.allocate(PACKET.sizeInBytes() + 1).order(ByteOrder.BIG_ENDIAN);
+        buffer.put((byte) 0xFF);
 
         // expected
         byte[] expected = PtpIpPacketTestUtils.bytes(TYPE, PAYLOAD);
 
         // act
-        byte[] actual = packet.bytes();
+        PACKET.writeTo(buffer);
 
         // verify
+        byte[] actual = new byte[expected.length];
+        buffer.flip().position(1);
+        buffer.get(actual);
         assertThat(actual, is(expected));
+        assertThat(buffer.order(), is(ByteOrder.BIG_ENDIAN));
+    }
+
+    @Test
+    public void writeToTooSmallBuffer() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(PACKET.sizeInBytes() - 1);
+
+        // act
+        try {
+            PACKET.writeTo(buffer);
+        } catch (BufferOverflowException e) {
+            // verify
+            assertThat(buffer.position(), is(0));
+            return;
+        }
+
+        throw new AssertionError("BufferOverflowException is not thrown");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void writeToNull() {
+        // act
+        PACKET.writeTo(null);
+    }
+
+    @Test
+    public void toByteBuffers() {
+        // expected
+        byte[] expected = PtpIpPacketTestUtils.bytes(TYPE, PAYLOAD);
+
+        // act
+        ByteBuffer[] actual = PACKET.toByteBuffers();
+
+        // verify
+        assertThat(actual.length, is(1));
+        assertThat(actual[0].remaining(), is(expected.length));
+        byte[] actualBytes = new byte[expected.length];
+        actual[0].get(actualBytes);
+        assertThat(actualBytes, is(expected));
+    }
+
+    @Test
+    public void typeValueOfCode() {
+        for (PtpIpPacket.Type type : new PtpIpPacket.Type[]{PtpIpPacket.Type.INIT_COMMAND_REQUEST, PtpIpPacket.Type.END_DATA}) {
+            // act
+            PtpIpPacket.Type actual = PtpIpPacket.Type.valueOf(type.value().intValue());
+
+            // verify
+            assertThat(actual, is(type));
+            assertThat(PtpIpPacket.Type.valueOf(type.value()), is(type));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typeValueOfUnknownCode() {
+        // act
+        PtpIpPacket.Type.valueOf(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typeValueOfNegativeCode() {
+        // act
+        PtpIpPacket.Type.valueOf(-1);
     }
 }
@@ -71,7 +71,7 @@ public class PtpIpStringTest {
     public static class Read {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
-            PtpIpString.read(null);
+            PtpIpString.read((InputStream) null);
         }
 
         @Test(expected = EOFException.class)
@@ -15,6 +15,7 @@ import org.theta4j.util.ArrayUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNot.not;
@@ -62,7 +63,7 @@ public class StartDataPacketTest {
         @Test(expected = NullPointerException.class)
         public void nullValue() throws IOException {
             // act
-            StartDataPacket.read(null);
+            StartDataPacket.read((PtpInputStream) null);
         }
 
         @Test(expected = IOException.class)
@@ -112,6 +113,29 @@ public class StartDataPacketTest {
             assertThat(actual.getTotalDataLength(), is(TOTAL_DATA_LENGTH));
             assertThat(actual.getPayload(), is(givenPayload));
         }
+
+        @Test
+        public void fromByteBuffer() throws IOException {
+            // given
+            byte[] givenPayload = ArrayUtils.join(
+                    TRANSACTION_ID.bytes(),
+                    TOTAL_DATA_LENGTH.bytes()
+            );
+
+            // arrange
+            byte[] givenPacketBytes = PtpIpPacketTestUtils.bytes(PtpIpPacket.Type.START_DATA, givenPayload);
+            ByteBuffer givenBuffer = ByteBuffer.wrap(givenPacketBytes);
+
+            // act
+            StartDataPacket actual = StartDataPacket.read(givenBuffer);
+
+            // verify
+            assertThat(givenBuffer.remaining(), is(0));
+            assertThat(actual.getType(), Is.is(PtpIpPacket.Type.START_DATA));
+            assertThat(actual.getTransactionID(), is(TRANSACTION_ID));
+            assertThat(actual.getTotalDataLength(), is(TOTAL_DATA_LENGTH));
+            assertThat(actual.getPayload(), is(givenPayload));
+        }
     }
 
     public static class HashCode {
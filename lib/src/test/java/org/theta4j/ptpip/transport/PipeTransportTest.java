@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.theta4j.ptpip.ConnectionOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PipeTransportTest {
+    private static final int BUFFER_SIZE = 16;
+
+    private Connection initiator;
+    private Connection responder;
+
+    @Before
+    public void setUp() throws IOException {
+        PipeTransport transport = new PipeTransport(BUFFER_SIZE);
+        initiator = transport.connect(ConnectionOptions.DEFAULT);
+        responder = transport.accept();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        initiator.close();
+        responder.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroBufferSize() {
+        // act
+        new PipeTransport(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void connectWithNullOptions() {
+        // act
+        new PipeTransport().connect(null);
+    }
+
+    @Test
+    public void channel() throws IOException {
+        // act
+        initiator.write(ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+        ByteBuffer actual = ByteBuffer.allocate(4);
+        int n = responder.read(actual);
+
+        // verify
+        assertThat(n, is(2));
+        assertThat(actual.get(0), is((byte) 0x01));
+        assertThat(actual.get(1), is((byte) 0x02));
+    }
+
+    @Test
+    public void stream() throws IOException {
+        // arrange
+        OutputStream os = responder.getOutputStream();
+        InputStream is = initiator.getInputStream();
+
+        // act
+        os.write(new byte[]{0x01, (byte) 0xFF});
+
+        // verify
+        assertThat(is.read(), is(0x01));
+        assertThat(is.read(), is(0xFF));
+    }
+
+    @Test
+    public void largerThanBuffer() throws Exception {
+        // given
+        final byte[] given = new byte[BUFFER_SIZE * 100 + 3];
+        for (int i = 0; i < given.length; i++) {
+            given[i] = (byte) i;
+        }
+
+        // arrange
+        final AtomicReference<IOException> error = new AtomicReference<>();
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    initiator.write(ByteBuffer.wrap(given));
+                    initiator.close();
+                } catch (IOException e) {
+                    error.set(e);
+                }
+            }
+        });
+        writer.start();
+
+        // act
+        ByteBuffer actual = ByteBuffer.allocate(given.length);
+        while (actual.hasRemaining()) {
+            if (responder.read(actual) == -1) {
+                break;
+            }
+        }
+        writer.join();
+
+        // verify
+        assertThat(error.get() == null, is(true));
+        assertThat(responder.read(ByteBuffer.allocate(1)), is(-1));
+        assertThat(actual.array(), is(given));
+    }
+
+    @Test
+    public void endOfStreamAfterPeerClosed() throws IOException {
+        // arrange
+        initiator.write(ByteBuffer.wrap(new byte[]{0x01}));
+        initiator.close();
+
+        // act
+        ByteBuffer actual = ByteBuffer.allocate(4);
+
+        // verify
+        assertThat(responder.read(actual), is(1));
+        assertThat(responder.read(actual), is(-1));
+    }
+
+    @Test(expected = IOException.class)
+    public void writeAfterPeerClosed() throws IOException {
+        // arrange
+        responder.close();
+
+        // act
+        initiator.write(ByteBuffer.wrap(new byte[]{0x01}));
+    }
+
+    @Test(expected = ClosedChannelException.class)
+    public void readAfterClosed() throws IOException {
+        // arrange
+        initiator.close();
+
+        // act
+        initiator.read(ByteBuffer.allocate(1));
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void readTimeout() throws IOException {
+        // arrange
+        initiator.setReadTimeout(10);
+
+        // act
+        initiator.read(ByteBuffer.allocate(1));
+    }
+
+    @Test
+    public void isOpen() throws IOException {
+        // act
+        initiator.close();
+
+        // verify
+        assertThat(initiator.isOpen(), is(false));
+        assertThat(responder.isOpen(), is(true));
+    }
+}
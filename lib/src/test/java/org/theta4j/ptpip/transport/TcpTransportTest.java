@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.ptpip.transport;
+
+import org.junit.Test;
+import org.theta4j.ptpip.ConnectionOptions;
+import org.theta4j.ptpip.PtpIpInitiator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class TcpTransportTest {
+    @Test(expected = NullPointerException.class)
+    public void withNullHost() {
+        // act
+        new TcpTransport(null, 15740);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withInvalidPort() {
+        // act
+        new TcpTransport("127.0.0.1", 65536);
+    }
+
+    @Test
+    public void configure() throws IOException {
+        // given
+        ConnectionOptions given = new ConnectionOptions.Builder()
+                .tcpNoDelay(true)
+                .keepAlive(true)
+                .build();
+
+        // act
+        try (Socket socket = new Socket()) {
+            TcpTransport.configure(socket, given);
+
+            // verify
+            assertThat(socket.getTcpNoDelay(), is(true));
+            assertThat(socket.getKeepAlive(), is(true));
+        }
+    }
+
+    @Test
+    public void connectStream() throws IOException {
+        connect(PtpIpInitiator.IOMode.STREAM);
+    }
+
+    @Test
+    public void connectChannel() throws IOException {
+        connect(PtpIpInitiator.IOMode.CHANNEL);
+    }
+
+    private static void connect(PtpIpInitiator.IOMode ioMode) throws IOException {
+        // given
+        ConnectionOptions options = new ConnectionOptions.Builder().ioMode(ioMode).build();
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            TcpTransport transport = new TcpTransport("127.0.0.1", serverSocket.getLocalPort());
+
+            // act
+            try (Connection connection = transport.connect(options);
+                 Socket peer = serverSocket.accept()) {
+                connection.write(ByteBuffer.wrap(new byte[]{0x01, 0x02}));
+                OutputStream os = peer.getOutputStream();
+                os.write(0x03);
+                os.flush();
+
+                // verify
+                InputStream is = peer.getInputStream();
+                assertThat(is.read(), is(0x01));
+                assertThat(is.read(), is(0x02));
+
+                ByteBuffer actual = ByteBuffer.allocate(1);
+                assertThat(connection.read(actual), is(1));
+                assertThat(actual.get(0), is((byte) 0x03));
+            }
+        }
+    }
+}
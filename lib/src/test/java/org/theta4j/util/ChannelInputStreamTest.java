@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class ChannelInputStreamTest {
+    private static final byte[] GIVEN = new byte[]{0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ReadableByteChannel channel(byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullChannel() {
+        // act
+        new ChannelInputStream(null, new DirectBufferPool(4, 1));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullPool() {
+        // act
+        new ChannelInputStream(channel(GIVEN), null);
+    }
+
+    @Test
+    public void readAcrossRefills() throws IOException {
+        // given (the buffer is smaller than the content)
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+
+        // act
+        byte[] actual = new byte[GIVEN.length];
+        actual[0] = (byte) cis.read();
+        IOUtils.readFully(cis, actual, 1, actual.length - 1);
+
+        // verify
+        assertThat(actual, is(GIVEN));
+        assertThat(cis.read(), is(-1));
+        assertThat(cis.read(new byte[1], 0, 1), is(-1));
+    }
+
+    @Test
+    public void transferTo() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        // act
+        cis.read();
+        cis.transferTo(8, Channels.newChannel(baos));
+
+        // verify
+        assertThat(baos.toByteArray(), is(new byte[]{0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09}));
+        assertThat(cis.read(), is(0x0A));
+    }
+
+    @Test
+    public void transferToFileChannel() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+        Path path = temporaryFolder.newFile().toPath();
+
+        // act
+        cis.read();
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            cis.transferTo(8, fileChannel);
+
+            // verify
+            assertThat(fileChannel.position(), is(8L));
+        }
+        assertThat(Files.readAllBytes(path), is(new byte[]{0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09}));
+        assertThat(cis.read(), is(0x0A));
+    }
+
+    @Test(expected = EOFException.class)
+    public void transferToFileChannelBeyondEnd() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+
+        // act
+        try (FileChannel fileChannel = FileChannel.open(temporaryFolder.newFile().toPath(), StandardOpenOption.WRITE)) {
+            cis.transferTo(GIVEN.length + 1, fileChannel);
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void transferToBeyondEnd() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+
+        // act
+        cis.transferTo(GIVEN.length + 1, Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void readFullyIntoBuffer() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+        ByteBuffer dst = ByteBuffer.allocateDirect(16);
+
+        // act
+        cis.read();
+        cis.readFully(dst, 8);
+
+        // verify
+        assertThat(dst.position(), is(8));
+        assertThat(dst.limit(), is(16));
+        dst.flip();
+        byte[] actual = new byte[8];
+        dst.get(actual);
+        assertThat(actual, is(new byte[]{0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09}));
+        assertThat(cis.read(), is(0x0A));
+    }
+
+    @Test(expected = EOFException.class)
+    public void readFullyBeyondEnd() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+
+        // act
+        cis.readFully(ByteBuffer.allocate(16), GIVEN.length + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readFullyMoreThanRemaining() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+
+        // act
+        cis.readFully(ByteBuffer.allocate(4), 5);
+    }
+
+    @Test
+    public void closeReleasesBuffer() throws IOException {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(4, 1);
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), pool);
+
+        // act
+        cis.close();
+        cis.close();
+
+        // verify
+        assertThat(pool.pooledCount(), is(1));
+    }
+
+    @Test(expected = ClosedChannelException.class)
+    public void readAfterClose() throws IOException {
+        // given
+        ChannelInputStream cis = new ChannelInputStream(channel(GIVEN), new DirectBufferPool(4, 1));
+        cis.close();
+
+        // act
+        cis.read();
+    }
+}
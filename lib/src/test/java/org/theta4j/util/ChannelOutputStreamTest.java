@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class ChannelOutputStreamTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final byte[] GIVEN = new byte[]{0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A};
+
+    @Test(expected = NullPointerException.class)
+    public void withNullChannel() {
+        // act
+        new ChannelOutputStream(null, new DirectBufferPool(4, 1));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void withNullPool() {
+        // act
+        new ChannelOutputStream(Channels.newChannel(new ByteArrayOutputStream()), null);
+    }
+
+    @Test
+    public void bufferedUntilFlush() throws IOException {
+        // given
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(baos), new DirectBufferPool(16, 1));
+
+        // act
+        cos.write(GIVEN[0]);
+        cos.write(GIVEN, 1, GIVEN.length - 1);
+
+        // verify
+        assertThat(baos.size(), is(0));
+        cos.flush();
+        assertThat(baos.toByteArray(), is(GIVEN));
+    }
+
+    @Test
+    public void writeLargerThanBuffer() throws IOException {
+        // given
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(baos), new DirectBufferPool(4, 1));
+
+        // act
+        cos.write(GIVEN);
+        cos.flush();
+
+        // verify
+        assertThat(baos.toByteArray(), is(GIVEN));
+    }
+
+    @Test
+    public void transferFromChannel() throws IOException {
+        // given
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(baos), new DirectBufferPool(4, 1));
+
+        // act
+        cos.write(0x00);
+        cos.transferFrom(Channels.newChannel(new ByteArrayInputStream(GIVEN)), GIVEN.length - 1);
+        cos.flush();
+
+        // verify
+        assertThat(baos.toByteArray(), is(new byte[]{0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09}));
+    }
+
+    @Test
+    public void transferFromFileChannel() throws IOException {
+        // given
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(baos), new DirectBufferPool(4, 1));
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, GIVEN);
+
+        // act
+        cos.write(0x00);
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            fileChannel.position(1);
+            cos.transferFrom(fileChannel, 8);
+
+            // verify
+            assertThat(fileChannel.position(), is(9L));
+        }
+        cos.flush();
+        assertThat(baos.toByteArray(), is(new byte[]{0x00, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09}));
+    }
+
+    @Test(expected = EOFException.class)
+    public void transferFromChannelBeyondEnd() throws IOException {
+        // given
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(new ByteArrayOutputStream()), new DirectBufferPool(4, 1));
+
+        // act
+        cos.transferFrom(Channels.newChannel(new ByteArrayInputStream(GIVEN)), GIVEN.length + 1);
+    }
+
+    @Test(expected = EOFException.class)
+    public void transferFromFileChannelBeyondEnd() throws IOException {
+        // given
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(new ByteArrayOutputStream()), new DirectBufferPool(4, 1));
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, GIVEN);
+
+        // act
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            cos.transferFrom(fileChannel, GIVEN.length + 1);
+        }
+    }
+
+    @Test
+    public void closeReleasesBuffer() throws IOException {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(4, 1);
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(new ByteArrayOutputStream()), pool);
+
+        // act
+        cos.close();
+        cos.close();
+
+        // verify
+        assertThat(pool.pooledCount(), is(1));
+    }
+
+    @Test(expected = ClosedChannelException.class)
+    public void writeAfterClose() throws IOException {
+        // given
+        ChannelOutputStream cos = new ChannelOutputStream(Channels.newChannel(new ByteArrayOutputStream()), new DirectBufferPool(4, 1));
+        cos.close();
+
+        // act
+        cos.write(0);
+    }
+}
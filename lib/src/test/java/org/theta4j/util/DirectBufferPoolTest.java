@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DirectBufferPoolTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void withZeroBufferSize() {
+        // act
+        new DirectBufferPool(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeMaxPooled() {
+        // act
+        new DirectBufferPool(1, -1);
+    }
+
+    @Test
+    public void acquire() {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(16, 1);
+
+        // act
+        ByteBuffer actual = pool.acquire();
+
+        // verify
+        assertTrue(actual.isDirect());
+        assertThat(actual.capacity(), is(16));
+        assertThat(actual.position(), is(0));
+        assertThat(actual.limit(), is(16));
+    }
+
+    @Test
+    public void reuseReleasedBuffer() {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(16, 1);
+        ByteBuffer given = pool.acquire();
+        given.put((byte) 1).flip();
+
+        // act
+        pool.release(given);
+        ByteBuffer actual = pool.acquire();
+
+        // verify
+        assertThat(actual, is(sameInstance(given)));
+        assertThat(actual.position(), is(0));
+        assertThat(actual.limit(), is(16));
+        assertThat(pool.pooledCount(), is(0));
+    }
+
+    @Test
+    public void dropWhenFull() {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(16, 1);
+        ByteBuffer given1 = pool.acquire();
+        ByteBuffer given2 = pool.acquire();
+
+        // act
+        pool.release(given1);
+        pool.release(given2);
+
+        // verify
+        assertThat(pool.pooledCount(), is(1));
+        assertThat(pool.acquire(), is(sameInstance(given1)));
+    }
+
+    @Test
+    public void acquireWithSize() {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(16, 1);
+
+        // act
+        ByteBuffer actual = pool.acquire(10);
+
+        // verify
+        assertThat(actual.capacity(), is(16));
+        assertThat(actual.limit(), is(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void acquireLargerThanBufferSize() {
+        // act
+        new DirectBufferPool(16, 1).acquire(17);
+    }
+
+    @Test
+    public void pollEmpty() {
+        // act
+        ByteBuffer actual = new DirectBufferPool(16, 1).poll();
+
+        // verify
+        assertNull(actual);
+    }
+
+    @Test
+    public void offer() {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(16, 1);
+
+        // act
+        boolean actual1 = pool.offer(ByteBuffer.allocateDirect(16));
+        boolean actual2 = pool.offer(ByteBuffer.allocateDirect(16));
+
+        // verify
+        assertTrue(actual1);
+        assertFalse(actual2);
+        assertThat(pool.pooledCount(), is(1));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void releaseNull() {
+        // act
+        new DirectBufferPool(16, 1).release(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void releaseHeapBuffer() {
+        // act
+        new DirectBufferPool(16, 1).release(ByteBuffer.allocate(16));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void releaseOtherCapacity() {
+        // act
+        new DirectBufferPool(16, 1).release(ByteBuffer.allocateDirect(8));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2015 theta4j project
+ */
+
+package org.theta4j.util;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+import org.theta4j.TestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Enclosed.class)
+public class IOUtilsTest {
+    public static class Design {
+        @Test
+        public void isUtilClass() throws Throwable {
+            assertTrue(TestUtils.isUtilClass(IOUtils.class));
+        }
+    }
+
+    public static class ReadFully {
+        @Test(expected = NullPointerException.class)
+        public void withNullStream() throws IOException {
+            // act
+            IOUtils.readFully(null, new byte[0]);
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void withNullArray() throws IOException {
+            // act
+            IOUtils.readFully(new ByteArrayInputStream(new byte[0]), null);
+        }
+
+        @Test(expected = EOFException.class)
+        public void withShortStream() throws IOException {
+            // given
+            InputStream given = new ByteArrayInputStream(new byte[]{0x00, 0x01});
+
+            // act
+            IOUtils.readFully(given, new byte[3]);
+        }
+
+        @Test
+        public void withFragmentedStream() throws IOException {
+            // given
+            InputStream given = new ByteArrayInputStream(new byte[]{0x00, 0x01, 0x02, 0x03}) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    return super.read(b, off, Math.min(len, 1)); // One byte per call
+                }
+            };
+
+            // expected
+            byte[] expected = new byte[]{0x00, 0x01, 0x02};
+
+            // act
+            byte[] actual = new byte[3];
+            IOUtils.readFully(given, actual);
+
+            // verify
+            assertThat(actual, is(expected));
+        }
+
+        @Test
+        public void withOffset() throws IOException {
+            // given
+            InputStream given = new ByteArrayInputStream(new byte[]{0x01, 0x02});
+
+            // expected
+            byte[] expected = new byte[]{0x00, 0x01, 0x02, 0x00};
+
+            // act
+            byte[] actual = new byte[4];
+            IOUtils.readFully(given, actual, 1, 2);
+
+            // verify
+            assertThat(actual, is(expected));
+        }
+    }
+}